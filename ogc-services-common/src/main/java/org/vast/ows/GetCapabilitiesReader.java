@@ -97,6 +97,20 @@ public class GetCapabilitiesReader extends AbstractRequestReader<GetCapabilities
             {
                 request.setSection(argValue);
             }
+            
+            // update sequence
+            else if (argName.equalsIgnoreCase("updateSequence"))
+            {
+                request.setUpdateSequence(argValue);
+            }
+            
+            // accepted formats
+            else if (argName.equalsIgnoreCase("acceptFormats"))
+            {
+                request.getAcceptedFormats().clear();
+                for (String format: argValue.split(","))
+                    request.getAcceptedFormats().add(format);
+            }
         }
 
         checkParameters(request, report, service);
@@ -123,6 +137,17 @@ public class GetCapabilitiesReader extends AbstractRequestReader<GetCapabilities
             String val = dom.getElementValue((Element)versionList.item(i));
             request.getAcceptedVersions().add(val);
         }
+        
+        // update sequence
+        request.setUpdateSequence(dom.getAttributeValue(requestElt, "updateSequence"));
+        
+        // accepted formats
+        NodeList formatList = dom.getElements(requestElt, "AcceptFormats/OutputFormat");
+        for (int i = 0; i < formatList.getLength(); i++)
+        {
+            String val = dom.getElementValue((Element)formatList.item(i));
+            request.getAcceptedFormats().add(val);
+        }
 		
 		checkParameters(request, report, service);
 		report.process();
@@ -22,6 +22,7 @@
 package org.vast.ows;
 
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 
@@ -36,7 +37,9 @@ import java.util.Set;
 public class GetCapabilitiesRequest extends OWSRequest
 {
     protected String section;
+    protected String updateSequence;
     protected Set<String> acceptedVersions;
+    protected Set<String> acceptedFormats;
 	
     
     public GetCapabilitiesRequest()
@@ -44,6 +47,7 @@ public class GetCapabilitiesRequest extends OWSRequest
         service = "OWS";
         operation = "GetCapabilities";
         acceptedVersions = new HashSet<String>();
+        acceptedFormats = new LinkedHashSet<String>();
     }
 
 
@@ -63,4 +67,26 @@ public class GetCapabilitiesRequest extends OWSRequest
     {
         return acceptedVersions;
     }
+
+
+    /**
+     * @return The update sequence of the capabilities already held by
+     * the client, or null if none was specified
+     */
+    public String getUpdateSequence()
+    {
+        return updateSequence;
+    }
+
+
+    public void setUpdateSequence(String updateSequence)
+    {
+        this.updateSequence = updateSequence;
+    }
+
+
+    public Set<String> getAcceptedFormats()
+    {
+        return acceptedFormats;
+    }
 }
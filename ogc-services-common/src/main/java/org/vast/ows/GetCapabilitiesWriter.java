@@ -63,6 +63,17 @@ public class GetCapabilitiesWriter extends AbstractRequestWriter<GetCapabilities
         if (request.getSection() != null)
         	urlBuff.append("&section=" + request.getSection());
         
+        if (request.getUpdateSequence() != null)
+            urlBuff.append("&updateSequence=" + request.getUpdateSequence());
+        
+        if (!request.getAcceptedFormats().isEmpty())
+        {
+            urlBuff.append("&acceptFormats=");
+            for (String format: request.getAcceptedFormats())
+                urlBuff.append(format).append(',');
+            urlBuff.deleteCharAt(urlBuff.length()-1);
+        }
+        
         return urlBuff.toString();
 	}
 	
@@ -76,6 +87,9 @@ public class GetCapabilitiesWriter extends AbstractRequestWriter<GetCapabilities
 		Element rootElt = dom.createElement(request.getOperation());		
 		dom.setAttributeValue(rootElt, "service", request.getService());
 		
+		if (request.getUpdateSequence() != null)
+		    dom.setAttributeValue(rootElt, "updateSequence", request.getUpdateSequence());
+		
 		if (request.getAcceptedVersions().isEmpty())
         {
             if (request.getVersion() != null)
@@ -90,6 +104,9 @@ public class GetCapabilitiesWriter extends AbstractRequestWriter<GetCapabilities
 		if (request.getSection() != null)
 			dom.setElementValue(rootElt, "Sections", request.getSection());
 		
+		for (String format: request.getAcceptedFormats())
+		    dom.setElementValue(rootElt, "AcceptFormats/+OutputFormat", format);
+		
 		return rootElt;
 	}
 }
\ No newline at end of file
@@ -66,6 +66,19 @@ public abstract class OWSLayerCapabilities extends OWSIdentification
     }
 
 
+    /**
+     * Sets the layer ID and notifies the parent capabilities, if any,
+     * so that cached responses and indexes are refreshed
+     */
+    @Override
+    public void setIdentifier(String identifier)
+    {
+        super.setIdentifier(identifier);
+        if (parent != null)
+            parent.markModified();
+    }
+
+
     @Override
     public String toString()
     {
@@ -22,6 +22,7 @@ package org.vast.ows;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.vast.util.ResponsibleParty;
 
 
@@ -63,6 +64,102 @@ public class OWSServiceCapabilities extends OWSResponse
 	protected Map<String, String> getServers;
 	protected Map<String, String> postServers;
 	
+	// incremented when updateSequence or layer list is changed
+	protected final AtomicInteger revision = new AtomicInteger();
+	
+	// index of layers by ID, rebuilt when revision changes
+	protected transient volatile LayerIndex layerIndex;
+	
+	
+	/*
+	 * Layer list exposing its modification count so that changes
+	 * to the list can be detected, and attaching added layers to the
+	 * capabilities so that changes of layer IDs are also detected
+	 */
+	protected static class LayerList<T extends OWSLayerCapabilities> extends ArrayList<T>
+	{
+	    private static final long serialVersionUID = 3163717373598893364L;
+	    final OWSServiceCapabilities owner;
+	    
+	    
+	    LayerList(OWSServiceCapabilities owner, int initialCapacity)
+	    {
+	        super(initialCapacity);
+	        this.owner = owner;
+	    }
+	    
+	    
+	    @Override
+	    public boolean add(T element)
+	    {
+	        owner.attachLayer(element);
+	        return super.add(element);
+	    }
+	    
+	    
+	    @Override
+	    public void add(int index, T element)
+	    {
+	        owner.attachLayer(element);
+	        super.add(index, element);
+	    }
+	    
+	    
+	    @Override
+	    public boolean addAll(Collection<? extends T> elements)
+	    {
+	        elements.forEach(owner::attachLayer);
+	        return super.addAll(elements);
+	    }
+	    
+	    
+	    @Override
+	    public boolean addAll(int index, Collection<? extends T> elements)
+	    {
+	        elements.forEach(owner::attachLayer);
+	        return super.addAll(index, elements);
+	    }
+	    
+	    
+	    @Override
+	    public T set(int index, T element)
+	    {
+	        owner.attachLayer(element);
+	        modCount++;
+	        return super.set(index, element);
+	    }
+	    
+	    
+	    int getModCount()
+	    {
+	        return modCount;
+	    }
+	}
+	
+	
+	/*
+	 * Snapshot of layers indexed by ID
+	 */
+	protected static class LayerIndex
+	{
+	    final long revision;
+	    final Map<String, OWSLayerCapabilities> layersById;
+	    
+	    
+	    LayerIndex(long revision, List<? extends OWSLayerCapabilities> layers)
+	    {
+	        this.revision = revision;
+	        this.layersById = new HashMap<String, OWSLayerCapabilities>(layers.size()*2);
+	        
+	        // keep first layer if IDs are duplicated
+	        for (OWSLayerCapabilities layer: layers)
+	        {
+	            if (layer.getIdentifier() != null)
+	                layersById.putIfAbsent(layer.getIdentifier(), layer);
+	        }
+	    }
+	}
+	
 	
     public OWSServiceCapabilities()
     {
@@ -71,7 +168,7 @@ public class OWSServiceCapabilities extends OWSResponse
     	serviceProvider = new ResponsibleParty();
     	supportedVersions = new ArrayList<String>(1);
     	profiles = new ArrayList<String>(5);
-    	layers = new ArrayList<OWSLayerCapabilities>(10);
+    	layers = new LayerList<OWSLayerCapabilities>(this, 10);
     	exceptionTypes = new ArrayList<String>(1);
     	getServers = new LinkedHashMap<String, String>();
     	postServers = new LinkedHashMap<String, String>();    	
@@ -87,6 +184,7 @@ public class OWSServiceCapabilities extends OWSResponse
 	public void setUpdateSequence(String updateSequence)
 	{
 		this.updateSequence = updateSequence;
+		revision.incrementAndGet();
 	}
 
 
@@ -201,24 +299,69 @@ public class OWSServiceCapabilities extends OWSResponse
 	public void setLayers(List<? extends OWSLayerCapabilities> layers)
 	{
 		this.layers = layers;
+		layers.forEach(this::attachLayer);
+		revision.incrementAndGet();
+	}
+	
+	
+	/*
+	 * Sets these capabilities as parent of the layer if it has none,
+	 * so that layer ID changes mark the capabilities as modified
+	 */
+	protected void attachLayer(OWSLayerCapabilities layer)
+	{
+	    if (layer != null && layer.getParent() == null)
+	        layer.setParent(this);
+	}
+	
+	
+	/**
+	 * Signals that the content of these capabilities has changed in a way
+	 * that cannot be detected automatically, such as when a layer object
+	 * is modified in place
+	 */
+	public void markModified()
+	{
+	    revision.incrementAndGet();
+	}
+	
+	
+	/**
+	 * Gets a number that changes every time the update sequence or the
+	 * layer list is changed, or when {@link #markModified()} is called.<br/>
+	 * This is used to detect when cached responses must be regenerated.
+	 * Additions and removals are only detected on the default layer list
+	 * or by checking the size of layer lists set with {@link #setLayers(List)}.
+	 * @return revision number
+	 */
+	public long getRevision()
+	{
+	    long layersRevision = (layers instanceof LayerList) ? ((LayerList<?>)layers).getModCount() : layers.size();
+	    return ((long)revision.get() << 32) | (layersRevision & 0xFFFFFFFFL);
 	}
 	
 	
 	/**
 	 * Retrieves LayerCapabilities object corresponding to
-	 * this layerId or null if not found 
+	 * this layerId or null if not found.<br/>
+	 * Layers are indexed by ID, and the index is rebuilt when the revision
+	 * changes. Layers added to the layer list are attached to these
+	 * capabilities so that changing their ID also changes the revision.
 	 * @param layerId
 	 * @return layer object with given ID
 	 */
 	public OWSLayerCapabilities getLayer(String layerId)
 	{
-		for (int i=0; i<layers.size(); i++)
-		{
-			OWSLayerCapabilities nextLayer = layers.get(i);
-			String nextId = nextLayer.getIdentifier();
-			if (nextId.equals(layerId))
-				return nextLayer;
-		}
+		LayerIndex index = layerIndex;
+		long currentRevision = getRevision();
+		
+		if (index == null || index.revision != currentRevision)
+		    layerIndex = index = new LayerIndex(currentRevision, layers);
+		
+		// ID may have been changed on a layer attached to other capabilities
+		OWSLayerCapabilities layer = index.layersById.get(layerId);
+		if (layer != null && layerId.equals(layer.getIdentifier()))
+		    return layer;
 		
 		return null;
 	}
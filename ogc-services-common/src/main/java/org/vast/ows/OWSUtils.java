@@ -32,6 +32,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.util.Map;
 import java.util.ServiceLoader;
+import javax.xml.stream.XMLStreamReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.vast.ogc.OGCException;
@@ -206,6 +207,56 @@ public class OWSUtils extends OWSCommonUtils
     }
     
     
+    /**
+     * Helper method to parse any OWS query directly from an XML stream.<br/>
+     * This only works for requests whose reader implements {@link OWSStreamRequestReader}
+     * @param reader XML reader positioned on the start tag of the request element
+     * @param serviceType service type to check if service parameter in query is correct
+     * @return OWS request object filled with all parameters parsed from XML request
+     * @throws OWSException 
+     */
+    public OWSRequest readXMLQuery(XMLStreamReader reader, String serviceType) throws OWSException
+    {
+        // read common params and check that they're present
+        OWSRequest request = new OWSRequest();
+        request.setOperation(reader.getLocalName());
+        request.setService(reader.getAttributeValue(null, "service"));
+        request.setVersion(reader.getAttributeValue(null, "version"));
+        OWSExceptionReport report = new OWSExceptionReport();
+        AbstractRequestReader.checkParameters(request, report, serviceType);
+        report.process();
+        
+        // parse request with appropriate reader
+        String spec = request.service + " " + request.operation + " v" + request.version;
+        try
+        {
+            Object reqReader = OGCRegistry.createReader(request.service, request.operation, request.version);
+            if (!(reqReader instanceof OWSStreamRequestReader))
+                throw new OWSException("No support for streaming " + spec);
+            
+            @SuppressWarnings("unchecked")
+            OWSStreamRequestReader<OWSRequest> streamReader = (OWSStreamRequestReader<OWSRequest>)reqReader;
+            return streamReader.readXMLQuery(reader);
+        }
+        catch (IllegalStateException e)
+        {
+            throw new OWSException(UNSUPPORTED_SPEC_MSG + spec, e);
+        }
+    }
+    
+    
+    /**
+     * Helper method to parse any OWS query directly from an XML stream
+     * @param reader XML reader positioned on the start tag of the request element
+     * @return OWS request object filled with all parameters parsed from XML request
+     * @throws OWSException 
+     */
+    public OWSRequest readXMLQuery(XMLStreamReader reader) throws OWSException
+    {
+        return readXMLQuery(reader, null);
+    }
+    
+    
     /**
      * Helper method to parse any OWS query directly from an InputStream
      * @param is input stream containing the XML document to read from
@@ -0,0 +1,405 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.ows.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.vast.ows.GetCapabilitiesRequest;
+import org.vast.ows.OWSException;
+import org.vast.ows.OWSServiceCapabilities;
+import org.vast.ows.OWSUtils;
+import org.vast.util.Asserts;
+import org.vast.xml.XMLImplFinder;
+
+
+/**
+ * <p>
+ * Cache of serialized GetCapabilities responses, so that large capabilities
+ * documents don't have to be regenerated for every request.<br/>
+ * One response is cached per combination of version, sections, accepted
+ * formats and SOAP version, and is generated only once even when several
+ * requests are received concurrently. Responses are regenerated when the
+ * revision of the capabilities object changes (see
+ * {@link OWSServiceCapabilities#getRevision()}).<br/>
+ * Sections and formats sent by the client are checked against the known
+ * sections and supported formats before being used as cache key, and the
+ * number of cached responses is limited, so that clients cannot make the
+ * cache grow without bound.
+ * </p><p>
+ * When the client sends the update sequence of the current capabilities,
+ * the minimal response defined by OWS Common is returned instead, i.e. only
+ * the root element with its version and updateSequence attributes. This
+ * response is built directly without generating the full document.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class CapabilitiesCache
+{
+    public static final int MAX_ENTRIES = 64;
+    public static final String ALL_SECTIONS = "All";
+    protected static final Set<String> KNOWN_SECTIONS = Set.of(
+        "ServiceIdentification", "ServiceProvider", "OperationsMetadata",
+        "Contents", "FilterCapabilities", "Filter_Capabilities", ALL_SECTIONS);
+    protected static final List<String> SUPPORTED_FORMATS = List.of(
+        OWSUtils.XML_MIME_TYPE, OWSUtils.XML_MIME_TYPE2);
+
+    protected final OWSServiceCapabilities capabilities;
+    protected final CapabilitiesSerializer serializer;
+    protected final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+    protected volatile long cachedRevision = -1;
+
+
+    /**
+     * Interface for writing the full capabilities document in response
+     * to a given request
+     */
+    @FunctionalInterface
+    public interface CapabilitiesSerializer
+    {
+        /**
+         * @param os output stream to write to
+         * @param caps capabilities to serialize
+         * @param version version of the response
+         * @param request request providing the sections, formats and SOAP
+         * version to use. Other request parameters must not be used since
+         * the response is shared by all requests with the same cache key.
+         * @throws IOException if the response cannot be written
+         * @throws OWSException if the response cannot be generated
+         */
+        void write(OutputStream os, OWSServiceCapabilities caps, String version, GetCapabilitiesRequest request) throws IOException, OWSException;
+    }
+
+
+    /*
+     * Responses generated for one cache key and one capabilities revision
+     */
+    protected class CacheEntry
+    {
+        final long revision;
+        final FutureTask<byte[]> task;
+        byte[] gzipData;
+
+        CacheEntry(long revision, String version, GetCapabilitiesRequest request)
+        {
+            this.revision = revision;
+            this.task = new FutureTask<>(() -> serialize(version, request));
+        }
+
+        byte[] getData() throws OWSException
+        {
+            // only the first caller generates the response, others wait for it
+            task.run();
+
+            try
+            {
+                return task.get();
+            }
+            catch (ExecutionException e)
+            {
+                if (e.getCause() instanceof OWSException)
+                    throw (OWSException)e.getCause();
+                throw new OWSException("Error while generating capabilities", e.getCause());
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new OWSException("Interrupted while generating capabilities", e);
+            }
+        }
+
+        synchronized byte[] getGzipData() throws OWSException
+        {
+            if (gzipData == null)
+                gzipData = compress(getData());
+            return gzipData;
+        }
+    }
+
+
+    /**
+     * Creates a cache generating responses with the XML writers registered
+     * for the service type of the capabilities
+     * @param capabilities capabilities to serve
+     */
+    public CapabilitiesCache(OWSServiceCapabilities capabilities)
+    {
+        this(capabilities, new OWSUtils());
+    }
+
+
+    protected CapabilitiesCache(OWSServiceCapabilities capabilities, OWSUtils owsUtils)
+    {
+        this(capabilities, (os, caps, version, request) ->
+            owsUtils.writeXMLResponse(os, caps, version, request.getSoapVersion()));
+    }
+
+
+    /**
+     * Creates a cache generating responses with a custom serializer
+     * @param capabilities capabilities to serve
+     * @param serializer serializer used to generate full responses
+     */
+    public CapabilitiesCache(OWSServiceCapabilities capabilities, CapabilitiesSerializer serializer)
+    {
+        this.capabilities = Asserts.checkNotNull(capabilities, OWSServiceCapabilities.class);
+        this.serializer = Asserts.checkNotNull(serializer, CapabilitiesSerializer.class);
+    }
+
+
+    /**
+     * Gets the serialized response to the given request, generating it
+     * only if it is not already cached for the current capabilities revision
+     * @param request GetCapabilities request
+     * @return serialized response (must not be modified)
+     * @throws OWSException if the response cannot be generated
+     */
+    public byte[] getResponse(GetCapabilitiesRequest request) throws OWSException
+    {
+        String version = getVersion(request);
+        String updateSequence = capabilities.getUpdateSequence();
+        if (isCurrent(updateSequence, request))
+            return buildCurrentResponse(version, updateSequence, request.getSoapVersion());
+        return getEntry(version, request).getData();
+    }
+
+
+    /**
+     * Gets the gzip compressed response to the given request. The compressed
+     * bytes are cached along with the uncompressed response.
+     * @param request GetCapabilities request
+     * @return serialized response compressed with gzip (must not be modified)
+     * @throws OWSException if the response cannot be generated
+     */
+    public byte[] getCompressedResponse(GetCapabilitiesRequest request) throws OWSException
+    {
+        String version = getVersion(request);
+        String updateSequence = capabilities.getUpdateSequence();
+        if (isCurrent(updateSequence, request))
+            return compress(buildCurrentResponse(version, updateSequence, request.getSoapVersion()));
+        return getEntry(version, request).getGzipData();
+    }
+
+
+    /**
+     * Removes all cached responses
+     */
+    public void clear()
+    {
+        entries.clear();
+    }
+
+
+    /**
+     * @return the number of cached responses
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+
+    /**
+     * @param request GetCapabilities request
+     * @return true if the client indicated that its copy of the
+     * capabilities is up to date
+     */
+    public boolean isCurrent(GetCapabilitiesRequest request)
+    {
+        return isCurrent(capabilities.getUpdateSequence(), request);
+    }
+
+
+    protected boolean isCurrent(String updateSequence, GetCapabilitiesRequest request)
+    {
+        return updateSequence != null && updateSequence.equals(request.getUpdateSequence());
+    }
+
+
+    protected String getVersion(GetCapabilitiesRequest request)
+    {
+        return request.getVersion() != null ? request.getVersion() : capabilities.getVersion();
+    }
+
+
+    protected CacheEntry getEntry(String version, GetCapabilitiesRequest request) throws OWSException
+    {
+        String key = getCacheKey(version, request);
+        long revision = capabilities.getRevision();
+
+        // responses for older revisions are never used again
+        if (revision != cachedRevision)
+        {
+            entries.clear();
+            cachedRevision = revision;
+        }
+
+        // safety net in case the number of cache keys is still too large
+        if (entries.size() >= MAX_ENTRIES && !entries.containsKey(key))
+            entries.clear();
+
+        CacheEntry entry = entries.compute(key, (k, e) ->
+            (e != null && e.revision == revision) ? e : new CacheEntry(revision, version, request));
+
+        try
+        {
+            entry.getData();
+            return entry;
+        }
+        catch (OWSException e)
+        {
+            // so generation is attempted again on next request
+            entries.remove(key, entry);
+            throw e;
+        }
+    }
+
+
+    protected String getCacheKey(String version, GetCapabilitiesRequest request)
+    {
+        StringBuilder key = new StringBuilder();
+        key.append(version).append('|');
+        key.append(request.getSoapVersion()).append('|');
+
+        key.append(getSections(request)).append('|');
+        key.append(getFormat(request));
+        return key.toString();
+    }
+
+
+    /*
+     * Gets the sorted list of known sections requested by the client,
+     * ignoring unknown section names
+     */
+    protected String getSections(GetCapabilitiesRequest request)
+    {
+        if (request.getSection() == null)
+            return ALL_SECTIONS;
+
+        TreeSet<String> sections = new TreeSet<>();
+        for (String section: request.getSection().split(","))
+        {
+            section = section.trim();
+            if (KNOWN_SECTIONS.contains(section))
+                sections.add(section);
+        }
+
+        if (sections.isEmpty() || sections.contains(ALL_SECTIONS))
+            return ALL_SECTIONS;
+        return String.join(",", sections);
+    }
+
+
+    /*
+     * Gets the first supported format accepted by the client,
+     * or the default XML format
+     */
+    protected String getFormat(GetCapabilitiesRequest request)
+    {
+        for (String format: request.getAcceptedFormats())
+        {
+            if (SUPPORTED_FORMATS.contains(format))
+                return format;
+        }
+
+        return SUPPORTED_FORMATS.get(0);
+    }
+
+
+    protected byte[] serialize(String version, GetCapabilitiesRequest request) throws IOException, OWSException
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream(64*1024);
+        serializer.write(os, capabilities, version, request);
+        return os.toByteArray();
+    }
+
+
+    protected byte[] compress(byte[] data) throws OWSException
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(os))
+        {
+            gzip.write(data);
+        }
+        catch (IOException e)
+        {
+            throw new OWSException("Error while compressing capabilities", e);
+        }
+
+        return os.toByteArray();
+    }
+
+
+    /*
+     * Builds the minimal response containing only the root element with its
+     * version and updateSequence attributes, wrapped in a SOAP envelope if needed
+     */
+    protected byte[] buildCurrentResponse(String version, String updateSequence, String soapVersion) throws OWSException
+    {
+        try
+        {
+            ByteArrayOutputStream os = new ByteArrayOutputStream(512);
+            XMLStreamWriter writer = XMLImplFinder.getStaxOutputFactory().createXMLStreamWriter(os, StandardCharsets.UTF_8.name());
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+
+            if (soapVersion != null)
+            {
+                writer.writeStartElement("soap", "Envelope", soapVersion);
+                writer.writeNamespace("soap", soapVersion);
+                writer.writeStartElement("soap", "Body", soapVersion);
+            }
+
+            String serviceType = capabilities.getService();
+            String prefix = serviceType.toLowerCase();
+            String nsUri = OWSUtils.getNamespaceURI(serviceType, version);
+            writer.writeStartElement(prefix, "Capabilities", nsUri);
+            writer.writeNamespace(prefix, nsUri);
+            writer.writeAttribute("version", normalizeVersionString(version));
+            writer.writeAttribute("updateSequence", updateSequence);
+
+            // closes all open elements
+            writer.writeEndDocument();
+            writer.close();
+            return os.toByteArray();
+        }
+        catch (XMLStreamException e)
+        {
+            throw new OWSException("Error while generating capabilities", e);
+        }
+    }
+
+
+    protected String normalizeVersionString(String version)
+    {
+        // make sure version number always has 3 parts
+        while (version.split("\\.").length < 3)
+            version += ".0";
+
+        return version;
+    }
+}
@@ -23,23 +23,32 @@ package org.vast.ows.server;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.security.AccessControlException;
 import java.util.concurrent.CompletionException;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.vast.ows.GetCapabilitiesRequest;
 import org.vast.ows.OWSException;
 import org.vast.ows.OWSRequest;
 import org.vast.ows.OWSResponse;
+import org.vast.ows.OWSStreamRequestReader;
 import org.vast.ows.OWSUtils;
 import org.vast.ows.util.PostRequestFilter;
 import org.vast.xml.DOMHelper;
+import org.vast.xml.XMLImplFinder;
 import org.w3c.dom.Element;
 
 
@@ -64,6 +73,7 @@ public abstract class OWSServlet extends HttpServlet
     protected static final String INTERNAL_SEND_ERROR_MSG = "Cannot send error";
     protected static final String SEND_RESPONSE_ERROR_MSG = "Cannot write response";
     protected static final String UNSUPPORTED_MSG = " operation is not supported on this server";
+    protected static final int XML_PEEK_SIZE = 8192;
     
     protected final transient Logger log;
     protected final transient OWSUtils owsUtils;
@@ -237,19 +247,45 @@ public abstract class OWSServlet extends HttpServlet
             if (isXmlRequest)
             {
                 InputStream xmlRequest = new PostRequestFilter(new BufferedInputStream(req.getInputStream()));
-                dom = new DOMHelper(xmlRequest, false);
-                Element requestElt = dom.getBaseElement();
                 
-                // detect and skip SOAP envelope if present
-                soapVersion = getSoapVersion(dom);
-                if (soapVersion != null)
-                    requestElt = getSoapBody(dom);
+                // peek at request name to decide if we can stream it
+                QName requestName = null;
+                if (hasStreamingRequests())
+                {
+                    byte[] header = new byte[XML_PEEK_SIZE];
+                    int headerLength = xmlRequest.readNBytes(header, 0, header.length);
+                    requestName = peekRequestName(header, headerLength);
+                    xmlRequest = new SequenceInputStream(new ByteArrayInputStream(header, 0, headerLength), xmlRequest);
+                }
                 
-                // log request
-                logRequest(req, requestElt.getLocalName());
+                if (requestName != null && isStreamingRequest(requestName))
+                {
+                    XMLStreamReader reader = XMLImplFinder.getStaxInputFactory().createXMLStreamReader(xmlRequest);
+                    soapVersion = skipToRequestElement(reader);
+                    
+                    // log request
+                    logRequest(req, reader.getLocalName());
+                    
+                    // parse request header, leaving the rest of the stream to the handler
+                    owsRequest = parseRequest(reader);
+                }
+                else
+                {
+                    dom = new DOMHelper(xmlRequest, false);
+                    Element requestElt = dom.getBaseElement();
+                    
+                    // detect and skip SOAP envelope if present
+                    soapVersion = getSoapVersion(dom);
+                    if (soapVersion != null)
+                        requestElt = getSoapBody(dom);
+                    
+                    // log request
+                    logRequest(req, requestElt.getLocalName());
+                    
+                    // parse request
+                    owsRequest = parseRequest(dom, requestElt);
+                }
                 
-                // parse request
-                owsRequest = parseRequest(dom, requestElt);
                 owsRequest.setSoapVersion(soapVersion);
                 owsRequest.setPostServer(requestURL);
             }
@@ -297,6 +333,114 @@ public abstract class OWSServlet extends HttpServlet
     }
     
     
+    /**
+     * Checks if this servlet may stream some requests. When false, XML requests
+     * are always parsed from a DOM tree without peeking at the request name.<br/>
+     * Subclasses overriding {@link #isStreamingRequest(QName)} must also override
+     * this method.
+     * @return true if {@link #isStreamingRequest(QName)} can return true
+     */
+    protected boolean hasStreamingRequests()
+    {
+        return false;
+    }
+    
+    
+    /**
+     * Checks if the request with the given name should be parsed directly
+     * from the XML stream rather than from a DOM tree. This is useful for
+     * requests carrying large inline payloads.<br/>
+     * Streamed requests are parsed with {@link #parseRequest(XMLStreamReader)}
+     * @param requestName qualified name of the request element
+     * @return true if the request should be streamed, false otherwise
+     */
+    protected boolean isStreamingRequest(QName requestName)
+    {
+        return false;
+    }
+    
+    
+    /**
+     * Parses a request directly from the XML stream. This is used for requests
+     * accepted by {@link #isStreamingRequest(QName)} and the reader registered
+     * for the request must implement {@link OWSStreamRequestReader}.
+     * @param reader XML reader positioned on the start tag of the request element.
+     * It can be kept by the request so the rest of the payload is read while
+     * the request is handled.
+     * @return the parsed request
+     * @throws OWSException
+     */
+    protected OWSRequest parseRequest(XMLStreamReader reader) throws OWSException
+    {
+        return owsUtils.readXMLQuery(reader);
+    }
+    
+    
+    /*
+     * Reads the request name from the first bytes of the request,
+     * or returns null if it could not be found
+     */
+    protected QName peekRequestName(byte[] header, int length)
+    {
+        XMLStreamReader reader = null;
+        
+        try
+        {
+            reader = XMLImplFinder.getStaxInputFactory().createXMLStreamReader(new ByteArrayInputStream(header, 0, length));
+            skipToRequestElement(reader);
+            return reader.getName();
+        }
+        catch (XMLStreamException e)
+        {
+            // request element is not in the first bytes or XML is invalid
+            return null;
+        }
+        finally
+        {
+            try
+            {
+                if (reader != null)
+                    reader.close();
+            }
+            catch (XMLStreamException e)
+            {
+                // ignore
+            }
+        }
+    }
+    
+    
+    /*
+     * Moves the reader to the request element, skipping the SOAP envelope if present
+     * and returning the SOAP version, or null if there is no envelope
+     */
+    protected String skipToRequestElement(XMLStreamReader reader) throws XMLStreamException
+    {
+        reader.nextTag();
+        String nsUri = reader.getNamespaceURI();
+        if (!OWSUtils.SOAP11_URI.equals(nsUri) && !OWSUtils.SOAP12_URI.equals(nsUri))
+            return null;
+        
+        // skip SOAP header
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT && !"Body".equals(reader.getLocalName()))
+        {
+            for (int depth = 1; depth > 0; )
+            {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT)
+                    depth++;
+                else if (event == XMLStreamConstants.END_ELEMENT)
+                    depth--;
+            }
+        }
+        
+        if (!reader.isStartElement() || reader.nextTag() != XMLStreamConstants.START_ELEMENT)
+            throw new XMLStreamException("No request in SOAP body");
+        
+        return nsUri;
+    }
+    
+    
     protected String getSoapVersion(DOMHelper dom)
     {
         Element requestElt = dom.getBaseElement();
@@ -381,6 +525,81 @@ public abstract class OWSServlet extends HttpServlet
     }
     
     
+    /**
+     * Sends a GetCapabilities response obtained from the given cache.<br/>
+     * The response is compressed if the client accepts gzip encoding.
+     * @param request GetCapabilities request
+     * @param capsCache cache providing serialized responses
+     * @throws IOException if the response cannot be written
+     * @throws OWSException if the response cannot be generated
+     */
+    protected void sendResponse(GetCapabilitiesRequest request, CapabilitiesCache capsCache) throws IOException, OWSException
+    {
+        HttpServletRequest httpReq = request.getHttpRequest();
+        HttpServletResponse httpResp = request.getHttpResponse();
+        
+        String acceptEncoding = httpReq != null ? httpReq.getHeader("Accept-Encoding") : null;
+        boolean gzip = httpResp != null && acceptsGzip(acceptEncoding);
+        
+        // so caches don't serve compressed responses to other clients
+        if (httpResp != null)
+            httpResp.addHeader("Vary", "Accept-Encoding");
+        
+        byte[] data;
+        if (gzip)
+        {
+            data = capsCache.getCompressedResponse(request);
+            httpResp.setHeader("Content-Encoding", "gzip");
+        }
+        else
+            data = capsCache.getResponse(request);
+        
+        OutputStream os = request.getResponseStream();
+        os.write(data);
+        os.flush();
+    }
+    
+    
+    /**
+     * Checks if gzip is an acceptable content coding according to the
+     * Accept-Encoding header, taking quality values into account
+     * @param acceptEncoding value of Accept-Encoding header (can be null)
+     * @return true if the response can be compressed with gzip
+     */
+    protected boolean acceptsGzip(String acceptEncoding)
+    {
+        if (acceptEncoding == null)
+            return false;
+        
+        double gzipQ = -1;
+        double anyQ = -1;
+        for (String item: acceptEncoding.split(","))
+        {
+            String[] parts = item.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++)
+            {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q="))
+                {
+                    try { q = Double.parseDouble(param.substring(2).trim()); }
+                    catch (NumberFormatException e) { q = 0.0; }
+                }
+            }
+            
+            if ("gzip".equals(coding) || "x-gzip".equals(coding))
+                gzipQ = Math.max(gzipQ, q);
+            else if ("*".equals(coding))
+                anyQ = q;
+        }
+        
+        // explicit gzip entry takes precedence over wildcard
+        return gzipQ >= 0 ? gzipQ > 0 : anyQ > 0;
+    }
+    
+    
     /*
      * Log request details
      */
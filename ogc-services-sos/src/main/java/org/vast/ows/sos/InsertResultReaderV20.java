@@ -18,17 +18,23 @@ import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import net.opengis.swe.v20.DataComponent;
 import net.opengis.swe.v20.DataEncoding;
 import org.vast.xml.DOMHelper;
 import org.w3c.dom.Element;
 import org.vast.ows.OWSException;
 import org.vast.ows.OWSExceptionReport;
+import org.vast.ows.OWSStreamRequestReader;
 import org.vast.ows.OWSUtils;
 import org.vast.ows.SweEncodedMessageProcessor;
 import org.vast.ows.swe.SWERequestReader;
+import org.vast.ows.swe.SWESUtils;
 import org.vast.swe.DataSourceDOM;
 import org.vast.swe.DataSourceURI;
+import org.vast.swe.DataSourceXMLStream;
 import org.vast.swe.SWEData;
 
 
@@ -41,7 +47,7 @@ import org.vast.swe.SWEData;
  * @author Alex Robin
  * @date Feb 2, 2014
  * */
-public class InsertResultReaderV20 extends SWERequestReader<InsertResultRequest> implements SweEncodedMessageProcessor
+public class InsertResultReaderV20 extends SWERequestReader<InsertResultRequest> implements OWSStreamRequestReader<InsertResultRequest>, SweEncodedMessageProcessor
 {
     protected DataComponent resultStructure;
     protected DataEncoding resultEncoding;
@@ -136,6 +142,76 @@ public class InsertResultReaderV20 extends SWERequestReader<InsertResultRequest>
 	}
     
     
+    /**
+     * Reads an InsertResult request directly from an XML stream.<br/>
+     * Reading stops on the resultValues element. Unless the result structure
+     * and encoding were provided, values are not parsed but exposed as a
+     * {@link DataSourceXMLStream}, so the handler can parse them record by record
+     * while the payload is being received.
+     * @param reader XML reader positioned on the request start tag
+     * @return the parsed request
+     * @throws OWSException
+     */
+    @Override
+    public InsertResultRequest readXMLQuery(XMLStreamReader reader) throws OWSException
+    {
+        OWSExceptionReport report = new OWSExceptionReport(OWSException.VERSION_11);
+        InsertResultRequest request = new InsertResultRequest();
+        
+        try
+        {
+            // common attributes
+            request.setOperation(reader.getLocalName());
+            request.setService(reader.getAttributeValue(null, "service"));
+            request.setVersion(reader.getAttributeValue(null, "version"));
+            
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+            {
+                String eltName = reader.getLocalName();
+                
+                if ("extension".equals(eltName))
+                    SWESUtils.readXMLExtension(reader, request.getExtensions());
+                
+                else if ("template".equals(eltName))
+                    request.setTemplateId(reader.getElementText().trim());
+                
+                // result values are always last
+                else if ("resultValues".equals(eltName))
+                {
+                    DataSourceXMLStream xmlSrc = new DataSourceXMLStream(reader);
+                    
+                    if (resultStructure != null && resultEncoding != null)
+                    {
+                        SWEData sweData = new SWEData();
+                        sweData.setElementType(resultStructure);
+                        sweData.setEncoding(resultEncoding);
+                        sweData.parseData(xmlSrc);
+                        request.setResultData(sweData);
+                    }
+                    else
+                        request.setResultDataSource(xmlSrc);
+                    
+                    break;
+                }
+                
+                else
+                    throw new SOSException(OWSException.invalid_request_code, eltName, null, "Unexpected element " + eltName);
+            }
+        }
+        catch (XMLStreamException e)
+        {
+            throw new SOSException("Invalid XML request", e);
+        }
+        catch (IOException e)
+        {
+            throw new SOSException(OWSException.invalid_param_code, "resultValues", e);
+        }
+        
+        this.checkParameters(request, report);
+        return request;
+    }
+    
+    
     /**
      * Checks that InsertResult mandatory parameters are present
      * @param request
@@ -0,0 +1,333 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.ows.sos;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.vast.util.Bbox;
+import org.vast.util.TimeExtent;
+
+
+/**
+ * <p>
+ * Read-only index of SOS offerings allowing fast lookup by offering ID,
+ * procedure and observed property, as well as spatial and temporal
+ * selection using R-trees built over the observed areas and phenomenon
+ * time periods of all offerings.
+ * </p><p>
+ * The index is a snapshot of the offering list at the time it was built.
+ * Use {@link SOSServiceCapabilities#getOfferingIndex()} to get an index
+ * that is rebuilt when the capabilities are modified, including when the
+ * ID of an offering attached to the capabilities is changed.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class SOSOfferingIndex
+{
+    // bound used for open periods, larger than any instant but with a finite center
+    static final double UNBOUNDED_TIME = 1e18;
+
+    protected final long revision;
+    protected final List<SOSOfferingCapabilities> offerings;
+    protected final Map<String, SOSOfferingCapabilities> offeringsById;
+    protected final Map<String, Set<SOSOfferingCapabilities>> offeringsByProcedure;
+    protected final Map<String, Set<SOSOfferingCapabilities>> offeringsByObservable;
+    protected final STRtree spatialIndex;
+    protected final STRtree temporalIndex;
+
+
+    /**
+     * Builds the index for the given list of offerings
+     * @param offerings list of offerings
+     */
+    public SOSOfferingIndex(List<SOSOfferingCapabilities> offerings)
+    {
+        this(offerings, 0);
+    }
+
+
+    protected SOSOfferingIndex(List<SOSOfferingCapabilities> offerings, long revision)
+    {
+        this.revision = revision;
+        this.offerings = new ArrayList<>(offerings);
+        this.offeringsById = new HashMap<>(offerings.size()*2);
+        this.offeringsByProcedure = new HashMap<>(offerings.size()*2);
+        this.offeringsByObservable = new HashMap<>();
+        this.spatialIndex = new STRtree();
+        this.temporalIndex = new STRtree();
+
+        for (SOSOfferingCapabilities offering: offerings)
+        {
+            if (offering.getIdentifier() != null)
+                offeringsById.putIfAbsent(offering.getIdentifier(), offering);
+
+            for (String procUID: offering.getProcedures())
+                offeringsByProcedure.computeIfAbsent(procUID, k -> new LinkedHashSet<>()).add(offering);
+
+            for (String obsProp: offering.getObservableProperties())
+                offeringsByObservable.computeIfAbsent(obsProp, k -> new LinkedHashSet<>()).add(offering);
+
+            for (Bbox area: offering.getObservedAreas())
+            {
+                if (!area.isNull())
+                    spatialIndex.insert(new Envelope(area.getMinX(), area.getMaxX(), area.getMinY(), area.getMaxY()), offering);
+            }
+
+            // time periods are indexed as 1D envelopes
+            // bounds set to now are indexed as unbounded since now changes over time
+            TimeExtent phenomenonTime = offering.getPhenomenonTime();
+            if (phenomenonTime != null)
+            {
+                double begin = phenomenonTime.beginsNow() ? -UNBOUNDED_TIME : toDouble(phenomenonTime.begin());
+                double end = phenomenonTime.endsNow() ? UNBOUNDED_TIME : toDouble(phenomenonTime.end());
+                temporalIndex.insert(new Envelope(begin, end, 0, 0), offering);
+            }
+        }
+
+        // build trees now so they are safe to query from several threads
+        spatialIndex.build();
+        temporalIndex.build();
+    }
+
+
+    /**
+     * @param offeringID
+     * @return Offering with the given ID or null if none was found
+     */
+    public SOSOfferingCapabilities getOffering(String offeringID)
+    {
+        SOSOfferingCapabilities offering = offeringsById.get(offeringID);
+        // ignore offerings whose ID was changed since the index was built
+        if (offering != null && offeringID.equals(offering.getIdentifier()))
+            return offering;
+
+        return null;
+    }
+
+
+    /**
+     * @param procedureID
+     * @return Offerings serving data from the given procedure
+     */
+    public Set<SOSOfferingCapabilities> getOfferingsByProcedure(String procedureID)
+    {
+        return unmodifiable(offeringsByProcedure.get(procedureID));
+    }
+
+
+    /**
+     * @param observableURI
+     * @return Offerings providing the given observed property
+     */
+    public Set<SOSOfferingCapabilities> getOfferingsByObservable(String observableURI)
+    {
+        return unmodifiable(offeringsByObservable.get(observableURI));
+    }
+
+
+    /**
+     * @param bbox spatial extent
+     * @return Offerings with at least one observed area intersecting
+     * the given bbox. Offerings without observed area are never selected.
+     */
+    public Set<SOSOfferingCapabilities> getOfferings(Bbox bbox)
+    {
+        Set<SOSOfferingCapabilities> selected = new LinkedHashSet<>();
+        if (bbox.isNull())
+            return selected;
+
+        Envelope env = new Envelope(bbox.getMinX(), bbox.getMaxX(), bbox.getMinY(), bbox.getMaxY());
+        for (Object item: spatialIndex.query(env))
+        {
+            SOSOfferingCapabilities offering = (SOSOfferingCapabilities)item;
+            if (intersects(offering, bbox))
+                selected.add(offering);
+        }
+
+        return selected;
+    }
+
+
+    /**
+     * @param time time period or instant
+     * @return Offerings whose phenomenon time intersects the given time extent.
+     * Offerings without phenomenon time are never selected.
+     */
+    public Set<SOSOfferingCapabilities> getOfferings(TimeExtent time)
+    {
+        Set<SOSOfferingCapabilities> selected = new LinkedHashSet<>();
+
+        Envelope env = new Envelope(toDouble(time.begin()), toDouble(time.end()), 0, 0);
+        for (Object item: temporalIndex.query(env))
+        {
+            SOSOfferingCapabilities offering = (SOSOfferingCapabilities)item;
+            if (intersects(offering, time))
+                selected.add(offering);
+        }
+
+        return selected;
+    }
+
+
+    /**
+     * Selects offerings matching all the given criteria. Null or empty
+     * criteria are ignored.
+     * @param offeringIDs IDs of offerings to select
+     * @param procedureIDs IDs of procedures, at least one of which must be
+     * served by the selected offerings
+     * @param observables URIs of observed properties, at least one of which
+     * must be provided by the selected offerings
+     * @param bbox spatial extent
+     * @param time time period or instant
+     * @return Selected offerings
+     */
+    public Set<SOSOfferingCapabilities> selectOfferings(Collection<String> offeringIDs, Collection<String> procedureIDs,
+        Collection<String> observables, Bbox bbox, TimeExtent time)
+    {
+        Set<SOSOfferingCapabilities> selected = null;
+
+        // start with the most selective criteria
+        if (offeringIDs != null && !offeringIDs.isEmpty())
+        {
+            selected = new LinkedHashSet<>();
+            for (String id: offeringIDs)
+            {
+                SOSOfferingCapabilities offering = getOffering(id);
+                if (offering != null)
+                    selected.add(offering);
+            }
+        }
+
+        if (procedureIDs != null && !procedureIDs.isEmpty())
+            selected = retain(selected, union(offeringsByProcedure, procedureIDs));
+
+        if (observables != null && !observables.isEmpty())
+            selected = retain(selected, union(offeringsByObservable, observables));
+
+        // use R-trees only if other criteria haven't already reduced the selection
+        if (time != null && !time.isAllTimes())
+        {
+            if (selected == null)
+                selected = getOfferings(time);
+            else
+                selected.removeIf(offering -> !intersects(offering, time));
+        }
+
+        if (bbox != null)
+        {
+            if (selected == null)
+                selected = getOfferings(bbox);
+            else
+                selected.removeIf(offering -> !intersects(offering, bbox));
+        }
+
+        if (selected == null)
+            selected = new LinkedHashSet<>(offerings);
+
+        return selected;
+    }
+
+
+    /**
+     * Selects offerings matching the parameters of a GetObservation request
+     * @param request
+     * @return Selected offerings
+     */
+    public Set<SOSOfferingCapabilities> selectOfferings(GetObservationRequest request)
+    {
+        return selectOfferings(request.getOfferings(), request.getProcedures(),
+            request.getObservables(), request.getBbox(), request.getTime());
+    }
+
+
+    /**
+     * Selects offerings matching the parameters of a GetResult request
+     * @param request
+     * @return Selected offerings
+     */
+    public Set<SOSOfferingCapabilities> selectOfferings(GetResultRequest request)
+    {
+        Collection<String> offeringIDs = request.getOffering() != null ? Collections.singleton(request.getOffering()) : null;
+        return selectOfferings(offeringIDs, request.getProcedures(),
+            request.getObservables(), request.getBbox(), request.getTime());
+    }
+
+
+    protected boolean intersects(SOSOfferingCapabilities offering, Bbox bbox)
+    {
+        for (Bbox area: offering.getObservedAreas())
+        {
+            if (area.intersects(bbox))
+                return true;
+        }
+
+        return false;
+    }
+
+
+    protected boolean intersects(SOSOfferingCapabilities offering, TimeExtent time)
+    {
+        TimeExtent phenomenonTime = offering.getPhenomenonTime();
+        // intersection also works with time extents relative to now
+        return phenomenonTime != null && TimeExtent.intersection(phenomenonTime, time) != null;
+    }
+
+
+    protected Set<SOSOfferingCapabilities> union(Map<String, Set<SOSOfferingCapabilities>> index, Collection<String> keys)
+    {
+        Set<SOSOfferingCapabilities> offerings = new LinkedHashSet<>();
+        for (String key: keys)
+        {
+            Set<SOSOfferingCapabilities> matches = index.get(key);
+            if (matches != null)
+                offerings.addAll(matches);
+        }
+
+        return offerings;
+    }
+
+
+    protected Set<SOSOfferingCapabilities> retain(Set<SOSOfferingCapabilities> selected, Set<SOSOfferingCapabilities> matches)
+    {
+        if (selected == null)
+            return matches;
+
+        selected.retainAll(matches);
+        return selected;
+    }
+
+
+    protected Set<SOSOfferingCapabilities> unmodifiable(Set<SOSOfferingCapabilities> offerings)
+    {
+        return offerings != null ? Collections.unmodifiableSet(offerings) : Collections.emptySet();
+    }
+
+
+    protected static double toDouble(Instant t)
+    {
+        return t.getEpochSecond() + t.getNano() / 1e9;
+    }
+}
@@ -51,6 +51,7 @@ public class SOSServiceCapabilities extends OWSServiceCapabilities
     
     SOSInsertionCapabilities insertionCapabilities;
     FilterCapabilities filterCapabilities;
+    transient volatile SOSOfferingIndex offeringIndex;
 	
 	
 	public SOSServiceCapabilities()
@@ -95,5 +96,25 @@ public class SOSServiceCapabilities extends OWSServiceCapabilities
     {
         return (SOSOfferingCapabilities)super.getLayer(layerId);
     }
+
+
+    /**
+     * Gets the index of all offerings, for fast offering selection.<br/>
+     * The index is rebuilt when the revision of these capabilities has changed
+     * since the last call, so {@link #markModified()} must be called when
+     * offerings already in the list are modified, except for ID changes
+     * which are detected automatically.
+     * @return The offering index
+     */
+    public SOSOfferingIndex getOfferingIndex()
+    {
+        SOSOfferingIndex index = offeringIndex;
+        long currentRevision = getRevision();
+        
+        if (index == null || index.revision != currentRevision)
+            offeringIndex = index = new SOSOfferingIndex(getLayers(), currentRevision);
+        
+        return index;
+    }
 	
 }
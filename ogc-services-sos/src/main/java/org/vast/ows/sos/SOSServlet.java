@@ -21,9 +21,13 @@
 package org.vast.ows.sos;
 
 import java.io.IOException;
+import java.util.Collection;
+import javax.xml.namespace.QName;
 import org.slf4j.Logger;
+import org.vast.ogc.OGCRegistry;
 import org.vast.ows.GetCapabilitiesRequest;
 import org.vast.ows.OWSException;
+import org.vast.ows.OWSExceptionReport;
 import org.vast.ows.OWSRequest;
 import org.vast.ows.server.OWSServlet;
 import org.vast.ows.swe.DeleteSensorRequest;
@@ -48,6 +52,14 @@ public abstract class SOSServlet extends OWSServlet
     protected static final String SWES_PREFIX = "swe";
     protected static final String SOAP_PREFIX = "soap";
     
+    /**
+     * Set to true to stream InsertResult requests instead of building a DOM.
+     * Result values using the XML encoding cannot be parsed from the stream
+     * so this must only be enabled if result templates with XML encoding
+     * are not accepted by the server.
+     */
+    protected boolean streamInsertResult = false;
+    
     
     public SOSServlet(Logger log)
     {
@@ -55,9 +67,22 @@ public abstract class SOSServlet extends OWSServlet
     }
     
     
+	/**
+	 * Override to provide the capabilities used to check offering and
+	 * procedure IDs of incoming requests before they are handled
+	 * @return capabilities of this service or null to skip these checks
+	 */
+	protected SOSServiceCapabilities getCapabilities()
+	{
+	    return null;
+	}
+	
+	
 	@Override
     public void handleRequest(OWSRequest request) throws IOException, OWSException
     {
+	    checkRequest(request);
+	    
 	    // core operations
 	    if (request instanceof GetCapabilitiesRequest)
             handleRequest((GetCapabilitiesRequest)request);
@@ -88,6 +113,80 @@ public abstract class SOSServlet extends OWSServlet
         else if (request instanceof InsertResultTemplateRequest)
             handleRequest((InsertResultTemplateRequest)request);
     }
+	
+	
+	/**
+	 * Checks that offerings and procedures referenced by the request exist,
+	 * using the offering index of the capabilities
+	 * @param request
+	 * @throws OWSException if one or more IDs are unknown
+	 */
+	protected void checkRequest(OWSRequest request) throws OWSException
+	{
+	    SOSServiceCapabilities caps = getCapabilities();
+	    if (caps == null)
+	        return;
+	    
+	    SOSOfferingIndex index = caps.getOfferingIndex();
+	    OWSExceptionReport report = new OWSExceptionReport(OWSException.VERSION_11);
+	    
+	    if (request instanceof GetObservationRequest)
+	    {
+	        checkOfferings(index, ((GetObservationRequest)request).getOfferings(), report);
+	        checkProcedures(index, ((GetObservationRequest)request).getProcedures(), report);
+	    }
+	    else if (request instanceof GetResultRequest)
+	    {
+	        checkOffering(index, ((GetResultRequest)request).getOffering(), report);
+	        checkProcedures(index, ((GetResultRequest)request).getProcedures(), report);
+	    }
+	    else if (request instanceof GetResultTemplateRequest)
+	        checkOffering(index, ((GetResultTemplateRequest)request).getOffering(), report);
+	    else if (request instanceof GetFeatureOfInterestRequest)
+	        checkProcedures(index, ((GetFeatureOfInterestRequest)request).getProcedures(), report);
+	    else if (request instanceof DescribeSensorRequest)
+	        checkProcedure(index, ((DescribeSensorRequest)request).getProcedureID(), report);
+	    else if (request instanceof InsertObservationRequest)
+	        checkOffering(index, ((InsertObservationRequest)request).getOffering(), report);
+	    else if (request instanceof InsertResultTemplateRequest)
+	        checkOffering(index, ((InsertResultTemplateRequest)request).getOffering(), report);
+	    
+	    report.process();
+	}
+	
+	
+	protected void checkOfferings(SOSOfferingIndex index, Collection<String> offeringIDs, OWSExceptionReport report)
+	{
+	    if (offeringIDs != null)
+	    {
+	        for (String offeringID: offeringIDs)
+	            checkOffering(index, offeringID, report);
+	    }
+	}
+	
+	
+	protected void checkOffering(SOSOfferingIndex index, String offeringID, OWSExceptionReport report)
+	{
+	    if (offeringID != null && index.getOffering(offeringID) == null)
+	        report.add(new SOSException(SOSException.invalid_param_code, "offering", offeringID, "Unknown offering: " + offeringID));
+	}
+	
+	
+	protected void checkProcedures(SOSOfferingIndex index, Collection<String> procedureIDs, OWSExceptionReport report)
+	{
+	    if (procedureIDs != null)
+	    {
+	        for (String procedureID: procedureIDs)
+	            checkProcedure(index, procedureID, report);
+	    }
+	}
+	
+	
+	protected void checkProcedure(SOSOfferingIndex index, String procedureID, OWSExceptionReport report)
+	{
+	    if (procedureID != null && index.getOfferingsByProcedure(procedureID).isEmpty())
+	        report.add(new SOSException(SOSException.invalid_param_code, "procedure", procedureID, "Unknown procedure: " + procedureID));
+	}
 
 
     protected abstract void handleRequest(GetCapabilitiesRequest query) throws IOException, OWSException;
@@ -153,6 +252,26 @@ public abstract class SOSServlet extends OWSServlet
     }
 	
 	
+    @Override
+    protected boolean hasStreamingRequests()
+    {
+        return streamInsertResult;
+    }
+    
+    
+    /**
+     * InsertResult requests are streamed if {@link #streamInsertResult} is set,
+     * so that large payloads are never fully loaded in memory.
+     */
+    @Override
+    protected boolean isStreamingRequest(QName requestName)
+    {
+        return streamInsertResult &&
+               "InsertResult".equals(requestName.getLocalPart()) &&
+               OGCRegistry.getNamespaceURI(SOSUtils.SOS, DEFAULT_VERSION).equals(requestName.getNamespaceURI());
+    }
+	
+	
     @Override
     protected String getServiceType()
     {
@@ -0,0 +1,273 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.ows.sos.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.vast.ows.GetCapabilitiesReader;
+import org.vast.ows.GetCapabilitiesRequest;
+import org.vast.ows.OWSUtils;
+import org.vast.ows.server.CapabilitiesCache;
+import org.vast.ows.sos.SOSOfferingCapabilities;
+import org.vast.ows.sos.SOSServiceCapabilities;
+import org.vast.ows.test.OWSTestCase;
+import org.vast.xml.DOMHelper;
+import org.w3c.dom.Element;
+
+
+public class TestSosCapabilitiesCache extends OWSTestCase
+{
+    static final String CAPS_PATH = "examples_v20/_useCase_homogeneous_sensor_network/GetCapabilities_response_homogeneous_sensor_network.xml";
+
+    OWSUtils utils = new OWSUtils();
+    AtomicInteger serializeCount = new AtomicInteger();
+
+
+    protected SOSServiceCapabilities readCapabilities() throws Exception
+    {
+        SOSServiceCapabilities caps = (SOSServiceCapabilities)readXmlResponse(CAPS_PATH, "SOS", "Capabilities");
+        caps.setUpdateSequence("1");
+        return caps;
+    }
+
+
+    protected CapabilitiesCache createCache(SOSServiceCapabilities caps, long delay)
+    {
+        return new CapabilitiesCache(caps, (os, c, version, request) -> {
+            serializeCount.incrementAndGet();
+            if (delay > 0)
+                try { Thread.sleep(delay); } catch (InterruptedException e) { }
+            utils.writeXMLResponse(os, c, version, request.getSoapVersion());
+        });
+    }
+
+
+    protected GetCapabilitiesRequest createRequest(String updateSequence)
+    {
+        GetCapabilitiesRequest request = new GetCapabilitiesRequest();
+        request.setService("SOS");
+        request.setVersion("2.0");
+        request.setUpdateSequence(updateSequence);
+        return request;
+    }
+
+
+    public void testResponseIsCached() throws Exception
+    {
+        SOSServiceCapabilities caps = readCapabilities();
+        CapabilitiesCache cache = createCache(caps, 0);
+
+        byte[] resp1 = cache.getResponse(createRequest(null));
+        byte[] resp2 = cache.getResponse(createRequest(null));
+        assertSame(resp1, resp2);
+        assertEquals(1, serializeCount.get());
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        utils.writeXMLResponse(os, caps, "2.0");
+        DOMHelper dom1 = new DOMHelper(new ByteArrayInputStream(os.toByteArray()), false);
+        DOMHelper dom2 = new DOMHelper(new ByteArrayInputStream(resp1), false);
+        assertXMLEqual(dom1.getDocument(), dom2.getDocument());
+
+        // different sections are cached separately
+        GetCapabilitiesRequest request = createRequest(null);
+        request.setSection("Contents");
+        cache.getResponse(request);
+        assertEquals(2, serializeCount.get());
+
+        // compressed response
+        byte[] gzipResp = cache.getCompressedResponse(createRequest(null));
+        assertSame(gzipResp, cache.getCompressedResponse(createRequest(null)));
+        try (GZIPInputStream is = new GZIPInputStream(new ByteArrayInputStream(gzipResp)))
+        {
+            assertTrue(Arrays.equals(resp1, is.readAllBytes()));
+        }
+        assertEquals(2, serializeCount.get());
+    }
+
+
+    public void testInvalidation() throws Exception
+    {
+        SOSServiceCapabilities caps = readCapabilities();
+        CapabilitiesCache cache = createCache(caps, 0);
+        byte[] resp1 = cache.getResponse(createRequest(null));
+
+        caps.setUpdateSequence("2");
+        byte[] resp2 = cache.getResponse(createRequest(null));
+        assertNotSame(resp1, resp2);
+        assertEquals(2, serializeCount.get());
+
+        SOSOfferingCapabilities offering = new SOSOfferingCapabilities();
+        offering.setIdentifier("urn:test:offering");
+        caps.getLayers().add(offering);
+        byte[] resp3 = cache.getResponse(createRequest(null));
+        assertEquals(3, serializeCount.get());
+        assertTrue(new String(resp3, "UTF-8").contains("urn:test:offering"));
+
+        caps.markModified();
+        cache.getResponse(createRequest(null));
+        assertEquals(4, serializeCount.get());
+    }
+
+
+    public void testCacheSizeIsBounded() throws Exception
+    {
+        SOSServiceCapabilities caps = readCapabilities();
+        CapabilitiesCache cache = createCache(caps, 0);
+
+        // section order, unknown sections and unsupported formats don't create new entries
+        for (int i = 0; i < 100; i++)
+        {
+            GetCapabilitiesRequest request = createRequest(null);
+            request.setSection(i % 2 == 0 ? "ServiceIdentification, Contents,foo" + i : "Contents,ServiceIdentification");
+            request.getAcceptedFormats().add("application/x-test" + i);
+            cache.getResponse(request);
+        }
+        assertEquals(1, serializeCount.get());
+        assertEquals(1, cache.size());
+
+        // unknown sections only is the same as all sections
+        GetCapabilitiesRequest request = createRequest(null);
+        request.setSection("bar");
+        cache.getResponse(request);
+        cache.getResponse(createRequest(null));
+        assertEquals(2, serializeCount.get());
+        assertEquals(2, cache.size());
+
+        // entries of previous revision are dropped
+        caps.markModified();
+        cache.getResponse(createRequest(null));
+        assertEquals(1, cache.size());
+
+        // number of entries is capped, even if serializer accepts any version
+        cache = new CapabilitiesCache(caps, (os, c, version, req) -> os.write(version.getBytes()));
+        for (int i = 0; i < 2*CapabilitiesCache.MAX_ENTRIES; i++)
+        {
+            request = createRequest(null);
+            request.setVersion("2.0." + i);
+            cache.getResponse(request);
+            assertTrue(cache.size() <= CapabilitiesCache.MAX_ENTRIES);
+        }
+        assertTrue(cache.size() > 1);
+    }
+
+
+    public void testCurrentUpdateSequence() throws Exception
+    {
+        SOSServiceCapabilities caps = readCapabilities();
+        CapabilitiesCache cache = createCache(caps, 0);
+
+        // full document is never generated for current sequence
+        byte[] resp = cache.getResponse(createRequest("1"));
+        assertEquals(0, serializeCount.get());
+        DOMHelper dom = new DOMHelper(new ByteArrayInputStream(resp), false);
+        Element capsElt = dom.getBaseElement();
+        assertEquals("Capabilities", capsElt.getLocalName());
+        assertEquals(OWSUtils.getNamespaceURI("SOS", "2.0"), capsElt.getNamespaceURI());
+        assertEquals("1", capsElt.getAttribute("updateSequence"));
+        assertEquals("2.0.0", capsElt.getAttribute("version"));
+        assertEquals(0, capsElt.getChildNodes().getLength());
+
+        // outdated sequence gets full response
+        byte[] fullResp = cache.getResponse(createRequest("0"));
+        assertTrue(fullResp.length > 1000);
+        assertEquals(1, serializeCount.get());
+
+        // also with SOAP envelope
+        GetCapabilitiesRequest request = createRequest("1");
+        request.setSoapVersion(OWSUtils.SOAP12_URI);
+        dom = new DOMHelper(new ByteArrayInputStream(cache.getResponse(request)), false);
+        capsElt = dom.getFirstChildElement(dom.getFirstChildElement(dom.getBaseElement()));
+        assertEquals("Capabilities", capsElt.getLocalName());
+        assertEquals("1", capsElt.getAttribute("updateSequence"));
+        assertEquals(0, capsElt.getChildNodes().getLength());
+
+        // compressed minimal response
+        try (GZIPInputStream is = new GZIPInputStream(new ByteArrayInputStream(cache.getCompressedResponse(createRequest("1")))))
+        {
+            assertTrue(Arrays.equals(resp, is.readAllBytes()));
+        }
+        assertEquals(1, serializeCount.get());
+    }
+
+
+    public void testConcurrentRequests() throws Exception
+    {
+        SOSServiceCapabilities caps = readCapabilities();
+        CapabilitiesCache cache = createCache(caps, 100);
+
+        ExecutorService exec = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Callable<byte[]>> tasks = new ArrayList<>();
+            for (int i = 0; i < 16; i++)
+                tasks.add(() -> cache.getResponse(createRequest(null)));
+
+            byte[] resp = null;
+            for (Future<byte[]> f: exec.invokeAll(tasks))
+            {
+                if (resp == null)
+                    resp = f.get();
+                assertSame(resp, f.get());
+            }
+
+            assertEquals(1, serializeCount.get());
+        }
+        finally
+        {
+            exec.shutdown();
+        }
+    }
+
+
+    public void testAcceptEncoding() throws Exception
+    {
+        TestSosInsertResultBindingsV20.TestServlet servlet = new TestSosInsertResultBindingsV20.TestServlet(false);
+        assertFalse(servlet.acceptsGzip(null));
+        assertFalse(servlet.acceptsGzip("identity"));
+        assertTrue(servlet.acceptsGzip("gzip, deflate"));
+        assertTrue(servlet.acceptsGzip("deflate;q=1.0, GZIP;q=0.5"));
+        assertTrue(servlet.acceptsGzip("*"));
+        assertFalse(servlet.acceptsGzip("gzip;q=0"));
+        assertFalse(servlet.acceptsGzip("deflate, gzip ; q=0.000"));
+        assertFalse(servlet.acceptsGzip("*, gzip;q=0"));
+        assertFalse(servlet.acceptsGzip("*;q=0"));
+    }
+
+
+    public void testReadKvpRequest() throws Exception
+    {
+        Map<String, String> params = new HashMap<>();
+        params.put("service", "SOS");
+        params.put("request", "GetCapabilities");
+        params.put("updateSequence", "12");
+        params.put("acceptFormats", "text/xml,application/json");
+
+        GetCapabilitiesRequest request = new GetCapabilitiesReader().readURLParameters(params);
+        assertEquals("12", request.getUpdateSequence());
+        assertEquals(2, request.getAcceptedFormats().size());
+        assertTrue(request.getAcceptedFormats().contains("application/json"));
+    }
+}
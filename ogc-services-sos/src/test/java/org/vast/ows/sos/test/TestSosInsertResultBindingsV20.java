@@ -16,20 +16,94 @@ package org.vast.ows.sos.test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataComponent;
 import net.opengis.swe.v20.DataRecord;
 import net.opengis.swe.v20.TextEncoding;
+import org.slf4j.LoggerFactory;
+import org.vast.cdm.common.DataStreamParser;
+import org.vast.ows.GetCapabilitiesRequest;
+import org.vast.ows.OWSException;
+import org.vast.ows.OWSRequest;
 import org.vast.ows.OWSUtils;
+import org.vast.ows.sos.GetObservationRequest;
 import org.vast.ows.sos.InsertResultRequest;
 import org.vast.ows.sos.InsertResultTemplateRequest;
+import org.vast.ows.sos.SOSServlet;
 import org.vast.ows.sos.SOSUtils;
+import org.vast.ows.swe.DescribeSensorRequest;
 import org.vast.ows.test.OWSTestCase;
+import org.vast.swe.DataSourceXMLStream;
+import org.vast.swe.SWEData;
+import org.vast.swe.SWEHelper;
 import org.vast.xml.DOMHelper;
+import org.vast.xml.XMLImplFinder;
+import org.w3c.dom.Element;
 
 
 public class TestSosInsertResultBindingsV20 extends OWSTestCase
 {    
     
+    @SuppressWarnings("serial")
+    static class TestServlet extends SOSServlet
+    {
+        TestServlet(boolean streamInsertResult)
+        {
+            super(LoggerFactory.getLogger(TestServlet.class));
+            this.streamInsertResult = streamInsertResult;
+        }
+        
+        @Override
+        public boolean hasStreamingRequests()
+        {
+            return super.hasStreamingRequests();
+        }
+        
+        @Override
+        public boolean isStreamingRequest(QName requestName)
+        {
+            return super.isStreamingRequest(requestName);
+        }
+        
+        @Override
+        public OWSRequest parseRequest(DOMHelper dom, Element requestElt) throws OWSException
+        {
+            return super.parseRequest(dom, requestElt);
+        }
+        
+        @Override
+        public OWSRequest parseRequest(XMLStreamReader reader) throws OWSException
+        {
+            return super.parseRequest(reader);
+        }
+        
+        @Override
+        public boolean acceptsGzip(String acceptEncoding)
+        {
+            return super.acceptsGzip(acceptEncoding);
+        }
+        
+        @Override
+        protected void handleRequest(GetCapabilitiesRequest query) throws IOException, OWSException
+        {
+        }
+        
+        @Override
+        protected void handleRequest(DescribeSensorRequest request) throws IOException, OWSException
+        {
+        }
+        
+        @Override
+        protected void handleRequest(GetObservationRequest request) throws IOException, OWSException
+        {
+        }
+    }
+    
+    
     protected InsertResultRequest readXmlInsertResult(String path, String templatePath) throws Exception
     {
         InsertResultTemplateRequest template = (InsertResultTemplateRequest)readXmlRequest(templatePath);
@@ -86,6 +160,76 @@ public class TestSosInsertResultBindingsV20 extends OWSTestCase
     }
     
     
+    public void testReadXmlInsertResultStreaming() throws Exception
+    {
+        InsertResultTemplateRequest template = (InsertResultTemplateRequest)readXmlRequest("examples_v20/resultHandling/InsertResultTemplate1.xml");
+        
+        InputStream is = TestSosInsertResultBindingsV20.class.getResourceAsStream("examples_v20/resultHandling/InsertResult1.xml");
+        XMLStreamReader reader = XMLImplFinder.getStaxInputFactory().createXMLStreamReader(is);
+        reader.nextTag();
+        InsertResultRequest request = (InsertResultRequest)new TestServlet(true).parseRequest(reader);
+        assertEquals(OWSUtils.SOS, request.getService());
+        assertEquals("2.0.0", request.getVersion());
+        assertEquals("InsertResult", request.getOperation());
+        assertEquals("http://my.organization.org/sos/resultTemplate1", request.getTemplateId());
+        assertNull(request.getResultData());
+        assertTrue(request.getResultDataSource() instanceof DataSourceXMLStream);
+        
+        // parse values record by record from the XML stream
+        SWEData sweData = new SWEData();
+        sweData.setElementType(template.getResultStructure());
+        sweData.setEncoding(template.getResultEncoding());
+        DataStreamParser parser = sweData.getDataParser();
+        parser.setInput(request.getResultDataSource().getDataStream());
+        
+        int numRecords = 0;
+        DataBlock data;
+        while ((data = parser.parseNextBlock()) != null)
+        {
+            assertEquals(32.0 + numRecords * 0.1, data.getDoubleValue(1), 1e-9);
+            numRecords++;
+        }
+        
+        assertEquals(3, numRecords);
+        is.close();
+    }
+    
+    
+    public void testXmlEncodedInsertResultNotStreamedByDefault() throws Exception
+    {
+        InsertResultTemplateRequest template = (InsertResultTemplateRequest)readXmlRequest("examples_v20/resultHandling/InsertResultTemplate1.xml");
+        DataComponent resultStructure = template.getResultStructure();
+        resultStructure.setName("rec");
+        
+        // request with XML encoded values
+        StringBuilder xml = new StringBuilder();
+        xml.append("<sos:InsertResult xmlns:sos=\"http://www.opengis.net/sos/2.0\" service=\"SOS\" version=\"2.0.0\">");
+        xml.append("<sos:template>http://my.organization.org/sos/resultTemplate1</sos:template>");
+        xml.append("<sos:resultValues>");
+        for (int i = 0; i < 3; i++)
+            xml.append("<rec><phenomenonTime>2008-03-01T17:4" + (4+i) + ":15Z</phenomenonTime><waterlevel>" + (32.0 + i * 0.1) + "</waterlevel></rec>");
+        xml.append("</sos:resultValues></sos:InsertResult>");
+        
+        // streaming is opt-in so default servlet uses DOM path
+        QName requestName = new QName(OWSUtils.getNamespaceURI(OWSUtils.SOS, "2.0"), "InsertResult");
+        assertFalse(new TestServlet(false).isStreamingRequest(requestName));
+        assertTrue(new TestServlet(true).isStreamingRequest(requestName));
+        assertFalse(new TestServlet(false).hasStreamingRequests());
+        assertTrue(new TestServlet(true).hasStreamingRequests());
+        
+        DOMHelper dom = new DOMHelper(new ByteArrayInputStream(xml.toString().getBytes()), false);
+        InsertResultRequest request = (InsertResultRequest)new TestServlet(false).parseRequest(dom, dom.getBaseElement());
+        
+        SWEData result = new SWEData();
+        result.setElementType(resultStructure);
+        result.setEncoding(new SWEHelper().newXMLEncoding());
+        result.parseData(request.getResultDataSource());
+        assertEquals(3, result.getNumElements());
+        for (int i = 0; i < 3; i++)
+            assertEquals(32.0 + i * 0.1, result.getComponent(i).getData().getDoubleValue(1), 1e-9);
+    }
+    
+    
     public void testWriteXmlInsertResult() throws Exception
     {
         readReadWriteCompareXmlInsertResult("examples_v20/resultHandling/InsertResult1.xml", "examples_v20/resultHandling/InsertResultTemplate1.xml");
@@ -0,0 +1,239 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.ows.sos.test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Set;
+import org.vast.ows.OWSException;
+import org.vast.ows.OWSExceptionReport;
+import org.vast.ows.OWSRequest;
+import org.vast.ows.sos.GetObservationRequest;
+import org.vast.ows.sos.SOSOfferingCapabilities;
+import org.vast.ows.sos.SOSOfferingIndex;
+import org.vast.ows.sos.SOSServiceCapabilities;
+import org.vast.ows.swe.DescribeSensorRequest;
+import org.vast.ows.test.OWSTestCase;
+import org.vast.util.Bbox;
+import org.vast.util.TimeExtent;
+
+
+public class TestSosOfferingIndex extends OWSTestCase
+{
+    static final int GRID_SIZE = 100;
+    static final Instant START_TIME = Instant.parse("2026-01-01T00:00:00Z");
+
+
+    /*
+     * Generates one offering per 1x1deg cell, each with one procedure,
+     * one of 10 observables and a one-day phenomenon time period
+     */
+    protected SOSServiceCapabilities createCapabilities()
+    {
+        SOSServiceCapabilities caps = new SOSServiceCapabilities();
+
+        for (int i = 0; i < GRID_SIZE; i++)
+        {
+            for (int j = 0; j < GRID_SIZE; j++)
+            {
+                int num = i * GRID_SIZE + j;
+                SOSOfferingCapabilities offering = new SOSOfferingCapabilities();
+                offering.setIdentifier("urn:offering:" + num);
+                offering.getProcedures().add("urn:sensor:" + num);
+                offering.getObservableProperties().add("urn:prop:" + (num % 10));
+                offering.getObservedAreas().add(new Bbox(j, i, j + 0.5, i + 0.5));
+                Instant begin = START_TIME.plusSeconds(num * 86400L);
+                offering.setPhenomenonTime(TimeExtent.period(begin, begin.plusSeconds(86400 - 1)));
+                caps.getLayers().add(offering);
+            }
+        }
+
+        return caps;
+    }
+
+
+    public void testLookupById() throws Exception
+    {
+        SOSServiceCapabilities caps = createCapabilities();
+        SOSOfferingIndex index = caps.getOfferingIndex();
+
+        assertEquals("urn:offering:1234", caps.getLayer("urn:offering:1234").getIdentifier());
+        assertEquals("urn:offering:1234", index.getOffering("urn:offering:1234").getIdentifier());
+        assertNull(caps.getLayer("urn:offering:unknown"));
+
+        Set<SOSOfferingCapabilities> offerings = index.getOfferingsByProcedure("urn:sensor:42");
+        assertEquals(1, offerings.size());
+        assertEquals("urn:offering:42", offerings.iterator().next().getIdentifier());
+
+        assertEquals(GRID_SIZE * GRID_SIZE / 10, index.getOfferingsByObservable("urn:prop:3").size());
+        assertTrue(index.getOfferingsByObservable("urn:prop:unknown").isEmpty());
+    }
+
+
+    public void testSpatialAndTemporalSelection() throws Exception
+    {
+        SOSOfferingIndex index = createCapabilities().getOfferingIndex();
+
+        // bbox covering 3x2 cells
+        Set<SOSOfferingCapabilities> offerings = index.getOfferings(new Bbox(10.2, 20.2, 12.2, 21.2));
+        assertEquals(6, offerings.size());
+        for (SOSOfferingCapabilities offering: offerings)
+        {
+            Bbox area = offering.getObservedAreas().get(0);
+            assertTrue(area.getMinX() >= 10 && area.getMinX() <= 12);
+            assertTrue(area.getMinY() >= 20 && area.getMinY() <= 21);
+        }
+
+        // bbox between cells
+        assertTrue(index.getOfferings(new Bbox(10.6, 20.6, 10.9, 20.9)).isEmpty());
+
+        // time period overlapping 3 days
+        Instant begin = START_TIME.plusSeconds(500 * 86400L + 3600);
+        offerings = index.getOfferings(TimeExtent.period(begin, begin.plusSeconds(2 * 86400L)));
+        assertEquals(3, offerings.size());
+
+        // time instant
+        offerings = index.getOfferings(TimeExtent.instant(begin));
+        assertEquals(1, offerings.size());
+        assertEquals("urn:offering:500", offerings.iterator().next().getIdentifier());
+    }
+
+
+    public void testSelectOfferings() throws Exception
+    {
+        SOSOfferingIndex index = createCapabilities().getOfferingIndex();
+
+        // all criteria
+        Instant begin = START_TIME.plusSeconds(2000 * 86400L);
+        Set<SOSOfferingCapabilities> offerings = index.selectOfferings(null,
+            Arrays.asList("urn:sensor:2000", "urn:sensor:2001", "urn:sensor:2002", "urn:sensor:3000"),
+            Arrays.asList("urn:prop:0", "urn:prop:1"),
+            new Bbox(0, 0, 99, 99),
+            TimeExtent.period(begin, begin.plusSeconds(10 * 86400L)));
+        assertEquals(2, offerings.size());
+
+        // from GetObservation request
+        GetObservationRequest request = new GetObservationRequest();
+        request.getObservables().add("urn:prop:5");
+        request.setBbox(new Bbox(0, 0, 9.9, 9.9));
+        offerings = index.selectOfferings(request);
+        assertEquals(10, offerings.size());
+
+        // no criteria
+        assertEquals(GRID_SIZE * GRID_SIZE, index.selectOfferings(null, null, null, null, null).size());
+    }
+
+
+    public void testIndexUpdate() throws Exception
+    {
+        SOSServiceCapabilities caps = createCapabilities();
+        SOSOfferingIndex index = caps.getOfferingIndex();
+        assertSame(index, caps.getOfferingIndex());
+
+        SOSOfferingCapabilities offering = new SOSOfferingCapabilities();
+        offering.setIdentifier("urn:offering:new");
+        offering.getProcedures().add("urn:sensor:new");
+        offering.setPhenomenonTime(TimeExtent.endNow(START_TIME));
+        caps.getLayers().add(offering);
+
+        assertNotSame(index, caps.getOfferingIndex());
+        assertSame(offering, caps.getLayer("urn:offering:new"));
+        assertEquals(1, caps.getOfferingIndex().getOfferingsByProcedure("urn:sensor:new").size());
+        assertTrue(caps.getOfferingIndex().getOfferings(TimeExtent.now()).contains(offering));
+
+        caps.getLayers().remove(offering);
+        assertNull(caps.getLayer("urn:offering:new"));
+        assertNull(caps.getOfferingIndex().getOffering("urn:offering:new"));
+    }
+
+
+    public void testIdChangedInPlace() throws Exception
+    {
+        SOSServiceCapabilities caps = createCapabilities();
+        SOSOfferingIndex index = caps.getOfferingIndex();
+        assertNotNull(caps.getLayer("urn:offering:12"));
+
+        // layers added to the list are attached to the capabilities
+        SOSOfferingCapabilities offering = caps.getLayers().get(12);
+        assertSame(caps, offering.getParent());
+        offering.setIdentifier("urn:offering:renamed");
+
+        // old snapshot doesn't see the new ID
+        assertNull(index.getOffering("urn:offering:12"));
+        assertNull(index.getOffering("urn:offering:renamed"));
+
+        // index is rebuilt on revision change
+        assertNotSame(index, caps.getOfferingIndex());
+        assertNull(caps.getLayer("urn:offering:12"));
+        assertNull(caps.getOfferingIndex().getOffering("urn:offering:12"));
+        assertSame(offering, caps.getLayer("urn:offering:renamed"));
+        assertSame(offering, caps.getOfferingIndex().getOffering("urn:offering:renamed"));
+        assertEquals(1, caps.getOfferingIndex().selectOfferings(Arrays.asList("urn:offering:renamed"), null, null, null, null).size());
+
+        // unknown IDs don't trigger a rebuild
+        index = caps.getOfferingIndex();
+        assertNull(caps.getLayer("urn:offering:unknown"));
+        assertNull(index.getOffering("urn:offering:unknown"));
+        assertSame(index, caps.getOfferingIndex());
+    }
+
+
+    public void testCheckRequestIds() throws Exception
+    {
+        SOSServiceCapabilities caps = createCapabilities();
+        TestSosInsertResultBindingsV20.TestServlet servlet = new TestSosInsertResultBindingsV20.TestServlet(false) {
+            @Override
+            protected SOSServiceCapabilities getCapabilities()
+            {
+                return caps;
+            }
+        };
+
+        // requests are dispatched through the generic handler like in the servlet
+        GetObservationRequest getObs = new GetObservationRequest();
+        getObs.getOfferings().add("urn:offering:12");
+        getObs.getProcedures().add("urn:sensor:12");
+        servlet.handleRequest((OWSRequest)getObs);
+
+        getObs.getOfferings().add("urn:offering:unknown");
+        getObs.getProcedures().add("urn:sensor:unknown");
+        try
+        {
+            servlet.handleRequest((OWSRequest)getObs);
+            fail("Unknown IDs should be rejected");
+        }
+        catch (OWSExceptionReport e)
+        {
+            assertEquals(2, e.getExceptionList().size());
+            assertEquals("offering", e.getExceptionList().get(0).getLocator());
+            assertEquals("urn:offering:unknown", e.getExceptionList().get(0).getBadValue());
+            assertEquals("procedure", e.getExceptionList().get(1).getLocator());
+        }
+
+        DescribeSensorRequest describeSensor = new DescribeSensorRequest();
+        describeSensor.setProcedureID("urn:sensor:42");
+        servlet.handleRequest((OWSRequest)describeSensor);
+        describeSensor.setProcedureID("urn:sensor:unknown");
+        try
+        {
+            servlet.handleRequest((OWSRequest)describeSensor);
+            fail("Unknown procedure should be rejected");
+        }
+        catch (OWSException e)
+        {
+            assertEquals(OWSException.invalid_param_code, ((OWSExceptionReport)e).getExceptionList().get(0).getCode());
+        }
+    }
+}
@@ -25,11 +25,16 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.vast.ogc.OGCRegistry;
 import org.vast.ows.OWSUtils;
 import org.vast.sensorML.SMLUtils;
 import org.vast.util.DateTimeFormat;
 import org.vast.xml.DOMHelper;
+import org.vast.xml.XMLImplFinder;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
@@ -71,6 +76,41 @@ public class SWESUtils extends OWSUtils
 	}
 	
 	
+	/**
+	 * Reads an extension element from an XML stream and adds its content
+	 * to the extension map, using the same representation as DOM extensions
+	 * @param reader XML reader positioned on the extension start tag, and left
+	 * on the matching end tag
+	 * @param extObjs map to add the extension content to
+	 * @throws XMLStreamException
+	 */
+	public static void readXMLExtension(XMLStreamReader reader, Map<QName, Object> extObjs) throws XMLStreamException
+	{
+		Document doc = XMLImplFinder.getDOMImplementation().createDocument(null, null, null);
+		Element contentElt = null;
+		
+		// copy first child element to a new DOM document
+		while (reader.next() != XMLStreamConstants.END_ELEMENT)
+		{
+			if (reader.isStartElement())
+			{
+				Element elt = DOMHelper.readFromStreamReader(reader, doc);
+				if (contentElt == null)
+				{
+					contentElt = elt;
+					doc.appendChild(contentElt);
+				}
+			}
+		}
+		
+		if (contentElt != null)
+		{
+			QName extName = new QName(contentElt.getNamespaceURI(), contentElt.getLocalName());
+			extObjs.put(extName, contentElt);
+		}
+	}
+	
+	
 	public static void writeXMLExtensions(DOMHelper dom, Element parentElt, String prefix, String nsUri, Map<QName, Object> extObjs)
 	{
 		if (extObjs == null)
@@ -88,9 +88,34 @@ public class DataConnection implements IDataConnection
         
         public void convert()
         {
-            double srcVal = src.getData().getDoubleValue();
-            double newVal = converter.convert(srcVal);
-            dest.getData().setDoubleValue(newVal);
+            convert(src, dest);
+        }
+        
+        /*
+         * Converts values of destination component in place
+         * Used when destination data was copied from source beforehand
+         */
+        public void convertInPlace()
+        {
+            convert(dest, dest);
+        }
+        
+        protected void convert(DataComponent from, DataComponent to)
+        {
+            // convert all values of arrays of scalars in one pass
+            if (from.getParent() instanceof DataArray && to.getParent() instanceof DataArray)
+            {
+                DataBlock srcData = from.getParent().getData();
+                DataBlock destData = to.getParent().getData();
+                int count = Math.min(srcData.getAtomCount(), destData.getAtomCount());
+                converter.convert(srcData, 0, destData, 0, count);
+            }
+            else
+            {
+                double srcVal = from.getData().getDoubleValue();
+                double newVal = converter.convert(srcVal);
+                to.getData().setDoubleValue(newVal);
+            }
         }
     }
     
@@ -22,6 +22,7 @@ package org.vast.process;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.vast.util.Asserts;
@@ -35,22 +36,130 @@ import net.opengis.swe.v20.DataBlock;
  * threads, even on different computers (grid computing).
  * Each element in the queue is called a data block.
  * The queue can also send status values and events.
+ * </p><p>
+ * The queue can be bounded, in which case the {@link OverflowPolicy}
+ * decides what happens when the producer is faster than the consumer.
+ * Any {@link BlockingQueue} implementation can be used to hold the data
+ * blocks, including a {@link RingBufferQueue} since a data queue always
+ * has a single source and a single destination.
  * </p>
  * 
  * @author Alex Robin
  * */
 public class DataQueue extends DataConnection
 {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    
+    
+    public enum OverflowPolicy
+    {
+        /** producer blocks until space is available */
+        BLOCK,
+        /** oldest block in the queue is discarded */
+        DROP_OLDEST,
+        /** incoming block is discarded */
+        DROP_NEWEST,
+        /** only one out of N incoming blocks is kept, replacing the oldest one */
+        SAMPLE
+    }
+    
 	Logger log = LoggerFactory.getLogger(DataQueue.class);
-    protected BlockingQueue<DataBlock> queue = new LinkedBlockingQueue<>();
+    protected BlockingQueue<DataBlock> queue;
+    protected OverflowPolicy overflowPolicy;
+    protected int samplingFactor = 2;
+    protected int overflowCount;
+    protected final AtomicLong dropCount = new AtomicLong();
+    protected final AtomicLong producerWaitNanos = new AtomicLong();
+    protected final AtomicLong consumerWaitNanos = new AtomicLong();
 	
 	
+    /**
+     * Creates an unbounded queue
+     */
+    public DataQueue()
+    {
+        this(new LinkedBlockingQueue<>(), OverflowPolicy.BLOCK);
+    }
+    
+    
+    /**
+     * Creates a bounded queue
+     * @param capacity Max number of data blocks in the queue
+     * @param overflowPolicy Policy to apply when the queue is full
+     * @param useRingBuffer True to use a lock-free ring buffer,
+     * false to use a {@link LinkedBlockingQueue}
+     */
+    public DataQueue(int capacity, OverflowPolicy overflowPolicy, boolean useRingBuffer)
+    {
+        this(useRingBuffer ?
+            new RingBufferQueue<>(capacity) :
+            new LinkedBlockingQueue<>(capacity), overflowPolicy);
+    }
+    
+    
+    /**
+     * Creates a queue backed by the provided queue implementation
+     * @param queue Queue used to hold data blocks
+     * @param overflowPolicy Policy to apply when the queue is full
+     */
+    public DataQueue(BlockingQueue<DataBlock> queue, OverflowPolicy overflowPolicy)
+    {
+        this.queue = Asserts.checkNotNull(queue, BlockingQueue.class);
+        this.overflowPolicy = Asserts.checkNotNull(overflowPolicy, OverflowPolicy.class);
+    }
+    
+    
 	@Override
     public void publishData() throws InterruptedException
     {
 	    Asserts.checkState(sourceComponent.hasData(), "Source component has no data");
 	    DataBlock data = sourceComponent.getData();
-        queue.put(data);
+        
+        if (queue.offer(data))
+            return;
+        
+        switch (overflowPolicy)
+        {
+            case BLOCK:
+                long t0 = System.nanoTime();
+                queue.put(data);
+                producerWaitNanos.addAndGet(System.nanoTime() - t0);
+                break;
+                
+            case DROP_NEWEST:
+                dropCount.incrementAndGet();
+                break;
+                
+            case SAMPLE:
+                if (++overflowCount % samplingFactor != 0)
+                    dropCount.incrementAndGet();
+                else
+                    replaceOldest(data);
+                break;
+                
+            default:
+                replaceOldest(data);
+        }
+        
+        if (log.isTraceEnabled())
+        {
+            log.trace("{}.{} -> {}.{}: queue full, policy={}, drops={}",
+                sourceProcess.getInstanceName(), sourceComponent.getName(),
+                destinationProcess.getInstanceName(), destinationComponent.getName(),
+                overflowPolicy, dropCount.get());
+        }
+    }
+    
+    
+    protected void replaceOldest(DataBlock data)
+    {
+        // consumer may take blocks concurrently so we loop until insert succeeds
+        do
+        {
+            if (queue.poll() != null)
+                dropCount.incrementAndGet();
+        }
+        while (!queue.offer(data));
     }
 
 
@@ -65,32 +174,34 @@ public class DataQueue extends DataConnection
                 queue.size());
         }
         
-        if (block || isDataAvailable())
+        DataBlock srcBlock = queue.poll();
+        if (srcBlock == null)
         {
-            DataBlock srcBlock = queue.take();
+            if (!block)
+                return false;
             
-            // apply unit conversion if needed
-            // TODO add support for unit conversion in queues
-            /*if (!componentConverters.isEmpty())
-            {
-                if (destBlock == null)
-                    destinationComponent.assignNewDataBlock();
-                
-                Iterator<ComponentConverter> it = componentConverters.iterator();
-                while (it.hasNext())
-                    it.next().convert();
-            }*/
-            
-            destinationComponent.setData(srcBlock);
-            
-            // update parent choice if needed
-            if (destinationChoice != null)
-                destinationChoice.setSelectedItem(destinationChoiceIdx);
+            long t0 = System.nanoTime();
+            srcBlock = queue.take();
+            consumerWaitNanos.addAndGet(System.nanoTime() - t0);
+        }
             
-            return true;
+        // apply unit conversion if needed
+        // we convert a copy since the same block can be published to several queues
+        // and the source component may already be used for the next block
+        if (!componentConverters.isEmpty())
+        {
+            destinationComponent.setData(srcBlock.clone());
+            for (ComponentConverter conv: componentConverters)
+                conv.convertInPlace();
         }
         else
-            return false;
+            destinationComponent.setData(srcBlock);
+        
+        // update parent choice if needed
+        if (destinationChoice != null)
+            destinationChoice.setSelectedItem(destinationChoiceIdx);
+        
+        return true;
     }
     
     
@@ -112,4 +223,67 @@ public class DataQueue extends DataConnection
     {
         return queue.size();
     }
+    
+    
+    /**
+     * @return Max number of blocks the queue can hold or {@link #UNBOUNDED}
+     */
+    public int getCapacity()
+    {
+        long capacity = (long)queue.size() + queue.remainingCapacity();
+        return capacity >= UNBOUNDED ? UNBOUNDED : (int)capacity;
+    }
+    
+    
+    public OverflowPolicy getOverflowPolicy()
+    {
+        return overflowPolicy;
+    }
+    
+    
+    /**
+     * Sets the number of incoming blocks among which only one is kept
+     * when the queue is full and the policy is {@link OverflowPolicy#SAMPLE}
+     * @param samplingFactor
+     */
+    public void setSamplingFactor(int samplingFactor)
+    {
+        Asserts.checkArgument(samplingFactor > 0, "Sampling factor must be > 0");
+        this.samplingFactor = samplingFactor;
+    }
+    
+    
+    /**
+     * @return Number of data blocks discarded because the queue was full
+     */
+    public long getDropCount()
+    {
+        return dropCount.get();
+    }
+    
+    
+    /**
+     * @return Total time the producer spent waiting for space in the queue, in ns
+     */
+    public long getProducerWaitTime()
+    {
+        return producerWaitNanos.get();
+    }
+    
+    
+    /**
+     * @return Total time the consumer spent waiting for data in the queue, in ns
+     */
+    public long getConsumerWaitTime()
+    {
+        return consumerWaitNanos.get();
+    }
+    
+    
+    public void resetStats()
+    {
+        dropCount.set(0);
+        producerWaitNanos.set(0);
+        consumerWaitNanos.set(0);
+    }
 }
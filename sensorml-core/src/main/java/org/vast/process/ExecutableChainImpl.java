@@ -14,20 +14,31 @@ Copyright (C) 2012-2015 Sensia Software LLC. All Rights Reserved.
 
 package org.vast.process;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.vast.data.AbstractRecordImpl;
+import org.vast.process.ProcessExecutors.ExecutionMode;
 import org.vast.swe.SWEHelper;
+import org.vast.util.Asserts;
 import net.opengis.swe.v20.DataComponent;
 
 
@@ -60,6 +71,11 @@ public class ExecutableChainImpl extends ExecutableProcessImpl implements IProce
     protected boolean needSync;
     protected boolean childrenThreadsStarted = false;
     protected ExecutorService threadPool;
+    protected Supplier<? extends DataQueue> queueFactory = DataQueue::new;
+    protected ForkJoinPool parallelPool;
+    protected ExecutionMode executionMode = ProcessExecutors.getDefaultMode();
+    protected int[][] execPredecessors;
+    protected int[][] execSuccessors;
     
     
     public ExecutableChainImpl()
@@ -159,8 +175,26 @@ public class ExecutableChainImpl extends ExecutableProcessImpl implements IProce
     public IDataConnection connect(IProcessExec srcProcess, DataComponent srcComponent,
                         IProcessExec destProcess, DataComponent destComponent) throws ProcessException
     {
-        IDataConnection conn = useChildrenThreads ? new DataQueue() : new DataConnection();
-                
+        IDataConnection conn = useChildrenThreads ? queueFactory.get() : new DataConnection();
+        return connect(srcProcess, srcComponent, destProcess, destComponent, conn);
+    }
+    
+    
+    /**
+     * Connects ports of two child processes using the provided connection object.<br/>
+     * This can be used to configure the queue (capacity, overflow policy, etc.)
+     * of a specific connection when children processes run in separate threads.
+     * @param srcProcess
+     * @param srcComponent
+     * @param destProcess
+     * @param destComponent
+     * @param conn
+     * @return The connection object
+     * @throws ProcessException
+     */
+    public IDataConnection connect(IProcessExec srcProcess, DataComponent srcComponent,
+                        IProcessExec destProcess, DataComponent destComponent, IDataConnection conn) throws ProcessException
+    {
         // connect source
         if (srcProcess == this)
             connectInternal(srcComponent, conn);
@@ -242,9 +276,7 @@ public class ExecutableChainImpl extends ExecutableProcessImpl implements IProce
             if (!useChildrenThreads)
             {
                 // build ordered process execution list starting from output signals
-                processExecList.clear();
-                addUpstreamProcesses(this, internalOutputConnections);
-                addNoOutputProcesses();
+                buildExecutionGraph();
                 
                 // init needed processes
                 for (IProcessExec childProcess: processExecList)
@@ -276,62 +308,127 @@ public class ExecutableChainImpl extends ExecutableProcessImpl implements IProce
        
     
     /*
-     * Add upstream processes starting from outputs
+     * Builds the graph of processes needed to compute the chain outputs and
+     * sorts it topologically so that each process comes after all processes
+     * it gets inputs or parameters from
      */
-    private void addUpstreamProcesses(IProcessExec process, Map<String, DataConnectionList> connectionGroup)
+    private void buildExecutionGraph()
     {
-        // loop through all input connections
-        for (DataConnectionList connectionList: connectionGroup.values())
+        // collect needed processes by walking upstream from internal outputs
+        // and from processes that have no outputs
+        var needed = new LinkedHashSet<IProcessExec>();
+        var upstreamMap = new IdentityHashMap<IProcessExec, Set<IProcessExec>>();
+        var toVisit = new ArrayDeque<IProcessExec>();
+        
+        collectUpstreamProcesses(internalOutputConnections, needed);
+        toVisit.addAll(needed);
+        
+        for (var p: processTable.values())
         {
-            for (IDataConnection connection: connectionList)
+            if (p.getOutputList().isEmpty() && needed.add(p))
+                toVisit.add(p);
+        }
+        
+        while (!toVisit.isEmpty())
+        {
+            var p = toVisit.poll();
+            var upstream = new LinkedHashSet<IProcessExec>();
+            collectUpstreamProcesses(p.getInputConnections(), upstream);
+            collectUpstreamProcesses(p.getParamConnections(), upstream);
+            upstreamMap.put(p, upstream);
+            
+            for (var up: upstream)
             {
-                IProcessExec upStreamProcess = connection.getSourceProcess();
-                
-                if (upStreamProcess != this)
-                {
-                    if (!processExecList.contains(upStreamProcess))
-                    {
-                        processExecList.add(upStreamProcess);
-                        addUpstreamProcesses(upStreamProcess, upStreamProcess.getInputConnections());
-                        addUpstreamProcesses(upStreamProcess, upStreamProcess.getParamConnections());
-                    }
-                    
-                    if (process != this)
-                        ensureOrder(upStreamProcess, process);
-                }
+                if (needed.add(up))
+                    toVisit.add(up);
             }
         }
-    }
-    
-    
-    private void addNoOutputProcesses()
-    {
-        for (var p: processTable.values())
+        
+        // topological sort (Kahn's algorithm)
+        int n = needed.size();
+        var nodes = needed.toArray(new IProcessExec[n]);
+        var nodeIndex = new IdentityHashMap<IProcessExec, Integer>(n);
+        for (int i = 0; i < n; i++)
+            nodeIndex.put(nodes[i], i);
+        
+        int[] inDegree = new int[n];
+        var downstream = new ArrayList<List<Integer>>(n);
+        for (int i = 0; i < n; i++)
+            downstream.add(new ArrayList<>(2));
+        for (int i = 0; i < n; i++)
         {
-            if (p.getOutputList().isEmpty())
+            for (var up: upstreamMap.get(nodes[i]))
             {
-                processExecList.add(p);
-                addUpstreamProcesses(p, p.getInputConnections());
-                addUpstreamProcesses(p, p.getParamConnections());
+                downstream.get(nodeIndex.get(up)).add(i);
+                inDegree[i]++;
             }
         }
+        
+        int[] order = new int[n];
+        int count = 0;
+        var ready = new ArrayDeque<Integer>();
+        for (int i = 0; i < n; i++)
+        {
+            if (inDegree[i] == 0)
+                ready.add(i);
+        }
+        
+        while (!ready.isEmpty())
+        {
+            int i = ready.poll();
+            order[count++] = i;
+            for (int j: downstream.get(i))
+            {
+                if (--inDegree[j] == 0)
+                    ready.add(j);
+            }
+        }
+        
+        // processes involved in a cycle are appended in discovery order
+        if (count < n)
+        {
+            getLogger().debug("Process chain contains cycles");
+            for (int i = 0; i < n; i++)
+            {
+                if (inDegree[i] > 0)
+                    order[count++] = i;
+            }
+        }
+        
+        // store execution list and dependencies using positions in the list
+        int[] position = new int[n];
+        processExecList.clear();
+        for (int k = 0; k < n; k++)
+        {
+            position[order[k]] = k;
+            processExecList.add(nodes[order[k]]);
+        }
+        
+        execPredecessors = new int[n][];
+        execSuccessors = new int[n][];
+        for (int k = 0; k < n; k++)
+        {
+            int i = order[k];
+            execPredecessors[k] = upstreamMap.get(nodes[i]).stream()
+                .mapToInt(up -> position[nodeIndex.get(up)])
+                .sorted().toArray();
+            execSuccessors[k] = downstream.get(i).stream()
+                .mapToInt(j -> position[j])
+                .sorted().toArray();
+        }
     }
     
     
-    /*
-     * Ensure that sub processes are correctly sorted in the exec list
-     * Each time process1 has inputs connected to process2 outputs
-     * process2 is placed before process1 in the list.
-     */
-    private void ensureOrder(IProcessExec processBefore, IProcessExec processAfter)
+    private void collectUpstreamProcesses(Map<String, DataConnectionList> connectionGroup, Set<IProcessExec> upstream)
     {
-        int before = processExecList.indexOf(processBefore);
-        int after = processExecList.indexOf(processAfter);
-        
-        if (after < before)
+        for (DataConnectionList connectionList: connectionGroup.values())
         {
-            processExecList.remove(after);
-            processExecList.add(before, processAfter);
+            for (IDataConnection connection: connectionList)
+            {
+                IProcessExec upStreamProcess = connection.getSourceProcess();
+                if (upStreamProcess != this && upStreamProcess != null)
+                    upstream.add(upStreamProcess);
+            }
         }
     }
     
@@ -359,31 +456,18 @@ public class ExecutableChainImpl extends ExecutableProcessImpl implements IProce
                         // set internal outputs as needed if data is needed outside the chain
                         setNeededOutputs(outputConnections, internalOutputConnections);
                         
-                        // loop until no more processes can run or all internalOutputs are full
-                        boolean moreToRun;
-                        do
-                        {
-                            moreToRun = false;
-                            
-                            // execute all child processes if they can run
-                            for (IProcessExec childProcess: processExecList)
-                            {
-                                // continue only if process can run
-                                if (childProcess.canRun())
-                                {
-                                    getLogger().debug("Running process '{}'", childProcess.getInstanceName());
-                                    childProcess.run();
-                                    moreToRun = true;
-                                }
-                            }
-                        }
-                        while (moreToRun && !checkAvailability(internalOutputConnections, true));
+                        // run child processes until none can run or all internalOutputs are full
+                        runChildrenWhileReady();
                         
                         // set external inputs as needed if data has been consumed
                         // inside the chain (i.e. available = false)
                         setNeededInputs(inputConnections, internalInputConnections);
                         setNeededInputs(paramConnections, internalParamConnections);
                     }
+                    else if (parallelPool != null)
+                    {
+                        runChildrenInParallel();
+                    }
                     else
                     {
                         for (IProcessExec childProcess: processExecList)
@@ -413,6 +497,105 @@ public class ExecutableChainImpl extends ExecutableProcessImpl implements IProce
     }
     
     
+    /*
+     * Runs child processes in topological order, only checking processes whose
+     * connections may have changed, i.e. neighbors of processes that just ran
+     */
+    private void runChildrenWhileReady() throws ProcessException
+    {
+        int n = processExecList.size();
+        var pending = new BitSet(n);
+        var next = new BitSet(n);
+        pending.set(0, n);
+        
+        boolean moreToRun;
+        do
+        {
+            moreToRun = false;
+            
+            for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i+1))
+            {
+                IProcessExec childProcess = processExecList.get(i);
+                
+                // continue only if process can run
+                if (childProcess.canRun())
+                {
+                    getLogger().debug("Running process '{}'", childProcess.getInstanceName());
+                    childProcess.run();
+                    moreToRun = true;
+                    
+                    // downstream processes may run during this pass
+                    // upstream ones and this process during the next one
+                    next.set(i);
+                    for (int j: execPredecessors[i])
+                        next.set(j);
+                    for (int j: execSuccessors[i])
+                    {
+                        if (j > i)
+                            pending.set(j);
+                        else
+                            next.set(j);
+                    }
+                }
+            }
+            
+            var tmp = pending;
+            pending = next;
+            next = tmp;
+            next.clear();
+        }
+        while (moreToRun && !checkAvailability(internalOutputConnections, true));
+    }
+    
+    
+    /*
+     * Runs each child process once, as soon as all its upstream processes
+     * have completed, so that independent branches execute in parallel
+     */
+    private void runChildrenInParallel() throws ProcessException
+    {
+        int n = processExecList.size();
+        var futures = new CompletableFuture<?>[n];
+        
+        for (int i = 0; i < n; i++)
+        {
+            // predecessors placed after this process are part of a cycle and are ignored
+            final int idx = i;
+            int[] deps = Arrays.stream(execPredecessors[i]).filter(j -> j < idx).toArray();
+            CompletableFuture<?> ready;
+            if (deps.length == 0)
+                ready = CompletableFuture.completedFuture(null);
+            else if (deps.length == 1)
+                ready = futures[deps[0]];
+            else
+                ready = CompletableFuture.allOf(Arrays.stream(deps).mapToObj(j -> futures[j]).toArray(CompletableFuture[]::new));
+            
+            IProcessExec childProcess = processExecList.get(i);
+            futures[i] = ready.thenRunAsync(() -> {
+                try
+                {
+                    childProcess.run();
+                }
+                catch (ProcessException e)
+                {
+                    throw new CompletionException(e);
+                }
+            }, parallelPool);
+        }
+        
+        try
+        {
+            CompletableFuture.allOf(futures).join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof ProcessException)
+                throw (ProcessException)e.getCause();
+            throw new ProcessException(EXEC_ERROR_MSG, e.getCause());
+        }
+    }
+    
+    
     protected void transferInputData(
             Map<String, DataConnectionList> externalConnections,
             Map<String, DataConnectionList> internalConnections) throws InterruptedException
@@ -497,8 +680,7 @@ public class ExecutableChainImpl extends ExecutableProcessImpl implements IProce
     @Override
     public synchronized void start(Consumer<Throwable> onError) throws ProcessException
     {
-        this.threadPool = Executors.newCachedThreadPool();
-        start(threadPool, onError);
+        start(getChildrenExecutor(), onError);
     }
     
     
@@ -519,7 +701,23 @@ public class ExecutableChainImpl extends ExecutableProcessImpl implements IProce
     
     protected synchronized void startChildrenThreads() throws ProcessException
     {
-        startChildrenThreads(Executors.newCachedThreadPool(), e -> {});
+        startChildrenThreads(getChildrenExecutor(), e -> {});
+    }
+    
+    
+    /*
+     * Gets the executor used to run child processes depending on the
+     * execution mode. Only the dedicated thread pool is shutdown on stop.
+     */
+    protected ExecutorService getChildrenExecutor()
+    {
+        ExecutorService sharedExecutor = ProcessExecutors.getExecutor(executionMode);
+        if (sharedExecutor != null)
+            return sharedExecutor;
+        
+        if (threadPool == null)
+            threadPool = Executors.newCachedThreadPool();
+        return threadPool;
     }
     
     
@@ -595,6 +793,46 @@ public class ExecutableChainImpl extends ExecutableProcessImpl implements IProce
         this.useChildrenThreads = useThreads;
     }
     
+    
+    public ExecutionMode getExecutionMode()
+    {
+        return executionMode;
+    }
+    
+    
+    /**
+     * Sets how child processes are run when children threads are on.
+     * This must be called before the chain is started.
+     * @param mode
+     */
+    public void setExecutionMode(ExecutionMode mode)
+    {
+        this.executionMode = Asserts.checkNotNull(mode, ExecutionMode.class);
+    }
+    
+    
+    /**
+     * Enables parallel execution of independent branches of the chain
+     * when children threads are off and no child process needs sync.
+     * @param pool Pool used to run child processes or null to run them
+     * sequentially in the calling thread
+     */
+    public void setParallelExecution(ForkJoinPool pool)
+    {
+        this.parallelPool = pool;
+    }
+    
+    
+    /**
+     * Sets the factory used to create the queues connecting child processes
+     * when they run in separate threads. By default, queues are unbounded.
+     * @param queueFactory
+     */
+    public void setQueueFactory(Supplier<? extends DataQueue> queueFactory)
+    {
+        this.queueFactory = Asserts.checkNotNull(queueFactory, "queueFactory");
+    }
+    
 
     @Override
     public boolean needSync()
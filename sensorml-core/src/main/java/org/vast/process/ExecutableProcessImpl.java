@@ -197,7 +197,8 @@ public abstract class ExecutableProcessImpl implements IProcessExec
     @Override
     public void start(Consumer<Throwable> onError) throws ProcessException
     {
-        start(Executors.newSingleThreadExecutor(), onError);
+        ExecutorService sharedExecutor = ProcessExecutors.getExecutor(ProcessExecutors.getDefaultMode());
+        start(sharedExecutor != null ? sharedExecutor : Executors.newSingleThreadExecutor(), onError);
     }
     
     
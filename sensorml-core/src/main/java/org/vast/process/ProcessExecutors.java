@@ -0,0 +1,215 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.process;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vast.util.Asserts;
+
+
+/**
+ * <p>
+ * Provides the executors used to run processes in their own thread.<br/>
+ * By default, each process chain creates its own thread pool. In other
+ * modes, all processes share a single executor, backed either by platform
+ * threads or by virtual threads when running on Java 21 or later.<br/>
+ * The default mode can be set with the system property
+ * {@value #MODE_PROPERTY}.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class ProcessExecutors
+{
+    static final Logger log = LoggerFactory.getLogger(ProcessExecutors.class);
+    
+    public static final String MODE_PROPERTY = "org.vast.process.executionMode";
+    
+    
+    public enum ExecutionMode
+    {
+        /** each chain or standalone process creates its own threads */
+        DEDICATED,
+        /** all processes share a single pool of platform threads */
+        SHARED,
+        /** all processes run on virtual threads, or fallback to SHARED if not supported */
+        VIRTUAL
+    }
+    
+    static volatile ExecutionMode defaultMode = parseMode(System.getProperty(MODE_PROPERTY));
+    static ExecutorService sharedExecutor;
+    static ExecutorService virtualThreadExecutor;
+    
+    
+    private ProcessExecutors()
+    {
+    }
+    
+    
+    static ExecutionMode parseMode(String mode)
+    {
+        if (mode == null)
+            return ExecutionMode.DEDICATED;
+    
+        try
+        {
+            return ExecutionMode.valueOf(mode.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e)
+        {
+            log.warn("Invalid value for {}: {}", MODE_PROPERTY, mode);
+            return ExecutionMode.DEDICATED;
+        }
+    }
+    
+    
+    public static ExecutionMode getDefaultMode()
+    {
+        return defaultMode;
+    }
+    
+    
+    public static void setDefaultMode(ExecutionMode mode)
+    {
+        defaultMode = Asserts.checkNotNull(mode, ExecutionMode.class);
+    }
+    
+    
+    /**
+     * @param mode
+     * @return The shared executor to use for the given mode,
+     * or null if mode is {@link ExecutionMode#DEDICATED}
+     */
+    public static ExecutorService getExecutor(ExecutionMode mode)
+    {
+        switch (mode)
+        {
+            case SHARED:
+                return getSharedExecutor();
+    
+            case VIRTUAL:
+                return getVirtualThreadExecutor();
+    
+            default:
+                return null;
+        }
+    }
+    
+    
+    /**
+     * @return The executor shared by all processes running in
+     * {@link ExecutionMode#SHARED} mode
+     */
+    public static synchronized ExecutorService getSharedExecutor()
+    {
+        if (sharedExecutor == null)
+            sharedExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("ProcessExec"));
+        return sharedExecutor;
+    }
+    
+    
+    /**
+     * Replaces the executor shared by all processes running in {@link ExecutionMode#SHARED}
+     * mode. Note that each running process occupies one thread while it is started,
+     * so a bounded executor must have enough threads to run all processes concurrently.
+     * @param executor
+     */
+    public static synchronized void setSharedExecutor(ExecutorService executor)
+    {
+        sharedExecutor = Asserts.checkNotNull(executor, ExecutorService.class);
+    }
+    
+    
+    /**
+     * @return The executor creating one virtual thread per process, or the
+     * shared executor if virtual threads are not supported by the JVM
+     */
+    public static synchronized ExecutorService getVirtualThreadExecutor()
+    {
+        if (virtualThreadExecutor == null)
+        {
+            virtualThreadExecutor = newVirtualThreadExecutor();
+            if (virtualThreadExecutor == null)
+            {
+                log.warn("Virtual threads are not supported by this JVM. Using shared thread pool");
+                virtualThreadExecutor = getSharedExecutor();
+            }
+        }
+    
+        return virtualThreadExecutor;
+    }
+    
+    
+    public static boolean isVirtualThreadSupported()
+    {
+        try
+        {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+    
+    
+    /*
+     * Virtual thread API is called by reflection so this library can still
+     * be compiled and run with Java 11
+     */
+    static ExecutorService newVirtualThreadExecutor()
+    {
+        try
+        {
+            var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService)method.invoke(null);
+        }
+        catch (NoSuchMethodException e)
+        {
+            return null;
+        }
+        catch (ReflectiveOperationException e)
+        {
+            log.error("Cannot create virtual thread executor", e);
+            return null;
+        }
+    }
+    
+    
+    static class DaemonThreadFactory implements ThreadFactory
+    {
+        final String prefix;
+        final AtomicInteger count = new AtomicInteger();
+    
+        DaemonThreadFactory(String prefix)
+        {
+            this.prefix = prefix;
+        }
+    
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            var t = new Thread(r, prefix + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
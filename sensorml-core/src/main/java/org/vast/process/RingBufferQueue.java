@@ -0,0 +1,346 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.process;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.vast.util.Asserts;
+
+
+/**
+ * <p>
+ * Lock-free bounded ring buffer meant to be used by a single producer
+ * thread and a single consumer thread, such as a {@link DataQueue}
+ * between two processes.<br/>
+ * Only the producer may insert elements. Elements are removed with a CAS
+ * on the read index so the producer can also evict the oldest element
+ * when the buffer is full. Blocking operations spin for a short time and
+ * then park the calling thread until it is unparked by the other side.
+ * </p>
+ *
+ * @author Alex Robin
+ * @param <E> Element type
+ * @since Oct 18, 2026
+ */
+public class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E>
+{
+    static final int MAX_SPINS = 100;
+    static final long MAX_PARK_NANOS = 10_000_000L; // only used as a safety net
+    
+    final AtomicReferenceArray<Object> buffer;
+    final int mask;
+    final int capacity;
+    final AtomicLong head = new AtomicLong(); // index of next element to read
+    final AtomicLong tail = new AtomicLong(); // index of next element to write
+    volatile Thread waitingProducer;
+    volatile Thread waitingConsumer;
+    
+    
+    public RingBufferQueue(int capacity)
+    {
+        Asserts.checkArgument(capacity > 0 && capacity <= 1 << 30, "Capacity must be between 1 and 2^30");
+        int bufferSize = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(bufferSize);
+        this.mask = bufferSize - 1;
+        this.capacity = capacity;
+    }
+    
+    
+    @Override
+    public boolean offer(E e)
+    {
+        Objects.requireNonNull(e);
+        long t = tail.get();
+        if (t - head.get() >= capacity)
+            return false;
+        
+        // slot can still be in use if a consumer has moved the read index
+        // but hasn't cleared it yet, in which case the clear is imminent
+        int idx = (int)t & mask;
+        for (int spins = 0; buffer.get(idx) != null; spins++)
+        {
+            if (spins < MAX_SPINS)
+                Thread.onSpinWait();
+            else
+                Thread.yield();
+        }
+    
+        buffer.lazySet(idx, e);
+        tail.set(t + 1);
+        unpark(waitingConsumer);
+        return true;
+    }
+    
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll()
+    {
+        while (true)
+        {
+            long h = head.get();
+            if (h >= tail.get())
+                return null;
+    
+            // slot cannot be overwritten until it has been cleared
+            // so the element is valid only if the CAS succeeds
+            int idx = (int)h & mask;
+            E e = (E)buffer.get(idx);
+            if (head.compareAndSet(h, h + 1))
+            {
+                // release reference so consumed elements can be garbage collected
+                buffer.set(idx, null);
+                unpark(waitingProducer);
+                return e;
+            }
+        }
+    }
+    
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek()
+    {
+        while (true)
+        {
+            long h = head.get();
+            if (h >= tail.get())
+                return null;
+    
+            E e = (E)buffer.get((int)h & mask);
+            if (head.get() == h)
+                return e;
+        }
+    }
+    
+    
+    @Override
+    public void put(E e) throws InterruptedException
+    {
+        int spins = 0;
+        while (!offer(e))
+        {
+            if (spins++ < MAX_SPINS)
+                spin();
+            else
+                awaitSpace(MAX_PARK_NANOS);
+        }
+    }
+    
+    
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int spins = 0;
+        while (!offer(e))
+        {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+                return false;
+            
+            if (spins++ < MAX_SPINS)
+                spin();
+            else
+                awaitSpace(remaining);
+        }
+    
+        return true;
+    }
+    
+    
+    @Override
+    public E take() throws InterruptedException
+    {
+        E e;
+        int spins = 0;
+        while ((e = poll()) == null)
+        {
+            if (spins++ < MAX_SPINS)
+                spin();
+            else
+                awaitData(MAX_PARK_NANOS);
+        }
+        
+        return e;
+    }
+    
+    
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        E e;
+        int spins = 0;
+        while ((e = poll()) == null)
+        {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+                return null;
+            
+            if (spins++ < MAX_SPINS)
+                spin();
+            else
+                awaitData(remaining);
+        }
+    
+        return e;
+    }
+    
+    
+    protected void spin() throws InterruptedException
+    {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        Thread.onSpinWait();
+    }
+    
+    
+    /*
+     * Parks the consumer until the producer inserts an element.
+     * The waiting thread is registered before checking the buffer again
+     * so the wakeup cannot be missed.
+     */
+    protected void awaitData(long nanos) throws InterruptedException
+    {
+        waitingConsumer = Thread.currentThread();
+        try
+        {
+            if (isEmpty())
+                park(nanos);
+        }
+        finally
+        {
+            waitingConsumer = null;
+        }
+    }
+    
+    
+    /*
+     * Parks the producer until an element is removed
+     */
+    protected void awaitSpace(long nanos) throws InterruptedException
+    {
+        waitingProducer = Thread.currentThread();
+        try
+        {
+            if (tail.get() - head.get() >= capacity)
+                park(nanos);
+        }
+        finally
+        {
+            waitingProducer = null;
+        }
+    }
+    
+    
+    protected void park(long nanos) throws InterruptedException
+    {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        LockSupport.parkNanos(this, Math.min(nanos, MAX_PARK_NANOS));
+    }
+    
+    
+    protected static void unpark(Thread t)
+    {
+        if (t != null)
+            LockSupport.unpark(t);
+    }
+    
+    
+    @Override
+    public int size()
+    {
+        long h = head.get();
+        long size = tail.get() - h;
+        return (int)Math.max(0, Math.min(size, capacity));
+    }
+    
+    
+    @Override
+    public boolean isEmpty()
+    {
+        return head.get() >= tail.get();
+    }
+    
+    
+    @Override
+    public int remainingCapacity()
+    {
+        return capacity - size();
+    }
+    
+    
+    public int getCapacity()
+    {
+        return capacity;
+    }
+    
+    
+    @Override
+    public int drainTo(Collection<? super E> c)
+    {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+    
+    
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements)
+    {
+        Asserts.checkArgument(c != this, "Cannot drain to itself");
+    
+        int count = 0;
+        E e;
+        while (count < maxElements && (e = poll()) != null)
+        {
+            c.add(e);
+            count++;
+        }
+    
+        return count;
+    }
+    
+    
+    /**
+     * @return Iterator on a snapshot of the elements present in the buffer
+     * at the time of the call (weakly consistent, removal not supported)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator()
+    {
+        var snapshot = new ArrayList<E>(size());
+        long t = tail.get();
+        for (long i = head.get(); i < t; i++)
+        {
+            // skip elements removed since the snapshot was started
+            E e = (E)buffer.get((int)i & mask);
+            if (e != null)
+                snapshot.add(e);
+        }
+    
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+}
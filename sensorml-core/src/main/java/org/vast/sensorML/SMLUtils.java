@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
@@ -57,6 +58,7 @@ import org.vast.swe.SWEHelper;
 import org.vast.util.Asserts;
 import org.vast.xml.DOMHelper;
 import org.vast.xml.XMLBindingsUtils;
+import org.vast.xml.XMLImplFinder;
 import org.vast.xml.XMLReaderException;
 import org.vast.xml.XMLWriterException;
 import org.w3c.dom.Element;
@@ -222,6 +224,14 @@ public class SMLUtils extends XMLBindingsUtils
     }
     
     
+    @Override
+    protected XMLOutputFactory getStaxOutputFactory()
+    {
+        // preserve tabs and line breaks used as SWE encoding separators
+        return XMLImplFinder.getAttributeEscapingStaxOutputFactory();
+    }
+    
+    
     @Override
     protected Object readFromXmlStream(XMLStreamReader reader, Enum<?> eltType) throws XMLStreamException
     {
@@ -0,0 +1,276 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.sensorML.test;
+
+import static org.junit.Assert.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.vast.process.DataQueue;
+import org.vast.process.DataQueue.OverflowPolicy;
+import org.vast.process.RingBufferQueue;
+import org.vast.swe.SWEHelper;
+import net.opengis.swe.v20.DataArray;
+import net.opengis.swe.v20.DataComponent;
+
+
+public class TestDataQueue
+{
+    SWEHelper fac = new SWEHelper();
+    DataComponent src = fac.createQuantity().build();
+    DataComponent dest = fac.createQuantity().build();
+    
+    
+    protected DataQueue createQueue(int capacity, OverflowPolicy policy, boolean useRingBuffer)
+    {
+        DataQueue queue = new DataQueue(capacity, policy, useRingBuffer);
+        queue.setSource(null, src);
+        queue.setDestination(null, dest);
+        return queue;
+    }
+    
+    
+    protected void publish(DataQueue queue, int count) throws InterruptedException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            src.assignNewDataBlock();
+            src.getData().setDoubleValue(i);
+            queue.publishData();
+        }
+    }
+    
+    
+    protected void checkContent(DataQueue queue, double... expectedValues) throws InterruptedException
+    {
+        assertEquals(expectedValues.length, queue.getQueueSize());
+        for (double val: expectedValues)
+        {
+            assertTrue(queue.transferData(false));
+            assertEquals(val, dest.getData().getDoubleValue(), 0.0);
+        }
+        assertFalse(queue.transferData(false));
+    }
+    
+    
+    @Test
+    public void testDefaultQueueIsUnbounded() throws Exception
+    {
+        DataQueue queue = new DataQueue();
+        queue.setSource(null, src);
+        queue.setDestination(null, dest);
+    
+        publish(queue, 10000);
+        assertEquals(DataQueue.UNBOUNDED, queue.getCapacity());
+        assertEquals(10000, queue.getQueueSize());
+        assertEquals(0, queue.getDropCount());
+    }
+    
+    
+    @Test
+    public void testOverflowPolicies() throws Exception
+    {
+        for (boolean useRingBuffer: new boolean[] {false, true})
+        {
+            DataQueue queue = createQueue(4, OverflowPolicy.DROP_NEWEST, useRingBuffer);
+            assertEquals(4, queue.getCapacity());
+            publish(queue, 10);
+            assertEquals(6, queue.getDropCount());
+            checkContent(queue, 0, 1, 2, 3);
+    
+            queue = createQueue(4, OverflowPolicy.DROP_OLDEST, useRingBuffer);
+            publish(queue, 10);
+            assertEquals(6, queue.getDropCount());
+            checkContent(queue, 6, 7, 8, 9);
+    
+            queue = createQueue(4, OverflowPolicy.SAMPLE, useRingBuffer);
+            queue.setSamplingFactor(3);
+            publish(queue, 10);
+            assertEquals(6, queue.getDropCount());
+            checkContent(queue, 2, 3, 6, 9);
+        }
+    }
+    
+    
+    @Test
+    public void testBlockingPolicy() throws Exception
+    {
+        for (boolean useRingBuffer: new boolean[] {false, true})
+        {
+            final int numBlocks = 5000;
+            DataQueue queue = createQueue(8, OverflowPolicy.BLOCK, useRingBuffer);
+            AtomicReference<Throwable> error = new AtomicReference<>();
+    
+            Thread producer = new Thread(() -> {
+                try { publish(queue, numBlocks); }
+                catch (Throwable e) { error.set(e); }
+            });
+            producer.start();
+    
+            for (int i = 0; i < numBlocks; i++)
+            {
+                assertTrue(queue.transferData(true));
+                assertEquals(i, dest.getData().getDoubleValue(), 0.0);
+                assertTrue(queue.getQueueSize() <= 8);
+            }
+    
+            producer.join(10000);
+            assertNull(error.get());
+            assertEquals(0, queue.getQueueSize());
+            assertEquals(0, queue.getDropCount());
+        }
+    }
+    
+    
+    @Test
+    public void testUnitConversion() throws Exception
+    {
+        src = fac.createQuantity().uomCode("km").build();
+        dest = fac.createQuantity().uomCode("m").build();
+        DataQueue queue = new DataQueue();
+        queue.setSource(null, src);
+        queue.setDestination(null, dest);
+        
+        publish(queue, 3);
+        checkContent(queue, 0.0, 1000.0, 2000.0);
+        
+        // source blocks are left untouched
+        assertEquals(2.0, src.getData().getDoubleValue(), 0.0);
+    }
+    
+    
+    @Test
+    public void testArrayUnitConversion() throws Exception
+    {
+        int size = 1000;
+        DataArray srcArray = fac.createArray()
+            .withFixedSize(size)
+            .withElement("temp", fac.createQuantity().uomCode("Cel").build())
+            .build();
+        DataArray destArray = fac.createArray()
+            .withFixedSize(size)
+            .withElement("temp", fac.createQuantity().uomCode("K").build())
+            .build();
+        
+        DataQueue queue = new DataQueue();
+        queue.setSource(null, srcArray);
+        queue.setDestination(null, destArray);
+        
+        srcArray.assignNewDataBlock();
+        for (int i = 0; i < size; i++)
+            srcArray.getData().setDoubleValue(i, i);
+        queue.publishData();
+        
+        assertTrue(queue.transferData(false));
+        for (int i = 0; i < size; i++)
+        {
+            assertEquals(i + 273.15, destArray.getData().getDoubleValue(i), 1e-9);
+            assertEquals(i, srcArray.getData().getDoubleValue(i), 0.0);
+        }
+    }
+    
+    
+    @Test
+    public void testRingBufferTimeouts() throws Exception
+    {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(3);
+        assertEquals(3, queue.remainingCapacity());
+        assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+    
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertTrue(queue.offer(3));
+        assertFalse(queue.offer(4, 1, TimeUnit.MILLISECONDS));
+        assertEquals(3, queue.size());
+        assertEquals(Integer.valueOf(1), queue.peek());
+    
+        assertEquals(Integer.valueOf(1), queue.take());
+        assertTrue(queue.offer(4));
+        assertArrayEquals(new Object[] {2, 3, 4}, queue.toArray());
+    
+        queue.clear();
+        assertTrue(queue.isEmpty());
+    }
+    
+    
+    @Test
+    public void testRingBufferWakeup() throws Exception
+    {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(1);
+        AtomicReference<Integer> result = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            try { result.set(queue.take()); }
+            catch (InterruptedException e) { }
+        });
+        consumer.start();
+    
+        // consumer must be parked, not spinning
+        long deadline = System.currentTimeMillis() + 1000;
+        while (consumer.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline)
+            Thread.sleep(1);
+        assertEquals(Thread.State.TIMED_WAITING, consumer.getState());
+    
+        queue.put(5);
+        consumer.join(1000);
+        assertFalse(consumer.isAlive());
+        assertEquals(Integer.valueOf(5), result.get());
+    
+        // producer is unparked when space becomes available
+        queue.put(6);
+        Thread producer = new Thread(() -> {
+            try { queue.put(7); }
+            catch (InterruptedException e) { }
+        });
+        producer.start();
+        Thread.sleep(20);
+        assertEquals(Integer.valueOf(6), queue.take());
+        producer.join(1000);
+        assertFalse(producer.isAlive());
+        assertEquals(Integer.valueOf(7), queue.poll());
+    }
+    
+    
+    @Test
+    public void testRingBufferOfferWhileConsumerClearsSlot() throws Exception
+    {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(4);
+        int numItems = 20000;
+        Thread consumer = new Thread(() -> {
+            int count = 0;
+            while (count < numItems)
+            {
+                if (queue.poll() != null)
+                    count++;
+                else
+                    Thread.yield();
+            }
+        });
+        consumer.start();
+    
+        // with a single producer, offer must succeed whenever there is room
+        // even if the consumer hasn't released the slot yet
+        int i = 0;
+        while (i < numItems)
+        {
+            if (queue.size() < queue.getCapacity())
+                assertTrue("Offer failed with free space", queue.offer(i++));
+            else
+                Thread.yield();
+        }
+    
+        consumer.join(10000);
+        assertFalse(consumer.isAlive());
+    }
+}
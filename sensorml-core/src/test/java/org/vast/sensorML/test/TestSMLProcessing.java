@@ -16,6 +16,7 @@ package org.vast.sensorML.test;
 
 import static org.junit.Assert.*;
 import java.net.URL;
+import java.util.concurrent.ForkJoinPool;
 import net.opengis.sensorml.v20.AbstractProcess;
 import net.opengis.sensorml.v20.AggregateProcess;
 import net.opengis.swe.v20.DataComponent;
@@ -24,6 +25,8 @@ import org.junit.Test;
 import org.vast.process.DataConnection;
 import org.vast.process.ExecutableChainImpl;
 import org.vast.process.IProcessExec;
+import org.vast.process.ProcessExecutors;
+import org.vast.process.ProcessExecutors.ExecutionMode;
 import org.vast.sensorML.AbstractProcessImpl;
 import org.vast.sensorML.ProcessLoader;
 import org.vast.sensorML.SMLException;
@@ -401,6 +404,40 @@ public class TestSMLProcessing
     }
     
     
+    @Test
+    public void testReadAndExecProcessChainWithSharedThreads() throws Exception
+    {
+        for (ExecutionMode mode: new ExecutionMode[] {ExecutionMode.SHARED, ExecutionMode.VIRTUAL})
+        {
+            ProcessExecutors.setDefaultMode(mode);
+            try
+            {
+                AbstractProcessImpl process = getExecutableProcess("examples_v20/AggregateProcess.xml", true);
+                
+                for (int i=0; i<10; i++)
+                {
+                    double in = i*2;
+                    process.getInputComponent("valueIn").getData().setDoubleValue(in);
+                    process.execute();
+                    
+                    double out = process.getOutputComponent("valueOut").getData().getDoubleValue();
+                    double expected = 2.3*in + 1.76;
+                    if (expected < 15.0)
+                        expected = Double.NaN;
+                    assertEquals("Incorrect output value", expected, out, 1e-15);
+                }
+                
+                process.dispose();
+                assertFalse(ProcessExecutors.getExecutor(mode).isShutdown());
+            }
+            finally
+            {
+                ProcessExecutors.setDefaultMode(ExecutionMode.DEDICATED);
+            }
+        }
+    }
+    
+    
     @Test
     public void testReadAndExecNestedChainsWithThreads() throws Exception
     {
@@ -438,6 +475,90 @@ public class TestSMLProcessing
     }
     
     
+    protected ExecutableChainImpl createBranchingChain(int numBranches) throws Exception
+    {
+        SWEHelper fac = new SWEHelper();
+        ExecutableChainImpl chain = new ExecutableChainImpl(false);
+        DataComponent chainIn = fac.createQuantity().build();
+        chain.getInputList().add("x", chainIn);
+        
+        // add second stage processes first to check execution order is computed
+        IProcessExec[] stage1 = new IProcessExec[numBranches];
+        IProcessExec[] stage2 = new IProcessExec[numBranches];
+        for (int i = 0; i < numBranches; i++)
+            stage2[i] = chain.addProcess("s2_" + i, new AffineTransform1D_Process());
+        for (int i = 0; i < numBranches; i++)
+            stage1[i] = chain.addProcess("s1_" + i, new AffineTransform1D_Process());
+        
+        for (int i = 0; i < numBranches; i++)
+        {
+            DataComponent chainOut = fac.createQuantity().build();
+            chain.getOutputList().add("y" + i, chainOut);
+            chain.connect(chain, chainIn, stage1[i], stage1[i].getInputList().getComponent("x"));
+            chain.connect(stage1[i], stage1[i].getOutputList().getComponent("y"), stage2[i], stage2[i].getInputList().getComponent("x"));
+            chain.connect(stage2[i], stage2[i].getOutputList().getComponent("y"), chain, chainOut);
+        }
+        
+        chain.init();
+        
+        for (int i = 0; i < numBranches; i++)
+        {
+            stage1[i].getParameterList().getComponent("slope").getData().setDoubleValue(i);
+            stage1[i].getParameterList().getComponent("intercept").getData().setDoubleValue(1.0);
+            stage2[i].getParameterList().getComponent("slope").getData().setDoubleValue(2.0);
+            stage2[i].getParameterList().getComponent("intercept").getData().setDoubleValue(-i);
+        }
+        
+        return chain;
+    }
+    
+    
+    protected void checkBranchingChain(ExecutableChainImpl chain, int numBranches) throws Exception
+    {
+        for (int k = 0; k < 5; k++)
+        {
+            double x = k*1.5;
+            chain.getInputList().getComponent("x").getData().setDoubleValue(x);
+            chain.execute();
+            
+            for (int i = 0; i < numBranches; i++)
+            {
+                double expected = 2.0*(i*x + 1.0) - i;
+                double out = chain.getOutputList().getComponent("y" + i).getData().getDoubleValue();
+                assertEquals("Incorrect output value", expected, out, 1e-12);
+            }
+        }
+    }
+    
+    
+    @Test
+    public void testExecBranchingChainSequential() throws Exception
+    {
+        int numBranches = 200;
+        ExecutableChainImpl chain = createBranchingChain(numBranches);
+        checkBranchingChain(chain, numBranches);
+    }
+    
+    
+    @Test
+    public void testExecBranchingChainParallel() throws Exception
+    {
+        int numBranches = 200;
+        ExecutableChainImpl chain = createBranchingChain(numBranches);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        
+        try
+        {
+            chain.setParallelExecution(pool);
+            checkBranchingChain(chain, numBranches);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+    
+    
     @Test
     public void testReadAndExecConfiguredProcessChain() throws Exception
     {
@@ -87,6 +87,41 @@ public abstract class AbstractDataBlock implements DataBlock
 	}
 	
 	
+	/**
+	 * Adjusts the atom count after the size of a child block has changed
+	 * @param atomCountDiff difference between new and old child atom count
+	 */
+	protected void adjustAtomCount(int atomCountDiff)
+	{
+	    this.atomCount += atomCountDiff;
+	}
+	
+	
+	/**
+	 * Finds the child block containing the given atom using binary search
+	 * @param offsets cumulative atom offsets of child blocks (with total
+	 * atom count as last element)
+	 * @param index global atom index
+	 * @return index of the last child block starting at or before the atom
+	 */
+	protected static int findBlockIndex(int[] offsets, int index)
+	{
+	    int lo = 0;
+	    int hi = offsets.length - 2;
+	    
+	    while (lo < hi)
+	    {
+	        int mid = (lo + hi + 1) >>> 1;
+	        if (offsets[mid] <= index)
+	            lo = mid;
+	        else
+	            hi = mid - 1;
+	    }
+	    
+	    return lo;
+	}
+	
+	
 	@Override
     public String toString()
 	{
@@ -336,4 +336,14 @@ public abstract class AbstractDataComponentImpl extends AbstractSWEIdentifiableI
     {
         this.encodingInfo = encodingInfo;
     }
+    
+    
+    /*
+     * Compressed blocks are kept compressed in memory unless a decoder is available
+     */
+    protected boolean hasBlockReader()
+    {
+        return encodingInfo instanceof BinaryBlockImpl &&
+            ((BinaryBlockImpl)encodingInfo).getBlockReader() != null;
+    }
 }
@@ -84,7 +84,7 @@ public abstract class AbstractRecordImpl<ComponentType extends DataComponent> ex
     protected void updateAtomCount(int childAtomCountDiff)
     {
         if (dataBlock != null)
-            dataBlock.atomCount += childAtomCountDiff;
+            dataBlock.adjustAtomCount(childAtomCountDiff);
         
         if (parent != null)
             parent.updateAtomCount(childAtomCountDiff);
@@ -258,7 +258,7 @@ public abstract class AbstractRecordImpl<ComponentType extends DataComponent> ex
         
         // if we want to keep compressed data as-is
         // TODO improve dealing with compressed data
-        if (encodingInfo != null && ((BinaryBlock)encodingInfo).getCompression() != null) // && keepCompressed)
+        if (encodingInfo != null && ((BinaryBlock)encodingInfo).getCompression() != null && !hasBlockReader()) // && keepCompressed)
         {
             newBlock = new DataBlockCompressed();
             newBlock.atomCount = totalSize;
@@ -15,6 +15,7 @@ Copyright (C) 2012-2015 Sensia Software LLC. All Rights Reserved.
 package org.vast.data;
 
 import org.vast.cdm.common.CompressedStreamParser;
+import org.vast.cdm.common.CompressedStreamWriter;
 import net.opengis.HasCopy;
 import net.opengis.swe.v20.BinaryBlock;
 
@@ -34,6 +35,7 @@ public class BinaryBlockImpl extends AbstractSWEImpl implements BinaryBlock, Has
     protected Long byteLength;
     protected String ref = "";
     protected transient CompressedStreamParser reader;
+    protected transient CompressedStreamWriter writer;
     
     
     public BinaryBlockImpl()
@@ -275,6 +277,26 @@ public class BinaryBlockImpl extends AbstractSWEImpl implements BinaryBlock, Has
     }
     
     
+    /**
+     * Gets the writer to use to encode the data for this block
+     * @return writer instance
+     */
+    public CompressedStreamWriter getBlockWriter()
+    {
+        return this.writer;
+    }
+    
+    
+    /**
+     * Sets the writer to use for encoding this block
+     * @param writer
+     */
+    public void setBlockWriter(CompressedStreamWriter writer)
+    {
+        this.writer = writer;
+    }
+    
+    
     @Override
     public String toString()
     {
@@ -119,7 +119,7 @@ public class DataArrayImpl extends AbstractArrayImpl
         	if (dataBlock instanceof DataBlockList)
             {
             	atomCountDiff = childAtomCountDiff;
-            	dataBlock.atomCount += atomCountDiff;
+            	dataBlock.adjustAtomCount(atomCountDiff);
             }
             else
             {
@@ -312,7 +312,7 @@ public class DataArrayImpl extends AbstractArrayImpl
     	{
     	    // if we want to keep compressed data as-is
             // TODO improve dealing with compressed data
-            if (encodingInfo != null && ((BinaryBlock)encodingInfo).getCompression() != null) // && keepCompressed)
+            if (encodingInfo != null && ((BinaryBlock)encodingInfo).getCompression() != null && !hasBlockReader()) // && keepCompressed)
             {
                 newBlock = new DataBlockCompressed();
                 newSize = childBlock.atomCount * arraySize;
@@ -202,4 +202,35 @@ public class DataBlockFactory
         
         return block;
     }
+    
+    
+    /**
+     * Creates a columnar datablock able to hold several records with the
+     * same atom types as the given record datablock. Each atom of the record
+     * is stored in its own primitive child block (i.e. struct of arrays).
+     * @param recordTemplate datablock of a single fixed size record
+     * @param numRecords number of records the block can hold
+     * @return the new parallel datablock
+     */
+    public static DataBlockParallel createColumnarBlock(DataBlock recordTemplate, int numRecords)
+    {
+        int numColumns = recordTemplate.getAtomCount();
+        AbstractDataBlock[] columns = new AbstractDataBlock[numColumns];
+        
+        for (int i=0; i<numColumns; i++)
+        {
+            DataType dataType = recordTemplate.getDataType(i);
+            if (dataType == DataType.INSTANT)
+                columns[i] = new DataBlockInstant(numRecords);
+            else if (dataType == DataType.DATETIME)
+                columns[i] = new DataBlockDateTime(numRecords);
+            else
+            {
+                columns[i] = (AbstractDataBlock)createBlock(dataType);
+                columns[i].resize(numRecords);
+            }
+        }
+        
+        return createParallelBlock(columns);
+    }
 }
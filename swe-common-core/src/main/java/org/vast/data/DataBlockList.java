@@ -42,14 +42,8 @@ public class DataBlockList extends AbstractDataBlock
 	protected boolean equalBlockSize;
 	transient protected int blockIndex;
 	transient protected int localIndex;
-	transient ThreadLocal<CachedIndex> cachedIndex = new ThreadLocal<>();
-	
-	static class CachedIndex
-	{
-	    int lastIndex; // last requested index
-	    int cumulIndex;
-	    int blockIndex;
-	}
+	transient protected int[] blockOffsets;
+	transient protected int indexedAtomCount = -1;
     
     
 	private DataBlockList()
@@ -59,7 +53,7 @@ public class DataBlockList extends AbstractDataBlock
 	
     public DataBlockList(boolean equalItemSize)
     {
-    	this(1, false, equalItemSize);
+    	this(1, true, equalItemSize);
     }
     
     
@@ -99,7 +93,7 @@ public class DataBlockList extends AbstractDataBlock
         newBlock.startIndex = this.startIndex;
         newBlock.blockAtomCount = this.blockAtomCount;
         newBlock.equalBlockSize = this.equalBlockSize;
-        newBlock.blockList = new LinkedList<>();
+        newBlock.blockList = new ArrayList<>(blockList.size());
         
         // renew all blocks in the list
         Iterator<DataBlock> it = this.blockList.iterator();
@@ -117,7 +111,7 @@ public class DataBlockList extends AbstractDataBlock
         newBlock.startIndex = this.startIndex;
         newBlock.blockAtomCount = this.blockAtomCount;
         newBlock.equalBlockSize = this.equalBlockSize;
-        newBlock.blockList = new LinkedList<>();
+        newBlock.blockList = new ArrayList<>(blockList.size());
         
         // fully copy (clone) all blocks in the list
         Iterator<DataBlock> it = this.blockList.iterator();
@@ -140,6 +134,7 @@ public class DataBlockList extends AbstractDataBlock
     public void setUnderlyingObject(Object obj)
     {
     	this.blockList = (List<DataBlock>)(Serializable)obj;
+    	invalidateBlockIndex();
     }
     
     
@@ -172,7 +167,9 @@ public class DataBlockList extends AbstractDataBlock
         
             for (int i=0; i<size; i++)
                 blockList.add(childBlock.clone());
-        }        
+        }
+	    
+	    invalidateBlockIndex();
 	}
     
     
@@ -186,6 +183,15 @@ public class DataBlockList extends AbstractDataBlock
             newAtomCount += block.getAtomCount();
         }
         this.atomCount = newAtomCount;
+        invalidateBlockIndex();
+    }
+    
+    
+    @Override
+    protected void adjustAtomCount(int atomCountDiff)
+    {
+        super.adjustAtomCount(atomCountDiff);
+        invalidateBlockIndex();
     }
 
     
@@ -200,35 +206,50 @@ public class DataBlockList extends AbstractDataBlock
 		}
 		else
 		{
-	    	// use thread local cached index to speed up sequential scans
-			CachedIndex cachedIdx = cachedIndex.get();
-			if (cachedIdx == null || index <= cachedIdx.lastIndex)
-			{
-			    cachedIdx = new CachedIndex();
-			    cachedIndex.set(cachedIdx);
-			}
-			
-			int size = 0;
-            int cumul = cachedIdx.cumulIndex;
-            int i = cachedIdx.blockIndex;
+		    int[] offsets = blockOffsets;
+		    
+		    // rebuild offset index if list or child blocks have changed
+		    if (offsets == null || indexedAtomCount != atomCount || offsets.length != blockList.size() + 1)
+		        offsets = buildBlockIndex();
+		    
+		    // try last selected block and next one first to speed up sequential scans
+		    // otherwise use binary search
+		    int i = blockIndex;
+		    if (i >= offsets.length - 1 || desiredIndex < offsets[i])
+		        i = findBlockIndex(offsets, desiredIndex);
+		    else if (desiredIndex >= offsets[i+1])
+		    {
+		        if (i + 2 < offsets.length && desiredIndex < offsets[i+2])
+		            i++;
+		        else
+		            i = findBlockIndex(offsets, desiredIndex);
+		    }
+		    
+		    blockIndex = i;
+		    localIndex = desiredIndex - offsets[i];
+		}
+	}
 	
-			while (desiredIndex >= cumul)
-			{
-				size = blockList.get(i).getAtomCount();
-				cumul += size;
-				i++;
-			}
 	
-			// actually use previous block because we went one block too far
-			cumul -= size;
-			blockIndex = i - 1;
-			localIndex = desiredIndex - cumul;
-			
-			// save indexing variables in cache for next call
-			cachedIdx.lastIndex = index;
-			cachedIdx.cumulIndex = cumul;
-			cachedIdx.blockIndex = blockIndex;
-		}
+	protected int[] buildBlockIndex()
+	{
+	    int[] offsets = new int[blockList.size() + 1];
+	    int i = 0;
+	    for (DataBlock block: blockList)
+	    {
+	        offsets[i+1] = offsets[i] + block.getAtomCount();
+	        i++;
+	    }
+	    
+	    blockOffsets = offsets;
+	    indexedAtomCount = atomCount;
+	    return offsets;
+	}
+	
+	
+	protected void invalidateBlockIndex()
+	{
+	    blockOffsets = null;
 	}
     
     
@@ -254,12 +275,14 @@ public class DataBlockList extends AbstractDataBlock
 
         blockList.add(block);
     	atomCount += block.getAtomCount();
+    	invalidateBlockIndex();
     }
     
     
     public void add(int blockIndex, AbstractDataBlock block)
     {
     	blockList.add(blockIndex, block);
+    	invalidateBlockIndex();
     }
     
     
@@ -268,6 +291,7 @@ public class DataBlockList extends AbstractDataBlock
     	DataBlock oldBlock = blockList.set(blockIndex, block);
     	atomCount -= oldBlock.getAtomCount();
     	atomCount += block.getAtomCount();
+    	invalidateBlockIndex();
     }
     
     
@@ -281,6 +305,7 @@ public class DataBlockList extends AbstractDataBlock
     {
     	blockList.remove(block);
     	atomCount -= block.atomCount;
+    	invalidateBlockIndex();
     }
     
     
@@ -288,6 +313,7 @@ public class DataBlockList extends AbstractDataBlock
     {
     	DataBlock oldBlock = blockList.remove(blockIndex);
     	atomCount -= oldBlock.getAtomCount();
+    	invalidateBlockIndex();
     }
 	
 	
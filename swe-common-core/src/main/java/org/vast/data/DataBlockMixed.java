@@ -35,7 +35,8 @@ public class DataBlockMixed extends AbstractDataBlock
     protected AbstractDataBlock[] blockArray;
 	protected int blockIndex;
 	protected int localIndex;
-    //protected int lastBlockIndex, lastIndex, lastCumulIndex;
+	transient protected int[] blockOffsets;
+	transient protected int indexedAtomCount = -1;
 
 
 	public DataBlockMixed()
@@ -137,6 +138,15 @@ public class DataBlockMixed extends AbstractDataBlock
             newAtomCount += block.getAtomCount();
         }
         this.atomCount = newAtomCount;
+        invalidateBlockIndex();
+    }
+    
+    
+    @Override
+    protected void adjustAtomCount(int atomCountDiff)
+    {
+        super.adjustAtomCount(atomCountDiff);
+        invalidateBlockIndex();
     }
     
     
@@ -144,6 +154,7 @@ public class DataBlockMixed extends AbstractDataBlock
     public void setUnderlyingObject(Object obj)
     {
     	this.blockArray = (AbstractDataBlock[])obj;
+    	invalidateBlockIndex();
     }
 	
 	
@@ -171,51 +182,49 @@ public class DataBlockMixed extends AbstractDataBlock
 	
 	protected void selectBlock(int index)
 	{
-        int i = 0;
-        int cumul = 0;
-        int size;
         int desiredIndex = startIndex + index;
+        int[] offsets = blockOffsets;
         
-        do
+        // rebuild offset index if child blocks have changed
+        if (offsets == null || indexedAtomCount != atomCount)
+            offsets = buildBlockIndex();
+        
+        // try last selected block and next one first to speed up sequential scans
+        // otherwise use binary search
+        int i = blockIndex;
+        if (i >= offsets.length - 1 || desiredIndex < offsets[i])
+            i = findBlockIndex(offsets, desiredIndex);
+        else if (desiredIndex >= offsets[i+1])
         {
-            size = blockArray[i].atomCount;
-            cumul += size;
-            i++;
+            if (i + 2 < offsets.length && desiredIndex < offsets[i+2])
+                i++;
+            else
+                i = findBlockIndex(offsets, desiredIndex);
+        }
+        
+        blockIndex = i;
+        localIndex = desiredIndex - offsets[i];
+	}
+    
+    
+	protected int[] buildBlockIndex()
+	{
+        int[] offsets = new int[blockArray.length + 1];
+        for (int i = 0; i < blockArray.length; i++)
+        {
+            AbstractDataBlock block = blockArray[i];
+            offsets[i+1] = offsets[i] + (block != null ? block.atomCount : 0);
         }
-        while (desiredIndex >= cumul);
-
-        blockIndex = i - 1;
-        localIndex = desiredIndex - (cumul - size);
         
-//		int i, size, cumul;
-//		int desiredIndex = startIndex + index;
-//		
-//        if (index > lastIndex)
-//        {
-//            i = lastBlockIndex;
-//            cumul = lastCumulIndex;
-//        }
-//        else
-//        {
-//            i = 0;
-//            cumul = 0;
-//        }
-//            
-//		do
-//		{
-//			size = blockArray[i].atomCount;
-//			cumul += size;
-//			i++;
-//		}
-//		while (desiredIndex >= cumul);
-//
-//		blockIndex = i - 1;
-//        lastCumulIndex = cumul - size;
-//		localIndex = desiredIndex - lastCumulIndex;
-//        
-//        lastIndex = index;
-//        lastBlockIndex = blockIndex;
-//        lastCumulIndex = cumul - size;
+        blockOffsets = offsets;
+        indexedAtomCount = atomCount;
+        return offsets;
+	}
+    
+    
+	protected void invalidateBlockIndex()
+	{
+        blockOffsets = null;
 	}
 
 
@@ -338,6 +347,7 @@ public class DataBlockMixed extends AbstractDataBlock
         
         // set actual child block
         blockArray[blockIndex] = dataBlock;
+        invalidateBlockIndex();
 	}
 	
 	
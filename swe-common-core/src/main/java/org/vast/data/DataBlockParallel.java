@@ -166,6 +166,24 @@ public class DataBlockParallel extends AbstractDataBlock
 	}
 
 
+	/**
+	 * Reduces the size of all child blocks without reallocating or
+	 * copying their content. Child blocks must be primitive blocks.
+	 * @param childSize new number of atoms in each child block
+	 */
+	public void truncate(int childSize)
+	{
+		for (int i=0; i<blockArray.length; i++)
+		{
+			if (childSize > blockArray[i].atomCount)
+				throw new IllegalArgumentException("Cannot truncate to a larger size");
+			blockArray[i].atomCount = childSize;
+		}
+		
+		this.atomCount = childSize * blockArray.length;
+	}
+
+
 	protected void selectBlock(int index)
 	{
 		blockIndex = index % blockArray.length;
@@ -0,0 +1,276 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.data;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.vast.util.Asserts;
+import net.opengis.swe.v20.DataBlock;
+
+
+/**
+ * <p>
+ * Pool of datablocks that can be reused once consumers are done with them.
+ * Blocks are grouped by shape, i.e. blocks are only handed out for reuse
+ * to replace a block with the same tree of block classes and atom counts
+ * (including the sizes of nested variable size arrays).
+ * </p><p>
+ * Values contained in a pooled block are those of the released block, so
+ * callers must overwrite all values before using it. Once released, a block
+ * must not be used anymore by the caller.
+ * </p><p>
+ * This class is thread-safe so blocks can be released by a thread that is
+ * different from the one producing them.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class DataBlockPool
+{
+    public static final int DEFAULT_MAX_BLOCKS_PER_SHAPE = 64;
+    public static final int DEFAULT_MAX_SHAPES = 16;
+
+    final int maxBlocksPerShape;
+    final int maxShapes;
+    final List<ShapeBucket> buckets = new ArrayList<>();
+
+
+    static class ShapeBucket
+    {
+        final int hash;
+        final AbstractDataBlock template;
+        final ArrayDeque<DataBlock> blocks = new ArrayDeque<>();
+
+        ShapeBucket(int hash, AbstractDataBlock template)
+        {
+            this.hash = hash;
+            this.template = template;
+        }
+    }
+
+
+    public DataBlockPool()
+    {
+        this(DEFAULT_MAX_BLOCKS_PER_SHAPE, DEFAULT_MAX_SHAPES);
+    }
+
+
+    /**
+     * @param maxBlocksPerShape Maximum number of blocks kept for each shape.
+     * Additional blocks that are released are left to the garbage collector
+     * @param maxShapes Maximum number of distinct shapes. When the limit is
+     * reached, blocks of the oldest shape are discarded
+     */
+    public DataBlockPool(int maxBlocksPerShape, int maxShapes)
+    {
+        Asserts.checkArgument(maxBlocksPerShape > 0, "maxBlocksPerShape must be > 0");
+        Asserts.checkArgument(maxShapes > 0, "maxShapes must be > 0");
+        this.maxBlocksPerShape = maxBlocksPerShape;
+        this.maxShapes = maxShapes;
+    }
+
+
+    /**
+     * Gets a block with the same shape as the given block from the pool
+     * @param prototype block whose shape must be matched
+     * @return A pooled block or null if no block of the same shape is available
+     */
+    public synchronized DataBlock get(DataBlock prototype)
+    {
+        ShapeBucket bucket = findBucket(prototype, getShapeHash(prototype));
+        return bucket != null ? bucket.blocks.pollLast() : null;
+    }
+
+
+    /**
+     * Gets a block with the same shape as the given block from the pool, or
+     * creates a new one using {@link DataBlock#renew()} if none is available
+     * @param prototype block whose shape must be matched
+     * @return A pooled or new block
+     */
+    public DataBlock getOrRenew(DataBlock prototype)
+    {
+        DataBlock block = get(prototype);
+        return block != null ? block : prototype.renew();
+    }
+
+
+    /**
+     * Returns a block to the pool so it can be reused
+     * @param block datablock that is not used anymore
+     */
+    public synchronized void release(DataBlock block)
+    {
+        if (!(block instanceof AbstractDataBlock))
+            return;
+
+        int hash = getShapeHash(block);
+        ShapeBucket bucket = findBucket(block, hash);
+        if (bucket == null)
+        {
+            if (buckets.size() >= maxShapes)
+                buckets.remove(0);
+            bucket = new ShapeBucket(hash, ((AbstractDataBlock)block).renew());
+            buckets.add(bucket);
+        }
+
+        if (bucket.blocks.size() < maxBlocksPerShape)
+            bucket.blocks.add(block);
+    }
+
+
+    /**
+     * @return The total number of blocks available in the pool
+     */
+    public synchronized int size()
+    {
+        int size = 0;
+        for (ShapeBucket bucket: buckets)
+            size += bucket.blocks.size();
+        return size;
+    }
+
+
+    /**
+     * Discards all blocks from the pool
+     */
+    public synchronized void clear()
+    {
+        buckets.clear();
+    }
+
+
+    protected ShapeBucket findBucket(DataBlock block, int hash)
+    {
+        for (int i = 0; i < buckets.size(); i++)
+        {
+            ShapeBucket bucket = buckets.get(i);
+            if (bucket.hash == hash && isSameShape(bucket.template, block))
+                return bucket;
+        }
+
+        return null;
+    }
+
+
+    protected static int getShapeHash(DataBlock block)
+    {
+        if (block == null)
+            return 0;
+
+        int hash = 31 * block.getClass().hashCode() + block.getAtomCount();
+
+        if (block instanceof DataBlockMixed)
+            hash = 31 * hash + getShapeHash(((DataBlockMixed)block).blockArray);
+        else if (block instanceof DataBlockParallel)
+            hash = 31 * hash + getShapeHash(((DataBlockParallel)block).blockArray);
+        else if (block instanceof DataBlockTuple)
+            hash = 31 * hash + getShapeHash(((DataBlockTuple)block).blockArray);
+        else if (block instanceof DataBlockList)
+        {
+            for (DataBlock child: ((DataBlockList)block).blockList)
+                hash = 31 * hash + getShapeHash(child);
+        }
+
+        return hash;
+    }
+
+
+    protected static int getShapeHash(AbstractDataBlock[] blockArray)
+    {
+        int hash = blockArray.length;
+        for (AbstractDataBlock child: blockArray)
+            hash = 31 * hash + getShapeHash(child);
+        return hash;
+    }
+
+
+    /**
+     * Checks if two datablocks have the same shape
+     * @param b1 first datablock
+     * @param b2 second datablock
+     * @return true if both blocks have the same class and atom count,
+     * recursively for all child blocks, and if leaf blocks are backed by
+     * arrays of the same type and size
+     */
+    public static boolean isSameShape(DataBlock b1, DataBlock b2)
+    {
+        if (b1 == null || b2 == null)
+            return b1 == b2;
+
+        if (b1.getClass() != b2.getClass() || b1.getAtomCount() != b2.getAtomCount())
+            return false;
+
+        if (b1 instanceof DataBlockMixed)
+            return isSameShape(((DataBlockMixed)b1).blockArray, ((DataBlockMixed)b2).blockArray);
+        else if (b1 instanceof DataBlockParallel)
+            return isSameShape(((DataBlockParallel)b1).blockArray, ((DataBlockParallel)b2).blockArray);
+        else if (b1 instanceof DataBlockTuple)
+            return isSameShape(((DataBlockTuple)b1).blockArray, ((DataBlockTuple)b2).blockArray);
+        else if (b1 instanceof DataBlockList)
+        {
+            List<DataBlock> l1 = ((DataBlockList)b1).blockList;
+            List<DataBlock> l2 = ((DataBlockList)b2).blockList;
+            if (l1.size() != l2.size())
+                return false;
+
+            Iterator<DataBlock> it2 = l2.iterator();
+            for (DataBlock child: l1)
+            {
+                if (!isSameShape(child, it2.next()))
+                    return false;
+            }
+
+            return true;
+        }
+
+        // leaf blocks with the same class can still wrap different arrays
+        // except compressed blocks whose array is only the encoded payload
+        if (!(b1 instanceof DataBlockCompressed))
+        {
+            Object o1 = b1.getUnderlyingObject();
+            Object o2 = b2.getUnderlyingObject();
+            if (o1 == null || o2 == null)
+            {
+                if (o1 != o2)
+                    return false;
+            }
+            else if (o1.getClass() != o2.getClass() ||
+                     (o1.getClass().isArray() && Array.getLength(o1) != Array.getLength(o2)))
+                return false;
+        }
+
+        return ((AbstractDataBlock)b1).startIndex == ((AbstractDataBlock)b2).startIndex;
+    }
+
+
+    protected static boolean isSameShape(AbstractDataBlock[] a1, AbstractDataBlock[] a2)
+    {
+        if (a1.length != a2.length)
+            return false;
+
+        for (int i = 0; i < a1.length; i++)
+        {
+            if (!isSameShape(a1[i], a2[i]))
+                return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,180 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.data;
+
+import java.util.Arrays;
+import net.opengis.swe.v20.DataBlock;
+
+
+/**
+ * <p>
+ * Maps a range of atoms of a composite datablock to segments of the leaf
+ * datablocks actually holding the values, so that values can be accessed
+ * directly on the leaf blocks without going through the composite block
+ * index for each atom.<br/>
+ * Only trees of {@link DataBlockMixed} are supported. Blocks interleaving
+ * the atoms of their children, such as {@link DataBlockParallel}, or lists
+ * of blocks cannot be bound.
+ * </p><p>
+ * Instances are reusable and can be bound to successive datablocks without
+ * allocating memory once the segment arrays have grown to the needed size.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class FlatBlockIndex
+{
+    AbstractDataBlock[] blocks = new AbstractDataBlock[16];
+    int[] indexes = new int[16];
+    int[] lengths = new int[16];
+    int numSegments;
+
+
+    /**
+     * Binds this index to a range of atoms of the given datablock
+     * @param data datablock to index
+     * @param index index of the first atom in the datablock
+     * @param count number of atoms to index
+     * @return true if the index could be built, false if the datablock
+     * has an unsupported structure
+     */
+    public boolean bind(DataBlock data, int index, int count)
+    {
+        numSegments = 0;
+
+        if (!(data instanceof AbstractDataBlock) || index < 0 || index + count > data.getAtomCount())
+            return false;
+
+        return addSegments((AbstractDataBlock)data, index, count);
+    }
+
+
+    protected boolean addSegments(AbstractDataBlock block, int index, int count)
+    {
+        if (count == 0)
+            return true;
+
+        if (block instanceof DataBlockMixed)
+        {
+            // same indexing as DataBlockMixed.selectBlock()
+            int pos = block.startIndex + index;
+            int childStart = 0;
+
+            for (AbstractDataBlock child: ((DataBlockMixed)block).blockArray)
+            {
+                if (child == null)
+                    continue;
+
+                int childEnd = childStart + child.atomCount;
+                if (childEnd > pos)
+                {
+                    int n = Math.min(count, childEnd - pos);
+                    if (!addSegments(child, pos - childStart, n))
+                        return false;
+
+                    pos += n;
+                    count -= n;
+                    if (count == 0)
+                        return true;
+                }
+
+                childStart = childEnd;
+            }
+
+            return false;
+        }
+
+        else if (block instanceof DataBlockParallel ||
+                 block instanceof DataBlockTuple ||
+                 block instanceof DataBlockList ||
+                 block instanceof DataBlockCompressed)
+            return false;
+
+        // extend previous segment if contiguous
+        if (numSegments > 0)
+        {
+            int last = numSegments - 1;
+            if (blocks[last] == block && indexes[last] + lengths[last] == index)
+            {
+                lengths[last] += count;
+                return true;
+            }
+        }
+
+        if (numSegments == blocks.length)
+        {
+            int newSize = numSegments * 2;
+            blocks = Arrays.copyOf(blocks, newSize);
+            indexes = Arrays.copyOf(indexes, newSize);
+            lengths = Arrays.copyOf(lengths, newSize);
+        }
+
+        blocks[numSegments] = block;
+        indexes[numSegments] = index;
+        lengths[numSegments] = count;
+        numSegments++;
+        return true;
+    }
+
+
+    /**
+     * @return The number of segments found in the bound datablock
+     */
+    public int getNumSegments()
+    {
+        return numSegments;
+    }
+
+
+    /**
+     * @param segment segment number
+     * @return The leaf datablock holding the atoms of the segment
+     */
+    public AbstractDataBlock getBlock(int segment)
+    {
+        return blocks[segment];
+    }
+
+
+    /**
+     * @param segment segment number
+     * @return The index of the first atom of the segment in the leaf datablock
+     */
+    public int getIndex(int segment)
+    {
+        return indexes[segment];
+    }
+
+
+    /**
+     * @param segment segment number
+     * @return The number of atoms in the segment
+     */
+    public int getLength(int segment)
+    {
+        return lengths[segment];
+    }
+
+
+    /**
+     * Releases references to the bound datablocks
+     */
+    public void clear()
+    {
+        Arrays.fill(blocks, 0, numSegments, null);
+        numSegments = 0;
+    }
+}
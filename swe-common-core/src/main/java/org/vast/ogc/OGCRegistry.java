@@ -20,8 +20,11 @@
 
 package org.vast.ogc;
 
+import java.lang.reflect.Constructor;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +39,10 @@ import org.w3c.dom.NodeList;
  * to read/write different versions of service requests as well
  * as other (mostly xml) messages and documents. This class
  * obtains the default mappings from the OGCRegistry.xml file. 
+ * </p><p>
+ * Constructors resolved for a given (type, subType, version) are cached
+ * so that creating a reader/writer only requires one map lookup. The
+ * cache is invalidated every time the mappings are modified.
  * </p>
  *
  * @author Alex Robin
@@ -51,14 +58,66 @@ public class OGCRegistry
     protected static Map<String, String> namespaces;
     protected static Map<String, String> owsVersions;
     protected static final Logger log = LoggerFactory.getLogger(OGCRegistry.class);
+    protected static final int MAX_CACHE_SIZE = 1024;
+    protected static final Map<FactoryKey, CachedFactory> readerCache = new ConcurrentHashMap<>();
+    protected static final Map<FactoryKey, CachedFactory> writerCache = new ConcurrentHashMap<>();
+    protected static volatile int generation;
+    
+    
+    protected static final class FactoryKey
+    {
+        final String type;
+        final String subType;
+        final String version;
+        final int hashCode;
+        
+        FactoryKey(String type, String subType, String version)
+        {
+            this.type = type;
+            this.subType = subType;
+            this.version = version;
+            this.hashCode = Objects.hash(type, subType, version);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof FactoryKey))
+                return false;
+            
+            FactoryKey other = (FactoryKey)obj;
+            return Objects.equals(type, other.type) &&
+                   Objects.equals(subType, other.subType) &&
+                   Objects.equals(version, other.version);
+        }
+    }
+    
+    
+    protected static final class CachedFactory
+    {
+        final Constructor<?> constructor;
+        final int generation;
+        
+        CachedFactory(Constructor<?> constructor, int generation)
+        {
+            this.constructor = constructor;
+            this.generation = generation;
+        }
+    }
     
 
     static
     {
-        readerClasses = new HashMap<String, String>();
-        writerClasses = new HashMap<String, String>();
-        namespaces = new HashMap<String, String>();
-        owsVersions = new HashMap<String, String>();
+        readerClasses = new ConcurrentHashMap<>();
+        writerClasses = new ConcurrentHashMap<>();
+        namespaces = new ConcurrentHashMap<>();
+        owsVersions = new ConcurrentHashMap<>();
         String mapFileUrl = OGCRegistry.class.getResource("OGCRegistry.xml").toString();
         loadMaps(mapFileUrl, false);
     }
@@ -125,7 +184,7 @@ public class OGCRegistry
     @SuppressWarnings("unchecked")
     public static <T> T createReader(String type, String subType, String version) throws IllegalStateException
     {
-        return (T)createObject(readerClasses, type, subType, version);
+        return (T)createObject(readerClasses, readerCache, type, subType, version);
     }
 
 
@@ -139,7 +198,7 @@ public class OGCRegistry
     @SuppressWarnings("unchecked")
     public static <T> T createReader(String type, String version) throws IllegalStateException
     {
-        return (T)createObject(readerClasses, type, null, version);
+        return (T)createObject(readerClasses, readerCache, type, null, version);
     }
 
 
@@ -154,7 +213,7 @@ public class OGCRegistry
     @SuppressWarnings("unchecked")
     public static <T> T createWriter(String type, String subType, String version) throws IllegalStateException
     {
-        return (T)createObject(writerClasses, type, subType, version);
+        return (T)createObject(writerClasses, writerCache, type, subType, version);
     }
 
 
@@ -168,7 +227,7 @@ public class OGCRegistry
     @SuppressWarnings("unchecked")
     public static <T> T createWriter(String type, String version) throws IllegalStateException
     {
-        return (T)createObject(writerClasses, type, null, version);
+        return (T)createObject(writerClasses, writerCache, type, null, version);
     }
 
 
@@ -180,9 +239,10 @@ public class OGCRegistry
      * @param className
      * @throws IllegalStateException
      */
-    public static void addReaderClass(String type, String subType, String version, String className) throws IllegalStateException
+    public static synchronized void addReaderClass(String type, String subType, String version, String className) throws IllegalStateException
     {
         addClass(readerClasses, type, subType, version, className);
+        invalidateCaches();
     }
 
 
@@ -194,9 +254,10 @@ public class OGCRegistry
      * @param className
      * @throws IllegalStateException
      */
-    public static void addWriterClass(String type, String subType, String version, String className) throws IllegalStateException
+    public static synchronized void addWriterClass(String type, String subType, String version, String className) throws IllegalStateException
     {
         addClass(writerClasses, type, subType, version, className);
+        invalidateCaches();
     }
 
 
@@ -231,7 +292,8 @@ public class OGCRegistry
         }
 
         // store class name in table
-        table.put(key.toString(), className);
+        if (className != null)
+            table.put(key.toString(), className);
     }
 
 
@@ -323,14 +385,44 @@ public class OGCRegistry
     /**
      * Handles the instantiation of reader/writer classes
      * @param table
+     * @param cache
      * @param type
      * @param subType
      * @param version
      * @return
      */
-    private static Object createObject(Map<String, String> table, String type, String subType, String version) throws IllegalStateException
+    private static Object createObject(Map<String, String> table, Map<FactoryKey, CachedFactory> cache, String type, String subType, String version) throws IllegalStateException
+    {
+        FactoryKey key = new FactoryKey(type, subType, version);
+        CachedFactory factory = cache.get(key);
+        
+        // resolve constructor if not cached or if mappings have changed since
+        if (factory == null || factory.generation != generation)
+        {
+            int currentGeneration = generation;
+            String className = getClassName(table, type, subType, version);
+            factory = new CachedFactory(getConstructor(className), currentGeneration);
+            
+            // keys come from client requests so don't let the cache grow indefinitely
+            if (cache.size() >= MAX_CACHE_SIZE)
+                cache.clear();
+            cache.put(key, factory);
+        }
+        
+        // instantiate using reflection
+        try
+        {
+            return factory.constructor.newInstance();
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException("Error while instantiating new reader/writer", e);
+        }
+    }
+    
+    
+    private static Constructor<?> getConstructor(String className) throws IllegalStateException
     {
-        String className = getClassName(table, type, subType, version);
         Class<?> objClass;
         
         // load class
@@ -343,17 +435,26 @@ public class OGCRegistry
             throw new IllegalStateException("Error while registering reader/writer Class " + className, e);
         }
         
-        // instantiate using reflection
         try
         {
-            Object obj = objClass.getDeclaredConstructor().newInstance();
-            return obj;
+            return objClass.getDeclaredConstructor();
         }
         catch (Exception e)
         {
             throw new IllegalStateException("Error while instantiating new reader/writer", e);
         }
     }
+    
+    
+    /*
+     * Invalidates all cached constructors
+     */
+    private static void invalidateCaches()
+    {
+        generation++;
+        readerCache.clear();
+        writerCache.clear();
+    }
 
 
     /**
@@ -361,19 +462,17 @@ public class OGCRegistry
      * @param xmlFileUrl
      * @param replace
      */
-    public static void loadMaps(String xmlFileUrl, boolean replace)
+    public static synchronized void loadMaps(String xmlFileUrl, boolean replace)
     {
         try
         {
             // open mappings file
             DOMHelper dom = new DOMHelper(xmlFileUrl, false);
-
-            // clear hashtables if requested
-            if (replace)
-            {
-                readerClasses.clear();
-                writerClasses.clear();
-            }
+            
+            // read new entries in temporary tables so concurrent
+            // lookups never see partially loaded tables
+            Map<String, String> newReaderClasses = new HashMap<>();
+            Map<String, String> newWriterClasses = new HashMap<>();
 
             // add namespace hashtable entries
             NodeList namespaceElts = dom.getElements("Namespace");
@@ -392,7 +491,8 @@ public class OGCRegistry
                 else
                 	spec = type;
                 
-                namespaces.put(spec, uri);
+                if (uri != null)
+                    namespaces.put(spec, uri);
                 
                 if (owsVersion != null)
                 	owsVersions.put(spec, owsVersion);
@@ -407,7 +507,7 @@ public class OGCRegistry
                 String subType = dom.getAttributeValue(readerElt, "subType");
                 String version = dom.getAttributeValue(readerElt, "version");
                 String className = dom.getAttributeValue(readerElt, "class");
-                addClass(readerClasses, type, subType, version, className);
+                addClass(newReaderClasses, type, subType, version, className);
             }
 
             // add writer hashtable entries
@@ -419,8 +519,19 @@ public class OGCRegistry
                 String subType = dom.getAttributeValue(writerElt, "subType");
                 String version = dom.getAttributeValue(writerElt, "version");
                 String className = dom.getAttributeValue(writerElt, "class");
-                addClass(writerClasses, type, subType, version, className);
-            }            
+                addClass(newWriterClasses, type, subType, version, className);
+            }
+            
+            // remove old entries if requested
+            if (replace)
+            {
+                readerClasses.keySet().retainAll(newReaderClasses.keySet());
+                writerClasses.keySet().retainAll(newWriterClasses.keySet());
+            }
+            
+            readerClasses.putAll(newReaderClasses);
+            writerClasses.putAll(newWriterClasses);
+            invalidateCaches();
         }
         catch (DOMHelperException e)
         {
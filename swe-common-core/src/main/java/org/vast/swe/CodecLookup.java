@@ -10,16 +10,21 @@
 
 package org.vast.swe;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import org.vast.cdm.common.CompressedStreamParser;
 import org.vast.cdm.common.CompressedStreamWriter;
+import org.vast.swe.codec.BuiltInCodecFactory;
 
 
 /**
  * <p>
- * Class for looking up codecs in the classpath
+ * Class for looking up codecs in the classpath.<br/>
+ * Factories registered with the java services mechanism are tried first,
+ * in the order they are found, before the {@link BuiltInCodecFactory}.
  * </p>
  *
  * @author Alex Robin
@@ -28,7 +33,7 @@ import org.vast.cdm.common.CompressedStreamWriter;
 public class CodecLookup
 {
     private static CodecLookup singleton;
-    ICodecFactory factory;
+    List<ICodecFactory> factories = new ArrayList<>();
     
     
     public static CodecLookup getInstance()
@@ -41,37 +46,52 @@ public class CodecLookup
     
     private CodecLookup()
     {
-        // for now we get the first factory we find
-        Iterator<ICodecFactory> it = ServiceLoader.load(ICodecFactory.class).iterator();
-        if (it.hasNext())
-            this.factory = it.next();
+        ServiceLoader.load(ICodecFactory.class).forEach(factories::add);
+        factories.add(new BuiltInCodecFactory());
     }
     
     
     public Map<String, Class<?>> getAvailableDecoders()
     {
-        return factory.getAvailableDecoders();
+        // iterate backwards so first factories take precedence
+        Map<String, Class<?>> decoders = new HashMap<>();
+        for (int i = factories.size()-1; i >= 0; i--)
+            decoders.putAll(factories.get(i).getAvailableDecoders());
+        return decoders;
     }
 
     
     public Map<String, Class<?>> getAvailableEncoders()
     {
-        return factory.getAvailableEncoders();
+        Map<String, Class<?>> encoders = new HashMap<>();
+        for (int i = factories.size()-1; i >= 0; i--)
+            encoders.putAll(factories.get(i).getAvailableEncoders());
+        return encoders;
     }
 
     
     public CompressedStreamParser createDecoder(String compressionType)
     {
-        if (factory == null)
-            return null;
-        return factory.createDecoder(compressionType);
+        for (ICodecFactory factory: factories)
+        {
+            CompressedStreamParser decoder = factory.createDecoder(compressionType);
+            if (decoder != null)
+                return decoder;
+        }
+        
+        return null;
     }
 
     
     public CompressedStreamWriter createEncoder(String compressionType)
     {
-        if (factory == null)
-            return null;
-        return factory.createEncoder(compressionType);
+        for (ICodecFactory factory: factories)
+        {
+            CompressedStreamWriter encoder = factory.createEncoder(compressionType);
+            if (encoder != null)
+                return encoder;
+        }
+        
+        return null;
     }    
 }
@@ -0,0 +1,329 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import org.vast.cdm.common.DataInputExt;
+
+
+/**
+ * <p>
+ * Implementation of DataInputExt reading primitive values directly from
+ * a heap or direct ByteBuffer, with configurable byte order.<br/>
+ * When constructed with a FileChannel, the file is memory-mapped by
+ * windows of configurable size so that files larger than 2GB can
+ * also be read.<br/>
+ * Closing this input closes the underlying file channel, if any.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class DataInputByteBuffer implements DataInputExt, Closeable
+{
+    public static final int DEFAULT_MAP_WINDOW_SIZE = 1 << 28;
+    
+    protected ByteBuffer buf;
+    protected ByteOrder byteOrder;
+    protected FileChannel channel;
+    protected long channelSize;
+    protected long windowOffset;
+    protected int windowSize;
+    protected long markPos = -1;
+    
+    
+    public DataInputByteBuffer(ByteBuffer buf)
+    {
+        this(buf, buf.order());
+    }
+    
+    
+    public DataInputByteBuffer(ByteBuffer buf, ByteOrder byteOrder)
+    {
+        this.buf = buf.duplicate().order(byteOrder);
+        this.byteOrder = byteOrder;
+    }
+    
+    
+    public DataInputByteBuffer(FileChannel channel, ByteOrder byteOrder) throws IOException
+    {
+        this(channel, byteOrder, DEFAULT_MAP_WINDOW_SIZE);
+    }
+    
+    
+    public DataInputByteBuffer(FileChannel channel, ByteOrder byteOrder, int windowSize) throws IOException
+    {
+        if (windowSize < 8)
+            throw new IllegalArgumentException("Map window size must be at least 8 bytes");
+    
+        this.channel = channel;
+        this.channelSize = channel.size();
+        this.byteOrder = byteOrder;
+        this.windowSize = windowSize;
+        mapWindow(channel.position());
+    }
+    
+    
+    protected void mapWindow(long offset) throws IOException
+    {
+        long size = Math.min(windowSize, channelSize - offset);
+        this.buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.max(size, 0)).order(byteOrder);
+        this.windowOffset = offset;
+    }
+    
+    
+    /*
+     * Makes sure the given number of bytes can be read from the buffer,
+     * remapping the next file window if needed
+     */
+    protected final void ensureAvailable(int numBytes) throws IOException
+    {
+        if (buf.remaining() >= numBytes)
+            return;
+    
+        if (channel != null)
+        {
+            mapWindow(getPosition());
+            if (buf.remaining() >= numBytes)
+                return;
+        }
+    
+        throw new EOFException();
+    }
+    
+    
+    /**
+     * @return the absolute read position in the buffer or file
+     */
+    public long getPosition()
+    {
+        return windowOffset + buf.position();
+    }
+    
+    
+    @Override
+    public int read() throws IOException
+    {
+        if (!buf.hasRemaining())
+        {
+            if (channel == null || getPosition() >= channelSize)
+                return -1;
+            mapWindow(getPosition());
+        }
+    
+        return buf.get() & 0xff;
+    }
+    
+    
+    @Override
+    public void mark(int readLimit) throws IOException
+    {
+        markPos = getPosition();
+    }
+    
+    
+    @Override
+    public void reset() throws IOException
+    {
+        if (markPos < 0)
+            throw new IOException("Mark not set");
+    
+        long relPos = markPos - windowOffset;
+        if (relPos >= 0 && relPos <= buf.limit())
+            buf.position((int)relPos);
+        else
+            mapWindow(markPos);
+    }
+    
+    
+    @Override
+    public void readFully(byte[] b) throws IOException
+    {
+        readFully(b, 0, b.length);
+    }
+    
+    
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException
+    {
+        if (len < 0)
+            throw new IndexOutOfBoundsException();
+    
+        while (len > 0)
+        {
+            if (!buf.hasRemaining())
+                ensureAvailable(1);
+    
+            int count = Math.min(len, buf.remaining());
+            buf.get(b, off, count);
+            off += count;
+            len -= count;
+        }
+    }
+    
+    
+    @Override
+    public int skipBytes(int n) throws IOException
+    {
+        long newPos = getPosition() + n;
+        long maxPos = (channel != null) ? channelSize : windowOffset + buf.limit();
+        if (newPos > maxPos)
+            newPos = maxPos;
+    
+        int skipped = (int)(newPos - getPosition());
+        long relPos = newPos - windowOffset;
+        if (relPos <= buf.limit())
+            buf.position((int)relPos);
+        else
+            mapWindow(newPos);
+    
+        return skipped;
+    }
+    
+    
+    @Override
+    public boolean readBoolean() throws IOException
+    {
+        ensureAvailable(1);
+        return buf.get() != 0;
+    }
+    
+    
+    @Override
+    public byte readByte() throws IOException
+    {
+        ensureAvailable(1);
+        return buf.get();
+    }
+    
+    
+    @Override
+    public int readUnsignedByte() throws IOException
+    {
+        ensureAvailable(1);
+        return buf.get() & 0xff;
+    }
+    
+    
+    @Override
+    public short readShort() throws IOException
+    {
+        ensureAvailable(2);
+        return buf.getShort();
+    }
+    
+    
+    @Override
+    public int readUnsignedShort() throws IOException
+    {
+        ensureAvailable(2);
+        return buf.getShort() & 0xffff;
+    }
+    
+    
+    @Override
+    public char readChar() throws IOException
+    {
+        ensureAvailable(2);
+        return buf.getChar();
+    }
+    
+    
+    @Override
+    public int readInt() throws IOException
+    {
+        ensureAvailable(4);
+        return buf.getInt();
+    }
+    
+    
+    @Override
+    public long readUnsignedInt() throws IOException
+    {
+        ensureAvailable(4);
+        return buf.getInt() & 0xffffffffL;
+    }
+    
+    
+    @Override
+    public long readLong() throws IOException
+    {
+        ensureAvailable(8);
+        return buf.getLong();
+    }
+    
+    
+    @Override
+    public long readUnsignedLong() throws IOException
+    {
+        return readLong();
+    }
+    
+    
+    @Override
+    public float readFloat() throws IOException
+    {
+        ensureAvailable(4);
+        return buf.getFloat();
+    }
+    
+    
+    @Override
+    public double readDouble() throws IOException
+    {
+        ensureAvailable(8);
+        return buf.getDouble();
+    }
+    
+    
+    @Override
+    public String readLine() throws IOException
+    {
+        throw new UnsupportedOperationException("readLine is not supported by binary buffer input");
+    }
+    
+    
+    @Override
+    public String readUTF() throws IOException
+    {
+        return DataInputStream.readUTF(this);
+    }
+    
+    
+    @Override
+    public String readASCII() throws IOException
+    {
+        int val;
+        StringBuilder sb = new StringBuilder();
+        while ((val = readUnsignedByte()) != 0)
+            sb.append((char)val);
+    
+        return sb.toString();
+    }
+    
+    
+    @Override
+    public void close() throws IOException
+    {
+        if (channel != null)
+            channel.close();
+    }
+}
@@ -0,0 +1,295 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import org.vast.cdm.common.DataOutputExt;
+
+
+/**
+ * <p>
+ * Implementation of DataOutputExt writing primitive values directly to
+ * a heap or direct ByteBuffer, with configurable byte order.<br/>
+ * When a channel is provided, the buffer content is written to the
+ * channel every time the buffer is full or when flush() is called.
+ * Otherwise, an IOException is thrown when the buffer overflows.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class DataOutputByteBuffer implements DataOutputExt
+{
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    
+    protected ByteBuffer buf;
+    protected WritableByteChannel channel;
+    
+    
+    public DataOutputByteBuffer(ByteBuffer buf)
+    {
+        this(buf, buf.order());
+    }
+    
+    
+    public DataOutputByteBuffer(ByteBuffer buf, ByteOrder byteOrder)
+    {
+        this.buf = buf.order(byteOrder);
+    }
+    
+    
+    public DataOutputByteBuffer(OutputStream os, ByteOrder byteOrder)
+    {
+        this(Channels.newChannel(os), byteOrder, DEFAULT_BUFFER_SIZE);
+    }
+    
+    
+    public DataOutputByteBuffer(WritableByteChannel channel, ByteOrder byteOrder, int bufferSize)
+    {
+        if (bufferSize < 8)
+            throw new IllegalArgumentException("Buffer size must be at least 8 bytes");
+    
+        this.buf = ByteBuffer.allocateDirect(bufferSize).order(byteOrder);
+        this.channel = channel;
+    }
+    
+    
+    /*
+     * Makes sure the given number of bytes can be written to the buffer,
+     * draining it to the channel if needed
+     */
+    protected final void ensureCapacity(int numBytes) throws IOException
+    {
+        if (buf.remaining() >= numBytes)
+            return;
+    
+        if (channel != null)
+        {
+            drainBuffer();
+            if (buf.remaining() >= numBytes)
+                return;
+        }
+    
+        throw new IOException("Output buffer is full");
+    }
+    
+    
+    protected void drainBuffer() throws IOException
+    {
+        buf.flip();
+        while (buf.hasRemaining())
+            channel.write(buf);
+        buf.clear();
+    }
+    
+    
+    /**
+     * @return the underlying byte buffer
+     */
+    public ByteBuffer getBuffer()
+    {
+        return buf;
+    }
+    
+    
+    @Override
+    public void write(int b) throws IOException
+    {
+        ensureCapacity(1);
+        buf.put((byte)b);
+    }
+    
+    
+    @Override
+    public void write(byte[] b) throws IOException
+    {
+        write(b, 0, b.length);
+    }
+    
+    
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        while (len > 0)
+        {
+            if (!buf.hasRemaining())
+                ensureCapacity(1);
+    
+            int count = Math.min(len, buf.remaining());
+            buf.put(b, off, count);
+            off += count;
+            len -= count;
+        }
+    }
+    
+    
+    @Override
+    public void writeBoolean(boolean v) throws IOException
+    {
+        ensureCapacity(1);
+        buf.put(v ? (byte)1 : (byte)0);
+    }
+    
+    
+    @Override
+    public void writeByte(int v) throws IOException
+    {
+        ensureCapacity(1);
+        buf.put((byte)v);
+    }
+    
+    
+    @Override
+    public void writeUnsignedByte(short v) throws IOException
+    {
+        ensureCapacity(1);
+        buf.put((byte)(0xff & v));
+    }
+    
+    
+    @Override
+    public void writeShort(int v) throws IOException
+    {
+        ensureCapacity(2);
+        buf.putShort((short)v);
+    }
+    
+    
+    @Override
+    public void writeUnsignedShort(int v) throws IOException
+    {
+        ensureCapacity(2);
+        buf.putShort((short)(0xffff & v));
+    }
+    
+    
+    @Override
+    public void writeChar(int v) throws IOException
+    {
+        ensureCapacity(2);
+        buf.putChar((char)v);
+    }
+    
+    
+    @Override
+    public void writeInt(int v) throws IOException
+    {
+        ensureCapacity(4);
+        buf.putInt(v);
+    }
+    
+    
+    @Override
+    public void writeUnsignedInt(long v) throws IOException
+    {
+        ensureCapacity(4);
+        buf.putInt((int)(0xffffffffL & v));
+    }
+    
+    
+    @Override
+    public void writeLong(long v) throws IOException
+    {
+        ensureCapacity(8);
+        buf.putLong(v);
+    }
+    
+    
+    @Override
+    public void writeUnsignedLong(long v) throws IOException
+    {
+        writeLong(v);
+    }
+    
+    
+    @Override
+    public void writeFloat(float v) throws IOException
+    {
+        ensureCapacity(4);
+        buf.putFloat(v);
+    }
+    
+    
+    @Override
+    public void writeDouble(double v) throws IOException
+    {
+        ensureCapacity(8);
+        buf.putDouble(v);
+    }
+    
+    
+    @Override
+    public void writeBytes(String s) throws IOException
+    {
+        int len = s.length();
+        for (int i = 0; i < len; i++)
+            writeByte(s.charAt(i));
+    }
+    
+    
+    @Override
+    public void writeChars(String s) throws IOException
+    {
+        int len = s.length();
+        for (int i = 0; i < len; i++)
+            writeChar(s.charAt(i));
+    }
+    
+    
+    @Override
+    public void writeUTF(String s) throws IOException
+    {
+        // use DataOutputStream to compute modified UTF-8 bytes
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(s.length() + 2);
+        new DataOutputStream(bos).writeUTF(s);
+        byte[] bytes = bos.toByteArray();
+        
+        // rewrite length prefix with the buffer byte order
+        writeUnsignedShort(bytes.length - 2);
+        write(bytes, 2, bytes.length - 2);
+    }
+    
+    
+    @Override
+    public void writeASCII(String s) throws IOException
+    {
+        writeBytes(s);
+        writeByte(0);
+    }
+    
+    
+    @Override
+    public void flush() throws IOException
+    {
+        if (channel != null)
+            drainBuffer();
+    }
+    
+    
+    @Override
+    public void close() throws IOException
+    {
+        flush();
+        if (channel != null)
+            channel.close();
+    }
+}
@@ -0,0 +1,226 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.vast.cdm.common.DataSource;
+import org.vast.util.Asserts;
+
+
+/**
+ * <p>
+ * This DataSource streams the text content of an XML element directly from
+ * a StAX reader, so that a low level parser can parse inline values without
+ * loading the whole XML document in memory, as {@link DataSourceDOM} does.
+ * </p><p>
+ * The text is read lazily from the reader as the parser consumes the stream,
+ * so the data stream can only be obtained once and must be consumed before
+ * the underlying XML stream is closed. Mixed content is not supported and
+ * the stream fails if a child element is found.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class DataSourceXMLStream implements DataSource
+{
+    static final int BUFFER_SIZE = 8192;
+
+    protected XMLStreamReader reader;
+    protected boolean used;
+
+
+    /**
+     * @param reader XML stream reader positioned on the start tag of the
+     * element containing the encoded values
+     */
+    public DataSourceXMLStream(XMLStreamReader reader)
+    {
+        Asserts.checkNotNull(reader, XMLStreamReader.class);
+        Asserts.checkArgument(reader.getEventType() == XMLStreamConstants.START_ELEMENT, "Reader must be positioned on a start tag");
+        this.reader = reader;
+    }
+
+
+    public XMLStreamReader getReader()
+    {
+        return reader;
+    }
+
+
+    /**
+     * Gets a stream reading the text content of the element lazily.
+     * When the stream is exhausted, the reader is positioned on the
+     * end tag of the element.
+     * @return input stream to read data from
+     * @throws IOException if the stream was already requested
+     */
+    @Override
+    public InputStream getDataStream() throws IOException
+    {
+        if (used)
+            throw new IOException("Streamed XML content can only be read once");
+        used = true;
+        return new TextContentInputStream();
+    }
+
+
+    /*
+     * Input stream encoding text events to UTF-8 as they are pulled from the reader
+     */
+    protected class TextContentInputStream extends InputStream
+    {
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        final CharBuffer charBuf = CharBuffer.allocate(BUFFER_SIZE);
+        final ByteBuffer byteBuf = ByteBuffer.allocate(BUFFER_SIZE * 3);
+        char[] text;
+        int textPos;
+        int textEnd;
+        boolean endOfElement;
+        boolean endOfStream;
+
+
+        TextContentInputStream()
+        {
+            byteBuf.flip();
+        }
+
+
+        @Override
+        public int read() throws IOException
+        {
+            if (!byteBuf.hasRemaining() && !fillBuffer())
+                return -1;
+            return byteBuf.get() & 0xFF;
+        }
+
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+                return 0;
+
+            if (!byteBuf.hasRemaining() && !fillBuffer())
+                return -1;
+
+            len = Math.min(len, byteBuf.remaining());
+            byteBuf.get(b, off, len);
+            return len;
+        }
+
+
+        @Override
+        public int available()
+        {
+            return byteBuf.remaining();
+        }
+
+
+        protected boolean fillBuffer() throws IOException
+        {
+            while (!byteBuf.hasRemaining())
+            {
+                if (endOfStream)
+                    return false;
+
+                readChars();
+
+                charBuf.flip();
+                byteBuf.clear();
+                CoderResult res = encoder.encode(charBuf, byteBuf, endOfElement);
+                if (endOfElement && res.isUnderflow())
+                {
+                    encoder.flush(byteBuf);
+                    endOfStream = true;
+                }
+                else if (res.isError())
+                    res.throwException();
+                charBuf.compact();
+                byteBuf.flip();
+            }
+
+            return true;
+        }
+
+
+        /*
+         * Copies chars from text events to the char buffer until it's full,
+         * or until the last text event is exhausted if some chars were read
+         */
+        protected void readChars() throws IOException
+        {
+            int start = charBuf.position();
+
+            try
+            {
+                while (charBuf.hasRemaining())
+                {
+                    if (textPos < textEnd)
+                    {
+                        int n = Math.min(charBuf.remaining(), textEnd - textPos);
+                        charBuf.put(text, textPos, n);
+                        textPos += n;
+                        continue;
+                    }
+
+                    if (endOfElement || charBuf.position() > start)
+                        return;
+
+                    switch (reader.next())
+                    {
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                        case XMLStreamConstants.SPACE:
+                            text = reader.getTextCharacters();
+                            textPos = reader.getTextStart();
+                            textEnd = textPos + reader.getTextLength();
+                            break;
+
+                        case XMLStreamConstants.ENTITY_REFERENCE:
+                            text = reader.getText().toCharArray();
+                            textPos = 0;
+                            textEnd = text.length;
+                            break;
+
+                        case XMLStreamConstants.START_ELEMENT:
+                            throw new IOException("Unexpected element in streamed values: " + reader.getLocalName());
+
+                        case XMLStreamConstants.END_ELEMENT:
+                        case XMLStreamConstants.END_DOCUMENT:
+                            endOfElement = true;
+                            break;
+
+                        default:
+                            // skip comments and processing instructions
+                    }
+                }
+            }
+            catch (XMLStreamException e)
+            {
+                throw new IOException("Error while reading XML stream", e);
+            }
+        }
+    }
+}
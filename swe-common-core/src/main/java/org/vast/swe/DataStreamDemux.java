@@ -0,0 +1,473 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.TextEncoding;
+import org.vast.cdm.common.DataHandler;
+import org.vast.cdm.common.DataStreamParser;
+import org.vast.cdm.common.StreamDemux;
+import org.vast.util.Asserts;
+
+
+/**
+ * <p>
+ * Demultiplexer reading records of several data streams interleaved in a
+ * single input stream, and routing each record to the parser registered for
+ * its cluster ID. Decoded datablocks are sent to the data handler of each
+ * parser, as with {@link DataStreamParser#parse(InputStream)}.<br/>
+ * Two framings are supported:
+ * <li>Binary: each record is prefixed by the cluster ID, written as with
+ * {@link java.io.DataOutput#writeUTF(String)}, and by the record length in
+ * bytes, as a 32-bit big endian integer</li>
+ * <li>Text: each record starts with the cluster ID followed by the token
+ * separator, and ends with the block separator</li>
+ * </p><p>
+ * The input stream is read once by the calling thread. If an executor is set,
+ * records are decoded by worker tasks so that different clusters are decoded
+ * in parallel, while records of a given cluster are still decoded and sent to
+ * the data handler sequentially and in order. Records with an unknown
+ * cluster ID are skipped.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class DataStreamDemux implements StreamDemux
+{
+    public static final int DEFAULT_MAX_PENDING_RECORDS = 1024;
+    static final int MAX_ID_LENGTH = 1024;
+
+    final Map<String, Cluster> clusters = new ConcurrentHashMap<>();
+    final byte[] tokenSep;
+    final byte[] blockSep;
+    Executor executor;
+    int maxPendingRecords = DEFAULT_MAX_PENDING_RECORDS;
+    volatile boolean stopParsing;
+    volatile Throwable error;
+    long skippedRecords;
+
+    // read buffer for text framing
+    byte[] recordBuf = new byte[256];
+    int recordLength;
+
+
+    /*
+     * Input stream reused for all records of a cluster
+     */
+    static class RecordInputStream extends ByteArrayInputStream
+    {
+        RecordInputStream()
+        {
+            super(new byte[0]);
+        }
+
+        RecordInputStream setRecord(byte[] record)
+        {
+            this.buf = record;
+            this.pos = 0;
+            this.mark = 0;
+            this.count = record.length;
+            return this;
+        }
+    }
+
+
+    /*
+     * Parser and queue of records to decode for one cluster
+     */
+    class Cluster
+    {
+        final DataStreamParser parser;
+        final RecordInputStream input = new RecordInputStream();
+        final ArrayDeque<byte[]> pendingRecords = new ArrayDeque<>();
+        boolean scheduled;
+
+        Cluster(DataStreamParser parser)
+        {
+            this.parser = parser;
+        }
+
+        void decode(byte[] record) throws IOException
+        {
+            parser.setInput(input.setRecord(record));
+
+            DataBlock data;
+            while ((data = parser.parseNextBlock()) != null)
+            {
+                DataHandler handler = parser.getDataHandler();
+                if (handler != null)
+                {
+                    handler.startData(parser.getDataComponents());
+                    handler.endData(parser.getDataComponents(), data);
+                }
+            }
+        }
+
+        synchronized void enqueue(byte[] record) throws InterruptedException
+        {
+            // block reader if this cluster is too far behind
+            while (pendingRecords.size() >= maxPendingRecords && error == null)
+                wait();
+
+            pendingRecords.add(record);
+            if (!scheduled)
+            {
+                scheduled = true;
+                try
+                {
+                    executor.execute(this::drain);
+                }
+                catch (RejectedExecutionException e)
+                {
+                    // nobody will drain the queue so stop reading
+                    pendingRecords.clear();
+                    scheduled = false;
+                    error = e;
+                    notifyAll();
+                }
+            }
+        }
+
+        void drain()
+        {
+            while (true)
+            {
+                byte[] record;
+                synchronized (this)
+                {
+                    record = pendingRecords.poll();
+                    if (record == null || error != null)
+                    {
+                        pendingRecords.clear();
+                        scheduled = false;
+                        notifyAll();
+                        return;
+                    }
+                    notifyAll();
+                }
+
+                try
+                {
+                    decode(record);
+                }
+                catch (Throwable e)
+                {
+                    error = e;
+                }
+            }
+        }
+
+        synchronized void awaitIdle() throws InterruptedException
+        {
+            while (scheduled)
+                wait();
+        }
+    }
+
+
+    /**
+     * Creates a demultiplexer for binary framing
+     */
+    public DataStreamDemux()
+    {
+        this.tokenSep = null;
+        this.blockSep = null;
+    }
+
+
+    /**
+     * Creates a demultiplexer for text framing
+     * @param framing text encoding providing the token separator following
+     * the cluster ID, and the block separator ending each record
+     */
+    public DataStreamDemux(TextEncoding framing)
+    {
+        Asserts.checkNotNull(framing, TextEncoding.class);
+        this.tokenSep = framing.getTokenSeparator().getBytes(StandardCharsets.UTF_8);
+        this.blockSep = framing.getBlockSeparator().getBytes(StandardCharsets.UTF_8);
+        Asserts.checkArgument(tokenSep.length > 0 && blockSep.length > 0, "Separators cannot be empty");
+    }
+
+
+    @Override
+    public void addDataParser(String clusterID, DataStreamParser dataParser)
+    {
+        Asserts.checkNotNull(clusterID, "clusterID");
+        Asserts.checkNotNull(dataParser, DataStreamParser.class);
+        clusters.put(clusterID, new Cluster(dataParser));
+    }
+
+
+    @Override
+    public void removeDataParser(String clusterID)
+    {
+        clusters.remove(clusterID);
+    }
+
+
+    @Override
+    public DataStreamParser getDataParser(String clusterID)
+    {
+        Cluster cluster = clusters.get(clusterID);
+        return cluster != null ? cluster.parser : null;
+    }
+
+
+    /**
+     * Sets the executor used to decode records in parallel.<br/>
+     * Data handlers are then called by worker threads, but never concurrently
+     * for the same cluster.
+     * @param executor executor, or null to decode all records in the
+     * reading thread
+     */
+    public void setExecutor(Executor executor)
+    {
+        this.executor = executor;
+    }
+
+
+    /**
+     * @param maxPendingRecords Maximum number of records waiting to be
+     * decoded for each cluster. Reading is paused when this limit is reached.
+     * Only used when an executor is set.
+     */
+    public void setMaxPendingRecords(int maxPendingRecords)
+    {
+        Asserts.checkArgument(maxPendingRecords > 0, "maxPendingRecords must be > 0");
+        this.maxPendingRecords = maxPendingRecords;
+    }
+
+
+    /**
+     * Reads and dispatches all records until the end of the input stream.
+     * When an executor is set, this method returns after all records have
+     * been decoded.
+     * @param inputStream multiplexed input stream, closed when this method returns
+     * @throws IOException if an error occurs while reading or decoding a record
+     */
+    public void parse(InputStream inputStream) throws IOException
+    {
+        stopParsing = false;
+        error = null;
+        skippedRecords = 0;
+
+        try (InputStream is = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream))
+        {
+            DataInputStream dataInput = new DataInputStream(is);
+
+            while (!stopParsing && error == null)
+            {
+                String clusterID = tokenSep != null ? readTextID(is) : readBinaryID(dataInput);
+                if (clusterID == null)
+                    break;
+
+                Cluster cluster = clusters.get(clusterID);
+                byte[] record = tokenSep != null ? readTextRecord(is, cluster != null) : readBinaryRecord(dataInput, cluster != null);
+
+                if (cluster == null)
+                    skippedRecords++;
+                else if (executor != null)
+                    cluster.enqueue(record);
+                else
+                    cluster.decode(record);
+            }
+
+            // wait for all records to be decoded
+            if (executor != null)
+            {
+                for (Cluster cluster: clusters.values())
+                    cluster.awaitIdle();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for records to be decoded");
+        }
+
+        if (error instanceof IOException)
+            throw (IOException)error;
+        else if (error != null)
+            throw new IOException("Error while decoding record", error);
+    }
+
+
+    /**
+     * Stops parsing after the current record
+     */
+    public void stop()
+    {
+        stopParsing = true;
+    }
+
+
+    /**
+     * @return The number of records skipped during the last call to
+     * {@link #parse(InputStream)} because no parser was registered for
+     * their cluster ID
+     */
+    public long getSkippedRecordCount()
+    {
+        return skippedRecords;
+    }
+
+
+    protected String readBinaryID(DataInputStream dataInput) throws IOException
+    {
+        dataInput.mark(1);
+        if (dataInput.read() < 0)
+            return null;
+        dataInput.reset();
+
+        return dataInput.readUTF();
+    }
+
+
+    protected byte[] readBinaryRecord(DataInputStream dataInput, boolean keep) throws IOException
+    {
+        int length = dataInput.readInt();
+        if (length < 0)
+            throw new IOException("Invalid record length: " + length);
+
+        if (!keep)
+        {
+            skipFully(dataInput, length);
+            return null;
+        }
+
+        byte[] record = new byte[length];
+        dataInput.readFully(record);
+        return record;
+    }
+
+
+    protected void skipFully(InputStream is, long length) throws IOException
+    {
+        // skip() can return less than requested (e.g. only what is buffered)
+        // so we loop and fall back to read() when it doesn't make progress
+        byte[] scratch = null;
+        while (length > 0)
+        {
+            long n = is.skip(length);
+            if (n <= 0)
+            {
+                if (scratch == null)
+                    scratch = new byte[(int)Math.min(length, 8192)];
+                n = is.read(scratch, 0, (int)Math.min(length, scratch.length));
+                if (n < 0)
+                    throw new EOFException();
+            }
+            length -= n;
+        }
+    }
+
+
+    protected String readTextID(InputStream is) throws IOException
+    {
+        // skip whitespaces between records
+        int b;
+        do
+        {
+            is.mark(1);
+            b = is.read();
+        }
+        while (b >= 0 && Character.isWhitespace(b));
+
+        if (b < 0)
+            return null;
+        is.reset();
+
+        if (!readUntil(is, tokenSep, MAX_ID_LENGTH))
+            throw new EOFException("Missing token separator after cluster ID");
+
+        return new String(recordBuf, 0, recordLength - tokenSep.length, StandardCharsets.UTF_8).trim();
+    }
+
+
+    protected byte[] readTextRecord(InputStream is, boolean keep) throws IOException
+    {
+        // always terminate record with block separator, even at end of stream
+        if (!readUntil(is, blockSep, Integer.MAX_VALUE))
+            appendToRecord(blockSep, blockSep.length);
+
+        return keep ? Arrays.copyOf(recordBuf, recordLength) : null;
+    }
+
+
+    /*
+     * Reads bytes into the record buffer until the separator is found,
+     * the separator being included at the end of the buffer
+     */
+    protected boolean readUntil(InputStream is, byte[] sep, int maxLength) throws IOException
+    {
+        recordLength = 0;
+        int last = sep[sep.length - 1];
+
+        int b;
+        while ((b = is.read()) >= 0)
+        {
+            if (recordLength == recordBuf.length)
+                recordBuf = Arrays.copyOf(recordBuf, recordBuf.length * 2);
+            recordBuf[recordLength++] = (byte)b;
+
+            if (b == last && endsWith(sep))
+                return true;
+
+            if (recordLength > maxLength)
+                throw new IOException("Cluster ID is too long");
+        }
+
+        return false;
+    }
+
+
+    protected boolean endsWith(byte[] sep)
+    {
+        if (recordLength < sep.length)
+            return false;
+
+        for (int i = 0, j = recordLength - sep.length; i < sep.length; i++, j++)
+        {
+            if (recordBuf[j] != sep[i])
+                return false;
+        }
+
+        return true;
+    }
+
+
+    protected void appendToRecord(byte[] bytes, int length)
+    {
+        if (recordLength + length > recordBuf.length)
+            recordBuf = Arrays.copyOf(recordBuf, Math.max(recordBuf.length * 2, recordLength + length));
+        System.arraycopy(bytes, 0, recordBuf, recordLength, length);
+        recordLength += length;
+    }
+}
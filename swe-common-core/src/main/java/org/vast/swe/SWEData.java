@@ -29,7 +29,10 @@ import org.vast.cdm.common.DataSink;
 import org.vast.cdm.common.DataSource;
 import org.vast.cdm.common.DataStreamParser;
 import org.vast.cdm.common.DataStreamWriter;
+import org.vast.data.DataBlockList;
+import org.vast.data.DataBlockPool;
 import org.vast.data.DataList;
+import org.vast.swe.fast.AbstractDataParser;
 
 
 /**
@@ -45,6 +48,7 @@ public class SWEData extends DataList implements ISweInputDataStream, ISweOutput
 {
     private static final long serialVersionUID = 1745973314151779348L;
     protected transient DataSource dataSource;
+    protected transient DataBlockPool blockPool;
     
 
     public SWEData()
@@ -58,6 +62,7 @@ public class SWEData extends DataList implements ISweInputDataStream, ISweOutput
         SWEData newObj = new SWEData();
         copyTo(newObj);
         newObj.dataSource = this.dataSource;
+        newObj.blockPool = this.blockPool;
         return newObj;
     }
     
@@ -95,6 +100,40 @@ public class SWEData extends DataList implements ISweInputDataStream, ISweOutput
     }
     
     
+    public DataBlockPool getDataBlockPool()
+    {
+        return blockPool;
+    }
+
+
+    /**
+     * Sets the pool used to recycle datablocks between successive parsing
+     * operations. Blocks released with {@link #recycleData()} are reused by
+     * parsers created by this object.
+     * @param blockPool datablock pool, or null to disable pooling
+     */
+    public void setDataBlockPool(DataBlockPool blockPool)
+    {
+        this.blockPool = blockPool;
+    }
+    
+    
+    /**
+     * Releases all datablocks stored in this list to the datablock pool, if
+     * one was set, and removes them from the list
+     */
+    public void recycleData()
+    {
+        if (blockPool != null && dataBlock != null)
+        {
+            for (DataBlock data: ((DataBlockList)dataBlock).getUnderlyingObject())
+                blockPool.release(data);
+        }
+        
+        clearData();
+    }
+    
+    
     /**
      * Retrieves parser created for this SWE structure/encoding pair
      * Allows the use of the parser on a separate input streams w/ same structure
@@ -104,6 +143,8 @@ public class SWEData extends DataList implements ISweInputDataStream, ISweOutput
     {
         DataStreamParser parser = SWEHelper.createDataParser(getEncoding());
         parser.setDataComponents(getElementType());
+        if (parser instanceof AbstractDataParser)
+            ((AbstractDataParser)parser).setDataBlockPool(blockPool);
         return parser;
     }
     
@@ -155,11 +196,16 @@ public class SWEData extends DataList implements ISweInputDataStream, ISweOutput
         }
         else
         {
-            if (dataSource instanceof DataSourceDOM)
+            if (dataSource instanceof DataSourceXMLStream && encoding instanceof XMLEncoding)
+                throw new IOException("XML encoded values cannot be parsed from a streamed XML source");
+            
+            if (dataSource instanceof DataSourceDOM || dataSource instanceof DataSourceXMLStream)
                 encoding = SWEHelper.ensureXmlCompatible(encoding);
        
             DataStreamParser parser = SWEHelper.createDataParser(encoding);
             parser.setDataComponents(getElementType());
+            if (parser instanceof AbstractDataParser)
+                ((AbstractDataParser)parser).setDataBlockPool(blockPool);
         	parser.setDataHandler(new DefaultParserHandler(this));        	
         	parser.parse(dataSource.getDataStream());
         }
@@ -85,6 +85,7 @@ import org.vast.swe.SWEBuilders.TimeRangeBuilder;
 import org.vast.swe.SWEBuilders.VectorBuilder;
 import org.vast.swe.fast.JsonDataParserGson;
 import org.vast.swe.fast.JsonDataWriterGson;
+import org.vast.swe.fast.TextDataParser;
 import org.vast.swe.fast.TextDataWriter;
 import org.vast.swe.fast.XmlDataWriter;
 import org.vast.swe.helper.RasterHelper;
@@ -106,6 +107,7 @@ public class SWEHelper
 {
     public static final SWEFactory DEFAULT_SWE_FACTORY = new SWEFactory();
     public static final String PATH_SEPARATOR = "/";
+    public static final String LEGACY_PARSERS_PROPERTY = "org.vast.swe.useLegacyParsers";
     
     public static final Unit MASS_UNIT = new Unit().setKilogram(1.0);
     public static final Unit TIME_UNIT = new Unit().setSecond(1.0);
@@ -446,18 +448,32 @@ public class SWEHelper
 
 
     /**
-     * Helper method to instantiate the proper parser for the given encoding
+     * Helper method to instantiate the proper parser for the given encoding.<br/>
+     * Fast parsers are used unless the {@value #LEGACY_PARSERS_PROPERTY} system
+     * property is set to true.
      * @param encoding
      * @return instance of parser capable of handling the given encoding
      */
     public static DataStreamParser createDataParser(DataEncoding encoding)
+    {
+        return createDataParser(encoding, java.lang.Boolean.getBoolean(LEGACY_PARSERS_PROPERTY));
+    }
+
+
+    /**
+     * Helper method to instantiate the proper parser for the given encoding
+     * @param encoding
+     * @param useLegacy set to true to use the legacy tree visitor implementations
+     * @return instance of parser capable of handling the given encoding
+     */
+    public static DataStreamParser createDataParser(DataEncoding encoding, boolean useLegacy)
     {
         DataStreamParser parser = null;
 
         if (encoding instanceof TextEncoding)
-            parser = new AsciiDataParser();
+            parser = useLegacy ? new AsciiDataParser() : new TextDataParser();
         else if (encoding instanceof BinaryEncoding)
-            parser = new BinaryDataParser();
+            parser = useLegacy ? new BinaryDataParser() : new org.vast.swe.fast.BinaryDataParser();
         else if (encoding instanceof XMLEncoding)
             parser = new XmlDataParser();
         else if (encoding instanceof JSONEncoding)
@@ -471,20 +487,34 @@ public class SWEHelper
 
 
     /**
-     * Helper method to instantiate the proper writer for the given encoding
+     * Helper method to instantiate the proper writer for the given encoding.<br/>
+     * Fast writers are used unless the {@value #LEGACY_PARSERS_PROPERTY} system
+     * property is set to true.
      * @param encoding
      * @return instance of writer capable of handling the given encoding
      */
     public static DataStreamWriter createDataWriter(DataEncoding encoding)
+    {
+        return createDataWriter(encoding, java.lang.Boolean.getBoolean(LEGACY_PARSERS_PROPERTY));
+    }
+
+
+    /**
+     * Helper method to instantiate the proper writer for the given encoding
+     * @param encoding
+     * @param useLegacy set to true to use the legacy tree visitor implementations
+     * @return instance of writer capable of handling the given encoding
+     */
+    public static DataStreamWriter createDataWriter(DataEncoding encoding, boolean useLegacy)
     {
         DataStreamWriter writer = null;
 
         if (encoding instanceof TextEncoding)
-            writer = new TextDataWriter();
+            writer = useLegacy ? new AsciiDataWriter() : new TextDataWriter();
         else if (encoding instanceof BinaryEncoding)
-            writer = new BinaryDataWriter();
+            writer = useLegacy ? new BinaryDataWriter() : new org.vast.swe.fast.BinaryDataWriter();
         else if (encoding instanceof XMLEncoding)
-            writer = new XmlDataWriter();
+            writer = useLegacy ? new org.vast.swe.XmlDataWriter() : new XmlDataWriter();
         else if (encoding instanceof JSONEncoding)
             writer = new JsonDataWriterGson();
         else
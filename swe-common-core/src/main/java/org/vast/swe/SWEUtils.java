@@ -23,6 +23,7 @@ package org.vast.swe;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
@@ -31,6 +32,7 @@ import net.opengis.swe.v20.DataEncoding;
 import net.opengis.swe.v20.DataStream;
 import org.vast.xml.DOMHelper;
 import org.vast.xml.XMLBindingsUtils;
+import org.vast.xml.XMLImplFinder;
 import org.vast.xml.XMLReaderException;
 import org.vast.xml.XMLWriterException;
 import org.w3c.dom.Element;
@@ -146,6 +148,14 @@ public class SWEUtils extends XMLBindingsUtils
     }
     
     
+    @Override
+    protected XMLOutputFactory getStaxOutputFactory()
+    {
+        // preserve tabs and line breaks used as encoding separators
+        return XMLImplFinder.getAttributeEscapingStaxOutputFactory();
+    }
+    
+    
     @Override
     protected Object readFromXmlStream(XMLStreamReader reader, Enum<?> eltType) throws XMLStreamException
     {
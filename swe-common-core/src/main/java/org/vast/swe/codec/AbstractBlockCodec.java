@@ -0,0 +1,224 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.codec;
+
+import java.io.IOException;
+import org.vast.cdm.common.CDMException;
+import org.vast.cdm.common.CompressedStreamParser;
+import org.vast.cdm.common.CompressedStreamWriter;
+import org.vast.cdm.common.DataInputExt;
+import org.vast.cdm.common.DataOutputExt;
+import net.opengis.swe.v20.BinaryBlock;
+import net.opengis.swe.v20.DataArray;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataComponent;
+
+
+/**
+ * <p>
+ * Base class for built-in block codecs.<br/>
+ * Each compressed block is written as the total byte length of the block,
+ * followed by the number of values and the compressed bytes, so that it can
+ * still be read as-is by parsers that don't have the corresponding decoder.
+ * </p><p>
+ * Values are compressed column by column, i.e. for arrays of records all
+ * values of the first field are encoded first, then all values of the second
+ * field, etc. This groups similar values together and improves compression.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public abstract class AbstractBlockCodec implements CompressedStreamParser, CompressedStreamWriter
+{
+    public static final String UNSUPPORTED_TYPE_MSG = "Unsupported datatype for block codec: ";
+
+
+    /**
+     * Compresses all values of the datablock
+     * @param data block to compress
+     * @param numCols number of values in each array element
+     * @return compressed bytes
+     * @throws IOException
+     * @throws CDMException
+     */
+    protected abstract byte[] compress(DataBlock data, int numCols) throws IOException, CDMException;
+
+
+    /**
+     * Uncompresses bytes into the datablock
+     * @param bytes compressed bytes
+     * @param data block to fill with uncompressed values
+     * @param numCols number of values in each array element
+     * @throws IOException
+     * @throws CDMException
+     */
+    protected abstract void uncompress(byte[] bytes, DataBlock data, int numCols) throws IOException, CDMException;
+
+
+    /**
+     * Computes the maximum number of compressed bytes that this codec can
+     * produce for the given datablock.<br/>
+     * The default is suitable for the bit level codecs that use at most
+     * 78 bits per value.
+     * @param data block to be filled with uncompressed values
+     * @return maximum size of compressed bytes
+     * @throws CDMException
+     */
+    protected long getMaxCompressedSize(DataBlock data) throws CDMException
+    {
+        return 10L * data.getAtomCount() + 8;
+    }
+
+
+    @Override
+    public void init(DataComponent blockComponent, BinaryBlock binaryBlock) throws CDMException
+    {
+        // nothing to configure by default
+    }
+
+
+    @Override
+    public void encode(DataOutputExt outputStream, DataComponent blockComponent) throws CDMException
+    {
+        DataBlock data = blockComponent.getData();
+
+        try
+        {
+            byte[] bytes = compress(data, getNumColumns(blockComponent, data));
+            outputStream.writeInt(bytes.length + 4);
+            outputStream.writeInt(data.getAtomCount());
+            outputStream.write(bytes);
+        }
+        catch (IOException e)
+        {
+            throw new CDMException("Cannot write compressed block", e);
+        }
+    }
+
+
+    @Override
+    public void decode(DataInputExt inputStream, DataComponent blockComponent) throws CDMException
+    {
+        DataBlock data = blockComponent.getData();
+
+        try
+        {
+            int byteLength = inputStream.readInt();
+            if (byteLength < 4)
+                throw new CDMException("Invalid block size: " + byteLength);
+
+            int atomCount = inputStream.readInt();
+            if (atomCount != data.getAtomCount())
+                throw new CDMException("Expected " + data.getAtomCount() + " values in compressed block but got " + atomCount);
+
+            // don't trust length read from stream before allocating
+            if (byteLength - 4 > getMaxCompressedSize(data))
+                throw new CDMException("Invalid block size: " + byteLength);
+
+            byte[] bytes = new byte[byteLength - 4];
+            inputStream.readFully(bytes);
+            uncompress(bytes, data, getNumColumns(blockComponent, data));
+        }
+        catch (IOException e)
+        {
+            throw new CDMException("Cannot read compressed block", e);
+        }
+    }
+
+
+    /*
+     * Number of values in each array item, or 1 if the block is not an array
+     */
+    protected int getNumColumns(DataComponent blockComponent, DataBlock data)
+    {
+        if (blockComponent instanceof DataArray)
+        {
+            int arraySize = blockComponent.getComponentCount();
+            if (arraySize > 0 && data.getAtomCount() % arraySize == 0)
+                return Math.max(1, data.getAtomCount() / arraySize);
+        }
+
+        return 1;
+    }
+
+
+    /*
+     * Gets the raw bits of a numerical value
+     */
+    protected static long getBits(DataBlock data, int index) throws CDMException
+    {
+        switch (data.getDataType(index))
+        {
+            case BOOLEAN:
+                return data.getBooleanValue(index) ? 1 : 0;
+
+            case BYTE:
+            case UBYTE:
+            case SHORT:
+            case USHORT:
+            case INT:
+            case UINT:
+            case LONG:
+            case ULONG:
+                return data.getLongValue(index);
+
+            case FLOAT:
+                return Float.floatToRawIntBits(data.getFloatValue(index)) & 0xFFFFFFFFL;
+
+            case DOUBLE:
+                return Double.doubleToRawLongBits(data.getDoubleValue(index));
+
+            default:
+                throw new CDMException(UNSUPPORTED_TYPE_MSG + data.getDataType(index));
+        }
+    }
+
+
+    /*
+     * Sets a numerical value from its raw bits
+     */
+    protected static void setBits(DataBlock data, int index, long bits) throws CDMException
+    {
+        switch (data.getDataType(index))
+        {
+            case BOOLEAN:
+                data.setBooleanValue(index, bits != 0);
+                break;
+
+            case BYTE:
+            case UBYTE:
+            case SHORT:
+            case USHORT:
+            case INT:
+            case UINT:
+            case LONG:
+            case ULONG:
+                data.setLongValue(index, bits);
+                break;
+
+            case FLOAT:
+                data.setFloatValue(index, Float.intBitsToFloat((int)bits));
+                break;
+
+            case DOUBLE:
+                data.setDoubleValue(index, Double.longBitsToDouble(bits));
+                break;
+
+            default:
+                throw new CDMException(UNSUPPORTED_TYPE_MSG + data.getDataType(index));
+        }
+    }
+}
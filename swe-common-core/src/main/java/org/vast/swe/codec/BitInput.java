@@ -0,0 +1,66 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.codec;
+
+import java.io.EOFException;
+
+
+/**
+ * <p>
+ * Reads bits written by {@link BitOutput}, most significant bit first.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+class BitInput
+{
+    final byte[] buf;
+    final long numBits;
+    long bitPos;
+
+
+    BitInput(byte[] buf)
+    {
+        this.buf = buf;
+        this.numBits = buf.length * 8L;
+    }
+
+
+    int readBit() throws EOFException
+    {
+        return (int)readBits(1);
+    }
+
+
+    long readBits(int n) throws EOFException
+    {
+        if (bitPos + n > numBits)
+            throw new EOFException("End of compressed block reached");
+
+        long val = 0;
+        while (n > 0)
+        {
+            int avail = 8 - (int)(bitPos & 7);
+            int k = Math.min(avail, n);
+            int bits = ((buf[(int)(bitPos >>> 3)] & 0xFF) >>> (avail - k)) & ((1 << k) - 1);
+            val = (val << k) | bits;
+            bitPos += k;
+            n -= k;
+        }
+
+        return val;
+    }
+}
@@ -0,0 +1,72 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.codec;
+
+import java.util.Arrays;
+
+
+/**
+ * <p>
+ * Growable bit buffer used by bit level codecs. Bits are written most
+ * significant bit first.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+class BitOutput
+{
+    byte[] buf;
+    int bitPos;
+
+
+    BitOutput(int initialSize)
+    {
+        this.buf = new byte[Math.max(initialSize, 16)];
+    }
+
+
+    void writeBit(int bit)
+    {
+        writeBits(bit, 1);
+    }
+
+
+    /*
+     * Writes the numBits lowest bits of val
+     */
+    void writeBits(long val, int numBits)
+    {
+        int endByte = (bitPos + numBits + 7) >>> 3;
+        if (endByte > buf.length)
+            buf = Arrays.copyOf(buf, Math.max(buf.length*2, endByte));
+
+        while (numBits > 0)
+        {
+            int free = 8 - (bitPos & 7);
+            int n = Math.min(free, numBits);
+            int bits = (int)(val >>> (numBits - n)) & ((1 << n) - 1);
+            buf[bitPos >>> 3] |= bits << (free - n);
+            bitPos += n;
+            numBits -= n;
+        }
+    }
+
+
+    byte[] toByteArray()
+    {
+        return Arrays.copyOf(buf, (bitPos + 7) >>> 3);
+    }
+}
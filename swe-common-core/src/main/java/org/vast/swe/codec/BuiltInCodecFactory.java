@@ -0,0 +1,109 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.codec;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.vast.cdm.common.CompressedStreamParser;
+import org.vast.cdm.common.CompressedStreamWriter;
+import org.vast.swe.ICodecFactory;
+
+
+/**
+ * <p>
+ * Factory for the pure Java codecs included in this library. These codecs
+ * can be used for BinaryBlock members by setting the compression attribute
+ * to one of the following values (case insensitive):
+ * <li>{@value #DEFLATE}: deflate algorithm with zlib format</li>
+ * <li>{@value #GZIP}: deflate algorithm with gzip format</li>
+ * <li>{@value #DELTA_OF_DELTA}: delta of delta encoding for timestamps and counters</li>
+ * <li>{@value #XOR_FLOAT}: XOR encoding for slowly changing floating point values</li>
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class BuiltInCodecFactory implements ICodecFactory
+{
+    public static final String DEFLATE = "deflate";
+    public static final String GZIP = "gzip";
+    public static final String DELTA_OF_DELTA = "delta";
+    public static final String XOR_FLOAT = "xor";
+
+    static final Map<String, Class<?>> CODECS;
+
+    static {
+        var codecs = new LinkedHashMap<String, Class<?>>();
+        codecs.put(DEFLATE, DeflateCodec.class);
+        codecs.put(GZIP, DeflateCodec.class);
+        codecs.put(DELTA_OF_DELTA, DeltaOfDeltaCodec.class);
+        codecs.put(XOR_FLOAT, XorFloatCodec.class);
+        CODECS = Collections.unmodifiableMap(codecs);
+    }
+
+
+    @Override
+    public Map<String, Class<?>> getAvailableDecoders()
+    {
+        return CODECS;
+    }
+
+
+    @Override
+    public Map<String, Class<?>> getAvailableEncoders()
+    {
+        return CODECS;
+    }
+
+
+    @Override
+    public CompressedStreamParser createDecoder(String compressionType)
+    {
+        return createCodec(compressionType);
+    }
+
+
+    @Override
+    public CompressedStreamWriter createEncoder(String compressionType)
+    {
+        return createCodec(compressionType);
+    }
+
+
+    protected AbstractBlockCodec createCodec(String compressionType)
+    {
+        if (compressionType == null)
+            return null;
+
+        switch (compressionType.trim().toLowerCase())
+        {
+            case DEFLATE:
+                return new DeflateCodec(false);
+
+            case GZIP:
+                return new DeflateCodec(true);
+
+            case DELTA_OF_DELTA:
+                return new DeltaOfDeltaCodec();
+
+            case XOR_FLOAT:
+                return new XorFloatCodec();
+
+            default:
+                return null;
+        }
+    }
+}
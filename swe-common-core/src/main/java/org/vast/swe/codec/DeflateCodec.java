@@ -0,0 +1,221 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.vast.cdm.common.CDMException;
+import net.opengis.swe.v20.DataBlock;
+
+
+/**
+ * <p>
+ * Block codec compressing values with the deflate algorithm, using either
+ * the zlib or the gzip format.<br/>
+ * Values are serialized in big endian order with their native size before
+ * being compressed. This is the only built-in codec supporting strings.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class DeflateCodec extends AbstractBlockCodec
+{
+    final boolean gzip;
+    final Deflater deflater;
+    final Inflater inflater;
+
+
+    /**
+     * Creates a codec using the zlib format
+     */
+    public DeflateCodec()
+    {
+        this(false);
+    }
+
+
+    /**
+     * @param gzip true to use the gzip format, false to use the zlib format
+     */
+    public DeflateCodec(boolean gzip)
+    {
+        this.gzip = gzip;
+        this.deflater = gzip ? null : new Deflater();
+        this.inflater = gzip ? null : new Inflater();
+    }
+
+
+    @Override
+    protected byte[] compress(DataBlock data, int numCols) throws IOException, CDMException
+    {
+        var bos = new ByteArrayOutputStream(data.getAtomCount() * 4);
+        OutputStream zos;
+        if (gzip)
+            zos = new GZIPOutputStream(bos);
+        else
+        {
+            deflater.reset();
+            zos = new DeflaterOutputStream(bos, deflater);
+        }
+
+        try (var out = new DataOutputStream(zos))
+        {
+            int numRows = data.getAtomCount() / numCols;
+            for (int col = 0; col < numCols; col++)
+            {
+                for (int row = 0; row < numRows; row++)
+                    writeValue(out, data, row*numCols + col);
+            }
+        }
+
+        return bos.toByteArray();
+    }
+
+
+    @Override
+    protected void uncompress(byte[] bytes, DataBlock data, int numCols) throws IOException, CDMException
+    {
+        var bis = new ByteArrayInputStream(bytes);
+        InputStream zis;
+        if (gzip)
+            zis = new GZIPInputStream(bis);
+        else
+        {
+            inflater.reset();
+            zis = new InflaterInputStream(bis, inflater);
+        }
+
+        try (var in = new DataInputStream(zis))
+        {
+            int numRows = data.getAtomCount() / numCols;
+            for (int col = 0; col < numCols; col++)
+            {
+                for (int row = 0; row < numRows; row++)
+                    readValue(in, data, row*numCols + col);
+            }
+        }
+    }
+
+
+    @Override
+    protected long getMaxCompressedSize(DataBlock data) throws CDMException
+    {
+        long rawSize = 0;
+        for (int i = 0; i < data.getAtomCount(); i++)
+        {
+            switch (data.getDataType(i))
+            {
+                case ASCII_STRING:
+                case UTF_STRING:
+                    rawSize += 3 + 65535;
+                    break;
+
+                default:
+                    rawSize += 8;
+            }
+        }
+
+        // add deflate worst case expansion and gzip/zlib header and trailer
+        return rawSize + (rawSize >> 10) + 64;
+    }
+
+
+    protected void writeValue(DataOutputStream out, DataBlock data, int index) throws IOException, CDMException
+    {
+        switch (data.getDataType(index))
+        {
+            case BOOLEAN:
+            case BYTE:
+            case UBYTE:
+                out.writeByte((int)getBits(data, index));
+                break;
+
+            case SHORT:
+            case USHORT:
+                out.writeShort((int)getBits(data, index));
+                break;
+
+            case INT:
+            case UINT:
+            case FLOAT:
+                out.writeInt((int)getBits(data, index));
+                break;
+
+            case ASCII_STRING:
+            case UTF_STRING:
+                String val = data.getStringValue(index);
+                out.writeBoolean(val != null);
+                if (val != null)
+                    out.writeUTF(val);
+                break;
+
+            default:
+                out.writeLong(getBits(data, index));
+        }
+    }
+
+
+    protected void readValue(DataInputStream in, DataBlock data, int index) throws IOException, CDMException
+    {
+        switch (data.getDataType(index))
+        {
+            case BOOLEAN:
+            case BYTE:
+                setBits(data, index, in.readByte());
+                break;
+
+            case UBYTE:
+                setBits(data, index, in.readUnsignedByte());
+                break;
+
+            case SHORT:
+                setBits(data, index, in.readShort());
+                break;
+
+            case USHORT:
+                setBits(data, index, in.readUnsignedShort());
+                break;
+
+            case INT:
+                setBits(data, index, in.readInt());
+                break;
+
+            case UINT:
+            case FLOAT:
+                setBits(data, index, in.readInt() & 0xFFFFFFFFL);
+                break;
+
+            case ASCII_STRING:
+            case UTF_STRING:
+                data.setStringValue(index, in.readBoolean() ? in.readUTF() : null);
+                break;
+
+            default:
+                setBits(data, index, in.readLong());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.codec;
+
+import java.io.IOException;
+import org.vast.cdm.common.CDMException;
+import net.opengis.swe.v20.DataBlock;
+
+
+/**
+ * <p>
+ * Block codec storing the difference between consecutive deltas of each
+ * column, which is very efficient for regularly sampled timestamps and for
+ * counters (i.e. a constant step is encoded on a single bit).<br/>
+ * Deltas are computed on the raw bits of values, so the encoding is lossless
+ * for all numerical types. With double precision values, the raw bits vary
+ * linearly with the value as long as the exponent doesn't change, which is
+ * the case of timestamps.
+ * </p><p>
+ * Delta of deltas are zigzag encoded and stored using a variable number of
+ * bits with the following prefixes:
+ * <li>0: delta is unchanged</li>
+ * <li>10: 7 bits value</li>
+ * <li>110: 9 bits value</li>
+ * <li>1110: 12 bits value</li>
+ * <li>1111: 64 bits value</li>
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class DeltaOfDeltaCodec extends AbstractBlockCodec
+{
+
+    @Override
+    protected byte[] compress(DataBlock data, int numCols) throws IOException, CDMException
+    {
+        var out = new BitOutput(data.getAtomCount());
+        int numRows = data.getAtomCount() / numCols;
+
+        for (int col = 0; col < numCols; col++)
+        {
+            long prev = 0;
+            long prevDelta = 0;
+
+            for (int row = 0; row < numRows; row++)
+            {
+                long val = getBits(data, row*numCols + col);
+                if (row == 0)
+                    out.writeBits(val, 64);
+                else
+                {
+                    long delta = val - prev;
+                    writeDeltaOfDelta(out, delta - prevDelta);
+                    prevDelta = delta;
+                }
+                prev = val;
+            }
+        }
+
+        return out.toByteArray();
+    }
+
+
+    @Override
+    protected void uncompress(byte[] bytes, DataBlock data, int numCols) throws IOException, CDMException
+    {
+        var in = new BitInput(bytes);
+        int numRows = data.getAtomCount() / numCols;
+
+        for (int col = 0; col < numCols; col++)
+        {
+            long prev = 0;
+            long prevDelta = 0;
+
+            for (int row = 0; row < numRows; row++)
+            {
+                long val;
+                if (row == 0)
+                    val = in.readBits(64);
+                else
+                {
+                    long delta = prevDelta + readDeltaOfDelta(in);
+                    val = prev + delta;
+                    prevDelta = delta;
+                }
+                setBits(data, row*numCols + col, val);
+                prev = val;
+            }
+        }
+    }
+
+
+    protected void writeDeltaOfDelta(BitOutput out, long dod)
+    {
+        long zz = (dod << 1) ^ (dod >> 63);
+
+        if (zz == 0)
+            out.writeBit(0);
+        else if ((zz >>> 7) == 0)
+        {
+            out.writeBits(0b10, 2);
+            out.writeBits(zz, 7);
+        }
+        else if ((zz >>> 9) == 0)
+        {
+            out.writeBits(0b110, 3);
+            out.writeBits(zz, 9);
+        }
+        else if ((zz >>> 12) == 0)
+        {
+            out.writeBits(0b1110, 4);
+            out.writeBits(zz, 12);
+        }
+        else
+        {
+            out.writeBits(0b1111, 4);
+            out.writeBits(zz, 64);
+        }
+    }
+
+
+    protected long readDeltaOfDelta(BitInput in) throws IOException
+    {
+        long zz;
+
+        if (in.readBit() == 0)
+            return 0;
+        else if (in.readBit() == 0)
+            zz = in.readBits(7);
+        else if (in.readBit() == 0)
+            zz = in.readBits(9);
+        else if (in.readBit() == 0)
+            zz = in.readBits(12);
+        else
+            zz = in.readBits(64);
+
+        return (zz >>> 1) ^ -(zz & 1);
+    }
+}
@@ -0,0 +1,139 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.codec;
+
+import java.io.IOException;
+import org.vast.cdm.common.CDMException;
+import net.opengis.swe.v20.DataBlock;
+
+
+/**
+ * <p>
+ * Block codec storing the XOR of the raw bits of consecutive values of each
+ * column, as done by the Gorilla time series database. It is well suited
+ * for slowly changing floating point values since these share most of their
+ * sign, exponent and high mantissa bits.
+ * </p><p>
+ * Each XOR value is stored as:
+ * <li>0: same value as previous</li>
+ * <li>10: meaningful bits fit in the same window as the previous value</li>
+ * <li>11: 6 bits number of leading zeros, 6 bits number of meaningful bits
+ * minus one, followed by the meaningful bits</li>
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class XorFloatCodec extends AbstractBlockCodec
+{
+
+    @Override
+    protected byte[] compress(DataBlock data, int numCols) throws IOException, CDMException
+    {
+        var out = new BitOutput(data.getAtomCount() * 2);
+        int numRows = data.getAtomCount() / numCols;
+
+        for (int col = 0; col < numCols; col++)
+        {
+            long prev = 0;
+            int prevLeading = -1;
+            int prevTrailing = 0;
+
+            for (int row = 0; row < numRows; row++)
+            {
+                long val = getBits(data, row*numCols + col);
+
+                if (row == 0)
+                    out.writeBits(val, 64);
+                else
+                {
+                    long xor = val ^ prev;
+                    if (xor == 0)
+                        out.writeBit(0);
+                    else
+                    {
+                        int leading = Long.numberOfLeadingZeros(xor);
+                        int trailing = Long.numberOfTrailingZeros(xor);
+
+                        // reuse previous window if meaningful bits fit in it
+                        if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing)
+                        {
+                            out.writeBits(0b10, 2);
+                            out.writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                        }
+                        else
+                        {
+                            int numBits = 64 - leading - trailing;
+                            out.writeBits(0b11, 2);
+                            out.writeBits(leading, 6);
+                            out.writeBits(numBits - 1, 6);
+                            out.writeBits(xor >>> trailing, numBits);
+                            prevLeading = leading;
+                            prevTrailing = trailing;
+                        }
+                    }
+                }
+
+                prev = val;
+            }
+        }
+
+        return out.toByteArray();
+    }
+
+
+    @Override
+    protected void uncompress(byte[] bytes, DataBlock data, int numCols) throws IOException, CDMException
+    {
+        var in = new BitInput(bytes);
+        int numRows = data.getAtomCount() / numCols;
+
+        for (int col = 0; col < numCols; col++)
+        {
+            long prev = 0;
+            int prevLeading = -1;
+            int prevTrailing = 0;
+
+            for (int row = 0; row < numRows; row++)
+            {
+                long val;
+
+                if (row == 0)
+                    val = in.readBits(64);
+                else if (in.readBit() == 0)
+                    val = prev;
+                else if (in.readBit() == 0)
+                {
+                    if (prevLeading < 0)
+                        throw new CDMException("Invalid XOR block encoding");
+                    int numBits = 64 - prevLeading - prevTrailing;
+                    val = prev ^ (in.readBits(numBits) << prevTrailing);
+                }
+                else
+                {
+                    prevLeading = (int)in.readBits(6);
+                    int numBits = (int)in.readBits(6) + 1;
+                    prevTrailing = 64 - prevLeading - numBits;
+                    if (prevTrailing < 0)
+                        throw new CDMException("Invalid XOR block encoding");
+                    val = prev ^ (in.readBits(numBits) << prevTrailing);
+                }
+
+                setBits(data, row*numCols + col, val);
+                prev = val;
+            }
+        }
+    }
+}
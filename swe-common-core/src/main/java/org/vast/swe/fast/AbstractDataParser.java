@@ -21,10 +21,15 @@ import org.vast.cdm.common.DataHandler;
 import org.vast.cdm.common.DataStreamParser;
 import org.vast.cdm.common.ErrorHandler;
 import org.vast.cdm.common.RawDataHandler;
+import org.vast.data.DataBlockFactory;
+import org.vast.data.DataBlockParallel;
+import org.vast.data.DataBlockPool;
+import org.vast.swe.IComponentFilter;
 import org.vast.util.Asserts;
 import net.opengis.swe.v20.BlockComponent;
 import net.opengis.swe.v20.DataArray;
 import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataChoice;
 import net.opengis.swe.v20.DataComponent;
 import net.opengis.swe.v20.DataEncoding;
 
@@ -44,13 +49,23 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
     public static final String INVALID_DECIMAL_MSG = "Invalid decimal value: ";
     public static final String INVALID_CHOICE_MSG = "Invalid choice selector value: ";
     public static final String INVALID_ARRAY_SIZE_MSG = "Invalid array size: ";
+    public static final String INVALID_BLOCK_SIZE_MSG = "Invalid block size: ";
+    public static final String NOT_FIXED_SIZE_MSG = "Batch mode is only supported for fixed size records";
+    public static final String PROJECTION_NOT_SUPPORTED_MSG = "Projection is not supported when parsing to a parent array";
     
     BlockComponent parentArray;
     int parentArrayIndex;
     
     DataEncoding dataEncoding;
     DataBlock dataBlk;
-    boolean renewDataBlock;
+    DataBlockParallel batchBlk;
+    int batchSize;
+    boolean renewDataBlock = true;
+    DataHandler dataHandler;
+    volatile boolean stopParsing;
+    IComponentFilter projectionFilter;
+    DataProjection projection;
+    DataBlockPool blockPool;
     
     
     protected abstract boolean moreData() throws IOException;
@@ -59,12 +74,7 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
     @Override
     public DataBlock parseNextBlock() throws IOException
     {
-        if (!processorTreeReady)
-        {
-            init();
-            dataComponents.accept(this);
-            processorTreeReady = true;
-        }
+        ensureProcessorTree();
         
         if (!moreData())
             return null;
@@ -73,16 +83,176 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
         if (dataBlk == null || renewDataBlock)
             getNextDataBlock();
         
+        parseBlock(dataBlk);
+        return dataBlk;
+    }
+    
+    
+    /**
+     * Parses up to maxRecords records into a single columnar datablock, where
+     * the values of each scalar field are stored in their own primitive array.<br/>
+     * Records are stored one after the other in the returned block, so that the
+     * value of atom j of record i is at index i*recordAtomCount+j. The block is
+     * reused across calls unless renewDataBlock is set.<br/>
+     * This is only supported for fixed size records (i.e. records that don't
+     * contain any variable size array or choice).
+     * @param maxRecords maximum number of records to read in one batch
+     * @return the datablock containing the batch of records or null if
+     * no more data is available. Use {@link DataBlock#getAtomCount()} divided
+     * by the record atom count to get the actual number of records read.
+     * @throws IOException if an error occurs while reading the input
+     */
+    public DataBlock parseNextBatch(int maxRecords) throws IOException
+    {
+        Asserts.checkArgument(maxRecords > 0, "maxRecords must be > 0");
+        ensureProcessorTree();
+        Asserts.checkState(isFixedSize(dataComponents), NOT_FIXED_SIZE_MSG);
+        
+        if (!moreData())
+            return null;
+        
+        // get columnar datablock object
+        if (batchBlk == null || renewDataBlock || batchSize != maxRecords)
+        {
+            batchBlk = DataBlockFactory.createColumnarBlock(dataComponents.createDataBlock(), maxRecords);
+            batchSize = maxRecords;
+        }
+        
+        int numRecords = 0;
+        int index = 0;
+        do
+        {
+            index = rootProcessor.process(batchBlk, index);
+            numRecords++;
+        }
+        while (numRecords < maxRecords && !stopParsing && moreData());
+        
+        // adjust size if we didn't get a full batch
+        if (numRecords < maxRecords)
+        {
+            batchBlk.truncate(numRecords);
+            batchSize = numRecords;
+        }
+        
+        return batchBlk;
+    }
+    
+    
+    protected void ensureProcessorTree() throws IOException
+    {
+        if (!processorTreeReady)
+        {
+            // processor tree is always built from the full structure
+            if (projection != null)
+                dataComponents = projection.getFullStructure();
+            projection = null;
+            
+            init();
+            
+            if (projectionFilter != null)
+            {
+                projection = new DataProjection(dataComponents, projectionFilter, this::canSkip);
+                dataComponents.accept(this);
+                dataComponents = projection.getProjectedStructure();
+            }
+            else
+                dataComponents.accept(this);
+            
+            flattenProcessorTree();
+            processorTreeReady = true;
+        }
+    }
+    
+    
+    /**
+     * Sets the filter selecting the components to extract from the input
+     * stream. Unlike with {@link #setDataComponentFilter(IComponentFilter)},
+     * the input stream contains all components but unselected components
+     * are skipped without being decoded, and datablocks returned by the
+     * parser only contain the selected fields.<br/>
+     * See {@link DataProjection} for how the selection is expanded.
+     * @param filter component filter, or null to parse all components
+     */
+    public void setProjection(IComponentFilter filter)
+    {
+        this.projectionFilter = filter;
+        this.filter = null;
+        this.enableSubTree = true;
+        this.processorTreeReady = false;
+    }
+    
+    
+    /**
+     * @return The structure of datablocks produced by this parser, i.e. the
+     * structure containing only the selected components if a projection was set
+     * @throws IOException if the processor tree cannot be initialized
+     */
+    public DataComponent getProjectedComponents() throws IOException
+    {
+        ensureProcessorTree();
+        return dataComponents;
+    }
+    
+    
+    /*
+     * Tells if an unselected component can be skipped in the input stream.
+     * By default, only components with a fixed number of atoms can be skipped
+     */
+    protected boolean canSkip(DataComponent comp)
+    {
+        return isFixedSize(comp);
+    }
+    
+    
+    /*
+     * Gets the number of atoms of a fixed size component
+     */
+    protected static int getAtomCount(DataComponent comp)
+    {
+        return comp.copy().createDataBlock().getAtomCount();
+    }
+    
+    
+    @Override
+    protected boolean isSkipped(DataComponent comp)
+    {
+        return projection != null && projection.isSkipped(comp);
+    }
+    
+    
+    @Override
+    protected <T extends DataComponent> T getProjectedComponent(T comp)
+    {
+        return projection != null ? projection.getProjectedComponent(comp) : comp;
+    }
+    
+    
+    protected void parseBlock(DataBlock data) throws IOException
+    {
         // assign datablock to component structure
         // to prepare to update variable array size
-        if (hasVarSizeArray && (!dataComponents.hasData() || dataComponents.getData() != dataBlk))
-            dataComponents.setData(dataBlk);
+        if (hasVarSizeArray && (!dataComponents.hasData() || dataComponents.getData() != data))
+            dataComponents.setData(data);
         
         // go once through the tree of parser atoms
-        int index = rootProcessor.process(dataBlk, 0);
-        Asserts.checkState(index == dataBlk.getAtomCount(), "Data block wasn't fully deserialized");
+        int index = rootProcessor.process(data, 0);
+        Asserts.checkState(index == data.getAtomCount(), "Data block wasn't fully deserialized");
+    }
+    
+    
+    protected void parseToParentArray() throws IOException
+    {
+        Asserts.checkState(projectionFilter == null, PROJECTION_NOT_SUPPORTED_MSG);
+        ensureProcessorTree();
         
-        return dataBlk;
+        int arraySize = parentArray.getComponentCount();
+        for (int i = 0; i < arraySize && !stopParsing; i++)
+        {
+            if (!moreData())
+                break;
+            
+            parseBlock(parentArray.getComponent(i).getData());
+        }
     }
     
     
@@ -97,7 +267,11 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
     {
         // depends if parsing to array block
         if (dataBlk != null)
-            dataBlk = dataBlk.clone();
+        {
+            // reuse a released block with the same shape if available
+            DataBlock pooledBlk = blockPool != null ? blockPool.get(dataBlk) : null;
+            dataBlk = pooledBlk != null ? pooledBlk : dataBlk.clone();
+        }
         else
             dataBlk = dataComponents.createDataBlock();
         
@@ -105,12 +279,33 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
     }
     
     
+    protected void selectChoiceItem(DataChoice choice, DataBlock data, int selectedIndex)
+    {
+        // make sure component tree is mapped to the datablock being parsed
+        if (!dataComponents.hasData() || dataComponents.getData() != data)
+            dataComponents.setData(data);
+        
+        // select item with a new child datablock
+        // this also updates the atom count of all parent blocks
+        choice.getComponent(selectedIndex).clearData();
+        choice.setSelectedItem(selectedIndex);
+    }
+    
+    
     protected void updateArraySize(DataArray varSizeArray, int arraySize)
     {
         varSizeArray.updateSize(arraySize);
     }
     
     
+    @Override
+    public void setDataComponents(DataComponent components)
+    {
+        super.setDataComponents(components);
+        this.projection = null;
+    }
+    
+    
     @Override
     public void setDataEncoding(DataEncoding encoding)
     {
@@ -131,6 +326,7 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
     {
         this.parentArray = parentArray;
         this.dataComponents = parentArray.getElementType();
+        this.projection = null;
         ((DataComponent)parentArray).renewDataBlock();
         parentArrayIndex = 0;
     }
@@ -147,6 +343,40 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
     }
     
     
+    /**
+     * Sets the pool from which datablocks are taken when renewDataBlock is set,
+     * instead of cloning the previous block for each record.<br/>
+     * Consumers must call {@link #releaseDataBlock(DataBlock)} when they are
+     * done with a datablock returned by this parser so it can be reused.
+     * The same pool can be shared by several parsers.
+     * @param blockPool datablock pool, or null to disable pooling
+     */
+    public void setDataBlockPool(DataBlockPool blockPool)
+    {
+        this.blockPool = blockPool;
+    }
+    
+    
+    public DataBlockPool getDataBlockPool()
+    {
+        return blockPool;
+    }
+    
+    
+    /**
+     * Returns a datablock previously produced by this parser to the pool, so
+     * that it can be reused for parsing the next records. This does nothing
+     * if no pool was set.
+     * @param data datablock that is not used anymore by the caller
+     */
+    public void releaseDataBlock(DataBlock data)
+    {
+        // block is reused by the parser itself if renewDataBlock is not set
+        if (blockPool != null && data != null && (renewDataBlock || data != dataBlk))
+            blockPool.release(data);
+    }
+    
+    
     @Override
     public void parse(String uri) throws IOException
     {
@@ -161,17 +391,49 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
     }
     
     
+    /**
+     * Parses the whole input stream, either directly into the parent array
+     * if one was set, or by sending each record to the registered data handler.<br/>
+     * Note that only the {@link DataHandler#startData} and {@link DataHandler#endData}
+     * events are generated since the processor tree parses records in one pass.
+     */
     @Override
     public void parse(InputStream inputStream) throws IOException
     {
-        throw new UnsupportedOperationException();
+        stopParsing = false;
+        
+        try
+        {
+            setInput(inputStream);
+            
+            if (parentArray != null)
+            {
+                parseToParentArray();
+            }
+            else
+            {
+                DataBlock data;
+                while (!stopParsing && (data = parseNextBlock()) != null)
+                {
+                    if (dataHandler != null)
+                    {
+                        dataHandler.startData(dataComponents);
+                        dataHandler.endData(dataComponents, data);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            inputStream.close();
+        }
     }
     
     
     @Override
     public DataHandler getDataHandler()
     {
-        throw new UnsupportedOperationException();
+        return dataHandler;
     }
 
 
@@ -192,7 +454,7 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
     @Override
     public void setDataHandler(DataHandler handler)
     {
-        throw new UnsupportedOperationException();
+        this.dataHandler = handler;
     }
 
 
@@ -213,6 +475,6 @@ public abstract class AbstractDataParser extends DataBlockProcessor implements D
     @Override
     public void stop()
     {
-        throw new UnsupportedOperationException();
+        stopParsing = true;
     }
 }
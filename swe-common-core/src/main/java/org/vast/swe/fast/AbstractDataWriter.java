@@ -21,6 +21,7 @@ import org.vast.cdm.common.DataStreamWriter;
 import org.vast.cdm.common.ErrorHandler;
 import org.vast.cdm.common.RawDataHandler;
 import org.vast.util.Asserts;
+import org.vast.util.IsoDateTimeCodec;
 import net.opengis.swe.v20.BlockComponent;
 import net.opengis.swe.v20.DataArray;
 import net.opengis.swe.v20.DataBlock;
@@ -40,6 +41,9 @@ public abstract class AbstractDataWriter extends DataBlockProcessor implements D
     protected BlockComponent parentArray;
     protected boolean lastArrayElt;
     protected DataEncoding dataEncoding;
+    protected int recordStartIndex = 0;
+    protected int recordAtomCount = -1;
+    protected int timeFractionDigits = IsoDateTimeCodec.MAX_FRACTION_DIGITS;
     
         
     @Override
@@ -54,12 +58,15 @@ public abstract class AbstractDataWriter extends DataBlockProcessor implements D
                 init();
                 checkEnabled(dataComponents);
                 dataComponents.accept(this);
+                flattenProcessorTree();
                 processorTreeReady = true;
             }
             
             // go once through the tree of parser atoms
-            int index = rootProcessor.process(data, 0);
-            Asserts.checkState(index == data.getAtomCount(), "Data block wasn't fully serialized");
+            // in batch mode, only process atoms of the current record
+            int index = rootProcessor.process(data, recordStartIndex);
+            int endIndex = recordAtomCount < 0 ? data.getAtomCount() : recordStartIndex + recordAtomCount;
+            Asserts.checkState(index == endIndex, "Data block wasn't fully serialized");
         }
         catch (Exception e)
         {
@@ -69,6 +76,38 @@ public abstract class AbstractDataWriter extends DataBlockProcessor implements D
     }
     
     
+    /**
+     * Writes several records stored one after the other in the same datablock,
+     * such as the columnar datablocks produced by {@link AbstractDataParser#parseNextBatch}.<br/>
+     * Each record is written as if {@link #write(DataBlock)} was called separately.
+     * This is only supported for fixed size records.
+     * @param data datablock containing all records of the batch
+     * @param numRecords number of records in the datablock
+     * @throws IOException if an error occurs while writing the records
+     */
+    public void writeBatch(DataBlock data, int numRecords) throws IOException
+    {
+        Asserts.checkNotNull(data, DataBlock.class);
+        Asserts.checkArgument(numRecords > 0 && data.getAtomCount() % numRecords == 0, "Invalid number of records: {}", numRecords);
+        Asserts.checkState(isFixedSize(dataComponents), AbstractDataParser.NOT_FIXED_SIZE_MSG);
+        
+        try
+        {
+            recordAtomCount = data.getAtomCount() / numRecords;
+            for (int i = 0; i < numRecords; i++)
+            {
+                recordStartIndex = i * recordAtomCount;
+                write(data);
+            }
+        }
+        finally
+        {
+            recordStartIndex = 0;
+            recordAtomCount = -1;
+        }
+    }
+    
+    
     @Override
     public void startStream(boolean addWrapper) throws IOException
     {
@@ -103,6 +142,19 @@ public abstract class AbstractDataWriter extends DataBlockProcessor implements D
     }
     
     
+    /**
+     * Sets the max number of fractional second digits used when writing
+     * ISO 8601 date/time values. Values are rounded to this precision.
+     * @param numDigits number of digits between 0 and 9
+     */
+    public void setTimeFractionDigits(int numDigits)
+    {
+        Asserts.checkArgument(numDigits >= 0 && numDigits <= IsoDateTimeCodec.MAX_FRACTION_DIGITS, "numDigits must be between 0 and 9");
+        this.timeFractionDigits = numDigits;
+        this.processorTreeReady = false;
+    }
+    
+    
     @Override
     public void setParentArray(BlockComponent parentArray)
     {
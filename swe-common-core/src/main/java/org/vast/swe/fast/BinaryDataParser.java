@@ -14,35 +14,58 @@ Copyright (C) 2012-2022 Sensia Software LLC. All Rights Reserved.
 
 package org.vast.swe.fast;
 
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.HashMap;
 import java.util.Map;
 import org.vast.cdm.common.CDMException;
+import org.vast.cdm.common.CompressedStreamParser;
 import org.vast.cdm.common.DataInputExt;
 import org.vast.data.AbstractDataBlock;
 import org.vast.data.AbstractDataComponentImpl;
+import org.vast.data.BinaryBlockImpl;
 import org.vast.data.BinaryComponentImpl;
-import org.vast.data.DataBlockMixed;
+import org.vast.data.DataBlockBoolean;
+import org.vast.data.DataBlockByte;
+import org.vast.data.DataBlockCompressed;
+import org.vast.data.DataBlockDouble;
+import org.vast.data.DataBlockFloat;
+import org.vast.data.DataBlockInt;
+import org.vast.data.DataBlockLong;
+import org.vast.data.DataBlockShort;
+import org.vast.swe.Base64Decoder;
+import org.vast.swe.CodecLookup;
+import org.vast.swe.DataInputByteBuffer;
 import org.vast.swe.DataInputStreamBI;
 import org.vast.swe.DataInputStreamLI;
 import org.vast.swe.SWEHelper;
 import org.vast.util.Asserts;
 import org.vast.util.ReaderException;
+import net.opengis.swe.v20.BinaryBlock;
 import net.opengis.swe.v20.BinaryEncoding;
 import net.opengis.swe.v20.BinaryMember;
 import net.opengis.swe.v20.Boolean;
+import net.opengis.swe.v20.ByteEncoding;
 import net.opengis.swe.v20.ByteOrder;
 import net.opengis.swe.v20.Category;
 import net.opengis.swe.v20.Count;
 import net.opengis.swe.v20.DataArray;
 import net.opengis.swe.v20.DataBlock;
 import net.opengis.swe.v20.DataChoice;
+import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataRecord;
 import net.opengis.swe.v20.DataType;
+import net.opengis.swe.v20.GeometryData;
 import net.opengis.swe.v20.Quantity;
 import net.opengis.swe.v20.ScalarComponent;
 import net.opengis.swe.v20.Text;
 import net.opengis.swe.v20.Time;
+import net.opengis.swe.v20.Vector;
 
 
 /**
@@ -295,7 +318,7 @@ public class BinaryDataParser extends AbstractDataParser
         
         public ChoiceTokenParser(DataChoice choice)
         {
-            this.choice = choice;
+            this.choice = getProjectedComponent(choice);
             maxChoiceIdx = choice.getItemList().size() - 1;
         }
         
@@ -303,24 +326,132 @@ public class BinaryDataParser extends AbstractDataParser
         public int process(DataBlock data, int index) throws IOException
         {
             int selectedIndex = dataInput.readInt();
-            if (selectedIndex < 0 || selectedIndex >= maxChoiceIdx)
-                throw new IOException(AbstractDataParser.INVALID_CHOICE_MSG + selectedIndex);
+            if (selectedIndex < 0 || selectedIndex > maxChoiceIdx)
+                throw new ReaderException(INVALID_CHOICE_MSG + selectedIndex);
             
             // set selected choice index and corresponding datablock
-            data.setIntValue(index++, selectedIndex);
-            var selectedData = choice.getComponent(selectedIndex).createDataBlock();
-            ((DataBlockMixed)data).setBlock(1, (AbstractDataBlock)selectedData);
+            selectChoiceItem(choice, data, selectedIndex);
             
             return super.process(data, ++index, selectedIndex);
         }
     }
     
     
+    protected class BlockParser extends BaseProcessor implements CompositeProcessor
+    {
+        DataComponent blockComponent;
+        BinaryBlock blockInfo;
+        CompressedStreamParser decoder;
+        AtomProcessor eltProcessor;
+        
+        public BlockParser(DataComponent blockComponent, BinaryBlock blockInfo)
+        {
+            this.blockComponent = getProjectedComponent(blockComponent);
+            this.blockInfo = blockInfo;
+            this.decoder = ((BinaryBlockImpl)blockInfo).getBlockReader();
+        }
+        
+        public boolean isCompressed()
+        {
+            return blockInfo.isSetCompression();
+        }
+        
+        @Override
+        public int process(DataBlock data, int index) throws IOException
+        {
+            if (blockInfo.isSetPaddingBytesBefore())
+                dataInput.skipBytes(blockInfo.getPaddingBytesBefore());
+            
+            if (isCompressed())
+                index = decodeBlock(data, index);
+            else
+                index = eltProcessor.process(data, index);
+            
+            if (blockInfo.isSetPaddingBytesAfter())
+                dataInput.skipBytes(blockInfo.getPaddingBytesAfter());
+            
+            return index;
+        }
+        
+        protected int decodeBlock(DataBlock data, int index) throws IOException
+        {
+            // make sure component tree is mapped to the datablock being parsed
+            if (!dataComponents.hasData() || dataComponents.getData() != data)
+                dataComponents.setData(data);
+            DataBlock blockData = blockComponent.getData();
+            
+            // if no decoder is available, keep compressed bytes as-is
+            if (blockData instanceof DataBlockCompressed)
+            {
+                int byteLength = dataInput.readInt();
+                if (byteLength < 0)
+                    throw new ReaderException(INVALID_BLOCK_SIZE_MSG + byteLength);
+                byte[] bytes = new byte[byteLength];
+                dataInput.readFully(bytes);
+                ((DataBlockCompressed)blockData).setUnderlyingObject(bytes);
+            }
+            
+            // otherwise uncompress on-the-fly
+            else
+            {
+                try
+                {
+                    decoder.decode(dataInput, blockComponent);
+                }
+                catch (CDMException e)
+                {
+                    throw new ReaderException("Cannot decode binary block " + blockComponent.getName(), e);
+                }
+            }
+            
+            return index + blockData.getAtomCount();
+        }
+        
+        @Override
+        public void add(AtomProcessor processor)
+        {
+            this.eltProcessor = processor;
+        }
+    }
+    
+    
+    /*
+     * Skips the bytes of a component that is not part of the projection
+     */
+    protected class SkipBytesParser extends BaseProcessor
+    {
+        int numBytes;
+        
+        public SkipBytesParser(int numBytes)
+        {
+            this.numBytes = numBytes;
+        }
+        
+        @Override
+        public int process(DataBlock data, int index) throws IOException
+        {
+            if (dataInput.skipBytes(numBytes) < numBytes)
+                throw new EOFException();
+            return index;
+        }
+    }
+    
+    
     protected void init() throws IOException
     {
         try
         {
             SWEHelper.assignBinaryEncoding(dataComponents, (BinaryEncoding)dataEncoding);
+            
+            // assign decoders to compressed blocks
+            for (BinaryMember member: ((BinaryEncoding)dataEncoding).getMemberList())
+            {
+                if (member instanceof BinaryBlock && ((BinaryBlock)member).isSetCompression())
+                {
+                    DataComponent blockComponent = SWEHelper.findComponentByPath(dataComponents, member.getRef());
+                    initBlockReader(blockComponent, (BinaryBlockImpl)member);
+                }
+            }
         }
         catch (CDMException e)
         {
@@ -329,22 +460,95 @@ public class BinaryDataParser extends AbstractDataParser
     }
     
     
+    protected void initBlockReader(DataComponent blockComponent, BinaryBlockImpl blockInfo) throws CDMException
+    {
+        CompressedStreamParser reader = CodecLookup.getInstance().createDecoder(blockInfo.getCompression());
+        if (reader != null)
+        {
+            blockInfo.setBlockReader(reader);
+            reader.init(blockComponent, blockInfo);
+        }
+    }
+    
+    
     @Override
-    public void setInput(InputStream is)
+    public void setInput(InputStream is) throws IOException
     {
-        // create right data output stream
+        ByteEncoding byteEnc = ((BinaryEncoding)dataEncoding).getByteEncoding();
+        
+        switch (byteEnc)
+        {
+            case BASE_64:
+                // use streaming Base64 converter
+                is = new BufferedInputStream(new Base64Decoder(is), 1024);
+                break;
+                
+            case RAW:
+                // mark support is needed to detect end of stream
+                if (!is.markSupported())
+                    is = new BufferedInputStream(is);
+                break;
+                
+            default:
+                throw new ReaderException("Unsupported byte encoding: " + byteEnc);
+        }
+        
+        // create right data input stream
         if (((BinaryEncoding)dataEncoding).getByteOrder() == ByteOrder.LITTLE_ENDIAN)
             dataInput = new DataInputStreamLI(is);
         else
             dataInput = new DataInputStreamBI(is);
     }
     
+    
+    /**
+     * Sets a byte buffer as the input, in which case primitive values are
+     * read directly from the buffer
+     * @param buf buffer containing raw binary data
+     * @throws IOException if the byte encoding is not RAW
+     */
+    public void setInput(ByteBuffer buf) throws IOException
+    {
+        checkRawByteEncoding();
+        dataInput = new DataInputByteBuffer(buf, getByteOrder());
+    }
+    
+    
+    /**
+     * Sets a file channel as the input, in which case the file is memory-mapped
+     * and primitive values are read directly from the mapped buffer
+     * @param channel file channel containing raw binary data
+     * @throws IOException if the byte encoding is not RAW or the file cannot be mapped
+     */
+    public void setInput(FileChannel channel) throws IOException
+    {
+        checkRawByteEncoding();
+        dataInput = new DataInputByteBuffer(channel, getByteOrder());
+    }
+    
+    
+    protected void checkRawByteEncoding() throws IOException
+    {
+        ByteEncoding byteEnc = ((BinaryEncoding)dataEncoding).getByteEncoding();
+        if (byteEnc != ByteEncoding.RAW)
+            throw new ReaderException("Unsupported byte encoding for buffer input: " + byteEnc);
+    }
+    
+    
+    protected java.nio.ByteOrder getByteOrder()
+    {
+        if (((BinaryEncoding)dataEncoding).getByteOrder() == ByteOrder.LITTLE_ENDIAN)
+            return java.nio.ByteOrder.LITTLE_ENDIAN;
+        else
+            return java.nio.ByteOrder.BIG_ENDIAN;
+    }
+    
 
     @Override
     public void close() throws IOException
     {
-        if (dataInput != null)
-            ((InputStream)dataInput).close();
+        if (dataInput instanceof Closeable)
+            ((Closeable)dataInput).close();
     }
     
     
@@ -448,6 +652,214 @@ public class BinaryDataParser extends AbstractDataParser
     }
     
     
+    @Override
+    public void visit(DataRecord record)
+    {
+        visitBlock(record, () -> super.visit(record));
+    }
+    
+    
+    @Override
+    public void visit(Vector vect)
+    {
+        visitBlock(vect, () -> super.visit(vect));
+    }
+    
+    
+    @Override
+    public void visit(DataChoice choice)
+    {
+        visitBlock(choice, () -> super.visit(choice));
+    }
+    
+    
+    @Override
+    public void visit(DataArray array)
+    {
+        visitBlock(array, () -> super.visit(array));
+    }
+    
+    
+    protected void visitBlock(DataComponent comp, Runnable visitChildren)
+    {
+        BinaryMember enc = ((AbstractDataComponentImpl)comp).getEncodingInfo();
+        if (!(enc instanceof BinaryBlock))
+        {
+            visitChildren.run();
+            return;
+        }
+        
+        BlockParser blockParser = new BlockParser(comp, (BinaryBlock)enc);
+        addToProcessorTree(blockParser);
+        
+        // compressed blocks are decoded as a whole
+        if (blockParser.isCompressed())
+        {
+            for (AtomProcessor parent: processorStack)
+                Asserts.checkState(!(parent instanceof ArrayProcessor), "Compressed blocks nested in arrays are not supported");
+        }
+        else
+            visitChildren.run();
+        
+        processorStack.pop();
+    }
+    
+    
+    @Override
+    protected boolean canSkip(DataComponent comp)
+    {
+        return getEncodedSize(comp) >= 0;
+    }
+    
+    
+    @Override
+    protected AtomProcessor getSkipProcessor(DataComponent comp)
+    {
+        return new SkipBytesParser(getEncodedSize(comp));
+    }
+    
+    
+    /*
+     * Computes the number of bytes used to encode a component, or -1 if it is
+     * not known in advance (e.g. strings, choices, variable size arrays and
+     * compressed blocks)
+     */
+    protected int getEncodedSize(DataComponent comp)
+    {
+        BinaryMember enc = ((AbstractDataComponentImpl)comp).getEncodingInfo();
+        int size = 0;
+        
+        if (enc instanceof BinaryBlock)
+        {
+            BinaryBlock blockInfo = (BinaryBlock)enc;
+            if (blockInfo.isSetCompression())
+                return -1;
+            if (blockInfo.isSetPaddingBytesBefore())
+                size += blockInfo.getPaddingBytesBefore();
+            if (blockInfo.isSetPaddingBytesAfter())
+                size += blockInfo.getPaddingBytesAfter();
+        }
+        
+        if (comp instanceof ScalarComponent)
+        {
+            if (!(enc instanceof BinaryComponentImpl))
+                return -1;
+            return getEncodedSize(((BinaryComponentImpl)enc).getCdmDataType());
+        }
+        else if (comp instanceof DataChoice || comp instanceof GeometryData)
+        {
+            return -1;
+        }
+        else if (comp instanceof DataArray)
+        {
+            DataArray array = (DataArray)comp;
+            int eltSize = getEncodedSize(array.getElementType());
+            if (array.isVariableSize() || eltSize < 0)
+                return -1;
+            return size + array.getComponentCount() * eltSize;
+        }
+        
+        for (int i = 0; i < comp.getComponentCount(); i++)
+        {
+            int childSize = getEncodedSize(comp.getComponent(i));
+            if (childSize < 0)
+                return -1;
+            size += childSize;
+        }
+        
+        return size;
+    }
+    
+    
+    protected int getEncodedSize(DataType dataType)
+    {
+        switch (dataType)
+        {
+            case BOOLEAN:
+            case BYTE:
+            case UBYTE:
+                return 1;
+                
+            case SHORT:
+            case USHORT:
+                return 2;
+                
+            case INT:
+            case UINT:
+            case FLOAT:
+                return 4;
+                
+            case LONG:
+            case ULONG:
+            case DOUBLE:
+                return 8;
+                
+            default:
+                return -1;
+        }
+    }
+    
+    
+    @Override
+    protected boolean isScalarProcessor(AtomProcessor processor)
+    {
+        return processor instanceof ValueParser;
+    }
+    
+    
+    @Override
+    protected void processRun(AtomProcessor processor, AbstractDataBlock block, int index, int count) throws IOException
+    {
+        Class<?> blockClass = block.getClass();
+        int end = index + count;
+        
+        if (processor instanceof DoubleParser && blockClass == DataBlockDouble.class)
+        {
+            DataBlockDouble data = (DataBlockDouble)block;
+            for (int i = index; i < end; i++)
+                data.setDoubleValue(i, dataInput.readDouble());
+        }
+        else if (processor instanceof FloatParser && blockClass == DataBlockFloat.class)
+        {
+            DataBlockFloat data = (DataBlockFloat)block;
+            for (int i = index; i < end; i++)
+                data.setFloatValue(i, dataInput.readFloat());
+        }
+        else if (processor instanceof IntParser && blockClass == DataBlockInt.class)
+        {
+            DataBlockInt data = (DataBlockInt)block;
+            for (int i = index; i < end; i++)
+                data.setIntValue(i, dataInput.readInt());
+        }
+        else if (processor instanceof LongParser && blockClass == DataBlockLong.class)
+        {
+            DataBlockLong data = (DataBlockLong)block;
+            for (int i = index; i < end; i++)
+                data.setLongValue(i, dataInput.readLong());
+        }
+        else if (processor instanceof ShortParser && blockClass == DataBlockShort.class)
+        {
+            DataBlockShort data = (DataBlockShort)block;
+            for (int i = index; i < end; i++)
+                data.setShortValue(i, dataInput.readShort());
+        }
+        else if (processor instanceof ByteParser && blockClass == DataBlockByte.class)
+        {
+            DataBlockByte data = (DataBlockByte)block;
+            for (int i = index; i < end; i++)
+                data.setByteValue(i, dataInput.readByte());
+        }
+        else if (processor instanceof BooleanParser && blockClass == DataBlockBoolean.class)
+        {
+            DataBlockBoolean data = (DataBlockBoolean)block;
+            for (int i = index; i < end; i++)
+                data.setBooleanValue(i, dataInput.readBoolean());
+        }
+        else
+            super.processRun(processor, block, index, count);
+    }
+    
+    
     @Override
     protected ChoiceProcessor getChoiceProcessor(DataChoice choice)
     {
@@ -479,6 +891,11 @@ public class BinaryDataParser extends AbstractDataParser
     @Override
     protected boolean moreData() throws IOException
     {
-        return ((InputStream)dataInput).available() > 0;
+        dataInput.mark(1);
+        if (dataInput.read() < 0)
+            return false;
+        
+        dataInput.reset();
+        return true;
     }
 }
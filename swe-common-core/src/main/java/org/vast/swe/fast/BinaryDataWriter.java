@@ -16,21 +16,39 @@ package org.vast.swe.fast;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import org.vast.cdm.common.CDMException;
+import org.vast.cdm.common.CompressedStreamWriter;
 import org.vast.cdm.common.DataOutputExt;
+import org.vast.data.AbstractDataBlock;
 import org.vast.data.AbstractDataComponentImpl;
+import org.vast.data.BinaryBlockImpl;
 import org.vast.data.BinaryComponentImpl;
+import org.vast.data.DataBlockBoolean;
+import org.vast.data.DataBlockByte;
+import org.vast.data.DataBlockCompressed;
+import org.vast.data.DataBlockDouble;
+import org.vast.data.DataBlockFloat;
+import org.vast.data.DataBlockInt;
+import org.vast.data.DataBlockLong;
+import org.vast.data.DataBlockShort;
+import org.vast.swe.Base64Encoder;
+import org.vast.swe.CodecLookup;
+import org.vast.swe.DataOutputByteBuffer;
 import org.vast.swe.DataOutputStreamBI;
 import org.vast.swe.DataOutputStreamLI;
 import org.vast.swe.SWEHelper;
 import org.vast.util.Asserts;
 import org.vast.util.WriterException;
+import net.opengis.swe.v20.BinaryBlock;
 import net.opengis.swe.v20.BinaryEncoding;
 import net.opengis.swe.v20.BinaryMember;
 import net.opengis.swe.v20.Boolean;
+import net.opengis.swe.v20.ByteEncoding;
 import net.opengis.swe.v20.ByteOrder;
 import net.opengis.swe.v20.Category;
 import net.opengis.swe.v20.Count;
@@ -38,11 +56,13 @@ import net.opengis.swe.v20.DataArray;
 import net.opengis.swe.v20.DataBlock;
 import net.opengis.swe.v20.DataChoice;
 import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataRecord;
 import net.opengis.swe.v20.DataType;
 import net.opengis.swe.v20.Quantity;
 import net.opengis.swe.v20.ScalarComponent;
 import net.opengis.swe.v20.Text;
 import net.opengis.swe.v20.Time;
+import net.opengis.swe.v20.Vector;
 
 
 /**
@@ -304,11 +324,105 @@ public class BinaryDataWriter extends AbstractDataWriter
     }
     
     
+    protected class BlockWriter extends BaseProcessor implements CompositeProcessor
+    {
+        DataComponent blockComponent;
+        BinaryBlock blockInfo;
+        CompressedStreamWriter encoder;
+        AtomProcessor eltProcessor;
+        
+        public BlockWriter(DataComponent blockComponent, BinaryBlock blockInfo)
+        {
+            this.blockComponent = blockComponent;
+            this.blockInfo = blockInfo;
+            this.encoder = ((BinaryBlockImpl)blockInfo).getBlockWriter();
+        }
+        
+        public boolean isCompressed()
+        {
+            return blockInfo.isSetCompression();
+        }
+        
+        @Override
+        public int process(DataBlock data, int index) throws IOException
+        {
+            if (blockInfo.isSetPaddingBytesBefore())
+                writePadding(blockInfo.getPaddingBytesBefore());
+            
+            if (isCompressed())
+                index = encodeBlock(data, index);
+            else
+                index = eltProcessor.process(data, index);
+            
+            if (blockInfo.isSetPaddingBytesAfter())
+                writePadding(blockInfo.getPaddingBytesAfter());
+            
+            return index;
+        }
+        
+        protected int encodeBlock(DataBlock data, int index) throws IOException
+        {
+            // make sure component tree is mapped to the datablock being written
+            if (!dataComponents.hasData() || dataComponents.getData() != data)
+                dataComponents.setData(data);
+            DataBlock blockData = blockComponent.getData();
+            
+            // write already compressed bytes as-is
+            if (blockData instanceof DataBlockCompressed)
+            {
+                byte[] bytes = ((DataBlockCompressed)blockData).getUnderlyingObject();
+                dataOutput.writeInt(bytes.length);
+                dataOutput.write(bytes);
+            }
+            
+            // otherwise compress on-the-fly
+            else
+            {
+                if (encoder == null)
+                    throw new WriterException("No encoder available for compression " + blockInfo.getCompression());
+                
+                try
+                {
+                    encoder.encode(dataOutput, blockComponent);
+                }
+                catch (CDMException e)
+                {
+                    throw new WriterException("Cannot encode binary block " + blockComponent.getName(), e);
+                }
+            }
+            
+            return index + blockData.getAtomCount();
+        }
+        
+        protected void writePadding(int numBytes) throws IOException
+        {
+            for (int i = 0; i < numBytes; i++)
+                dataOutput.write(0);
+        }
+        
+        @Override
+        public void add(AtomProcessor processor)
+        {
+            this.eltProcessor = processor;
+        }
+    }
+    
+    
     protected void init() throws IOException
     {
         try
         {
             SWEHelper.assignBinaryEncoding(dataComponents, (BinaryEncoding)dataEncoding);
+            
+            // assign encoders to compressed blocks
+            for (BinaryMember member: ((BinaryEncoding)dataEncoding).getMemberList())
+            {
+                if (member instanceof BinaryBlock && ((BinaryBlock)member).isSetCompression())
+                {
+                    DataComponent blockComponent = SWEHelper.findComponentByPath(dataComponents, member.getRef());
+                    initBlockWriter(blockComponent, (BinaryBlockImpl)member);
+                }
+            }
         }
         catch (CDMException e)
         {
@@ -317,9 +431,36 @@ public class BinaryDataWriter extends AbstractDataWriter
     }
     
     
+    protected void initBlockWriter(DataComponent blockComponent, BinaryBlockImpl blockInfo) throws CDMException
+    {
+        CompressedStreamWriter writer = CodecLookup.getInstance().createEncoder(blockInfo.getCompression());
+        if (writer != null)
+        {
+            blockInfo.setBlockWriter(writer);
+            writer.init(blockComponent, blockInfo);
+        }
+    }
+    
+    
     @Override
-    public void setOutput(OutputStream os)
+    public void setOutput(OutputStream os) throws IOException
     {
+        ByteEncoding byteEnc = ((BinaryEncoding)dataEncoding).getByteEncoding();
+        
+        switch (byteEnc)
+        {
+            case BASE_64:
+                // use streaming Base64 converter
+                os = new Base64Encoder(os);
+                break;
+                
+            case RAW:
+                break;
+                
+            default:
+                throw new WriterException("Unsupported byte encoding: " + byteEnc);
+        }
+        
         // create right data output stream
         if (((BinaryEncoding)dataEncoding).getByteOrder() == ByteOrder.LITTLE_ENDIAN)
             dataOutput = new DataOutputStreamLI(os);
@@ -327,6 +468,49 @@ public class BinaryDataWriter extends AbstractDataWriter
             dataOutput = new DataOutputStreamBI(os);
     }
     
+    
+    /**
+     * Sets a byte buffer as the output, in which case primitive values are
+     * written directly to the buffer
+     * @param buf buffer to write raw binary data to
+     * @throws IOException if the byte encoding is not RAW
+     */
+    public void setOutput(ByteBuffer buf) throws IOException
+    {
+        checkRawByteEncoding();
+        dataOutput = new DataOutputByteBuffer(buf, getByteOrder());
+    }
+    
+    
+    /**
+     * Sets a channel as the output, in which case primitive values are
+     * written to an intermediate direct buffer that is flushed to the channel
+     * @param channel channel to write raw binary data to
+     * @throws IOException if the byte encoding is not RAW
+     */
+    public void setOutput(WritableByteChannel channel) throws IOException
+    {
+        checkRawByteEncoding();
+        dataOutput = new DataOutputByteBuffer(channel, getByteOrder(), DataOutputByteBuffer.DEFAULT_BUFFER_SIZE);
+    }
+    
+    
+    protected void checkRawByteEncoding() throws IOException
+    {
+        ByteEncoding byteEnc = ((BinaryEncoding)dataEncoding).getByteEncoding();
+        if (byteEnc != ByteEncoding.RAW)
+            throw new WriterException("Unsupported byte encoding for buffer output: " + byteEnc);
+    }
+    
+    
+    protected java.nio.ByteOrder getByteOrder()
+    {
+        if (((BinaryEncoding)dataEncoding).getByteOrder() == ByteOrder.LITTLE_ENDIAN)
+            return java.nio.ByteOrder.LITTLE_ENDIAN;
+        else
+            return java.nio.ByteOrder.BIG_ENDIAN;
+    }
+    
 
     @Override
     public void flush() throws IOException
@@ -444,6 +628,119 @@ public class BinaryDataWriter extends AbstractDataWriter
     }
     
     
+    @Override
+    public void visit(DataRecord record)
+    {
+        visitBlock(record, () -> super.visit(record));
+    }
+    
+    
+    @Override
+    public void visit(Vector vect)
+    {
+        visitBlock(vect, () -> super.visit(vect));
+    }
+    
+    
+    @Override
+    public void visit(DataChoice choice)
+    {
+        visitBlock(choice, () -> super.visit(choice));
+    }
+    
+    
+    @Override
+    public void visit(DataArray array)
+    {
+        visitBlock(array, () -> super.visit(array));
+    }
+    
+    
+    protected void visitBlock(DataComponent comp, Runnable visitChildren)
+    {
+        BinaryMember enc = ((AbstractDataComponentImpl)comp).getEncodingInfo();
+        if (!(enc instanceof BinaryBlock))
+        {
+            visitChildren.run();
+            return;
+        }
+        
+        BlockWriter blockWriter = new BlockWriter(comp, (BinaryBlock)enc);
+        addToProcessorTree(blockWriter);
+        
+        // compressed blocks are encoded as a whole
+        if (blockWriter.isCompressed())
+        {
+            for (AtomProcessor parent: processorStack)
+                Asserts.checkState(!(parent instanceof ArrayProcessor), "Compressed blocks nested in arrays are not supported");
+        }
+        else
+            visitChildren.run();
+        
+        processorStack.pop();
+    }
+    
+    
+    @Override
+    protected boolean isScalarProcessor(AtomProcessor processor)
+    {
+        return processor instanceof ValueWriter;
+    }
+    
+    
+    @Override
+    protected void processRun(AtomProcessor processor, AbstractDataBlock block, int index, int count) throws IOException
+    {
+        Class<?> blockClass = block.getClass();
+        int end = index + count;
+        
+        if (processor instanceof DoubleWriter && blockClass == DataBlockDouble.class)
+        {
+            DataBlockDouble data = (DataBlockDouble)block;
+            for (int i = index; i < end; i++)
+                dataOutput.writeDouble(data.getDoubleValue(i));
+        }
+        else if (processor instanceof FloatWriter && blockClass == DataBlockFloat.class)
+        {
+            DataBlockFloat data = (DataBlockFloat)block;
+            for (int i = index; i < end; i++)
+                dataOutput.writeFloat(data.getFloatValue(i));
+        }
+        else if (processor instanceof IntWriter && blockClass == DataBlockInt.class)
+        {
+            DataBlockInt data = (DataBlockInt)block;
+            for (int i = index; i < end; i++)
+                dataOutput.writeInt(data.getIntValue(i));
+        }
+        else if (processor instanceof LongWriter && blockClass == DataBlockLong.class)
+        {
+            DataBlockLong data = (DataBlockLong)block;
+            for (int i = index; i < end; i++)
+                dataOutput.writeLong(data.getLongValue(i));
+        }
+        else if (processor instanceof ShortWriter && blockClass == DataBlockShort.class)
+        {
+            DataBlockShort data = (DataBlockShort)block;
+            for (int i = index; i < end; i++)
+                dataOutput.writeShort(data.getShortValue(i));
+        }
+        else if (processor instanceof ByteWriter && blockClass == DataBlockByte.class)
+        {
+            DataBlockByte data = (DataBlockByte)block;
+            for (int i = index; i < end; i++)
+                dataOutput.writeByte(data.getByteValue(i));
+        }
+        else if (processor instanceof BooleanWriter && blockClass == DataBlockBoolean.class)
+        {
+            DataBlockBoolean data = (DataBlockBoolean)block;
+            for (int i = index; i < end; i++)
+                dataOutput.writeBoolean(data.getBooleanValue(i));
+        }
+        else
+            super.processRun(processor, block, index, count);
+    }
+    
+    
     @Override
     protected ChoiceProcessor getChoiceProcessor(DataChoice choice)
     {
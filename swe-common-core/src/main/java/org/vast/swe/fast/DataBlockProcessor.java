@@ -18,6 +18,8 @@ import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import org.vast.data.AbstractDataBlock;
+import org.vast.data.FlatBlockIndex;
 import org.vast.swe.IComponentFilter;
 import org.vast.util.Asserts;
 import net.opengis.swe.v20.CategoryRange;
@@ -47,6 +49,8 @@ import net.opengis.swe.v20.Vector;
  */
 public abstract class DataBlockProcessor implements DataComponentVisitor
 {
+    public static final int MAX_FLAT_RUNS = 65536;
+    
     protected DataComponent dataComponents;
     protected IComponentFilter filter;
     protected AtomProcessor rootProcessor;
@@ -54,6 +58,7 @@ public abstract class DataBlockProcessor implements DataComponentVisitor
     protected boolean enableSubTree = true;
     protected boolean processorTreeReady;
     protected boolean hasVarSizeArray = false;
+    protected boolean flattenTree = false;
     
     
     public interface AtomProcessor
@@ -184,6 +189,66 @@ public abstract class DataBlockProcessor implements DataComponentVisitor
     }
     
     
+    /*
+     * Processor tree flattened into runs of consecutive atoms processed by
+     * the same scalar processor. Values are processed directly on the leaf
+     * blocks holding them, and the original tree is used for datablocks
+     * that cannot be mapped to a flat index (e.g. columnar blocks)
+     */
+    protected class FlatRecordProcessor extends BaseProcessor
+    {
+        protected final AtomProcessor[] runProcessors;
+        protected final int[] runLengths;
+        protected final int atomCount;
+        protected final AtomProcessor treeProcessor;
+        protected final FlatBlockIndex blockIndex = new FlatBlockIndex();
+        
+        public FlatRecordProcessor(List<AtomProcessor> runProcessors, List<Integer> runLengths, AtomProcessor treeProcessor)
+        {
+            this.runProcessors = runProcessors.toArray(new AtomProcessor[0]);
+            this.runLengths = new int[runLengths.size()];
+            int count = 0;
+            for (int i = 0; i < this.runLengths.length; i++)
+                count += this.runLengths[i] = runLengths.get(i);
+            this.atomCount = count;
+            this.treeProcessor = treeProcessor;
+        }
+        
+        @Override
+        public int process(DataBlock data, int index) throws IOException
+        {
+            if (!blockIndex.bind(data, index, atomCount))
+                return treeProcessor.process(data, index);
+            
+            int seg = 0;
+            int segPos = 0;
+            for (int r = 0; r < runProcessors.length; r++)
+            {
+                int remaining = runLengths[r];
+                while (remaining > 0)
+                {
+                    int n = Math.min(remaining, blockIndex.getLength(seg) - segPos);
+                    if (n == 1)
+                        runProcessors[r].process(blockIndex.getBlock(seg), blockIndex.getIndex(seg) + segPos);
+                    else
+                        processRun(runProcessors[r], blockIndex.getBlock(seg), blockIndex.getIndex(seg) + segPos, n);
+                    remaining -= n;
+                    segPos += n;
+                    
+                    if (segPos == blockIndex.getLength(seg))
+                    {
+                        seg++;
+                        segPos = 0;
+                    }
+                }
+            }
+            
+            blockIndex.clear();
+            return index + atomCount;
+        }
+    }
+    
+    
     protected abstract void init() throws IOException;
     
     
@@ -288,6 +353,12 @@ public abstract class DataBlockProcessor implements DataComponentVisitor
         
         for (DataComponent field: record.getFieldList())
         {
+            if (isSkipped(field))
+            {
+                addToProcessorTree(getSkipProcessor(field));
+                continue;
+            }
+            
             boolean saveEnabled = enableSubTree;
             checkEnabled(field);
             field.accept(this);
@@ -311,6 +382,12 @@ public abstract class DataBlockProcessor implements DataComponentVisitor
         
         for (DataComponent coord: vect.getCoordinateList())
         {
+            if (isSkipped(coord))
+            {
+                addToProcessorTree(getSkipProcessor(coord));
+                continue;
+            }
+            
             boolean saveEnabled = enableSubTree;
             checkEnabled(coord);
             coord.accept(this);
@@ -355,7 +432,7 @@ public abstract class DataBlockProcessor implements DataComponentVisitor
         if (array.isImplicitSize())
         {
             ImplicitSizeProcessor sizeProcessor = getImplicitSizeProcessor(array);
-            sizeProcessor.varSizeArray = array;
+            sizeProcessor.varSizeArray = getProjectedComponent(array);
             
             // need a record processor at root in case array is root
             // otherwise we skip the implicit size processor
@@ -364,7 +441,7 @@ public abstract class DataBlockProcessor implements DataComponentVisitor
             
             addToProcessorTree(sizeProcessor);
             arrayProcessor.setArraySizeSupplier(sizeProcessor);
-            arrayProcessor.varSizeArray = array;
+            arrayProcessor.varSizeArray = getProjectedComponent(array);
             hasVarSizeArray = true;
         }
         else if (array.isVariableSize())
@@ -374,7 +451,7 @@ public abstract class DataBlockProcessor implements DataComponentVisitor
             ArraySizeSupplier sizeSupplier = getArraySizeSupplier(refId);
             Asserts.checkState(sizeSupplier != null, "Missing array size supplier");
             arrayProcessor.setArraySizeSupplier(sizeSupplier);
-            arrayProcessor.varSizeArray = array;
+            arrayProcessor.varSizeArray = getProjectedComponent(array);
             hasVarSizeArray = true;
         }
         else
@@ -408,6 +485,140 @@ public abstract class DataBlockProcessor implements DataComponentVisitor
     }
     
     
+    /*
+     * Tells if the component must be skipped in the input stream
+     * because it is not part of the selected projection
+     */
+    protected boolean isSkipped(DataComponent comp)
+    {
+        return false;
+    }
+    
+    
+    protected AtomProcessor getSkipProcessor(DataComponent comp)
+    {
+        throw new UnsupportedOperationException();
+    }
+    
+    
+    /*
+     * Gets the component of the output structure corresponding to the
+     * visited component, when the visited structure is not the same
+     */
+    protected <T extends DataComponent> T getProjectedComponent(T comp)
+    {
+        return comp;
+    }
+    
+    
+    /**
+     * Enables flattening of the processor tree of fixed size structures.<br/>
+     * When enabled, records and fixed size arrays are unrolled into runs of
+     * scalar values that are processed directly on the leaf datablocks, which
+     * avoids the per atom dispatch through the processor tree and composite
+     * datablocks. The processor tree is used as is when the structure or the
+     * datablock doesn't support it.
+     * @param flatten true to enable flattening of the processor tree
+     */
+    public void setFlattenProcessorTree(boolean flatten)
+    {
+        this.flattenTree = flatten;
+        this.processorTreeReady = false;
+    }
+    
+    
+    /*
+     * Replaces the root processor by a flat processor if enabled and
+     * supported by the processor tree
+     */
+    protected void flattenProcessorTree()
+    {
+        if (!flattenTree || hasVarSizeArray || rootProcessor == null)
+            return;
+        
+        List<AtomProcessor> runProcessors = new ArrayList<>();
+        List<Integer> runLengths = new ArrayList<>();
+        if (addRuns(rootProcessor, runProcessors, runLengths))
+            rootProcessor = new FlatRecordProcessor(runProcessors, runLengths, rootProcessor);
+    }
+    
+    
+    protected boolean addRuns(AtomProcessor processor, List<AtomProcessor> runProcessors, List<Integer> runLengths)
+    {
+        if (!processor.isEnabled())
+            return false;
+        
+        if (isScalarProcessor(processor))
+        {
+            int last = runProcessors.size() - 1;
+            if (last >= 0 && runProcessors.get(last) == processor)
+                runLengths.set(last, runLengths.get(last) + 1);
+            else if (runProcessors.size() < MAX_FLAT_RUNS)
+            {
+                runProcessors.add(processor);
+                runLengths.add(1);
+            }
+            else
+                return false;
+            
+            return true;
+        }
+        
+        else if (processor.getClass() == RecordProcessor.class)
+        {
+            for (AtomProcessor field: ((RecordProcessor)processor).fieldProcessors)
+            {
+                if (!addRuns(field, runProcessors, runLengths))
+                    return false;
+            }
+            
+            return true;
+        }
+        
+        else if (processor instanceof ArrayProcessor)
+        {
+            ArrayProcessor array = (ArrayProcessor)processor;
+            if (array.varSizeArray != null || array.sizeSupplier instanceof ImplicitSizeProcessor)
+                return false;
+            
+            int arraySize = array.getArraySize();
+            for (int i = 0; i < arraySize; i++)
+            {
+                if (!addRuns(array.eltProcessor, runProcessors, runLengths))
+                    return false;
+            }
+            
+            return true;
+        }
+        
+        return false;
+    }
+    
+    
+    /*
+     * Tells if the processor always processes exactly one atom, so that it
+     * can be called directly on the leaf datablock holding the atom.
+     * Processors are never flattened unless this is overridden
+     */
+    protected boolean isScalarProcessor(AtomProcessor processor)
+    {
+        return false;
+    }
+    
+    
+    /*
+     * Processes consecutive atoms of a leaf datablock with the same scalar
+     * processor. Subclasses can override this to provide loops specialized
+     * for the concrete datablock class
+     */
+    protected void processRun(AtomProcessor processor, AbstractDataBlock block, int index, int count) throws IOException
+    {
+        int end = index + count;
+        for (int i = index; i < end; i++)
+            processor.process(block, i);
+    }
+    
+    
     public void setDataComponents(DataComponent components)
     {
         this.dataComponents = components.copy();
@@ -426,4 +637,29 @@ public abstract class DataBlockProcessor implements DataComponentVisitor
         this.filter = filter;
         this.enableSubTree = false;
     }
+    
+    
+    /*
+     * Checks that all records described by the component have the same
+     * structure and atom count (i.e. no variable size array or choice)
+     */
+    protected static boolean isFixedSize(DataComponent comp)
+    {
+        if (comp instanceof DataChoice || comp instanceof GeometryData)
+            return false;
+        
+        if (comp instanceof DataArray)
+        {
+            DataArray array = (DataArray)comp;
+            return !array.isVariableSize() && isFixedSize(array.getElementType());
+        }
+        
+        for (int i = 0; i < comp.getComponentCount(); i++)
+        {
+            if (!isFixedSize(comp.getComponent(i)))
+                return false;
+        }
+        
+        return true;
+    }
 }
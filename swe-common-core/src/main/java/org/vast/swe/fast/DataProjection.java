@@ -0,0 +1,265 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.fast;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.vast.swe.IComponentFilter;
+import org.vast.util.Asserts;
+import net.opengis.swe.v20.DataArray;
+import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataRecord;
+import net.opengis.swe.v20.Vector;
+
+
+/**
+ * <p>
+ * Computes the compact structure containing only the components selected
+ * by a filter, so parsers can skip unselected components in the input
+ * stream and produce datablocks with only the selected values.<br/>
+ * Like with {@link DataStreamParser} filters, all descendants of a selected
+ * component are also selected. In addition:
+ * <li>Only records and vectors can be partially selected. Other composite
+ * components (e.g. arrays, choices, ranges, geometries) are kept entirely
+ * if any of their descendants is selected</li>
+ * <li>Size components of selected variable size arrays are always selected</li>
+ * <li>Unselected components that cannot be skipped by the parser are selected</li>
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class DataProjection
+{
+    final DataComponent fullStruct;
+    final DataComponent projectedStruct;
+    final Set<DataComponent> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+    final Map<DataComponent, DataComponent> projectedComponents = new IdentityHashMap<>();
+    
+    
+    /**
+     * @param fullStruct Full component structure, as found in the input stream
+     * @param filter Filter selecting the components to keep
+     * @param canSkip Predicate telling if an unselected component can be skipped
+     */
+    public DataProjection(DataComponent fullStruct, IComponentFilter filter, Predicate<DataComponent> canSkip)
+    {
+        this.fullStruct = Asserts.checkNotNull(fullStruct, DataComponent.class);
+        Asserts.checkNotNull(filter, IComponentFilter.class);
+    
+        selectComponents(fullStruct, filter);
+    
+        // select unselected components that cannot be skipped
+        // until all remaining ones can be
+        var kept = getKeptComponents();
+        var unskippable = new ArrayList<DataComponent>();
+        do
+        {
+            unskippable.clear();
+            collectUnskippable(fullStruct, kept, canSkip, unskippable);
+            for (var comp: unskippable)
+                selectAll(comp);
+            kept = getKeptComponents();
+        }
+        while (!unskippable.isEmpty());
+    
+        // prune copy of full structure and refresh its atom counts
+        projectedStruct = fullStruct.copy();
+        mapComponents(fullStruct, projectedStruct, kept);
+        projectedStruct.createDataBlock();
+    }
+    
+    
+    protected void selectComponents(DataComponent comp, IComponentFilter filter)
+    {
+        if (filter.accept(comp) || (!isPartiallySelectable(comp) && hasSelectedDescendant(comp, filter)))
+        {
+            selectAll(comp);
+            return;
+        }
+    
+        for (int i = 0; i < comp.getComponentCount(); i++)
+            selectComponents(comp.getComponent(i), filter);
+    }
+    
+    
+    protected boolean isPartiallySelectable(DataComponent comp)
+    {
+        return comp instanceof DataRecord || comp instanceof Vector;
+    }
+    
+    
+    protected boolean hasSelectedDescendant(DataComponent comp, IComponentFilter filter)
+    {
+        var children = getChildren(comp);
+        for (int i = 0; i < children.length; i++)
+        {
+            if (filter.accept(children[i]) || hasSelectedDescendant(children[i], filter))
+                return true;
+        }
+    
+        return false;
+    }
+    
+    
+    /*
+     * Selects the component and all its descendants
+     */
+    protected void selectAll(DataComponent comp)
+    {
+        selected.add(comp);
+    
+        // also select size component of variable size arrays
+        if (comp instanceof DataArray)
+        {
+            var array = (DataArray)comp;
+            if (array.isVariableSize() && !array.isImplicitSize())
+                selected.add(array.getArraySizeComponent());
+        }
+    
+        for (var child: getChildren(comp))
+            selectAll(child);
+    }
+    
+    
+    /*
+     * Gets the child components, or the element type in the case of arrays
+     */
+    protected DataComponent[] getChildren(DataComponent comp)
+    {
+        if (comp instanceof DataArray)
+            return new DataComponent[] {((DataArray)comp).getElementType()};
+    
+        var children = new DataComponent[comp.getComponentCount()];
+        for (int i = 0; i < children.length; i++)
+            children[i] = comp.getComponent(i);
+        return children;
+    }
+    
+    
+    /*
+     * Computes the set of selected components and all their ancestors
+     */
+    protected Set<DataComponent> getKeptComponents()
+    {
+        Set<DataComponent> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.add(fullStruct);
+    
+        for (var comp: selected)
+        {
+            while (comp != null && kept.add(comp))
+                comp = comp.getParent();
+        }
+    
+        return kept;
+    }
+    
+    
+    protected void collectUnskippable(DataComponent comp, Set<DataComponent> kept, Predicate<DataComponent> canSkip, Collection<DataComponent> unskippable)
+    {
+        if (!kept.contains(comp))
+        {
+            if (!canSkip.test(comp))
+                unskippable.add(comp);
+        }
+        else if (!selected.contains(comp))
+        {
+            for (var child: getChildren(comp))
+                collectUnskippable(child, kept, canSkip, unskippable);
+        }
+    }
+    
+    
+    /*
+     * Removes unselected components from the copy and maps full
+     * structure components to the corresponding copied components
+     */
+    protected void mapComponents(DataComponent comp, DataComponent copy, Set<DataComponent> kept)
+    {
+        projectedComponents.put(comp, copy);
+    
+        if (comp instanceof DataArray)
+        {
+            mapComponents(((DataArray)comp).getElementType(), ((DataArray)copy).getElementType(), kept);
+            return;
+        }
+    
+        // iterate backwards so arrays are removed before their size component
+        for (int i = comp.getComponentCount()-1; i >= 0; i--)
+        {
+            var child = comp.getComponent(i);
+            if (kept.contains(child))
+                mapComponents(child, copy.getComponent(i), kept);
+            else
+                copy.removeComponent(i);
+        }
+    }
+    
+    
+    /**
+     * @return The full component structure
+     */
+    public DataComponent getFullStructure()
+    {
+        return fullStruct;
+    }
+    
+    
+    /**
+     * @return The structure containing only the selected components
+     */
+    public DataComponent getProjectedStructure()
+    {
+        return projectedStruct;
+    }
+    
+    
+    /**
+     * @param comp Component of the full structure
+     * @return The corresponding component in the projected structure,
+     * or null if it is not part of the projection
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends DataComponent> T getProjectedComponent(T comp)
+    {
+        return (T)projectedComponents.get(comp);
+    }
+    
+    
+    /**
+     * @param comp Component of the full structure
+     * @return True if the component and all its descendants are selected
+     */
+    public boolean isSelected(DataComponent comp)
+    {
+        return selected.contains(comp);
+    }
+    
+    
+    /**
+     * @param comp Component of the full structure
+     * @return True if the component is not part of the projection and
+     * must be skipped entirely
+     */
+    public boolean isSkipped(DataComponent comp)
+    {
+        return !projectedComponents.containsKey(comp);
+    }
+}
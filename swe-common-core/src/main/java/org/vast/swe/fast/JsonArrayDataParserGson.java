@@ -184,7 +184,7 @@ public class JsonArrayDataParserGson extends JsonDataParserGson
         public ChoiceReader(DataChoice choice)
         {
             this.eltName = choice.getName();
-            this.choice = choice;
+            this.choice = getProjectedComponent(choice);
             
             int i = 0;
             for (DataComponent item: choice.getItemList())
@@ -246,6 +246,21 @@ public class JsonArrayDataParserGson extends JsonDataParserGson
     }
     
     
+    @Override
+    protected boolean canSkip(DataComponent comp)
+    {
+        // values of nested components are flattened so we need to know how many to skip
+        return isFixedSize(comp);
+    }
+    
+    
+    @Override
+    protected AtomProcessor getSkipProcessor(DataComponent comp)
+    {
+        return new SkipReader(comp.getName(), getAtomCount(comp));
+    }
+    
+    
     @Override
     protected AtomProcessor getRangeProcessor(RangeComponent range)
     {
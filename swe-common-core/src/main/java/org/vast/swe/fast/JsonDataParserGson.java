@@ -17,15 +17,19 @@ package org.vast.swe.fast;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 import org.vast.data.AbstractDataBlock;
 import org.vast.data.DataBlockDouble;
 import org.vast.data.DataBlockInt;
 import org.vast.data.DataBlockList;
 import org.vast.data.DataBlockMixed;
 import org.vast.util.Asserts;
-import org.vast.util.DateTimeFormat;
+import org.vast.util.IsoDateTimeCodec;
 import org.vast.util.ReaderException;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
@@ -70,6 +74,7 @@ public class JsonDataParserGson extends AbstractDataParser
     protected boolean multipleRecords;
     protected Map<String, IntegerReader> countReaders = new HashMap<>();
     protected boolean hasJsonArrayWrapper = false;
+    protected boolean unorderedFields = false;
 
 
     protected interface JsonAtomReader
@@ -184,7 +189,7 @@ public class JsonDataParserGson extends AbstractDataParser
 
     protected class IsoDateTimeReader extends ValueReader
     {
-        DateTimeFormat timeFormat = new DateTimeFormat();
+        IsoDateTimeCodec timeCodec = new IsoDateTimeCodec();
 
         public IsoDateTimeReader(String eltName)
         {
@@ -197,15 +202,11 @@ public class JsonDataParserGson extends AbstractDataParser
             var str = reader.nextString();
             double val = 0.0;
             
-            if (str == null || "NaN".equals(str))
+            if (str == null)
                 val = Double.NaN;
-            else if ("+INF".equals(str) || "INF".equals(str))
-                val = Double.POSITIVE_INFINITY;
-            else if ("-INF".equals(str))
-                val = Double.NEGATIVE_INFINITY;
             else
             {
-                try { val = timeFormat.parseIso(str); }
+                try { val = timeCodec.parse(str); }
                 catch (Exception e) { throw new ReaderException(e.getMessage()); }
             }
             
@@ -239,6 +240,36 @@ public class JsonDataParserGson extends AbstractDataParser
     }
 
 
+    /*
+     * Skips the value(s) of a component that is not part of the projection
+     */
+    protected class SkipReader extends BaseProcessor implements JsonAtomReader
+    {
+        String eltName;
+        int numValues;
+
+        public SkipReader(String eltName, int numValues)
+        {
+            this.eltName = eltName;
+            this.numValues = numValues;
+        }
+
+        @Override
+        public int process(DataBlock data, int index) throws IOException
+        {
+            for (int i = 0; i < numValues; i++)
+                reader.skipValue();
+            return index;
+        }
+
+        @Override
+        public String getEltName()
+        {
+            return eltName;
+        }
+    }
+
+
     protected class RangeReader extends RecordProcessor implements JsonAtomReader
     {
         String eltName;
@@ -306,6 +337,216 @@ public class JsonDataParserGson extends AbstractDataParser
     }
 
 
+    /*
+     * Record reader accepting members in any order. Members are dispatched
+     * to field processors using a name lookup table, unknown members are
+     * skipped and missing fields are filled with NaN/null values.
+     */
+    protected class UnorderedRecordReader extends RecordReader
+    {
+        Map<String, Integer> fieldIndexes = new HashMap<>();
+        String[] fieldNames;
+        int[] fieldSizes; // atom count of each field or -1 if variable size
+        int[] fieldStarts; // atom index of each field in the current record or -1 if unknown
+        int[][] fieldSizeDeps; // indexes of count fields giving the size of arrays in each field
+        boolean[] fieldRead;
+
+        public UnorderedRecordReader(DataComponent comp)
+        {
+            super(comp.getName());
+            
+            int numFields = comp.getComponentCount();
+            fieldNames = new String[numFields];
+            fieldSizes = new int[numFields];
+            fieldStarts = new int[numFields+1];
+            fieldSizeDeps = new int[numFields][];
+            fieldRead = new boolean[numFields];
+            
+            for (int i = 0; i < numFields; i++)
+            {
+                var field = comp.getComponent(i);
+                var projectedField = getProjectedComponent(field);
+                fieldNames[i] = field.getName();
+                fieldIndexes.put(field.getName(), i);
+                
+                // fields skipped by projection have no values in datablock
+                if (projectedField == null)
+                {
+                    fieldSizeDeps[i] = new int[0];
+                    continue;
+                }
+                
+                fieldSizes[i] = isFixedSize(projectedField) ? projectedField.createDataBlock().getAtomCount() : -1;
+                var sizeIds = new HashSet<String>();
+                collectArraySizeIds(field, sizeIds);
+                fieldSizeDeps[i] = IntStream.range(0, i)
+                    .filter(j -> sizeIds.contains(comp.getComponent(j).getId()))
+                    .toArray();
+            }
+        }
+        
+        protected void collectArraySizeIds(DataComponent comp, Set<String> sizeIds)
+        {
+            if (comp instanceof DataArray)
+            {
+                var array = (DataArray)comp;
+                if (array.isVariableSize() && !array.isImplicitSize())
+                    sizeIds.add(array.getArraySizeComponent().getId());
+                collectArraySizeIds(array.getElementType(), sizeIds);
+            }
+            else
+            {
+                for (int i = 0; i < comp.getComponentCount(); i++)
+                    collectArraySizeIds(comp.getComponent(i), sizeIds);
+            }
+        }
+
+        @Override
+        public int process(DataBlock data, int index) throws IOException
+        {
+            reader.beginObject();
+            
+            // fast path as long as members are in the declared order
+            int numFields = fieldProcessors.size();
+            String name = null;
+            int i = 0;
+            for (; i < numFields; i++)
+            {
+                var p = fieldProcessors.get(i);
+                if (p.isEnabled())
+                {
+                    if (!reader.hasNext())
+                        break;
+                    
+                    name = reader.nextName();
+                    if (!name.equals(fieldNames[i]))
+                        break;
+                    name = null;
+                }
+                
+                index = p.process(data, index);
+            }
+            
+            if (i < numFields)
+                index = readUnordered(data, index, i, name);
+            else
+                skipRemainingMembers();
+            
+            reader.endObject();
+            
+            return index;
+        }
+        
+        protected int readUnordered(DataBlock data, int index, int firstField, String name) throws IOException
+        {
+            int numFields = fieldProcessors.size();
+            Arrays.fill(fieldRead, firstField, numFields, false);
+            Arrays.fill(fieldStarts, firstField+1, numFields+1, -1);
+            fieldStarts[firstField] = index;
+            updateFieldStarts(firstField);
+            
+            while (name != null || reader.hasNext())
+            {
+                if (name == null)
+                    name = reader.nextName();
+                
+                var i = fieldIndexes.get(name);
+                if (i == null || !fieldProcessors.get(i).isEnabled())
+                {
+                    reader.skipValue();
+                    name = null;
+                    continue;
+                }
+                
+                if (i < firstField || fieldRead[i])
+                    throw new ReaderException("Duplicate field '" + name + "' at " + reader.getPath());
+                
+                // start index is unknown until previous variable size fields have been read
+                if (fieldStarts[i] < 0)
+                    throw new ReaderException("Field '" + name + "' must come after all previous variable size fields at " + reader.getPath());
+                
+                for (int j: fieldSizeDeps[i])
+                {
+                    if (j >= firstField && !fieldRead[j])
+                        throw new ReaderException("Field '" + name + "' must come after array size field '" + fieldNames[j] + "' at " + reader.getPath());
+                }
+                
+                index = fieldProcessors.get(i).process(data, fieldStarts[i]);
+                fieldRead[i] = true;
+                fieldStarts[i+1] = index;
+                updateFieldStarts(i+1);
+                name = null;
+            }
+            
+            // fill missing fields
+            for (int i = firstField; i < numFields; i++)
+            {
+                if (fieldRead[i])
+                    continue;
+                
+                var p = fieldProcessors.get(i);
+                int start = fieldStarts[i];
+                if (!p.isEnabled())
+                    index = p.process(data, start);
+                else if (fieldSizes[i] >= 0)
+                    index = fillMissingValues(data, start, start + fieldSizes[i]);
+                else
+                    throw new ReaderException("Missing variable size field '" + fieldNames[i] + "' at " + reader.getPath());
+                
+                fieldStarts[i+1] = index;
+            }
+            
+            return fieldStarts[numFields];
+        }
+        
+        protected void updateFieldStarts(int i)
+        {
+            int numFields = fieldProcessors.size();
+            for (; i < numFields && fieldSizes[i] >= 0 && fieldStarts[i+1] < 0; i++)
+                fieldStarts[i+1] = fieldStarts[i] + fieldSizes[i];
+        }
+        
+        protected int fillMissingValues(DataBlock data, int start, int end)
+        {
+            for (int i = start; i < end; i++)
+            {
+                switch (data.getDataType(i))
+                {
+                    case FLOAT:
+                    case DOUBLE:
+                        data.setDoubleValue(i, Double.NaN);
+                        break;
+                        
+                    case ASCII_STRING:
+                    case UTF_STRING:
+                        data.setStringValue(i, null);
+                        break;
+                        
+                    case BOOLEAN:
+                        data.setBooleanValue(i, false);
+                        break;
+                        
+                    default:
+                        data.setLongValue(i, 0);
+                }
+            }
+            
+            return end;
+        }
+        
+        protected void skipRemainingMembers() throws IOException
+        {
+            while (reader.hasNext())
+            {
+                var name = reader.nextName();
+                if (fieldIndexes.containsKey(name) && fieldProcessors.get(fieldIndexes.get(name)).isEnabled())
+                    throw new ReaderException("Duplicate field '" + name + "' at " + reader.getPath());
+                reader.skipValue();
+            }
+        }
+    }
+
+
     protected class ArrayReader extends ArrayProcessor implements JsonAtomReader
     {
         String eltName;
@@ -367,7 +608,7 @@ public class JsonDataParserGson extends AbstractDataParser
         public ChoiceReader(DataChoice choice)
         {
             this.eltName = choice.getName();
-            this.choice = choice;
+            this.choice = getProjectedComponent(choice);
             
             int i = 0;
             for (DataComponent item: choice.getItemList())
@@ -385,12 +626,10 @@ public class JsonDataParserGson extends AbstractDataParser
                 throw new ReaderException(INVALID_CHOICE_MSG + itemName + " at " + reader.getPath());
             
             // set selected choice index and corresponding datablock
-            data.setIntValue(index++, selectedIndex);
-            var selectedData = choice.getComponent(selectedIndex).createDataBlock();
-            ((DataBlockMixed)data).setBlock(1, (AbstractDataBlock)selectedData);
+            selectChoiceItem(choice, data, selectedIndex);
             
             // delegate to selected item processor
-            index = super.process(data, index, selectedIndex);
+            index = super.process(data, ++index, selectedIndex);
 
             reader.endObject();
 
@@ -414,7 +653,7 @@ public class JsonDataParserGson extends AbstractDataParser
 
         public GeometryReader(GeometryData geom)
         {
-            this.geom = Asserts.checkNotNull(geom, GeometryData.class);
+            this.geom = getProjectedComponent(Asserts.checkNotNull(geom, GeometryData.class));
             this.eltName = geom.getName();
         }
 
@@ -598,6 +837,20 @@ public class JsonDataParserGson extends AbstractDataParser
     {
         this.hasJsonArrayWrapper = true;
     }
+
+    
+    /**
+     * Allows record members to appear in any order in the JSON input.<br/>
+     * Unknown members are skipped and missing fields are set to NaN or null.
+     * Input with members in the declared order is parsed as fast as in the
+     * default strict mode.
+     * @param unorderedFields
+     */
+    public void setUnorderedFields(boolean unorderedFields)
+    {
+        this.unorderedFields = unorderedFields;
+        this.processorTreeReady = false;
+    }
     
     
     @Override
@@ -692,6 +945,21 @@ public class JsonDataParserGson extends AbstractDataParser
     }
     
     
+    @Override
+    protected boolean canSkip(DataComponent comp)
+    {
+        // any member can be skipped without knowing its structure
+        return true;
+    }
+
+
+    @Override
+    protected AtomProcessor getSkipProcessor(DataComponent comp)
+    {
+        return new SkipReader(comp.getName(), 1);
+    }
+
+
     @Override
     protected AtomProcessor getRangeProcessor(RangeComponent range)
     {
@@ -702,6 +970,8 @@ public class JsonDataParserGson extends AbstractDataParser
     @Override
     protected RecordProcessor getRecordProcessor(DataRecord record)
     {
+        if (unorderedFields)
+            return new UnorderedRecordReader(record);
         return new RecordReader(record.getName());
     }
 
@@ -709,6 +979,8 @@ public class JsonDataParserGson extends AbstractDataParser
     @Override
     protected RecordProcessor getVectorProcessor(Vector vect)
     {
+        if (unorderedFields)
+            return new UnorderedRecordReader(vect);
         return new RecordReader(vect.getName());
     }
 
@@ -26,8 +26,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-import org.vast.swe.SWEDataTypeUtils;
-import org.vast.util.DateTimeFormat;
+import org.vast.util.IsoDateTimeCodec;
 import org.vast.util.WriterException;
 import net.opengis.swe.v20.Boolean;
 import net.opengis.swe.v20.Category;
@@ -227,7 +226,7 @@ public class JsonDataWriter extends AbstractDataWriter
 
     protected class IsoDateTimeWriter extends ValueWriter
     {
-        DateTimeFormat timeFormat = new DateTimeFormat();
+        IsoDateTimeCodec timeCodec = new IsoDateTimeCodec(timeFractionDigits);
 
         public IsoDateTimeWriter(String eltName)
         {
@@ -243,10 +242,7 @@ public class JsonDataWriter extends AbstractDataWriter
             else
             {
                 writer.write('"');
-                if (Double.isInfinite(val))
-                    writer.write(SWEDataTypeUtils.getDoubleOrInfAsString(val));
-                else
-                    writer.write(timeFormat.formatIso(val, 0));
+                timeCodec.format(val, writer);
                 writer.write('"');
             }
         }
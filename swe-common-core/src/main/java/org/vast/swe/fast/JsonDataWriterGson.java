@@ -25,7 +25,7 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import org.vast.json.JsonInliningWriter;
-import org.vast.util.DateTimeFormat;
+import org.vast.util.IsoDateTimeCodec;
 import org.vast.util.WriterException;
 import com.google.gson.Strictness;
 import com.google.gson.stream.JsonWriter;
@@ -221,7 +221,7 @@ public class JsonDataWriterGson extends AbstractDataWriter
 
     protected class IsoDateTimeWriter extends ValueWriter
     {
-        DateTimeFormat timeFormat = new DateTimeFormat();
+        IsoDateTimeCodec timeCodec = new IsoDateTimeCodec(timeFractionDigits);
 
         public IsoDateTimeWriter(String eltName)
         {
@@ -234,12 +234,8 @@ public class JsonDataWriterGson extends AbstractDataWriter
             double val = data.getDoubleValue(index);
             if (Double.isNaN(val))
                 writer.nullValue();
-            else if (val == Double.POSITIVE_INFINITY)
-                writer.value("+INF");
-            else if (val == Double.NEGATIVE_INFINITY)
-                writer.value("-INF");
             else
-                writer.value(timeFormat.formatIso(val, 0));
+                writer.value(timeCodec.format(val));
         }
     }
 
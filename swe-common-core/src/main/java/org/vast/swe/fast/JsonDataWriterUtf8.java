@@ -0,0 +1,432 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.fast;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import org.vast.util.IsoDateTimeCodec;
+import org.vast.util.WriterException;
+import net.opengis.swe.v20.Boolean;
+import net.opengis.swe.v20.Category;
+import net.opengis.swe.v20.Count;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataRecord;
+import net.opengis.swe.v20.DataType;
+import net.opengis.swe.v20.Quantity;
+import net.opengis.swe.v20.Text;
+import net.opengis.swe.v20.Time;
+import net.opengis.swe.v20.Vector;
+
+
+/**
+ * <p>
+ * JSON data writer encoding directly to UTF-8 bytes.<br/>
+ * The output is identical to the one of {@link JsonDataWriter} but values
+ * are formatted straight into the byte buffer of a {@link Utf8ByteWriter},
+ * and field names are encoded only once when the write tree is built.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class JsonDataWriterUtf8 extends JsonDataWriter
+{
+    static final byte[] INDENT_BYTES = Utf8ByteWriter.encode(INDENT);
+    static final byte[] NULL_BYTES = Utf8ByteWriter.encode("null");
+    static final byte[] NAN_BYTES = Utf8ByteWriter.encode("\"NaN\"");
+    static final byte[] POS_INF_BYTES = Utf8ByteWriter.encode("\"+INF\"");
+    static final byte[] NEG_INF_BYTES = Utf8ByteWriter.encode("\"-INF\"");
+    
+    protected Utf8ByteWriter out;
+    protected int bufferSize = Utf8ByteWriter.DEFAULT_BUFFER_SIZE;
+    
+    
+    protected class BooleanByteWriter extends ValueWriter
+    {
+        public BooleanByteWriter(String eltName)
+        {
+            this.eltName = eltName;
+        }
+    
+        @Override
+        public void writeValue(DataBlock data, int index) throws IOException
+        {
+            out.writeBoolean(data.getBooleanValue(index));
+        }
+    }
+    
+    
+    protected class IntegerByteWriter extends IntegerWriter
+    {
+        public IntegerByteWriter(String eltName)
+        {
+            super(eltName);
+        }
+    
+        @Override
+        public void writeValue(DataBlock data, int index) throws IOException
+        {
+            val = data.getIntValue(index);
+            out.writeLong(val);
+        }
+    }
+    
+    
+    protected class DoubleByteWriter extends ValueWriter
+    {
+        public DoubleByteWriter(String eltName)
+        {
+            this.eltName = eltName;
+        }
+    
+        @Override
+        public void writeValue(DataBlock data, int index) throws IOException
+        {
+            double val = data.getDoubleValue(index);
+            if (!writeSpecialValue(val))
+                out.writeDouble(val);
+        }
+    }
+    
+    
+    protected class FloatByteWriter extends ValueWriter
+    {
+        public FloatByteWriter(String eltName)
+        {
+            this.eltName = eltName;
+        }
+    
+        @Override
+        public void writeValue(DataBlock data, int index) throws IOException
+        {
+            float val = data.getFloatValue(index);
+            if (!writeSpecialValue(val))
+                out.writeAscii(Float.toString(val));
+        }
+    }
+    
+    
+    protected class RoundingDecimalByteWriter extends RoundingDecimalWriter
+    {
+        int maxFractionDigits;
+        int minFractionDigits;
+    
+        public RoundingDecimalByteWriter(String eltName, int numDecimalPlaces)
+        {
+            super(eltName, numDecimalPlaces);
+            this.maxFractionDigits = df.getMaximumFractionDigits();
+            this.minFractionDigits = df.getMinimumFractionDigits();
+        }
+    
+        @Override
+        public void writeValue(DataBlock data, int index) throws IOException
+        {
+            double val = data.getDoubleValue(index);
+            if (!writeSpecialValue(val))
+                out.writeDecimal(val, maxFractionDigits, minFractionDigits, df);
+        }
+    }
+    
+    
+    protected class IsoDateTimeByteWriter extends ValueWriter
+    {
+        IsoDateTimeCodec timeCodec = new IsoDateTimeCodec(timeFractionDigits);
+        char[] buf = new char[IsoDateTimeCodec.MAX_LENGTH + 2];
+    
+        public IsoDateTimeByteWriter(String eltName)
+        {
+            this.eltName = eltName;
+        }
+    
+        @Override
+        public void writeValue(DataBlock data, int index) throws IOException
+        {
+            double val = data.getDoubleValue(index);
+            if (Double.isNaN(val))
+                out.writeBytes(NULL_BYTES);
+            else
+            {
+                buf[0] = '"';
+                int end = timeCodec.format(val, buf, 1);
+                buf[end++] = '"';
+                out.writeAscii(buf, 0, end);
+            }
+        }
+    }
+    
+    
+    protected class StringByteWriter extends ValueWriter
+    {
+        public StringByteWriter(String eltName)
+        {
+            this.eltName = eltName;
+        }
+    
+        @Override
+        public void writeValue(DataBlock data, int index) throws IOException
+        {
+            String val = data.getStringValue(index);
+    
+            if (val != null)
+            {
+                out.write('"');
+                writeEscaped(val);
+                out.write('"');
+            }
+            else
+                out.writeBytes(NULL_BYTES);
+        }
+    
+        protected void writeEscaped(String val) throws IOException
+        {
+            int start = 0;
+            int len = val.length();
+    
+            // write chunks of chars that don't need escaping
+            for (int i = 0; i < len; i++)
+            {
+                String escaped = getEscapeSequence(val.charAt(i));
+                if (escaped != null)
+                {
+                    out.write(val, start, i - start);
+                    out.writeAscii(escaped);
+                    start = i + 1;
+                }
+            }
+    
+            out.write(val, start, len - start);
+        }
+    
+        /*
+         * Same escaped chars as JsonDataWriter.ESCAPED_CHARS, without boxing
+         */
+        protected String getEscapeSequence(char c)
+        {
+            switch (c)
+            {
+                case '\n': return "\\n";
+                case '\t': return "\\t";
+                case '"': return "\\\"";
+                case '\\': return "\\\\";
+                default: return null;
+            }
+        }
+    }
+    
+    
+    protected class RecordByteWriter extends RecordWriter
+    {
+        byte[][] fieldNames;
+    
+        public RecordByteWriter(String eltName, boolean singleLine)
+        {
+            super(eltName, singleLine);
+        }
+    
+        @Override
+        public int process(DataBlock data, int index) throws IOException
+        {
+            if (fieldNames == null)
+                encodeFieldNames();
+    
+            try
+            {
+                out.write('{');
+    
+                depth++;
+                int i = 0;
+                for (int f = 0; f < fieldNames.length; f++)
+                {
+                    var p = fieldProcessors.get(f);
+    
+                    // skipped fields are still processed to compute index
+                    // and record array sizes but their output is dropped
+                    if (!p.isEnabled())
+                    {
+                        int token = out.startDiscard();
+                        index = p.process(data, index);
+                        out.endDiscard(token);
+                        continue;
+                    }
+    
+                    // insert separator
+                    if (i > 0)
+                        out.write(',');
+    
+                    // indent only if child is complex
+                    if (!onlyScalars)
+                    {
+                        out.write('\n');
+                        indent();
+                    }
+                    else if (i > 0)
+                        out.write(' ');
+    
+                    out.writeBytes(fieldNames[f]);
+                    index = p.process(data, index);
+                    i++;
+                }
+    
+                depth--;
+                if (!onlyScalars)
+                {
+                    out.write('\n');
+                    indent();
+                }
+                out.write('}');
+    
+                return index;
+            }
+            catch (IOException e)
+            {
+                throw new WriterException(JSON_ERROR + eltName + " record", e);
+            }
+        }
+    
+        protected void encodeFieldNames()
+        {
+            fieldNames = new byte[fieldProcessors.size()][];
+            for (int i = 0; i < fieldNames.length; i++)
+            {
+                var name = ((JsonAtomWriter)fieldProcessors.get(i)).getEltName();
+                fieldNames[i] = Utf8ByteWriter.encode('"' + name + "\": ");
+            }
+        }
+    }
+    
+    
+    /*
+     * Writes quoted special values since they are not valid literals in JSON
+     * @return true if value was a special value, false otherwise
+     */
+    protected boolean writeSpecialValue(double val) throws IOException
+    {
+        if (Double.isNaN(val))
+            out.writeBytes(NAN_BYTES);
+        else if (val == Double.POSITIVE_INFINITY)
+            out.writeBytes(POS_INF_BYTES);
+        else if (val == Double.NEGATIVE_INFINITY)
+            out.writeBytes(NEG_INF_BYTES);
+        else
+            return false;
+    
+        return true;
+    }
+    
+    
+    @Override
+    protected void indent() throws IOException
+    {
+        for (int i = 0; i < depth; i++)
+            out.writeBytes(INDENT_BYTES);
+    }
+    
+    
+    @Override
+    public void setOutput(OutputStream os)
+    {
+        this.out = new Utf8ByteWriter(os, bufferSize);
+        this.writer = out;
+    }
+    
+    
+    /**
+     * Sets the size of the buffer used to encode data before it is written
+     * to the output stream. Must be called before {@link #setOutput(OutputStream)}
+     * @param bufferSize buffer size in bytes
+     */
+    public void setBufferSize(int bufferSize)
+    {
+        this.bufferSize = bufferSize;
+    }
+    
+    
+    @Override
+    public void visit(Boolean comp)
+    {
+        addToProcessorTree(new BooleanByteWriter(comp.getName()));
+    }
+    
+    
+    @Override
+    public void visit(Count comp)
+    {
+        IntegerWriter writer = new IntegerByteWriter(comp.getName());
+        if (comp.isSetId())
+            countWriters.put(comp.getId(), writer);
+        addToProcessorTree(writer);
+    }
+    
+    
+    @Override
+    public void visit(Quantity comp)
+    {
+        if (comp.getConstraint() != null && comp.getConstraint().isSetSignificantFigures())
+        {
+            int sigFigures = comp.getConstraint().getSignificantFigures();
+            addToProcessorTree(new RoundingDecimalByteWriter(comp.getName(), sigFigures));
+        }
+        else if (comp.getDataType() == DataType.FLOAT)
+            addToProcessorTree(new FloatByteWriter(comp.getName()));
+        else
+            addToProcessorTree(new DoubleByteWriter(comp.getName()));
+    }
+    
+    
+    @Override
+    public void visit(Time comp)
+    {
+        if (!comp.isIsoTime())
+        {
+            if (comp.getConstraint() != null && comp.getConstraint().isSetSignificantFigures())
+            {
+                int sigFigures = comp.getConstraint().getSignificantFigures();
+                addToProcessorTree(new RoundingDecimalByteWriter(comp.getName(), sigFigures));
+            }
+            else
+                addToProcessorTree(new DoubleByteWriter(comp.getName()));
+        }
+        else
+            addToProcessorTree(new IsoDateTimeByteWriter(comp.getName()));
+    }
+    
+    
+    @Override
+    public void visit(Category comp)
+    {
+        addToProcessorTree(new StringByteWriter(comp.getName()));
+    }
+    
+    
+    @Override
+    public void visit(Text comp)
+    {
+        addToProcessorTree(new StringByteWriter(comp.getName()));
+    }
+    
+    
+    @Override
+    protected RecordProcessor getRecordProcessor(DataRecord record)
+    {
+        return new RecordByteWriter(record.getName(), false);
+    }
+    
+    
+    @Override
+    protected RecordProcessor getVectorProcessor(Vector vect)
+    {
+        return new RecordByteWriter(vect.getName(), true);
+    }
+}
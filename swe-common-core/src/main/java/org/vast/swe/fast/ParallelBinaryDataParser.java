@@ -0,0 +1,459 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.fast;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.vast.swe.DataInputByteBuffer;
+import org.vast.util.Asserts;
+import org.vast.util.ReaderException;
+import net.opengis.swe.v20.BinaryEncoding;
+import net.opengis.swe.v20.ByteEncoding;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataComponent;
+
+
+/**
+ * <p>
+ * Parser decoding large raw binary inputs on several cores. The input is
+ * split into chunks of consecutive records that are parsed concurrently on
+ * a {@link ForkJoinPool}, each worker thread using its own clone of a
+ * {@link BinaryDataParser}. Records are always returned in input order.
+ * </p><p>
+ * When records have a fixed encoded size, chunk boundaries are computed
+ * directly from the input size. Otherwise (e.g. variable size arrays,
+ * choices, strings or compressed blocks), an index of chunk boundaries
+ * is first built by parsing the whole input serially. The index can be
+ * reused to parse the same input several times.
+ * </p><p>
+ * Only the RAW byte encoding is supported.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class ParallelBinaryDataParser
+{
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    final DataComponent dataComponents;
+    final BinaryEncoding dataEncoding;
+    final ThreadLocal<BinaryDataParser> parsers;
+    final int recordSize;
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    int chunkSize = DEFAULT_CHUNK_SIZE;
+
+
+    /*
+     * Provides the bytes of a chunk from the underlying input
+     */
+    protected interface ChunkSource
+    {
+        ByteBuffer getChunk(long offset, int length) throws IOException;
+    }
+
+
+    /**
+     * Offsets of record-aligned chunks in a given input
+     */
+    public static class ChunkIndex
+    {
+        final long[] offsets;
+        final long numRecords;
+
+
+        public ChunkIndex(long[] offsets, long numRecords)
+        {
+            Asserts.checkArgument(offsets.length > 0, "Index must contain at least one offset");
+            this.offsets = offsets;
+            this.numRecords = numRecords;
+        }
+
+
+        /**
+         * @return The number of chunks in the index
+         */
+        public int getNumChunks()
+        {
+            return offsets.length - 1;
+        }
+
+
+        /**
+         * @param chunkIdx index of the chunk
+         * @return The offset of the first byte of the chunk in the input.
+         * The end of the last chunk is obtained with chunkIdx = numChunks
+         */
+        public long getChunkOffset(int chunkIdx)
+        {
+            return offsets[chunkIdx];
+        }
+
+
+        /**
+         * @return The total number of records in the input
+         */
+        public long getNumRecords()
+        {
+            return numRecords;
+        }
+    }
+
+
+    /*
+     * Spliterator returning records in order while keeping enough chunks
+     * in flight to keep all threads of the pool busy
+     */
+    protected class ChunkSpliterator implements Spliterator<DataBlock>
+    {
+        final ChunkSource source;
+        final ChunkIndex index;
+        final int maxPendingChunks;
+        final ArrayDeque<ForkJoinTask<List<DataBlock>>> pendingChunks = new ArrayDeque<>();
+        Iterator<DataBlock> currentChunk = Collections.emptyIterator();
+        int nextChunk;
+        long remaining;
+
+        protected ChunkSpliterator(ChunkSource source, ChunkIndex index)
+        {
+            this.source = source;
+            this.index = index;
+            this.maxPendingChunks = 2 * pool.getParallelism();
+            this.remaining = index.getNumRecords();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super DataBlock> action)
+        {
+            while (!currentChunk.hasNext())
+            {
+                while (nextChunk < index.getNumChunks() && pendingChunks.size() < maxPendingChunks)
+                {
+                    long start = index.getChunkOffset(nextChunk);
+                    long end = index.getChunkOffset(++nextChunk);
+                    pendingChunks.add(pool.submit(() -> parseChunk(source, start, end)));
+                }
+
+                ForkJoinTask<List<DataBlock>> task = pendingChunks.poll();
+                if (task == null)
+                    return false;
+                currentChunk = getChunkResult(task).iterator();
+            }
+
+            remaining--;
+            action.accept(currentChunk.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<DataBlock> trySplit()
+        {
+            // chunks are already decoded in parallel
+            return null;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return ORDERED | NONNULL | SIZED;
+        }
+
+        protected void cancel()
+        {
+            for (ForkJoinTask<?> task: pendingChunks)
+                task.cancel(false);
+            pendingChunks.clear();
+            nextChunk = index.getNumChunks();
+        }
+    }
+
+
+    public ParallelBinaryDataParser(DataComponent dataComponents, BinaryEncoding dataEncoding) throws IOException
+    {
+        Asserts.checkNotNull(dataComponents, DataComponent.class);
+        Asserts.checkNotNull(dataEncoding, BinaryEncoding.class);
+        if (dataEncoding.getByteEncoding() != ByteEncoding.RAW)
+            throw new ReaderException("Unsupported byte encoding for parallel parsing: " + dataEncoding.getByteEncoding());
+
+        this.dataComponents = dataComponents.copy();
+        this.dataEncoding = (BinaryEncoding)dataEncoding.copy();
+        this.parsers = ThreadLocal.withInitial(this::createParser);
+
+        // compute record size using a prototype parser
+        BinaryDataParser parser = createParser();
+        parser.ensureProcessorTree();
+        this.recordSize = parser.getEncodedSize(parser.dataComponents);
+    }
+
+
+    /**
+     * Sets the pool used to decode chunks in parallel
+     * @param pool fork join pool, common pool by default
+     */
+    public void setPool(ForkJoinPool pool)
+    {
+        this.pool = Asserts.checkNotNull(pool, "pool");
+    }
+
+
+    /**
+     * Sets the number of records decoded by a single task
+     * @param chunkSize number of records per chunk
+     */
+    public void setChunkSize(int chunkSize)
+    {
+        Asserts.checkArgument(chunkSize > 0, "chunkSize must be > 0");
+        this.chunkSize = chunkSize;
+    }
+
+
+    /**
+     * @return The size of a single encoded record in bytes or -1 if records
+     * don't have a fixed encoded size
+     */
+    public int getRecordSize()
+    {
+        return recordSize;
+    }
+
+
+    /**
+     * Builds the chunk index of the remaining bytes of the buffer
+     * @param buf buffer containing raw binary records
+     * @return the chunk index
+     * @throws IOException if the buffer content cannot be parsed
+     */
+    public ChunkIndex buildIndex(ByteBuffer buf) throws IOException
+    {
+        if (recordSize > 0)
+            return buildFixedSizeIndex(buf.position(), buf.limit());
+
+        BinaryDataParser parser = createParser();
+        parser.setInput(buf);
+        return buildIndex(parser, buf.limit());
+    }
+
+
+    /**
+     * Builds the chunk index of the file, starting at the current channel position
+     * @param channel file channel containing raw binary records
+     * @return the chunk index
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public ChunkIndex buildIndex(FileChannel channel) throws IOException
+    {
+        if (recordSize > 0)
+            return buildFixedSizeIndex(channel.position(), channel.size());
+
+        BinaryDataParser parser = createParser();
+        parser.setInput(channel);
+        return buildIndex(parser, channel.size());
+    }
+
+
+    protected ChunkIndex buildFixedSizeIndex(long start, long end) throws IOException
+    {
+        long numRecords = (end - start) / recordSize;
+        if (start + numRecords * recordSize != end)
+            throw new ReaderException("Input size is not a multiple of the record size (" + recordSize + " bytes)");
+
+        long recordsPerChunk = Math.min(chunkSize, Integer.MAX_VALUE / recordSize);
+        int numChunks = (int)((numRecords + recordsPerChunk - 1) / recordsPerChunk);
+        long[] offsets = new long[numChunks + 1];
+        for (int i = 0; i < numChunks; i++)
+            offsets[i] = start + i * recordsPerChunk * recordSize;
+        offsets[numChunks] = end;
+
+        return new ChunkIndex(offsets, numRecords);
+    }
+
+
+    protected ChunkIndex buildIndex(BinaryDataParser parser, long end) throws IOException
+    {
+        DataInputByteBuffer input = (DataInputByteBuffer)parser.dataInput;
+
+        long[] offsets = new long[16];
+        int numOffsets = 0;
+        long numRecords = 0;
+
+        offsets[numOffsets++] = input.getPosition();
+        while (parser.parseNextBlock() != null)
+        {
+            if (++numRecords % chunkSize == 0)
+            {
+                if (numOffsets == offsets.length)
+                    offsets = Arrays.copyOf(offsets, numOffsets * 2);
+                offsets[numOffsets++] = input.getPosition();
+                checkChunkLength(offsets, numOffsets);
+            }
+        }
+
+        // add end of last partial chunk
+        if (numRecords % chunkSize != 0)
+        {
+            if (numOffsets == offsets.length)
+                offsets = Arrays.copyOf(offsets, numOffsets + 1);
+            offsets[numOffsets++] = end;
+            checkChunkLength(offsets, numOffsets);
+        }
+
+        return new ChunkIndex(Arrays.copyOf(offsets, numOffsets), numRecords);
+    }
+
+
+    protected void checkChunkLength(long[] offsets, int numOffsets) throws IOException
+    {
+        if (offsets[numOffsets-1] - offsets[numOffsets-2] > Integer.MAX_VALUE)
+            throw new ReaderException("Chunk larger than 2GB. Use a smaller chunk size");
+    }
+
+
+    /**
+     * Parses the remaining bytes of the buffer in parallel
+     * @param buf buffer containing raw binary records
+     * @return ordered stream of parsed records
+     * @throws IOException if the chunk index cannot be built
+     */
+    public Stream<DataBlock> parse(ByteBuffer buf) throws IOException
+    {
+        return parse(buf, buildIndex(buf));
+    }
+
+
+    /**
+     * Parses the buffer in parallel using an existing chunk index
+     * @param buf buffer containing raw binary records
+     * @param index chunk index previously built for the same buffer
+     * @return ordered stream of parsed records
+     */
+    public Stream<DataBlock> parse(ByteBuffer buf, ChunkIndex index)
+    {
+        ByteBuffer src = buf.duplicate();
+        return toStream((offset, length) -> {
+            ByteBuffer chunk = src.duplicate();
+            chunk.limit((int)offset + length).position((int)offset);
+            return chunk.slice();
+        }, index);
+    }
+
+
+    /**
+     * Parses the file in parallel, starting at the current channel position.
+     * Each chunk is memory-mapped separately so files larger than 2GB are
+     * supported.
+     * @param channel file channel containing raw binary records
+     * @return ordered stream of parsed records
+     * @throws IOException if the chunk index cannot be built
+     */
+    public Stream<DataBlock> parse(FileChannel channel) throws IOException
+    {
+        return parse(channel, buildIndex(channel));
+    }
+
+
+    /**
+     * Parses the file in parallel using an existing chunk index
+     * @param channel file channel containing raw binary records
+     * @param index chunk index previously built for the same file
+     * @return ordered stream of parsed records
+     */
+    public Stream<DataBlock> parse(FileChannel channel, ChunkIndex index)
+    {
+        return toStream((offset, length) -> channel.map(FileChannel.MapMode.READ_ONLY, offset, length), index);
+    }
+
+
+    protected Stream<DataBlock> toStream(ChunkSource source, ChunkIndex index)
+    {
+        ChunkSpliterator spliterator = new ChunkSpliterator(source, index);
+        return StreamSupport.stream(spliterator, false)
+            .onClose(spliterator::cancel);
+    }
+
+
+    protected List<DataBlock> parseChunk(ChunkSource source, long start, long end) throws IOException
+    {
+        BinaryDataParser parser = parsers.get();
+        parser.setInput(source.getChunk(start, (int)(end - start)));
+
+        List<DataBlock> records = new ArrayList<>(chunkSize);
+        DataBlock data;
+        while ((data = parser.parseNextBlock()) != null)
+        {
+            // prepare next block before this one is returned to the caller so
+            // the parser never reads or reuses a block that is already in use.
+            // values must be cloned when array sizes are stored in the block
+            parser.dataBlk = parser.hasVarSizeArray ? data.clone() : data.renew();
+            records.add(data);
+        }
+
+        return records;
+    }
+
+
+    protected List<DataBlock> getChunkResult(ForkJoinTask<List<DataBlock>> task)
+    {
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while parsing chunk"));
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw new UncheckedIOException((IOException)cause);
+            else if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            throw new UncheckedIOException(new ReaderException("Error while parsing chunk", e));
+        }
+    }
+
+
+    protected BinaryDataParser createParser()
+    {
+        BinaryDataParser parser = new BinaryDataParser();
+        parser.setDataComponents(dataComponents.copy());
+        parser.setDataEncoding(dataEncoding.copy());
+        parser.setRenewDataBlock(false);
+        return parser;
+    }
+}
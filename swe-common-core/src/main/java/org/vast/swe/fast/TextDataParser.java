@@ -20,6 +20,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import net.opengis.swe.v20.Boolean;
@@ -34,8 +35,9 @@ import net.opengis.swe.v20.Text;
 import net.opengis.swe.v20.TextEncoding;
 import net.opengis.swe.v20.Time;
 import org.vast.data.AbstractDataBlock;
-import org.vast.data.DataBlockMixed;
-import org.vast.util.DateTimeFormat;
+import org.vast.data.DataBlockDouble;
+import org.vast.data.DataBlockInt;
+import org.vast.util.IsoDateTimeCodec;
 import org.vast.util.ReaderException;
 
 
@@ -51,46 +53,56 @@ import org.vast.util.ReaderException;
  */
 public class TextDataParser extends AbstractDataParser
 {
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    static final int MAX_FAST_DIGITS = 15;
+    static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    
     protected Reader reader;
-    protected String tokenSep = ",";
+    protected char[] tokenSep = ",".toCharArray();
     protected char[] blockSep = "\n".toCharArray();
     protected boolean collapseWhiteSpaces = true;
-    protected StringBuilder tokenBuf = new StringBuilder(32);
-    protected String[] lastSplit;
-    protected int tokenIndex = -1;
-    protected int blockSepIndex = 0;
     protected  Map<String, IntegerParser> countReaders = new HashMap<>();
     
+    // tokenizer state
+    protected char[] buf = new char[DEFAULT_BUFFER_SIZE];
+    protected int bufPos;
+    protected int bufLimit;
+    protected boolean endOfStream;
+    protected int tokenStart;
+    protected int tokenEnd;
+    protected boolean tokenPending;
+    
     
     protected class BooleanParser extends BaseProcessor
     {
         @Override
         public int process(DataBlock data, int index) throws IOException
         {
-            String token = readToken();
+            readToken();
             boolean val = false;
-
-            if (token == null)
-                throw new ReaderException(INVALID_BOOLEAN_MSG + token);
             
-            if (token.length() == 1)
+            int length = tokenEnd - tokenStart;
+            if (length == 1)
             {
-                char c = token.charAt(0);
+                char c = buf[tokenStart];
                 if (c == '0')
                     val = false;
                 else if (c == '1')
                     val = true;
                 else
-                    throw new ReaderException(INVALID_BOOLEAN_MSG + token);
+                    throw new ReaderException(INVALID_BOOLEAN_MSG + getTokenString());
             }
             else
             {
-                if (token.equalsIgnoreCase("false"))
+                if (tokenEqualsIgnoreCase("false"))
                     val = false;
-                else if (token.equalsIgnoreCase("true"))
+                else if (tokenEqualsIgnoreCase("true"))
                     val = true;
                 else
-                    throw new ReaderException(INVALID_BOOLEAN_MSG + token);
+                    throw new ReaderException(INVALID_BOOLEAN_MSG + getTokenString());
             }
             
             data.setBooleanValue(index, val);
@@ -106,18 +118,10 @@ public class TextDataParser extends AbstractDataParser
         @Override
         public int process(DataBlock data, int index) throws IOException
         {
-            String token = readToken();
-            
-            try
-            {
-                val = Integer.parseInt(token);
-                data.setIntValue(index, val);
-                return ++index;
-            }
-            catch (NumberFormatException e)
-            {
-                throw new ReaderException(INVALID_INTEGER_MSG + token);
-            }
+            readToken();
+            val = parseTokenAsInt(INVALID_INTEGER_MSG);
+            data.setIntValue(index, val);
+            return ++index;
         }
     }   
     
@@ -127,42 +131,26 @@ public class TextDataParser extends AbstractDataParser
         @Override
         public int process(DataBlock data, int index) throws IOException
         {
-            String token = readToken();
-            
-            try
-            {
-                double val;
-                
-                if ("INF".equals(token) || "+INF".equals(token))
-                    val = Double.POSITIVE_INFINITY;
-                else if ("-INF".equals(token))
-                    val = Double.NEGATIVE_INFINITY;
-                else
-                    val = Double.parseDouble(token);
-                
-                data.setDoubleValue(index, val);
-                return ++index;
-            }
-            catch (NumberFormatException e)
-            {
-                throw new ReaderException(INVALID_DECIMAL_MSG + token);
-            }
+            readToken();
+            double val = parseTokenAsDouble();
+            data.setDoubleValue(index, val);
+            return ++index;
         }
     }    
     
     
     protected class IsoDateTimeParser extends BaseProcessor
     {
-        DateTimeFormat timeFormat = new DateTimeFormat();
+        IsoDateTimeCodec timeCodec = new IsoDateTimeCodec();
         
         @Override
         public int process(DataBlock data, int index) throws IOException
         {
-            String token = readToken();
+            readToken();
             
             try
             {
-                double val = timeFormat.parseIso(token);
+                double val = timeCodec.parse(buf, tokenStart, tokenEnd);
                 data.setDoubleValue(index, val);
                 return ++index;
             }
@@ -179,8 +167,8 @@ public class TextDataParser extends AbstractDataParser
         @Override
         public int process(DataBlock data, int index) throws IOException
         {
-            String token = readToken();
-            data.setStringValue(index, token);
+            readToken();
+            data.setStringValue(index, getTokenString());
             return ++index;
         }
     }  
@@ -189,30 +177,38 @@ public class TextDataParser extends AbstractDataParser
     protected class ChoiceTokenParser extends ChoiceProcessor
     {
         DataChoice choice;
-        Map<String, Integer> itemIndexes = new HashMap<>();
+        char[][] itemNames;
         
         public ChoiceTokenParser(DataChoice choice)
         {
-            this.choice = choice;
+            this.choice = getProjectedComponent(choice);
+            this.itemNames = new char[choice.getNumItems()][];
             
             int i = 0;
             for (DataComponent item: choice.getItemList())
-                itemIndexes.put(item.getName(), i++);
+                itemNames[i++] = item.getName().toCharArray();
         }
         
         @Override
         public int process(DataBlock data, int index) throws IOException
         {
-            String token = readToken();
+            readToken();
+            
+            int selectedIndex = -1;
+            for (int i = 0; i < itemNames.length; i++)
+            {
+                if (tokenEquals(itemNames[i]))
+                {
+                    selectedIndex = i;
+                    break;
+                }
+            }
             
-            var selectedIndex = itemIndexes.get(token);
-            if (selectedIndex == null)
-                throw new ReaderException(INVALID_CHOICE_MSG + token);
+            if (selectedIndex < 0)
+                throw new ReaderException(INVALID_CHOICE_MSG + getTokenString());
             
             // set selected choice index and corresponding datablock
-            data.setIntValue(index++, selectedIndex);
-            var selectedData = choice.getComponent(selectedIndex).createDataBlock();
-            ((DataBlockMixed)data).setBlock(1, (AbstractDataBlock)selectedData);
+            selectChoiceItem(choice, data, selectedIndex);
             
             return super.process(data, ++index, selectedIndex);
         }
@@ -239,70 +235,110 @@ public class TextDataParser extends AbstractDataParser
         @Override
         public int process(DataBlock data, int index) throws IOException
         {
-            String token = readToken();
-            
-            try
-            {
-                arraySize = Integer.parseInt(token);
-                if (arraySize < 0)
-                    throw new NumberFormatException();
-                return index;
-            }
-            catch (NumberFormatException e)
-            {
-                throw new ReaderException(INVALID_ARRAY_SIZE_MSG + token);
-            }
+            readToken();
+            arraySize = parseTokenAsInt(INVALID_ARRAY_SIZE_MSG);
+            if (arraySize < 0)
+                throw new ReaderException(INVALID_ARRAY_SIZE_MSG + getTokenString());
+            return index;
+        }
+    }
+    
+    
+    /*
+     * Skips the tokens of a component that is not part of the projection
+     */
+    protected class SkipTokensParser extends BaseProcessor
+    {
+        int numTokens;
+        
+        public SkipTokensParser(int numTokens)
+        {
+            this.numTokens = numTokens;
+        }
+        
+        @Override
+        public int process(DataBlock data, int index) throws IOException
+        {
+            for (int i = 0; i < numTokens; i++)
+                readToken();
+            return index;
         }
     }
     
     
-    private String readToken() throws IOException
+    /*
+     * Reads the next token into the char buffer window [tokenStart, tokenEnd[
+     * or throws an exception if the end of the stream is reached
+     */
+    protected void readToken() throws IOException
+    {
+        if (!nextToken())
+            throw new ReaderException("Unexpected end of stream");
+    }
+    
+    
+    /*
+     * Scans the next token in the char buffer.
+     * Empty tokens ending a block (e.g. white spaces only blocks or trailing
+     * token separators) are skipped.
+     */
+    protected boolean nextToken() throws IOException
     {
+        if (tokenPending)
+        {
+            tokenPending = false;
+            return true;
+        }
+        
         try
         {
-            if (tokenIndex < 0 || tokenIndex >= lastSplit.length)
+            while (true)
             {
-                // read text until next block separator
-                tokenBuf.setLength(0);
-                blockSepIndex = 0;
-                int b;
-                do
+                tokenStart = bufPos;
+                boolean endOfBlock = true;
+                
+                while (true)
                 {
-                    b = reader.read();
-                    if (b < 0)
+                    if (bufPos >= bufLimit && !fillBuffer())
+                    {
+                        tokenEnd = bufPos;
+                        break;
+                    }
+                    
+                    char c = buf[bufPos];
+                    if (c == blockSep[0] && matchSeparator(blockSep))
+                    {
+                        tokenEnd = bufPos;
+                        bufPos += blockSep.length;
                         break;
+                    }
                     
-                    tokenBuf.append((char)b);
+                    if (c == tokenSep[0] && matchSeparator(tokenSep))
+                    {
+                        tokenEnd = bufPos;
+                        bufPos += tokenSep.length;
+                        endOfBlock = false;
+                        break;
+                    }
                     
-                    // check if we have a block separator
-                    if (b == blockSep[blockSepIndex])
-                        blockSepIndex++;
-                    else
-                        blockSepIndex = 0;
+                    bufPos++;
                 }
-                while (blockSepIndex < blockSep.length);
-                
-                // remove trailing separator
-                if (blockSepIndex == blockSep.length)
-                    tokenBuf.setLength(tokenBuf.length()-blockSep.length);
                 
-                // convert to string and trim white spaces if requested
-                String recString = tokenBuf.toString();
-                if (this.collapseWhiteSpaces)
-                    recString = recString.trim();
+                // trim white spaces if requested
+                if (collapseWhiteSpaces)
+                {
+                    while (tokenStart < tokenEnd && buf[tokenStart] <= ' ')
+                        tokenStart++;
+                    while (tokenEnd > tokenStart && buf[tokenEnd-1] <= ' ')
+                        tokenEnd--;
+                }
                 
-                if (recString.isEmpty())
-                    return null;
+                if (tokenStart < tokenEnd || !endOfBlock)
+                    return true;
                 
-                lastSplit = recString.split(tokenSep);
-                tokenIndex = 0;
+                if (bufPos >= bufLimit && endOfStream)
+                    return false;
             }
-            
-            // return next token, trimming white spaces if requested
-            String nextToken = lastSplit[tokenIndex++];
-            if (this.collapseWhiteSpaces)
-                nextToken = nextToken.trim();
-            return nextToken;
         }
         catch (IOException e)
         {
@@ -311,12 +347,240 @@ public class TextDataParser extends AbstractDataParser
     }
     
     
+    /*
+     * Reads more chars in the buffer, keeping the current token.
+     * Returns false if the end of stream was reached
+     */
+    protected boolean fillBuffer() throws IOException
+    {
+        if (endOfStream)
+            return false;
+        
+        // move current token to beginning of buffer
+        if (tokenStart > 0)
+        {
+            int shift = tokenStart;
+            System.arraycopy(buf, shift, buf, 0, bufLimit - shift);
+            bufLimit -= shift;
+            bufPos -= shift;
+            tokenStart = 0;
+        }
+        
+        // grow buffer if token is larger than buffer
+        if (bufLimit == buf.length)
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        
+        int count = reader.read(buf, bufLimit, buf.length - bufLimit);
+        if (count < 0)
+        {
+            endOfStream = true;
+            return false;
+        }
+        
+        bufLimit += count;
+        return true;
+    }
+    
+    
+    protected boolean matchSeparator(char[] sep) throws IOException
+    {
+        while (bufPos + sep.length > bufLimit)
+        {
+            if (!fillBuffer())
+                return false;
+        }
+        
+        for (int i = 1; i < sep.length; i++)
+        {
+            if (buf[bufPos+i] != sep[i])
+                return false;
+        }
+        
+        return true;
+    }
+    
+    
+    protected String getTokenString()
+    {
+        return new String(buf, tokenStart, tokenEnd - tokenStart);
+    }
+    
+    
+    protected boolean tokenEquals(char[] chars)
+    {
+        if (tokenEnd - tokenStart != chars.length)
+            return false;
+        
+        for (int i = 0; i < chars.length; i++)
+        {
+            if (buf[tokenStart+i] != chars[i])
+                return false;
+        }
+        
+        return true;
+    }
+    
+    
+    protected boolean tokenEqualsIgnoreCase(String s)
+    {
+        if (tokenEnd - tokenStart != s.length())
+            return false;
+        
+        for (int i = 0; i < s.length(); i++)
+        {
+            if (Character.toLowerCase(buf[tokenStart+i]) != s.charAt(i))
+                return false;
+        }
+        
+        return true;
+    }
+    
+    
+    protected int parseTokenAsInt(String errorMsg) throws IOException
+    {
+        int i = tokenStart;
+        boolean negative = false;
+        
+        if (i < tokenEnd && (buf[i] == '-' || buf[i] == '+'))
+            negative = (buf[i++] == '-');
+        
+        if (i >= tokenEnd)
+            throw new ReaderException(errorMsg + getTokenString());
+        
+        long val = 0;
+        for (; i < tokenEnd; i++)
+        {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new ReaderException(errorMsg + getTokenString());
+            
+            val = val*10 + digit;
+            if (val > (long)Integer.MAX_VALUE + 1)
+                throw new ReaderException(errorMsg + getTokenString());
+        }
+        
+        if (negative)
+            val = -val;
+        
+        if (val > Integer.MAX_VALUE)
+            throw new ReaderException(errorMsg + getTokenString());
+        
+        return (int)val;
+    }
+    
+    
+    /*
+     * Parses decimal values in place when they can be computed exactly
+     * with a single floating point operation (i.e. at most 15 significant
+     * digits and a power of ten exponent within [-22, 22]).
+     * Other cases are delegated to Double.parseDouble
+     */
+    protected double parseTokenAsDouble() throws IOException
+    {
+        int i = tokenStart;
+        boolean negative = false;
+        long mantissa = 0;
+        int numDigits = 0;
+        int exp10 = 0;
+        boolean hasDigits = false;
+        
+        if (i < tokenEnd && (buf[i] == '-' || buf[i] == '+'))
+            negative = (buf[i++] == '-');
+        
+        // integer part
+        for (; i < tokenEnd; i++)
+        {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9)
+                break;
+            mantissa = mantissa*10 + digit;
+            if (mantissa != 0)
+                numDigits++;
+            hasDigits = true;
+        }
+        
+        // fractional part
+        if (i < tokenEnd && buf[i] == '.')
+        {
+            for (i++; i < tokenEnd; i++)
+            {
+                int digit = buf[i] - '0';
+                if (digit < 0 || digit > 9)
+                    break;
+                mantissa = mantissa*10 + digit;
+                if (mantissa != 0)
+                    numDigits++;
+                exp10--;
+                hasDigits = true;
+            }
+        }
+        
+        // exponent
+        if (hasDigits && i < tokenEnd && (buf[i] == 'e' || buf[i] == 'E'))
+        {
+            i++;
+            boolean negExp = false;
+            if (i < tokenEnd && (buf[i] == '-' || buf[i] == '+'))
+                negExp = (buf[i++] == '-');
+            
+            int exp = 0;
+            int expStart = i;
+            for (; i < tokenEnd && exp < 1000; i++)
+            {
+                int digit = buf[i] - '0';
+                if (digit < 0 || digit > 9)
+                    break;
+                exp = exp*10 + digit;
+            }
+            
+            if (i == expStart)
+                hasDigits = false;
+            exp10 += negExp ? -exp : exp;
+        }
+        
+        // fast path
+        if (hasDigits && i == tokenEnd && numDigits <= MAX_FAST_DIGITS)
+        {
+            double val = mantissa;
+            if (exp10 < 0 && exp10 >= -22)
+                val /= POW10[-exp10];
+            else if (exp10 > 0 && exp10 <= 22)
+                val *= POW10[exp10];
+            else if (exp10 != 0 && mantissa != 0)
+                return parseTokenAsDoubleSlow();
+            return negative ? -val : val;
+        }
+        
+        return parseTokenAsDoubleSlow();
+    }
+    
+    
+    protected double parseTokenAsDoubleSlow() throws IOException
+    {
+        String token = getTokenString();
+        
+        try
+        {
+            if ("INF".equals(token) || "+INF".equals(token))
+                return Double.POSITIVE_INFINITY;
+            else if ("-INF".equals(token))
+                return Double.NEGATIVE_INFINITY;
+            else
+                return Double.parseDouble(token);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new ReaderException(INVALID_DECIMAL_MSG + token);
+        }
+    }
+    
+    
     @Override
     protected void init()
     {
         if (dataEncoding != null)
         {
-            this.tokenSep = ((TextEncoding)dataEncoding).getTokenSeparator();
+            this.tokenSep = ((TextEncoding)dataEncoding).getTokenSeparator().toCharArray();
             this.blockSep = ((TextEncoding)dataEncoding).getBlockSeparator().toCharArray();
             //this.decimalSep = ((TextEncoding)dataEncoding).getDecimalSeparator().charAt(0);
             this.collapseWhiteSpaces = ((TextEncoding)dataEncoding).getCollapseWhiteSpaces();
@@ -327,16 +591,19 @@ public class TextDataParser extends AbstractDataParser
     @Override
     protected boolean moreData() throws IOException
     {
-        String token = readToken();
-        tokenIndex--;
-        return !(token == null);
+        tokenPending = nextToken();
+        return tokenPending;
     }
     
 
     @Override
     public void setInput(InputStream is) throws IOException
     {
-        this.reader = new InputStreamReader(is, StandardCharsets.UTF_8);     
+        this.reader = new InputStreamReader(is, StandardCharsets.UTF_8);
+        this.bufPos = this.bufLimit = 0;
+        this.tokenStart = this.tokenEnd = 0;
+        this.endOfStream = false;
+        this.tokenPending = false;
     }
     
 
@@ -396,6 +663,53 @@ public class TextDataParser extends AbstractDataParser
     }
 
 
+    @Override
+    protected AtomProcessor getSkipProcessor(DataComponent comp)
+    {
+        return new SkipTokensParser(getAtomCount(comp));
+    }
+
+
+    @Override
+    protected boolean isScalarProcessor(AtomProcessor processor)
+    {
+        return processor instanceof BooleanParser ||
+               processor instanceof IntegerParser ||
+               processor instanceof DecimalParser ||
+               processor instanceof IsoDateTimeParser ||
+               processor instanceof StringParser;
+    }
+    
+    
+    @Override
+    protected void processRun(AtomProcessor processor, AbstractDataBlock block, int index, int count) throws IOException
+    {
+        Class<?> blockClass = block.getClass();
+        int end = index + count;
+        
+        if (processor instanceof DecimalParser && blockClass == DataBlockDouble.class)
+        {
+            DataBlockDouble data = (DataBlockDouble)block;
+            for (int i = index; i < end; i++)
+            {
+                readToken();
+                data.setDoubleValue(i, parseTokenAsDouble());
+            }
+        }
+        else if (processor instanceof IntegerParser && blockClass == DataBlockInt.class)
+        {
+            DataBlockInt data = (DataBlockInt)block;
+            for (int i = index; i < end; i++)
+            {
+                readToken();
+                data.setIntValue(i, parseTokenAsInt(INVALID_INTEGER_MSG));
+            }
+        }
+        else
+            super.processRun(processor, block, index, count);
+    }
+    
+    
     @Override
     protected ChoiceProcessor getChoiceProcessor(DataChoice choice)
     {
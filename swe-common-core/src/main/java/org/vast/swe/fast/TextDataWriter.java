@@ -26,7 +26,7 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import org.vast.swe.SWEDataTypeUtils;
-import org.vast.util.DateTimeFormat;
+import org.vast.util.IsoDateTimeCodec;
 import org.vast.util.WriterException;
 import net.opengis.swe.v20.Boolean;
 import net.opengis.swe.v20.Category;
@@ -165,13 +165,13 @@ public class TextDataWriter extends AbstractDataWriter
     
     protected class IsoDateTimeWriter extends ValueWriter
     {
-        DateTimeFormat timeFormat = new DateTimeFormat();
+        IsoDateTimeCodec timeCodec = new IsoDateTimeCodec(timeFractionDigits);
         
         @Override
         public void writeValue(DataBlock data, int index) throws IOException
         {
             double val = data.getDoubleValue(index);
-            writer.write(timeFormat.formatIso(val, 0));
+            timeCodec.format(val, writer);
         }
     }
     
@@ -373,4 +373,11 @@ public class TextDataWriter extends AbstractDataWriter
         IntegerWriter sizeWriter = countWriters.get(refId);
         return () -> sizeWriter.val;
     }
+    
+    
+    @Override
+    protected boolean isScalarProcessor(AtomProcessor processor)
+    {
+        return processor instanceof ValueWriter;
+    }
 }
@@ -0,0 +1,459 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.fast;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import org.vast.util.Asserts;
+
+
+/**
+ * <p>
+ * Writer encoding characters to UTF-8 directly into a reusable byte buffer
+ * that is flushed to the underlying output stream in large chunks.<br/>
+ * It also provides methods to write pre-encoded bytes and numbers without
+ * creating intermediate strings. Numbers are formatted exactly like
+ * {@link Long#toString(long)}, {@link Double#toString(double)} and
+ * {@link java.text.DecimalFormat}, the latter two only falling back to the
+ * JDK implementation for values that cannot be formatted by the fast path.
+ * </p><p>
+ * Output written between {@link #startDiscard()} and {@link #endDiscard(int)}
+ * is dropped, which allows skipping disabled components without switching
+ * to another writer.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class Utf8ByteWriter extends Writer
+{
+    public static final int DEFAULT_BUFFER_SIZE = 64*1024;
+    static final int MAX_FAST_DIGITS = 15;
+    static final double MAX_FAST_VALUE = 1e15;
+    static final double[] POW10 = new double[MAX_FAST_DIGITS+1];
+    static final long[] LONG_POW10 = new long[19];
+    static final byte[] TRUE_BYTES = {'t', 'r', 'u', 'e'};
+    static final byte[] FALSE_BYTES = {'f', 'a', 'l', 's', 'e'};
+    
+    static {
+        long p = 1;
+        for (int i = 0; i < LONG_POW10.length; i++)
+        {
+            LONG_POW10[i] = p;
+            if (i < POW10.length)
+                POW10[i] = p;
+            p *= 10;
+        }
+    }
+    
+    OutputStream os;
+    byte[] buf;
+    int pos;
+    int discardMark = -1;
+    char highSurrogate;
+    
+    
+    public Utf8ByteWriter(OutputStream os)
+    {
+        this(os, DEFAULT_BUFFER_SIZE);
+    }
+    
+    
+    public Utf8ByteWriter(OutputStream os, int bufferSize)
+    {
+        Asserts.checkArgument(bufferSize >= 64, "Buffer size must be at least 64 bytes");
+        this.os = Asserts.checkNotNull(os, OutputStream.class);
+        this.buf = new byte[bufferSize];
+    }
+    
+    
+    /*
+     * Makes sure at least n bytes are available in buffer
+     */
+    protected void ensureCapacity(int n) throws IOException
+    {
+        if (pos + n <= buf.length)
+            return;
+    
+        // can only flush if not in discard mode
+        if (discardMark < 0)
+            flushBuffer();
+    
+        if (pos + n > buf.length)
+        {
+            var newBuf = new byte[Math.max(buf.length*2, pos + n)];
+            System.arraycopy(buf, 0, newBuf, 0, pos);
+            buf = newBuf;
+        }
+    }
+    
+    
+    protected void flushBuffer() throws IOException
+    {
+        if (pos > 0)
+        {
+            os.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+    
+    
+    /**
+     * Encodes a string to UTF-8, so it can be written with {@link #writeBytes(byte[])}
+     * @param s
+     * @return UTF-8 bytes
+     */
+    public static byte[] encode(String s)
+    {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    
+    /**
+     * Starts dropping everything written to this writer
+     * @return The token to pass to {@link #endDiscard(int)}
+     */
+    public int startDiscard()
+    {
+        int prevMark = discardMark;
+        if (prevMark < 0)
+            discardMark = pos;
+        return prevMark;
+    }
+    
+    
+    /**
+     * Stops dropping data written to this writer, unless an enclosing
+     * discard is still in progress
+     * @param token Value returned by the matching call to {@link #startDiscard()}
+     */
+    public void endDiscard(int token)
+    {
+        if (token < 0)
+        {
+            pos = discardMark;
+            discardMark = -1;
+        }
+    }
+    
+    
+    @Override
+    public void write(int c) throws IOException
+    {
+        ensureCapacity(4);
+        writeChar((char)c);
+    }
+    
+    
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException
+    {
+        ensureCapacity(len);
+        int end = off + len;
+        for (int i = off; i < end; i++)
+        {
+            char c = cbuf[i];
+            if (c < 0x80 && highSurrogate == 0)
+                buf[pos++] = (byte)c;
+            else
+            {
+                ensureCapacity(end - i + 3);
+                writeChar(c);
+            }
+        }
+    }
+    
+    
+    @Override
+    public void write(String s, int off, int len) throws IOException
+    {
+        ensureCapacity(len);
+        int end = off + len;
+        for (int i = off; i < end; i++)
+        {
+            char c = s.charAt(i);
+            if (c < 0x80 && highSurrogate == 0)
+                buf[pos++] = (byte)c;
+            else
+            {
+                ensureCapacity(end - i + 3);
+                writeChar(c);
+            }
+        }
+    }
+    
+    
+    /*
+     * Encodes a single char, assuming at least 4 bytes are available
+     * Unpaired surrogates are replaced by '?' like OutputStreamWriter does
+     */
+    protected void writeChar(char c)
+    {
+        if (highSurrogate != 0)
+        {
+            if (Character.isLowSurrogate(c))
+            {
+                int cp = Character.toCodePoint(highSurrogate, c);
+                highSurrogate = 0;
+                buf[pos++] = (byte)(0xF0 | (cp >> 18));
+                buf[pos++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte)(0x80 | (cp & 0x3F));
+                return;
+            }
+    
+            highSurrogate = 0;
+            buf[pos++] = '?';
+        }
+    
+        if (c < 0x80)
+            buf[pos++] = (byte)c;
+        else if (c < 0x800)
+        {
+            buf[pos++] = (byte)(0xC0 | (c >> 6));
+            buf[pos++] = (byte)(0x80 | (c & 0x3F));
+        }
+        else if (Character.isHighSurrogate(c))
+            highSurrogate = c;
+        else if (Character.isLowSurrogate(c))
+            buf[pos++] = '?';
+        else
+        {
+            buf[pos++] = (byte)(0xE0 | (c >> 12));
+            buf[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+            buf[pos++] = (byte)(0x80 | (c & 0x3F));
+        }
+    }
+    
+    
+    /**
+     * Writes pre-encoded bytes
+     * @param bytes
+     * @throws IOException
+     */
+    public void writeBytes(byte[] bytes) throws IOException
+    {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+    
+    
+    /**
+     * Writes chars that are known to be ASCII only
+     * @param chars
+     * @param off
+     * @param len
+     * @throws IOException
+     */
+    public void writeAscii(char[] chars, int off, int len) throws IOException
+    {
+        ensureCapacity(len);
+        for (int i = off; i < off + len; i++)
+            buf[pos++] = (byte)chars[i];
+    }
+    
+    
+    /**
+     * Writes a string that is known to be ASCII only
+     * @param s
+     * @throws IOException
+     */
+    public void writeAscii(String s) throws IOException
+    {
+        int len = s.length();
+        ensureCapacity(len);
+        for (int i = 0; i < len; i++)
+            buf[pos++] = (byte)s.charAt(i);
+    }
+    
+    
+    public void writeBoolean(boolean val) throws IOException
+    {
+        writeBytes(val ? TRUE_BYTES : FALSE_BYTES);
+    }
+    
+    
+    /**
+     * Writes an integer in the same format as {@link Long#toString(long)}
+     * @param val
+     * @throws IOException
+     */
+    public void writeLong(long val) throws IOException
+    {
+        if (val == Long.MIN_VALUE)
+        {
+            writeAscii(Long.toString(val));
+            return;
+        }
+    
+        ensureCapacity(20);
+        if (val < 0)
+        {
+            buf[pos++] = '-';
+            val = -val;
+        }
+    
+        writeDigits(val, numDigits(val));
+    }
+    
+    
+    /**
+     * Writes a double in the same format as {@link Double#toString(double)}.<br/>
+     * Values with up to 15 significant digits and in the range where Java
+     * uses plain decimal notation are formatted without creating any object.
+     * @param val
+     * @throws IOException
+     */
+    public void writeDouble(double val) throws IOException
+    {
+        double abs = Math.abs(val);
+    
+        if (abs >= 1e-3 && abs < 1e7)
+        {
+            // find the smallest number of decimals that gives back the same double
+            // this is the shortest representation since no two decimals with
+            // 15 significant digits or less can map to the same double
+            for (int numDecimals = 0; numDecimals <= MAX_FAST_DIGITS; numDecimals++)
+            {
+                double scaled = abs * POW10[numDecimals];
+                if (scaled >= MAX_FAST_VALUE)
+                    break;
+    
+                long digits = Math.round(scaled);
+                if (digits / POW10[numDecimals] == abs)
+                {
+                    ensureCapacity(MAX_FAST_DIGITS + 4);
+                    if (val < 0)
+                        buf[pos++] = '-';
+                    writeFixed(digits, numDecimals);
+                    if (numDecimals == 0)
+                    {
+                        buf[pos++] = '.';
+                        buf[pos++] = '0';
+                    }
+                    return;
+                }
+            }
+        }
+        else if (val == 0.0)
+        {
+            writeAscii(1/val < 0 ? "-0.0" : "0.0");
+            return;
+        }
+    
+        writeAscii(Double.toString(val));
+    }
+    
+    
+    /**
+     * Writes a double in the same format as a US {@link java.text.DecimalFormat}
+     * with no grouping, half-even rounding and the given number of fraction digits.<br/>
+     * Values that are too large or too close to a rounding tie are formatted
+     * with the provided format instead.
+     * @param val
+     * @param maxFractionDigits
+     * @param minFractionDigits must be 0 or 1
+     * @param fallback
+     * @throws IOException
+     */
+    public void writeDecimal(double val, int maxFractionDigits, int minFractionDigits, NumberFormat fallback) throws IOException
+    {
+        if (maxFractionDigits <= MAX_FAST_DIGITS)
+        {
+            double scaled = Math.abs(val) * POW10[maxFractionDigits];
+            double floor = Math.floor(scaled);
+    
+            // skip values for which we cannot be sure how the tie is resolved
+            if (scaled < MAX_FAST_VALUE && Math.abs(scaled - floor - 0.5) > 1e-6)
+            {
+                long digits = (long)Math.rint(scaled);
+                int numDecimals = maxFractionDigits;
+                while (numDecimals > minFractionDigits && digits % 10 == 0)
+                {
+                    digits /= 10;
+                    numDecimals--;
+                }
+    
+                ensureCapacity(MAX_FAST_DIGITS + 4);
+                if (val < 0 || (val == 0.0 && 1/val < 0))
+                    buf[pos++] = '-';
+                writeFixed(digits, numDecimals);
+                return;
+            }
+        }
+    
+        writeAscii(fallback.format(val));
+    }
+    
+    
+    /*
+     * Writes digits as a decimal number with the given number of decimals
+     */
+    protected void writeFixed(long digits, int numDecimals)
+    {
+        long intPart = digits / LONG_POW10[numDecimals];
+        writeDigits(intPart, numDigits(intPart));
+    
+        if (numDecimals > 0)
+        {
+            buf[pos++] = '.';
+            writeDigits(digits - intPart * LONG_POW10[numDecimals], numDecimals);
+        }
+    }
+    
+    
+    /*
+     * Writes the given number of digits, padding with leading zeros
+     */
+    protected void writeDigits(long val, int numDigits)
+    {
+        int end = pos + numDigits;
+        for (int i = end-1; i >= pos; i--)
+        {
+            buf[i] = (byte)('0' + val % 10);
+            val /= 10;
+        }
+        pos = end;
+    }
+    
+    
+    protected static int numDigits(long val)
+    {
+        int n = 1;
+        while (n < LONG_POW10.length && val >= LONG_POW10[n])
+            n++;
+        return n;
+    }
+    
+    
+    @Override
+    public void flush() throws IOException
+    {
+        flushBuffer();
+        os.flush();
+    }
+    
+    
+    @Override
+    public void close() throws IOException
+    {
+        flush();
+        os.close();
+    }
+}
@@ -24,7 +24,7 @@ import javax.xml.stream.XMLStreamWriter;
 import org.vast.data.AbstractArrayImpl;
 import org.vast.data.XMLEncodingImpl;
 import org.vast.swe.SWEDataTypeUtils;
-import org.vast.util.DateTimeFormat;
+import org.vast.util.IsoDateTimeCodec;
 import org.vast.util.WriterException;
 import com.ctc.wstx.api.WstxOutputProperties;
 import net.opengis.swe.v20.Boolean;
@@ -150,7 +150,8 @@ public class XmlDataWriter extends AbstractDataWriter
     
     protected class IsoDateTimeWriter extends ValueWriter
     {
-        DateTimeFormat timeFormat = new DateTimeFormat();
+        IsoDateTimeCodec timeCodec = new IsoDateTimeCodec(timeFractionDigits);
+        char[] buf = new char[IsoDateTimeCodec.MAX_LENGTH];
         
         public IsoDateTimeWriter(String eltName)
         {
@@ -161,7 +162,8 @@ public class XmlDataWriter extends AbstractDataWriter
         public void writeValue(DataBlock data, int index) throws XMLStreamException
         {
             double val = data.getDoubleValue(index);
-            xmlWriter.writeCharacters(timeFormat.formatIso(val, 0));
+            int len = timeCodec.format(val, buf, 0);
+            xmlWriter.writeCharacters(buf, 0, len);
         }
     }
     
@@ -21,6 +21,7 @@
 package org.vast.unit;
 
 import org.vast.util.NumberUtils;
+import net.opengis.swe.v20.DataBlock;
 
 /**
  *  * <p>
@@ -121,4 +122,89 @@ public class GenericUnitConverter extends AbstractUnitConverter
         else
             return value;
 	}
+    
+    
+    @Override
+    public void convert(double[] src, int srcOffset, double[] dest, int destOffset, int count)
+    {
+        if (!conversionPossible)
+            throw new IllegalStateException("Units are not compatible: Conversion is impossible");
+        
+        if (!conversionNeeded)
+        {
+            if (src != dest || srcOffset != destOffset)
+                System.arraycopy(src, srcOffset, dest, destOffset, count);
+        }
+        else if (noFunctions)
+        {
+            double factor = conversionFactor;
+            for (int i = 0; i < count; i++)
+                dest[destOffset + i] = src[srcOffset + i] * factor;
+        }
+        else
+        {
+            for (int i = 0; i < count; i++)
+                dest[destOffset + i] = convert(src[srcOffset + i]);
+        }
+    }
+    
+    
+    @Override
+    public void convert(float[] src, int srcOffset, float[] dest, int destOffset, int count)
+    {
+        if (!conversionPossible)
+            throw new IllegalStateException("Units are not compatible: Conversion is impossible");
+        
+        if (!conversionNeeded)
+        {
+            if (src != dest || srcOffset != destOffset)
+                System.arraycopy(src, srcOffset, dest, destOffset, count);
+        }
+        else if (noFunctions)
+        {
+            double factor = conversionFactor;
+            for (int i = 0; i < count; i++)
+                dest[destOffset + i] = (float)(src[srcOffset + i] * factor);
+        }
+        else
+        {
+            for (int i = 0; i < count; i++)
+                dest[destOffset + i] = (float)convert(src[srcOffset + i]);
+        }
+    }
+    
+    
+    @Override
+    public void convert(DataBlock src, int srcIndex, DataBlock dest, int destIndex, int count)
+    {
+        Object srcArray = src.getUnderlyingObject();
+        Object destArray = dest.getUnderlyingObject();
+        
+        // work directly on primitive arrays when blocks span their whole array
+        // (i.e. they are not a view on part of a larger array)
+        if (srcArray instanceof double[] && destArray instanceof double[] &&
+            src.getAtomCount() == ((double[])srcArray).length &&
+            dest.getAtomCount() == ((double[])destArray).length)
+        {
+            checkRange(src, srcIndex, dest, destIndex, count);
+            convert((double[])srcArray, srcIndex, (double[])destArray, destIndex, count);
+        }
+        else if (srcArray instanceof float[] && destArray instanceof float[] &&
+            src.getAtomCount() == ((float[])srcArray).length &&
+            dest.getAtomCount() == ((float[])destArray).length)
+        {
+            checkRange(src, srcIndex, dest, destIndex, count);
+            convert((float[])srcArray, srcIndex, (float[])destArray, destIndex, count);
+        }
+        else
+            super.convert(src, srcIndex, dest, destIndex, count);
+    }
+    
+    
+    private void checkRange(DataBlock src, int srcIndex, DataBlock dest, int destIndex, int count)
+    {
+        if (srcIndex < 0 || destIndex < 0 || count < 0 ||
+            srcIndex + count > src.getAtomCount() || destIndex + count > dest.getAtomCount())
+            throw new IndexOutOfBoundsException("Invalid atom range");
+    }
 }
@@ -20,11 +20,18 @@
 
 package org.vast.unit;
 
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
 
 /**
  * <p>
  * This object contains routines to create UnitConverters and
  * manage a local dictionary of units.
+ * </p><p>
+ * Converters are cached and shared between callers so they must not
+ * be modified after they are obtained from this class.
  * </p>
  *
  * @author Alex Robin
@@ -34,6 +41,61 @@ public class UnitConversion
 {
     private static UnitParserUCUM ucumParser = new UnitParserUCUM();
     private static UnitParserURI uriParser = new UnitParserURI();
+    private static final GenericUnitConverter IDENTITY_CONVERTER = new GenericUnitConverter(1.0);
+    
+    static final int MAX_CACHED_CONVERTERS = 1024;
+    private static Map<String, GenericUnitConverter> siConverters = new ConcurrentHashMap<>();
+    private static Map<UnitPair, GenericUnitConverter> converters = new ConcurrentHashMap<>();
+    
+    
+    /*
+     * Cache key comparing the actual definition of units rather than their
+     * expressions since units can be created or modified programmatically
+     */
+    private static class UnitPair
+    {
+        final Unit srcUnit, destUnit;
+        final int hashCode;
+        
+        UnitPair(Unit srcUnit, Unit destUnit)
+        {
+            this.srcUnit = srcUnit;
+            this.destUnit = destUnit;
+            this.hashCode = 31 * hashCode(srcUnit) + hashCode(destUnit);
+        }
+        
+        static int hashCode(Unit u)
+        {
+            return Objects.hash(u.meter, u.kilogram, u.second, u.ampere, u.kelvin,
+                u.mole, u.candela, u.radian, u.pi, u.scaleToSI, u.function);
+        }
+        
+        static boolean equals(Unit u1, Unit u2)
+        {
+            return u1.meter == u2.meter && u1.kilogram == u2.kilogram &&
+                u1.second == u2.second && u1.ampere == u2.ampere &&
+                u1.kelvin == u2.kelvin && u1.mole == u2.mole &&
+                u1.candela == u2.candela && u1.radian == u2.radian &&
+                u1.pi == u2.pi && u1.scaleToSI == u2.scaleToSI &&
+                Objects.equals(u1.function, u2.function);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof UnitPair))
+                return false;
+            
+            UnitPair other = (UnitPair)obj;
+            return equals(srcUnit, other.srcUnit) && equals(destUnit, other.destUnit);
+        }
+    }
     
     
     /**
@@ -44,7 +106,11 @@ public class UnitConversion
     public static UnitConverter createConverterToSI(String uom)
     {
         if (uom == null)
-            return new GenericUnitConverter(1.0);
+            return IDENTITY_CONVERTER;
+        
+        GenericUnitConverter conv = siConverters.get(uom);
+        if (conv != null)
+            return conv;
         
         Unit unit = null;
         
@@ -53,7 +119,8 @@ public class UnitConversion
         else            
             unit = ucumParser.getUnit(uom);
         
-        return new GenericUnitConverter(unit, unit.getCompatibleSIUnit());
+        conv = new GenericUnitConverter(unit, unit.getCompatibleSIUnit());
+        return putInCache(siConverters, uom, conv);
     }
     
     
@@ -66,6 +133,28 @@ public class UnitConversion
      */
     public static UnitConverter getConverter(Unit sourceUnit, Unit destUnit)
     {
-        return new GenericUnitConverter(sourceUnit, destUnit);
+        UnitPair key = new UnitPair(sourceUnit, destUnit);
+        
+        GenericUnitConverter conv = converters.get(key);
+        if (conv != null)
+            return conv;
+        
+        // keep copies so cached entries are not affected by changes to caller units
+        key = new UnitPair(sourceUnit.copy(), destUnit.copy());
+        conv = new GenericUnitConverter(key.srcUnit, key.destUnit);
+        return putInCache(converters, key, conv);
+    }
+    
+    
+    private static <K> GenericUnitConverter putInCache(Map<K, GenericUnitConverter> cache, K key, GenericUnitConverter conv)
+    {
+        // simply start over when the cache is full since the number of
+        // different conversions used by an application is normally small
+        if (cache.size() >= MAX_CACHED_CONVERTERS)
+            cache.clear();
+        
+        // return converter created concurrently by another thread if any
+        GenericUnitConverter prev = cache.putIfAbsent(key, conv);
+        return prev != null ? prev : conv;
     }
 }
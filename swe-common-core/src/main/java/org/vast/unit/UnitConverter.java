@@ -20,6 +20,7 @@
 
 package org.vast.unit;
 
+import net.opengis.swe.v20.DataBlock;
 
 /**
  * <p>
@@ -32,4 +33,68 @@ package org.vast.unit;
 public interface UnitConverter
 {
 	public double convert(double value);
+	
+	
+	/**
+	 * Converts a range of values in place
+	 * @param values array of values
+	 * @param offset index of first value to convert
+	 * @param count number of values to convert
+	 */
+	public default void convert(double[] values, int offset, int count)
+	{
+	    convert(values, offset, values, offset, count);
+	}
+	
+	
+	/**
+	 * Converts a range of values from the source array to the destination array.
+	 * Ranges must not overlap unless they are identical.
+	 * @param src source array
+	 * @param srcOffset index of first value to read in source array
+	 * @param dest destination array (can be the same as the source array)
+	 * @param destOffset index of first value to write in destination array
+	 * @param count number of values to convert
+	 */
+	public default void convert(double[] src, int srcOffset, double[] dest, int destOffset, int count)
+	{
+	    for (int i = 0; i < count; i++)
+	        dest[destOffset + i] = convert(src[srcOffset + i]);
+	}
+	
+	
+	/**
+	 * Converts a range of values in place
+	 * @see #convert(double[], int, int)
+	 */
+	public default void convert(float[] values, int offset, int count)
+	{
+	    convert(values, offset, values, offset, count);
+	}
+	
+	
+	/**
+	 * Converts a range of values from the source array to the destination array
+	 * @see #convert(double[], int, double[], int, int)
+	 */
+	public default void convert(float[] src, int srcOffset, float[] dest, int destOffset, int count)
+	{
+	    for (int i = 0; i < count; i++)
+	        dest[destOffset + i] = (float)convert(src[srcOffset + i]);
+	}
+	
+	
+	/**
+	 * Converts a range of atoms from the source datablock to the destination datablock
+	 * @param src source datablock
+	 * @param srcIndex index of first atom to read in source datablock
+	 * @param dest destination datablock (can be the same as the source datablock)
+	 * @param destIndex index of first atom to write in destination datablock
+	 * @param count number of atoms to convert
+	 */
+	public default void convert(DataBlock src, int srcIndex, DataBlock dest, int destIndex, int count)
+	{
+	    for (int i = 0; i < count; i++)
+	        dest.setDoubleValue(destIndex + i, convert(src.getDoubleValue(srcIndex + i)));
+	}
 }
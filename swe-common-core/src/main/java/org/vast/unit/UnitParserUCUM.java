@@ -24,6 +24,7 @@ import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
@@ -51,6 +52,10 @@ public class UnitParserUCUM implements UnitParser
     private static String funcRegex = "^[0-9 a-z A-Z]+\\(.+\\)$";
     private static HashMap<String, Double> prefixTable = new HashMap<>();
     private static HashMap<String, Unit> unitTable = new HashMap<>();
+    
+    // cache of decoded expressions, shared by all parser instances
+    static final int MAX_CACHED_UNITS = 1024;
+    private static Map<String, Unit> decodedUnits = new ConcurrentHashMap<>();
 
 
     static
@@ -137,9 +142,29 @@ public class UnitParserUCUM implements UnitParser
         Unit uom = unitTable.get(ucumDef);
         if (uom != null)
             return uom.copy();
-
-        // otherwise it is probably a composed unit so create a new one
-        uom = new Unit();
+        
+        // or if it was already decoded
+        // units are mutable so we always return a copy of the cached instance
+        uom = decodedUnits.get(ucumDef);
+        if (uom != null)
+            return uom.copy();
+        
+        uom = parseExpression(ucumDef);
+        
+        // simply start over when the cache is full since the number of
+        // different units used by an application is normally small
+        if (decodedUnits.size() >= MAX_CACHED_UNITS)
+            decodedUnits.clear();
+        decodedUnits.put(ucumDef, uom);
+        
+        return uom.copy();
+    }
+    
+    
+    private static Unit parseExpression(String ucumDef)
+    {
+        // it is probably a composed unit so create a new one
+        Unit uom = new Unit();
         uom.setExpression(ucumDef);
         
         // check if there is a function (special units)
@@ -0,0 +1,513 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.ParseException;
+
+
+/**
+ * <p>
+ * Allocation-free parser and formatter for ISO 8601 date/time values
+ * expressed as seconds since the unix epoch.<br/>
+ * It accepts and produces the same forms as {@link DateTimeFormat}, that is
+ * YYYY-MM-DD[Thh:mm[:ss[.fffffffff]]](Z|+hh:mm[:ss]), as well as the special
+ * values +INF, -INF and NaN. The last decoded and encoded days are cached
+ * since consecutive time stamps are usually on the same day.
+ * </p><p>
+ * Instances are not thread-safe and are meant to be used by a single
+ * parser or writer.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class IsoDateTimeCodec
+{
+    public static final int MAX_FRACTION_DIGITS = 9;
+    public static final int MAX_LENGTH = 48;
+    
+    static final int SECONDS_PER_DAY = 86400;
+    static final int MAX_OFFSET_SECONDS = 18*3600;
+    static final int[] POW10 = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+    static final String INVALID_TIME_MSG = "Invalid ISO 8601 time string: ";
+    
+    final int fractionDigits;
+    final int offsetSeconds;
+    final char[] buf = new char[MAX_LENGTH];
+    
+    // cache of last parsed date
+    long parsedYear = Long.MIN_VALUE;
+    int parsedMonth, parsedDay;
+    long parsedEpochDay;
+    
+    // cache of last formatted date
+    long formattedEpochDay = Long.MIN_VALUE;
+    final char[] formattedDate = new char[16];
+    int formattedDateLength;
+    
+    
+    /**
+     * Creates a codec formatting time stamps in UTC with up to nanosecond precision
+     */
+    public IsoDateTimeCodec()
+    {
+        this(MAX_FRACTION_DIGITS, 0);
+    }
+    
+    
+    /**
+     * Creates a codec formatting time stamps in UTC with the given precision
+     * @param fractionDigits Max number of fractional second digits to write (0 to 9).
+     * Values are rounded to this precision and trailing zeros are omitted.
+     */
+    public IsoDateTimeCodec(int fractionDigits)
+    {
+        this(fractionDigits, 0);
+    }
+    
+    
+    /**
+     * Creates a codec formatting time stamps with the given precision and time zone
+     * @param fractionDigits Max number of fractional second digits to write (0 to 9)
+     * @param offsetSeconds Time zone offset from UTC used when formatting
+     */
+    public IsoDateTimeCodec(int fractionDigits, int offsetSeconds)
+    {
+        Asserts.checkArgument(fractionDigits >= 0 && fractionDigits <= MAX_FRACTION_DIGITS, "fractionDigits must be between 0 and 9");
+        Asserts.checkArgument(Math.abs(offsetSeconds) <= MAX_OFFSET_SECONDS, "offset must be between -18h and +18h");
+        this.fractionDigits = fractionDigits;
+        this.offsetSeconds = offsetSeconds;
+    }
+    
+    
+    /**
+     * Parses an ISO 8601 date/time string
+     * @param iso8601
+     * @return unix time stamp (seconds since 1970-01-01T00:00:00Z)
+     * @throws ParseException if the string is not a valid ISO 8601 date/time
+     */
+    public double parse(CharSequence iso8601) throws ParseException
+    {
+        int len = iso8601.length();
+        if (len > MAX_LENGTH)
+            throw new ParseException(INVALID_TIME_MSG + iso8601, 0);
+    
+        if (iso8601 instanceof String)
+            ((String)iso8601).getChars(0, len, buf, 0);
+        else
+        {
+            for (int i = 0; i < len; i++)
+                buf[i] = iso8601.charAt(i);
+        }
+    
+        return parse(buf, 0, len);
+    }
+    
+    
+    /**
+     * Parses an ISO 8601 date/time from a range of characters
+     * @param s char buffer
+     * @param start index of first char
+     * @param end index after last char
+     * @return unix time stamp (seconds since 1970-01-01T00:00:00Z)
+     * @throws ParseException if the chars are not a valid ISO 8601 date/time
+     */
+    public double parse(char[] s, int start, int end) throws ParseException
+    {
+        int len = end - start;
+    
+        // special values
+        if (len <= 4)
+        {
+            if (regionEquals(s, start, end, "+INF") || regionEquals(s, start, end, "INF"))
+                return Double.POSITIVE_INFINITY;
+            else if (regionEquals(s, start, end, "-INF"))
+                return Double.NEGATIVE_INFINITY;
+            else if (regionEquals(s, start, end, "NaN"))
+                return Double.NaN;
+        }
+    
+        int i = start;
+    
+        // year with optional sign, sign is mandatory if more than 4 digits
+        boolean signed = false, negative = false;
+        if (i < end && (s[i] == '+' || s[i] == '-'))
+        {
+            signed = true;
+            negative = s[i++] == '-';
+        }
+    
+        long year = 0;
+        int yearStart = i;
+        while (i < end && isDigit(s[i]))
+            year = year*10 + (s[i++] - '0');
+    
+        int yearDigits = i - yearStart;
+        if (yearDigits < 4 || yearDigits > 9 || (yearDigits > 4 && !signed))
+            throw parseError(s, start, end, i);
+        if (negative)
+            year = -year;
+    
+        // month and day
+        i = expect(s, i, end, '-', start);
+        int month = parseTwoDigits(s, i, end, start);
+        i = expect(s, i+2, end, '-', start);
+        int day = parseTwoDigits(s, i, end, start);
+        i += 2;
+        if (month < 1 || month > 12 || day < 1 || day > 31)
+            throw parseError(s, start, end, i);
+    
+        // time
+        int hour = 0, minute = 0, second = 0, nanos = 0;
+        if (i < end && s[i] == 'T')
+        {
+            hour = parseTwoDigits(s, i+1, end, start);
+            i = expect(s, i+3, end, ':', start);
+            minute = parseTwoDigits(s, i, end, start);
+            i += 2;
+    
+            if (i < end && s[i] == ':')
+            {
+                second = parseTwoDigits(s, i+1, end, start);
+                i += 3;
+    
+                if (i < end && s[i] == '.')
+                {
+                    int fracStart = ++i;
+                    while (i < end && isDigit(s[i]))
+                    {
+                        if (i - fracStart >= MAX_FRACTION_DIGITS)
+                            throw parseError(s, start, end, i);
+                        nanos += (s[i] - '0') * POW10[MAX_FRACTION_DIGITS - 1 - (i - fracStart)];
+                        i++;
+                    }
+                }
+            }
+    
+            if (hour > 24 || minute > 59 || second > 59 ||
+               (hour == 24 && (minute > 0 || second > 0 || nanos > 0)))
+                throw parseError(s, start, end, i);
+        }
+    
+        // time zone offset is mandatory
+        int offset;
+        if (i < end && s[i] == 'Z')
+        {
+            offset = 0;
+            i++;
+        }
+        else if (i < end && (s[i] == '+' || s[i] == '-'))
+        {
+            boolean negativeOffset = s[i] == '-';
+            int offsetHours = parseTwoDigits(s, i+1, end, start);
+            i = expect(s, i+3, end, ':', start);
+            int offsetMinutes = parseTwoDigits(s, i, end, start);
+            i += 2;
+            int offsetSecs = 0;
+            if (i < end && s[i] == ':')
+            {
+                offsetSecs = parseTwoDigits(s, i+1, end, start);
+                i += 3;
+            }
+    
+            offset = offsetHours*3600 + offsetMinutes*60 + offsetSecs;
+            if (offsetMinutes > 59 || offsetSecs > 59 || offset > MAX_OFFSET_SECONDS)
+                throw parseError(s, start, end, i);
+            if (negativeOffset)
+                offset = -offset;
+        }
+        else
+            throw parseError(s, start, end, i);
+    
+        if (i != end)
+            throw parseError(s, start, end, i);
+    
+        // compute epoch day, reusing last result if same date
+        long epochDay;
+        if (year == parsedYear && month == parsedMonth && day == parsedDay)
+            epochDay = parsedEpochDay;
+        else
+        {
+            // invalid days of month are adjusted to the last valid day
+            // like the java.time smart resolver does
+            int monthLength = lengthOfMonth(year, month);
+            int validDay = Math.min(day, monthLength);
+            epochDay = toEpochDay(year, month, validDay);
+            parsedYear = year;
+            parsedMonth = month;
+            parsedDay = day;
+            parsedEpochDay = epochDay;
+        }
+    
+        // 24:00 is midnight at the end of the day
+        if (hour == 24)
+        {
+            epochDay++;
+            hour = 0;
+        }
+    
+        long epochSeconds = epochDay*SECONDS_PER_DAY + hour*3600 + minute*60 + second - offset;
+        return epochSeconds + nanos/1e9;
+    }
+    
+    
+    /**
+     * Formats a time stamp to an ISO 8601 string
+     * @param time unix time stamp (seconds since 1970-01-01T00:00:00Z)
+     * @return ISO 8601 string
+     */
+    public String format(double time)
+    {
+        int len = format(time, buf, 0);
+        return new String(buf, 0, len);
+    }
+    
+    
+    /**
+     * Formats a time stamp to ISO 8601 and writes it to the given writer
+     * @param time unix time stamp (seconds since 1970-01-01T00:00:00Z)
+     * @param writer
+     * @throws IOException
+     */
+    public void format(double time, Writer writer) throws IOException
+    {
+        int len = format(time, buf, 0);
+        writer.write(buf, 0, len);
+    }
+    
+    
+    /**
+     * Formats a time stamp to ISO 8601 characters
+     * @param time unix time stamp (seconds since 1970-01-01T00:00:00Z)
+     * @param dst destination buffer, with at least {@link #MAX_LENGTH} chars
+     * available after offset
+     * @param off offset where to start writing in the buffer
+     * @return index after the last char written
+     */
+    public int format(double time, char[] dst, int off)
+    {
+        if (Double.isNaN(time))
+            return writeString("NaN", dst, off);
+        else if (time == Double.POSITIVE_INFINITY)
+            return writeString("+INF", dst, off);
+        else if (time == Double.NEGATIVE_INFINITY)
+            return writeString("-INF", dst, off);
+    
+        // same rounding as DateTimeFormat
+        long epochSeconds = (long)time;
+        long nanos = (long)((time*1000. - epochSeconds*1000L)*1e6);
+        epochSeconds += Math.floorDiv(nanos, POW10[9]);
+        nanos = Math.floorMod(nanos, POW10[9]);
+    
+        // round to requested precision
+        if (fractionDigits < MAX_FRACTION_DIGITS)
+        {
+            int unit = POW10[MAX_FRACTION_DIGITS - fractionDigits];
+            nanos = (nanos + unit/2) / unit * unit;
+            if (nanos >= POW10[9])
+            {
+                epochSeconds++;
+                nanos -= POW10[9];
+            }
+        }
+    
+        long localSeconds = epochSeconds + offsetSeconds;
+        long epochDay = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+        int secondOfDay = Math.floorMod(localSeconds, SECONDS_PER_DAY);
+    
+        // date
+        if (epochDay != formattedEpochDay)
+        {
+            formattedDateLength = formatDate(epochDay, formattedDate);
+            formattedEpochDay = epochDay;
+        }
+        System.arraycopy(formattedDate, 0, dst, off, formattedDateLength);
+        int i = off + formattedDateLength;
+    
+        // time
+        dst[i++] = 'T';
+        i = writeTwoDigits(secondOfDay / 3600, dst, i);
+        dst[i++] = ':';
+        i = writeTwoDigits((secondOfDay / 60) % 60, dst, i);
+        dst[i++] = ':';
+        i = writeTwoDigits(secondOfDay % 60, dst, i);
+    
+        // fractional seconds without trailing zeros
+        if (nanos > 0)
+        {
+            dst[i++] = '.';
+            int digits = MAX_FRACTION_DIGITS;
+            int frac = (int)nanos;
+            while (frac % 10 == 0)
+            {
+                frac /= 10;
+                digits--;
+            }
+    
+            for (int k = digits - 1; k >= 0; k--)
+            {
+                dst[i + k] = (char)('0' + frac % 10);
+                frac /= 10;
+            }
+            i += digits;
+        }
+    
+        // time zone
+        if (offsetSeconds == 0)
+            dst[i++] = 'Z';
+        else
+        {
+            int absOffset = Math.abs(offsetSeconds);
+            dst[i++] = offsetSeconds < 0 ? '-' : '+';
+            i = writeTwoDigits(absOffset / 3600, dst, i);
+            dst[i++] = ':';
+            i = writeTwoDigits((absOffset / 60) % 60, dst, i);
+            if (absOffset % 60 != 0)
+            {
+                dst[i++] = ':';
+                i = writeTwoDigits(absOffset % 60, dst, i);
+            }
+        }
+    
+        return i;
+    }
+    
+    
+    /*
+     * Writes YYYY-MM-DD using the same sign and padding rules as java.time
+     */
+    static int formatDate(long epochDay, char[] dst)
+    {
+        // convert epoch day to civil date
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era*146097;
+        long yearOfEra = (dayOfEra - dayOfEra/1460 + dayOfEra/36524 - dayOfEra/146096) / 365;
+        long dayOfYear = dayOfEra - (365*yearOfEra + yearOfEra/4 - yearOfEra/100);
+        long mp = (5*dayOfYear + 2) / 153;
+        int day = (int)(dayOfYear - (153*mp + 2)/5 + 1);
+        int month = (int)(mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era*400 + (month <= 2 ? 1 : 0);
+    
+        int i = 0;
+        if (year > 9999)
+            dst[i++] = '+';
+        else if (year < 0)
+            dst[i++] = '-';
+    
+        long absYear = Math.abs(year);
+        int numDigits = 4;
+        for (long y = absYear / 10000; y > 0; y /= 10)
+            numDigits++;
+        for (int k = numDigits - 1; k >= 0; k--)
+        {
+            dst[i + k] = (char)('0' + absYear % 10);
+            absYear /= 10;
+        }
+        i += numDigits;
+    
+        dst[i++] = '-';
+        i = writeTwoDigits(month, dst, i);
+        dst[i++] = '-';
+        i = writeTwoDigits(day, dst, i);
+        return i;
+    }
+    
+    
+    /*
+     * Days since 1970-01-01 in the proleptic gregorian calendar
+     */
+    static long toEpochDay(long year, int month, int day)
+    {
+        // shift year so it starts in March
+        long y = (month <= 2) ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+    
+    
+    static int lengthOfMonth(long year, int month)
+    {
+        if (month == 2)
+            return ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0) ? 29 : 28;
+        else if (month == 4 || month == 6 || month == 9 || month == 11)
+            return 30;
+        else
+            return 31;
+    }
+    
+    
+    static boolean isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+    
+    
+    static boolean regionEquals(char[] s, int start, int end, String str)
+    {
+        if (end - start != str.length())
+            return false;
+    
+        for (int i = start; i < end; i++)
+        {
+            if (s[i] != str.charAt(i - start))
+                return false;
+        }
+    
+        return true;
+    }
+    
+    
+    static int writeTwoDigits(int val, char[] dst, int i)
+    {
+        dst[i] = (char)('0' + val / 10);
+        dst[i+1] = (char)('0' + val % 10);
+        return i + 2;
+    }
+    
+    
+    static int writeString(String str, char[] dst, int off)
+    {
+        str.getChars(0, str.length(), dst, off);
+        return off + str.length();
+    }
+    
+    
+    private int parseTwoDigits(char[] s, int i, int end, int start) throws ParseException
+    {
+        if (i + 2 > end || !isDigit(s[i]) || !isDigit(s[i+1]))
+            throw parseError(s, start, end, i);
+        return (s[i] - '0')*10 + (s[i+1] - '0');
+    }
+    
+    
+    private int expect(char[] s, int i, int end, char c, int start) throws ParseException
+    {
+        if (i >= end || s[i] != c)
+            throw parseError(s, start, end, i);
+        return i + 1;
+    }
+    
+    
+    private ParseException parseError(char[] s, int start, int end, int errorPos)
+    {
+        return new ParseException(INVALID_TIME_MSG + new String(s, start, end - start), errorPos - start);
+    }
+}
@@ -0,0 +1,157 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.xml;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import org.codehaus.stax2.io.EscapingWriterFactory;
+
+
+/**
+ * <p>
+ * Escaper for attribute values written with Stax2 writers.<br/>
+ * In addition to markup characters, tabs and line breaks are written as
+ * character references so that they are not replaced by spaces when the
+ * attribute is parsed again (e.g. SWE text encoding separators).
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class AttributeValueEscaper implements EscapingWriterFactory
+{
+
+    static class EscapingWriter extends FilterWriter
+    {
+        final CharsetEncoder encoder;
+
+
+        EscapingWriter(Writer out, String enc)
+        {
+            super(out);
+            this.encoder = (enc != null && Charset.isSupported(enc)) ? Charset.forName(enc).newEncoder() : null;
+        }
+
+
+        protected boolean needsEscape(char c)
+        {
+            if (c < 0x20)
+                return c == '\t' || c == '\n' || c == '\r';
+            if (c == '&' || c == '<' || c == '"')
+                return true;
+            return c >= 0x80 && encoder != null && !Character.isSurrogate(c) && !encoder.canEncode(c);
+        }
+
+
+        protected void writeEscaped(char c) throws IOException
+        {
+            switch (c)
+            {
+                case '&':
+                    out.write("&amp;");
+                    break;
+
+                case '<':
+                    out.write("&lt;");
+                    break;
+
+                case '"':
+                    out.write("&quot;");
+                    break;
+
+                default:
+                    out.write("&#");
+                    out.write(Integer.toString(c));
+                    out.write(';');
+            }
+        }
+
+
+        @Override
+        public void write(int c) throws IOException
+        {
+            if (needsEscape((char)c))
+                writeEscaped((char)c);
+            else
+                out.write(c);
+        }
+
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException
+        {
+            // copy runs of plain characters in bulk
+            int start = off;
+            int end = off + len;
+            for (int i = off; i < end; i++)
+            {
+                char c = cbuf[i];
+                if (needsEscape(c))
+                {
+                    if (i > start)
+                        out.write(cbuf, start, i - start);
+                    writeEscaped(c);
+                    start = i + 1;
+                }
+            }
+
+            if (end > start)
+                out.write(cbuf, start, end - start);
+        }
+
+
+        @Override
+        public void write(String str, int off, int len) throws IOException
+        {
+            // copy runs of plain characters in bulk
+            int start = off;
+            int end = off + len;
+            for (int i = off; i < end; i++)
+            {
+                char c = str.charAt(i);
+                if (needsEscape(c))
+                {
+                    if (i > start)
+                        out.write(str, start, i - start);
+                    writeEscaped(c);
+                    start = i + 1;
+                }
+            }
+
+            if (end > start)
+                out.write(str, start, end - start);
+        }
+    }
+
+
+    @Override
+    public Writer createEscapingWriterFor(Writer w, String enc) throws UnsupportedEncodingException
+    {
+        return new EscapingWriter(w, enc);
+    }
+
+
+    @Override
+    public Writer createEscapingWriterFor(OutputStream out, String enc) throws UnsupportedEncodingException
+    {
+        return new EscapingWriter(new OutputStreamWriter(out, enc), enc);
+    }
+}
@@ -33,6 +33,7 @@ import java.util.*;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.Namespace;
@@ -1368,4 +1369,48 @@ public class DOMHelper
             }
         }
     }
+    
+    
+    /**
+     * Reads the current element and all its children from the given
+     * XMLStreamReader as a DOM element
+     * @param reader reader positioned on the element start tag, and left
+     * on the matching end tag
+     * @param doc DOM document used to create the new nodes
+     * @return new DOM element (not attached to the document)
+     * @throws XMLStreamException
+     */
+    public static Element readFromStreamReader(XMLStreamReader reader, Document doc) throws XMLStreamException
+    {
+        String prefix = reader.getPrefix();
+        String qname = (prefix != null && !prefix.isEmpty()) ? prefix + ":" + reader.getLocalName() : reader.getLocalName();
+        Element elt = doc.createElementNS(reader.getNamespaceURI(), qname);
+        
+        // namespace declarations
+        for (int i = 0; i < reader.getNamespaceCount(); i++)
+        {
+            String nsPrefix = reader.getNamespacePrefix(i);
+            String attName = (nsPrefix != null && !nsPrefix.isEmpty()) ? "xmlns:" + nsPrefix : "xmlns";
+            elt.setAttributeNS(XML_NS_URI, attName, reader.getNamespaceURI(i));
+        }
+        
+        // other attributes
+        for (int i = 0; i < reader.getAttributeCount(); i++)
+        {
+            String attPrefix = reader.getAttributePrefix(i);
+            String attNsUri = reader.getAttributeNamespace(i);
+            String attName = (attPrefix != null && !attPrefix.isEmpty()) ? attPrefix + ":" + reader.getAttributeLocalName(i) : reader.getAttributeLocalName(i);
+            elt.setAttributeNS((attNsUri != null && !attNsUri.isEmpty()) ? attNsUri : null, attName, reader.getAttributeValue(i));
+        }
+        
+        while (reader.next() != XMLStreamReader.END_ELEMENT)
+        {
+            if (reader.isStartElement())
+                elt.appendChild(readFromStreamReader(reader, doc));
+            else if (reader.isCharacters())
+                elt.appendChild(doc.createTextNode(reader.getText()));
+        }
+        
+        return elt;
+    }
 }
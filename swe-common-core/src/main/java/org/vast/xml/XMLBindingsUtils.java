@@ -106,7 +106,7 @@ public abstract class XMLBindingsUtils
     {
         try
         {
-            XMLOutputFactory factory = XMLImplFinder.getStaxOutputFactory();
+            XMLOutputFactory factory = getStaxOutputFactory();
             XMLStreamWriter writer = factory.createXMLStreamWriter(os, encoding);
             if (indent)
                 writer = new IndentingXMLStreamWriter(writer);
@@ -122,6 +122,16 @@ public abstract class XMLBindingsUtils
     }
     
     
+    /**
+     * Override to use a different factory for writing to output streams
+     * @return factory used to create XML writers
+     */
+    protected XMLOutputFactory getStaxOutputFactory()
+    {
+        return XMLImplFinder.getStaxOutputFactory();
+    }
+    
+    
     /**
      * This recursively scans the created DOM tree to get all used namespaces
      * @param dom
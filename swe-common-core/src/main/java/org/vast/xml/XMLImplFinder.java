@@ -27,6 +27,7 @@ package org.vast.xml;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
+import org.codehaus.stax2.XMLOutputFactory2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.DOMImplementation;
@@ -110,6 +111,26 @@ public class XMLImplFinder
     }
     
     
+    /**
+     * Gets an output factory whose writers also escape tabs and line breaks
+     * in attribute values, so that they are preserved when the document is
+     * parsed again (e.g. SWE text encoding separators).<br/>
+     * If a factory was set with {@link #setStaxOutputFactory(XMLOutputFactory)},
+     * it is returned as is.
+     * @return output factory
+     */
+    public static XMLOutputFactory getAttributeEscapingStaxOutputFactory()
+    {
+        if (staxOutputFactory != null)
+            return staxOutputFactory;
+        
+        XMLOutputFactory fac = XMLOutputFactory.newInstance();
+        if (fac.isPropertySupported(XMLOutputFactory2.P_ATTR_VALUE_ESCAPER))
+            fac.setProperty(XMLOutputFactory2.P_ATTR_VALUE_ESCAPER, new AttributeValueEscaper());
+        return fac;
+    }
+    
+    
     public static void setStaxOutputFactory(XMLOutputFactory outputFactory)
     {
         staxOutputFactory = outputFactory;
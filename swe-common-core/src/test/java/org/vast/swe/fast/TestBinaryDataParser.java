@@ -15,20 +15,51 @@ Copyright (C) 2012-2017 Sensia Software LLC. All Rights Reserved.
 package org.vast.swe.fast;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
+import org.vast.cdm.common.DataStreamParser;
+import org.vast.cdm.common.DataStreamWriter;
+import org.vast.data.BinaryBlockImpl;
+import org.vast.data.BinaryEncodingImpl;
+import org.vast.data.DataBlockCompressed;
+import org.vast.data.DataBlockDouble;
+import org.vast.data.DataBlockFloat;
+import org.vast.data.DataBlockInt;
+import org.vast.data.DataBlockLong;
+import org.vast.data.DataBlockMixed;
+import org.vast.data.DataBlockParallel;
+import org.vast.data.DataBlockPool;
 import org.vast.swe.SWEHelper;
+import org.vast.swe.helper.GeoPosHelper;
+import org.vast.util.ReaderException;
 import com.google.common.collect.Lists;
+import net.opengis.swe.v20.BinaryEncoding;
+import net.opengis.swe.v20.ByteEncoding;
+import net.opengis.swe.v20.ByteOrder;
 import net.opengis.swe.v20.Count;
 import net.opengis.swe.v20.DataArray;
 import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataChoice;
 import net.opengis.swe.v20.DataComponent;
 import net.opengis.swe.v20.DataRecord;
+import net.opengis.swe.v20.DataType;
 
 
 public class TestBinaryDataParser
@@ -36,16 +67,27 @@ public class TestBinaryDataParser
 
     
     protected void writeReadAndCompare(DataComponent dataStruct, List<DataBlock> records) throws IOException
+    {
+        writeReadAndCompare(dataStruct, SWEHelper.getDefaultBinaryEncoding(dataStruct), records);
+    }
+    
+    
+    protected void writeReadAndCompare(DataComponent dataStruct, BinaryEncoding encoding, List<DataBlock> records) throws IOException
+    {
+        writeReadAndCompare(dataStruct, encoding, records, false);
+        writeReadAndCompare(dataStruct, encoding, records, true);
+    }
+    
+    
+    protected void writeReadAndCompare(DataComponent dataStruct, BinaryEncoding encoding, List<DataBlock> records, boolean flatten) throws IOException
     {
         var multipleRecords = records.size() > 1;
         
-        var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
-        
         // write JSON to byte buffer
         ByteArrayOutputStream os = new ByteArrayOutputStream();
-        BinaryDataWriter writer = new BinaryDataWriter();
+        DataStreamWriter writer = SWEHelper.createDataWriter(encoding);
         writer.setDataComponents(dataStruct.copy());
-        writer.setDataEncoding(encoding);
+        ((DataBlockProcessor)writer).setFlattenProcessorTree(flatten);
         writer.setOutput(os);
         writer.startStream(multipleRecords);
         for (var rec: records)
@@ -56,9 +98,9 @@ public class TestBinaryDataParser
         
         // read back JSON
         ByteArrayInputStream is = new ByteArrayInputStream(bytes);
-        BinaryDataParser parser = new BinaryDataParser();
+        DataStreamParser parser = SWEHelper.createDataParser(encoding);
         parser.setDataComponents(dataStruct.copy());
-        parser.setDataEncoding(encoding);
+        ((DataBlockProcessor)parser).setFlattenProcessorTree(flatten);
         parser.setInput(is);
         parser.setRenewDataBlock(true);
         var parsedRecords = new ArrayList<DataBlock>();
@@ -232,4 +274,828 @@ public class TestBinaryDataParser
         writeReadAndCompare(dataStruct, records);
     }
 
+    
+    
+    @Test
+    public void testWriteAndReadBackChoiceInRecordBase64() throws IOException
+    {
+        // create record structure
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("choice", fac.createChoice()
+                .addItem("q", fac.createQuantity().build())
+                .addItem("rec", fac.createRecord()
+                    .addField("c1", fac.createCount().build())
+                    .addField("t2", fac.createText().build())
+                    .build())
+                .build())
+            .build();
+        
+        // test with multiple records alternating between choice items
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 10;
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = dataStruct.createDataBlock();
+            dataStruct.setData(rec);
+            int selectedItem = r % 2;
+            ((DataChoice)dataStruct.getComponent("choice")).setSelectedItem(selectedItem);
+            rec = dataStruct.getData();
+            
+            int dataBlkIdx = 0;
+            rec.setDoubleValue(dataBlkIdx++, now+r);
+            rec.setIntValue(dataBlkIdx++, selectedItem);
+            if (selectedItem == 0)
+            {
+                rec.setDoubleValue(dataBlkIdx++, r*1.5);
+            }
+            else
+            {
+                rec.setIntValue(dataBlkIdx++, r+100);
+                rec.setStringValue(dataBlkIdx++, "text" + r);
+            }
+            
+            records.add(rec);
+        }
+        
+        var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+        encoding.setByteEncoding(ByteEncoding.BASE_64);
+        writeReadAndCompare(dataStruct, encoding, records);
+    }
+
+    
+    
+    @Test
+    public void testWriteAndReadBackWithByteBuffers() throws IOException
+    {
+        // create record structure
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("q1", fac.createQuantity().build())
+            .addField("c2", fac.createCount().build())
+            .addField("t3", fac.createText().build())
+            .build();
+        
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 100;
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = dataStruct.createDataBlock();
+            rec.setDoubleValue(0, now+r);
+            rec.setDoubleValue(1, r*0.1);
+            rec.setIntValue(2, r);
+            rec.setStringValue(3, "text" + r);
+            records.add(rec);
+        }
+        
+        for (var byteOrder: ByteOrder.values())
+        {
+            var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+            encoding.setByteOrder(byteOrder);
+            
+            // write to heap buffer
+            var buf = ByteBuffer.allocate(10000);
+            BinaryDataWriter writer = new BinaryDataWriter();
+            writer.setDataComponents(dataStruct.copy());
+            writer.setDataEncoding(encoding);
+            writer.setOutput(buf);
+            for (var rec: records)
+                writer.write(rec);
+            writer.flush();
+            buf.flip();
+            
+            // copy to file and read back from memory-mapped file
+            var file = Files.createTempFile("swe", ".bin");
+            try
+            {
+                Files.write(file, Arrays.copyOf(buf.array(), buf.limit()));
+                
+                try (var channel = FileChannel.open(file, StandardOpenOption.READ))
+                {
+                    BinaryDataParser parser = new BinaryDataParser();
+                    parser.setDataComponents(dataStruct.copy());
+                    parser.setDataEncoding(encoding);
+                    parser.setInput(channel);
+                    
+                    DataBlock dataBlk;
+                    int i = 0;
+                    while ((dataBlk = parser.parseNextBlock()) != null)
+                    {
+                        var expected = records.get(i++);
+                        for (int j = 0; j < expected.getAtomCount(); j++)
+                            assertEquals(expected.getStringValue(j), dataBlk.getStringValue(j));
+                    }
+                    
+                    assertEquals("Wrong number of records", numRecords, i);
+                }
+            }
+            finally
+            {
+                Files.delete(file);
+            }
+        }
+    }
+    
+    
+    @Test
+    public void testWriteAndReadBackWithOffsetHeapBuffer() throws IOException
+    {
+        // create record structure
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("q1", fac.createQuantity().build())
+            .addField("c2", fac.createCount().build())
+            .addField("t3", fac.createText().build())
+            .build();
+        
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 20;
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = dataStruct.createDataBlock();
+            rec.setDoubleValue(0, now+r);
+            rec.setDoubleValue(1, r*0.1);
+            rec.setIntValue(2, r);
+            rec.setStringValue(3, "text" + r);
+            records.add(rec);
+        }
+        
+        int arrayOffset = 7;
+        int startPos = 13;
+        byte fill = (byte)0xA5;
+        
+        for (var byteOrder: ByteOrder.values())
+        {
+            var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+            encoding.setByteOrder(byteOrder);
+            
+            // write to a slice of a larger array, starting at non-zero position
+            byte[] backingArray = new byte[4000];
+            Arrays.fill(backingArray, fill);
+            var buf = ByteBuffer.wrap(backingArray, arrayOffset, backingArray.length - arrayOffset).slice();
+            buf.position(startPos);
+            assertEquals(arrayOffset, buf.arrayOffset());
+            
+            BinaryDataWriter writer = new BinaryDataWriter();
+            writer.setDataComponents(dataStruct.copy());
+            writer.setDataEncoding(encoding);
+            writer.setOutput(buf);
+            for (var rec: records)
+                writer.write(rec);
+            writer.flush();
+            
+            // bytes before start position must not be touched
+            for (int i = 0; i < arrayOffset + startPos; i++)
+                assertEquals(fill, backingArray[i]);
+            int endPos = buf.position();
+            
+            // read back from another view of the same array
+            var readBuf = ByteBuffer.wrap(backingArray, arrayOffset, endPos).slice();
+            readBuf.position(startPos);
+            BinaryDataParser parser = new BinaryDataParser();
+            parser.setDataComponents(dataStruct.copy());
+            parser.setDataEncoding(encoding);
+            parser.setInput(readBuf);
+            
+            DataBlock dataBlk;
+            int i = 0;
+            while ((dataBlk = parser.parseNextBlock()) != null)
+                checkRecord(records.get(i++), dataBlk);
+            assertEquals("Wrong number of records", numRecords, i);
+        }
+    }
+    
+    
+    @Test
+    public void testCloseAfterBufferInput() throws IOException
+    {
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addField("q1", fac.createQuantity().build())
+            .addField("c2", fac.createCount().build())
+            .build();
+        var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+        
+        // close after heap buffer input
+        var buf = ByteBuffer.allocate(12);
+        buf.putDouble(1.5).putInt(3).flip();
+        BinaryDataParser parser = new BinaryDataParser();
+        parser.setDataComponents(dataStruct.copy());
+        parser.setDataEncoding(encoding);
+        parser.setInput(buf);
+        assertEquals(3, parser.parseNextBlock().getIntValue(1));
+        parser.close();
+        
+        // close after memory-mapped file input also closes the channel
+        var file = Files.createTempFile("swe", ".bin");
+        try
+        {
+            Files.write(file, Arrays.copyOf(buf.array(), buf.limit()));
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ))
+            {
+                parser = new BinaryDataParser();
+                parser.setDataComponents(dataStruct.copy());
+                parser.setDataEncoding(encoding);
+                parser.setInput(channel);
+                assertEquals(1.5, parser.parseNextBlock().getDoubleValue(0), 0.0);
+                parser.close();
+                assertFalse(channel.isOpen());
+            }
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+    
+    
+    @Test
+    public void testParseAndWriteBatch() throws IOException
+    {
+        // create record structure
+        GeoPosHelper fac = new GeoPosHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("loc", fac.createLocationVectorLLA().build())
+            .addField("c1", fac.createCount().build())
+            .addField("t2", fac.createText().build())
+            .build();
+        var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+        
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 25;
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = dataStruct.createDataBlock();
+            rec.setDoubleValue(0, now+r);
+            rec.setDoubleValue(1, r*0.1);
+            rec.setDoubleValue(2, -r*0.2);
+            rec.setDoubleValue(3, r*10.);
+            rec.setIntValue(4, r);
+            rec.setStringValue(5, "text" + r);
+            records.add(rec);
+        }
+        
+        // write records one by one
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        BinaryDataWriter writer = new BinaryDataWriter();
+        writer.setDataComponents(dataStruct.copy());
+        writer.setDataEncoding(encoding);
+        writer.setOutput(os);
+        for (var rec: records)
+            writer.write(rec);
+        writer.flush();
+        byte[] bytes = os.toByteArray();
+        
+        // read back by batches and write batches to another stream
+        BinaryDataParser parser = new BinaryDataParser();
+        parser.setDataComponents(dataStruct.copy());
+        parser.setDataEncoding(encoding);
+        parser.setInput(new ByteArrayInputStream(bytes));
+        
+        ByteArrayOutputStream os2 = new ByteArrayOutputStream();
+        BinaryDataWriter batchWriter = new BinaryDataWriter();
+        batchWriter.setDataComponents(dataStruct.copy());
+        batchWriter.setDataEncoding(encoding);
+        batchWriter.setOutput(os2);
+        
+        int recordSize = records.get(0).getAtomCount();
+        int batchSize = 10;
+        int i = 0;
+        DataBlock batch;
+        while ((batch = parser.parseNextBatch(batchSize)) != null)
+        {
+            assertTrue(batch instanceof DataBlockParallel);
+            int batchCount = batch.getAtomCount() / recordSize;
+            assertEquals(Math.min(batchSize, numRecords-i), batchCount);
+            
+            for (int k = 0; k < batchCount; k++)
+            {
+                var expected = records.get(i++);
+                for (int j = 0; j < recordSize; j++)
+                    assertEquals(expected.getStringValue(j), batch.getStringValue(k*recordSize+j));
+            }
+            
+            batchWriter.writeBatch(batch, batchCount);
+        }
+        batchWriter.flush();
+        
+        assertEquals("Wrong number of records", numRecords, i);
+        assertArrayEquals(bytes, os2.toByteArray());
+    }
+    
+    
+    @Test
+    public void testParseWithProjection() throws IOException
+    {
+        // create record structure
+        GeoPosHelper fac = new GeoPosHelper();
+        Count sizeField;
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("loc", fac.createLocationVectorLLA().build())
+            .addField("temp", fac.createQuantity().build())
+            .addField("name", fac.createText().build())
+            .addField("size", sizeField = fac.createCount()
+                .id("NUM_POINTS")
+                .build())
+            .addField("array", fac.createArray()
+                .withSizeComponent(sizeField)
+                .withElement("elt", fac.createQuantity().build())
+                .build())
+            .addField("c1", fac.createCount().build())
+            .build();
+        var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+        
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 5;
+        for (int r=0; r<numRecords; r++)
+        {
+            int arraySize = r+1;
+            ((DataArray)dataStruct.getComponent("array")).updateSize(arraySize);
+            var rec = dataStruct.createDataBlock();
+            
+            int idx = 0;
+            rec.setDoubleValue(idx++, now+r);
+            rec.setDoubleValue(idx++, r*0.1);
+            rec.setDoubleValue(idx++, -r*0.2);
+            rec.setDoubleValue(idx++, r*10.);
+            rec.setDoubleValue(idx++, 20.+r);
+            rec.setStringValue(idx++, "text" + r);
+            rec.setIntValue(idx++, arraySize);
+            for (int i=0; i<arraySize; i++)
+                rec.setDoubleValue(idx++, i*1.5);
+            rec.setIntValue(idx++, r*100);
+            records.add(rec);
+        }
+        
+        // write full records
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        BinaryDataWriter writer = new BinaryDataWriter();
+        writer.setDataComponents(dataStruct.copy());
+        writer.setDataEncoding(encoding);
+        writer.setOutput(os);
+        for (var rec: records)
+            writer.write(rec);
+        writer.flush();
+        
+        // read back only some of the fields
+        // strings and var size arrays cannot be skipped so they are kept
+        BinaryDataParser parser = new BinaryDataParser();
+        parser.setDataComponents(dataStruct.copy());
+        parser.setDataEncoding(encoding);
+        parser.setProjection(c -> "lat".equals(c.getName()) || "temp".equals(c.getName()) || "c1".equals(c.getName()));
+        parser.setInput(new ByteArrayInputStream(os.toByteArray()));
+        
+        var projected = parser.getProjectedComponents();
+        assertEquals(6, projected.getComponentCount());
+        assertEquals(1, projected.getComponent("loc").getComponentCount());
+        assertEquals("lat", projected.getComponent("loc").getComponent(0).getName());
+        
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = parser.parseNextBlock();
+            int arraySize = r+1;
+            assertEquals(arraySize + 5, rec.getAtomCount());
+            
+            int idx = 0;
+            assertEquals(r*0.1, rec.getDoubleValue(idx++), 0.0);
+            assertEquals(20.+r, rec.getDoubleValue(idx++), 0.0);
+            assertEquals("text" + r, rec.getStringValue(idx++));
+            assertEquals(arraySize, rec.getIntValue(idx++));
+            for (int i=0; i<arraySize; i++)
+                assertEquals(i*1.5, rec.getDoubleValue(idx++), 0.0);
+            assertEquals(r*100, rec.getIntValue(idx++));
+        }
+        
+        assertNull(parser.parseNextBlock());
+    }
+    
+    
+    @Test
+    public void testWriteAndReadBackCompressedBlocks() throws IOException
+    {
+        // create record structure
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("samples", fac.createArray()
+                .withFixedSize(200)
+                .withElement("elt", fac.createRecord()
+                    .addField("time", fac.createTime().asSamplingTimeIsoUTC().build())
+                    .addField("temp", fac.createQuantity().build())
+                    .addField("count", fac.createCount().build())
+                    .build())
+                .build())
+            .build();
+        
+        // slowly changing values
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 3;
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = dataStruct.createDataBlock();
+            int idx = 0;
+            rec.setDoubleValue(idx++, now+r);
+            for (int i=0; i<200; i++)
+            {
+                rec.setDoubleValue(idx++, now + r + i*0.01);
+                rec.setDoubleValue(idx++, 20.0 + Math.round(Math.sin(i/50.)*100)/10.);
+                rec.setIntValue(idx++, r*1000 + i);
+            }
+            records.add(rec);
+        }
+        
+        var uncompressedSize = getEncodedSize(dataStruct, SWEHelper.getDefaultBinaryEncoding(dataStruct), records);
+        
+        for (var codec: Arrays.asList("deflate", "gzip", "delta", "xor"))
+        {
+            var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+            var block = new BinaryBlockImpl();
+            block.setRef("/samples");
+            block.setCompression(codec);
+            ((BinaryEncodingImpl)encoding).addMemberAsBlock(block);
+            
+            writeReadAndCompare(dataStruct, encoding, records);
+            
+            var compressedSize = getEncodedSize(dataStruct, encoding, records);
+            assertTrue("No compression with " + codec, compressedSize < uncompressedSize);
+        }
+    }
+    
+    
+    @Test
+    public void testReadCompressedBlockWithInvalidSize() throws IOException
+    {
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("samples", fac.createArray()
+                .withFixedSize(10)
+                .withElement("temp", fac.createQuantity().build())
+                .build())
+            .build();
+        var rec = dataStruct.createDataBlock();
+        
+        for (var codec: Arrays.asList("deflate", "gzip", "delta", "xor"))
+        {
+            var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+            var block = new BinaryBlockImpl();
+            block.setRef("/samples");
+            block.setCompression(codec);
+            ((BinaryEncodingImpl)encoding).addMemberAsBlock(block);
+            
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            BinaryDataWriter writer = new BinaryDataWriter();
+            writer.setDataComponents(dataStruct.copy());
+            writer.setDataEncoding(encoding);
+            writer.setOutput(os);
+            writer.write(rec);
+            writer.flush();
+            
+            // overwrite block length following the time stamp
+            var bytes = os.toByteArray();
+            ByteBuffer.wrap(bytes).putInt(8, Integer.MAX_VALUE);
+            
+            BinaryDataParser parser = new BinaryDataParser();
+            parser.setDataComponents(dataStruct.copy());
+            parser.setDataEncoding(encoding);
+            parser.setInput(new ByteArrayInputStream(bytes));
+            try
+            {
+                parser.parseNextBlock();
+                fail("Invalid block size should be detected with " + codec);
+            }
+            catch (ReaderException e)
+            {
+                assertTrue(e.getCause().getMessage().startsWith("Invalid block size"));
+            }
+        }
+    }
+    
+    
+    @Test
+    public void testParseInParallel() throws IOException
+    {
+        // create fixed size and variable size record structures
+        SWEHelper fac = new SWEHelper();
+        DataRecord fixedStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("q1", fac.createQuantity().build())
+            .addField("c2", fac.createCount().build())
+            .build();
+        
+        Count sizeField;
+        DataRecord varStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("t1", fac.createText().build())
+            .addField("size", sizeField = fac.createCount()
+                .id("NUM_POINTS")
+                .build())
+            .addField("array", fac.createArray()
+                .withSizeComponent(sizeField)
+                .withElement("elt", fac.createQuantity().build())
+                .build())
+            .build();
+        
+        var now = (double)Instant.now().getEpochSecond();
+        int numRecords = 1000;
+        var fixedRecords = new ArrayList<DataBlock>();
+        var varRecords = new ArrayList<DataBlock>();
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = fixedStruct.createDataBlock();
+            rec.setDoubleValue(0, now+r);
+            rec.setDoubleValue(1, r*0.1);
+            rec.setIntValue(2, r);
+            fixedRecords.add(rec);
+            
+            int arraySize = r % 7;
+            ((DataArray)varStruct.getComponent("array")).updateSize(arraySize);
+            rec = varStruct.createDataBlock();
+            int idx = 0;
+            rec.setDoubleValue(idx++, now+r);
+            rec.setStringValue(idx++, "text" + r);
+            rec.setIntValue(idx++, arraySize);
+            for (int i=0; i<arraySize; i++)
+                rec.setDoubleValue(idx++, r + i*0.5);
+            varRecords.add(rec);
+        }
+        
+        var pool = new ForkJoinPool(4);
+        try
+        {
+            for (var dataStruct: Arrays.asList(fixedStruct, varStruct))
+            {
+                var records = dataStruct == fixedStruct ? fixedRecords : varRecords;
+                var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+                
+                var buf = ByteBuffer.allocate(100000);
+                BinaryDataWriter writer = new BinaryDataWriter();
+                writer.setDataComponents(dataStruct.copy());
+                writer.setDataEncoding(encoding);
+                writer.setOutput(buf);
+                for (var rec: records)
+                    writer.write(rec);
+                writer.flush();
+                buf.flip();
+                
+                var parser = new ParallelBinaryDataParser(dataStruct, encoding);
+                parser.setPool(pool);
+                parser.setChunkSize(64);
+                assertEquals(dataStruct == fixedStruct ? 20 : -1, parser.getRecordSize());
+                
+                var index = parser.buildIndex(buf);
+                assertEquals(numRecords, index.getNumRecords());
+                assertEquals(16, index.getNumChunks());
+                
+                // parse from buffer twice with the same index
+                for (int k=0; k<2; k++)
+                {
+                    try (var stream = parser.parse(buf, index))
+                    {
+                        var parsed = stream.collect(Collectors.toList());
+                        assertEquals("Wrong number of records", numRecords, parsed.size());
+                        for (int i=0; i<numRecords; i++)
+                            checkRecord(records.get(i), parsed.get(i));
+                    }
+                }
+                
+                // parse from file
+                var file = Files.createTempFile("swe", ".bin");
+                try
+                {
+                    Files.write(file, Arrays.copyOf(buf.array(), buf.limit()));
+                    try (var channel = FileChannel.open(file, StandardOpenOption.READ);
+                         var stream = parser.parse(channel))
+                    {
+                        var it = stream.iterator();
+                        int i = 0;
+                        while (it.hasNext())
+                            checkRecord(records.get(i++), it.next());
+                        assertEquals("Wrong number of records", numRecords, i);
+                    }
+                }
+                finally
+                {
+                    Files.delete(file);
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+    
+    
+    @Test
+    public void testParseWithDataBlockPool() throws IOException
+    {
+        // create record structure with variable size array
+        SWEHelper fac = new SWEHelper();
+        Count sizeField;
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("size", sizeField = fac.createCount()
+                .id("NUM_POINTS")
+                .build())
+            .addField("array", fac.createArray()
+                .withSizeComponent(sizeField)
+                .withElement("elt", fac.createQuantity().build())
+                .build())
+            .build();
+        var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+        
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 100;
+        for (int r=0; r<numRecords; r++)
+        {
+            int arraySize = r % 3;
+            ((DataArray)dataStruct.getComponent("array")).updateSize(arraySize);
+            var rec = dataStruct.createDataBlock();
+            int idx = 0;
+            rec.setDoubleValue(idx++, now+r);
+            rec.setIntValue(idx++, arraySize);
+            for (int i=0; i<arraySize; i++)
+                rec.setDoubleValue(idx++, r + i*0.5);
+            records.add(rec);
+        }
+        
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        BinaryDataWriter writer = new BinaryDataWriter();
+        writer.setDataComponents(dataStruct.copy());
+        writer.setDataEncoding(encoding);
+        writer.setOutput(os);
+        for (var rec: records)
+            writer.write(rec);
+        writer.flush();
+        
+        // parse and release each block after use
+        var pool = new DataBlockPool();
+        BinaryDataParser parser = new BinaryDataParser();
+        parser.setDataComponents(dataStruct.copy());
+        parser.setDataEncoding(encoding);
+        parser.setDataBlockPool(pool);
+        parser.setInput(new ByteArrayInputStream(os.toByteArray()));
+        
+        var distinctBlocks = new ArrayList<DataBlock>();
+        DataBlock dataBlk;
+        int i = 0;
+        while ((dataBlk = parser.parseNextBlock()) != null)
+        {
+            checkRecord(records.get(i++), dataBlk);
+            
+            final var blk = dataBlk;
+            if (distinctBlocks.stream().noneMatch(b -> b == blk))
+                distinctBlocks.add(dataBlk);
+            
+            parser.releaseDataBlock(dataBlk);
+        }
+        
+        assertEquals("Wrong number of records", numRecords, i);
+        assertTrue("Blocks were not reused", distinctBlocks.size() <= 4);
+        assertEquals(distinctBlocks.size(), pool.size());
+    }
+    
+    
+    @Test
+    public void testDataBlockPoolShapes()
+    {
+        assertTrue(DataBlockPool.isSameShape(new DataBlockDouble(3), new DataBlockDouble(3)));
+        assertFalse(DataBlockPool.isSameShape(new DataBlockDouble(3), new DataBlockDouble(4)));
+        assertFalse(DataBlockPool.isSameShape(new DataBlockDouble(3), new DataBlockFloat(3)));
+        assertFalse(DataBlockPool.isSameShape(new DataBlockDouble(3), new DataBlockDouble()));
+        
+        // compressed payload size is not part of the shape
+        assertTrue(DataBlockPool.isSameShape(
+            new DataBlockCompressed(new byte[10], 100),
+            new DataBlockCompressed(new byte[20], 100)));
+        assertTrue(DataBlockPool.isSameShape(
+            new DataBlockCompressed(null, 100),
+            new DataBlockCompressed(new byte[20], 100)));
+        
+        // same check is applied to children
+        var rec1 = new DataBlockMixed(new DataBlockDouble(1), new DataBlockInt(2));
+        var rec2 = new DataBlockMixed(new DataBlockDouble(1), new DataBlockInt(2));
+        var rec3 = new DataBlockMixed(new DataBlockDouble(1), new DataBlockLong(2));
+        assertTrue(DataBlockPool.isSameShape(rec1, rec2));
+        assertFalse(DataBlockPool.isSameShape(rec1, rec3));
+    }
+    
+    
+    @Test
+    public void testWriteAndReadBackWithFlatProcessorTree() throws IOException
+    {
+        // create fixed size record structure with all primitive types
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("b", fac.createBoolean().build())
+            .addField("c1", fac.createCount().dataType(DataType.BYTE).build())
+            .addField("c2", fac.createCount().dataType(DataType.SHORT).build())
+            .addField("c3", fac.createCount().build())
+            .addField("c4", fac.createCount().dataType(DataType.LONG).build())
+            .addField("q1", fac.createQuantity().dataType(DataType.FLOAT).build())
+            .addField("txt", fac.createText().build())
+            .addField("img", fac.createArray()
+                .withFixedSize(10)
+                .withElement("row", fac.createArray()
+                    .withFixedSize(20)
+                    .withElement("val", fac.createQuantity().dataType(DataType.FLOAT).build())
+                    .build())
+                .build())
+            .addField("pos", fac.createVector()
+                .addCoordinate("x", fac.createQuantity().build())
+                .addCoordinate("y", fac.createQuantity().build())
+                .build())
+            .build();
+        var encoding = SWEHelper.getDefaultBinaryEncoding(dataStruct);
+        
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 20;
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = dataStruct.createDataBlock();
+            int idx = 0;
+            rec.setDoubleValue(idx++, now+r);
+            rec.setBooleanValue(idx++, r % 2 == 0);
+            rec.setByteValue(idx++, (byte)r);
+            rec.setShortValue(idx++, (short)(r*100));
+            rec.setIntValue(idx++, r*10000);
+            rec.setLongValue(idx++, r*10000000000L);
+            rec.setFloatValue(idx++, r*0.5f);
+            rec.setStringValue(idx++, "text" + r);
+            for (int i=0; i<200; i++)
+                rec.setFloatValue(idx++, r + i*0.25f);
+            rec.setDoubleValue(idx++, r*1.1);
+            rec.setDoubleValue(idx++, r*2.2);
+            records.add(rec);
+        }
+        
+        writeReadAndCompare(dataStruct, encoding, records);
+        
+        // check flat processors are actually used
+        var parser = new BinaryDataParser();
+        parser.setDataComponents(dataStruct);
+        parser.setDataEncoding(encoding);
+        parser.setFlattenProcessorTree(true);
+        parser.ensureProcessorTree();
+        assertTrue(parser.rootProcessor instanceof DataBlockProcessor.FlatRecordProcessor);
+        
+        // check fallback to processor tree with columnar batches
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        var writer = new BinaryDataWriter();
+        writer.setDataComponents(dataStruct);
+        writer.setDataEncoding(encoding);
+        writer.setFlattenProcessorTree(true);
+        writer.setOutput(os);
+        for (var rec: records)
+            writer.write(rec);
+        writer.flush();
+        
+        parser.setInput(new ByteArrayInputStream(os.toByteArray()));
+        var batch = parser.parseNextBatch(numRecords);
+        assertTrue(batch instanceof DataBlockParallel);
+        int recordSize = records.get(0).getAtomCount();
+        for (int i = 0; i < numRecords; i++)
+        {
+            for (int j = 0; j < recordSize; j++)
+                assertEquals(records.get(i).getStringValue(j), batch.getStringValue(i*recordSize+j));
+        }
+    }
+    
+    
+    protected void checkRecord(DataBlock expected, DataBlock actual)
+    {
+        assertEquals(expected.getAtomCount(), actual.getAtomCount());
+        for (int j = 0; j < expected.getAtomCount(); j++)
+            assertEquals(expected.getStringValue(j), actual.getStringValue(j));
+    }
+    
+    
+    protected int getEncodedSize(DataComponent dataStruct, BinaryEncoding encoding, List<DataBlock> records) throws IOException
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        BinaryDataWriter writer = new BinaryDataWriter();
+        writer.setDataComponents(dataStruct.copy());
+        writer.setDataEncoding(encoding);
+        writer.setOutput(os);
+        for (var rec: records)
+            writer.write(rec);
+        writer.flush();
+        return os.size();
+    }
+
 }
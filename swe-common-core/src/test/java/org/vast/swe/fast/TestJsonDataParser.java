@@ -15,6 +15,8 @@ Copyright (C) 2012-2017 Sensia Software LLC. All Rights Reserved.
 package org.vast.swe.fast;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -23,10 +25,12 @@ import java.util.ArrayList;
 import java.util.List;
 import org.junit.Test;
 import org.vast.swe.SWEHelper;
+import org.vast.util.ReaderException;
 import com.google.common.collect.Lists;
 import net.opengis.swe.v20.Count;
 import net.opengis.swe.v20.DataArray;
 import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataChoice;
 import net.opengis.swe.v20.DataComponent;
 import net.opengis.swe.v20.DataRecord;
 
@@ -231,5 +235,214 @@ public class TestJsonDataParser
         
         writeReadAndCompare(dataStruct, records);
     }
+    
+    
+    @Test
+    public void testWriteAndReadBackChoiceInRecord() throws IOException
+    {
+        // create record structure
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("choice", fac.createChoice()
+                .addItem("q1", fac.createQuantity().build())
+                .addItem("rec2", fac.createRecord()
+                    .addField("c1", fac.createCount().build())
+                    .addField("t2", fac.createText().build())
+                    .build())
+                .build())
+            .build();
+        
+        // test with multiple records
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 6;
+        for (int r=0; r<numRecords; r++)
+        {
+            int selectedIndex = r % 2;
+            dataStruct.assignNewDataBlock();
+            ((DataChoice)dataStruct.getComponent("choice")).setSelectedItem(selectedIndex);
+            DataBlock rec = dataStruct.getData();
+            
+            int dataBlkIdx = 0;
+            rec.setDoubleValue(dataBlkIdx++, now+r);
+            rec.setIntValue(dataBlkIdx++, selectedIndex);
+            if (selectedIndex == 0)
+            {
+                rec.setDoubleValue(dataBlkIdx++, r*1.5);
+            }
+            else
+            {
+                rec.setIntValue(dataBlkIdx++, r);
+                rec.setStringValue(dataBlkIdx++, "text" + r);
+            }
+            
+            records.add(rec);
+        }
+        
+        writeReadAndCompare(dataStruct, records);
+    }
+    
+    
+    protected List<DataBlock> parseUnordered(DataComponent dataStruct, String json) throws IOException
+    {
+        JsonDataParserGson parser = new JsonDataParserGson();
+        parser.setDataComponents(dataStruct.copy());
+        parser.setInput(new ByteArrayInputStream(json.getBytes()));
+        parser.setRenewDataBlock(true);
+        parser.setHasArrayWrapper();
+        parser.setUnorderedFields(true);
+        
+        var parsedRecords = new ArrayList<DataBlock>();
+        DataBlock dataBlk;
+        while ((dataBlk = parser.parseNextBlock()) != null)
+            parsedRecords.add(dataBlk);
+        return parsedRecords;
+    }
+    
+    
+    @Test
+    public void testReadUnorderedFields() throws IOException
+    {
+        SWEHelper fac = new SWEHelper();
+        Count sizeField;
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("time")
+            .addField("q1", fac.createQuantity().build())
+            .addField("rec", fac.createRecord()
+                .addField("c1", fac.createCount().build())
+                .addField("t2", fac.createText().build())
+                .build())
+            .addField("size", sizeField = fac.createCount()
+                .id("NUM_POINTS")
+                .build())
+            .addField("array", fac.createArray()
+                .withSizeComponent(sizeField)
+                .withElement("elt", fac.createQuantity().build())
+                .build())
+            .build();
+        
+        var json = "[" +
+            // declared order
+            "{\"time\":\"2020-01-01T00:00:00Z\",\"q1\":1.5,\"rec\":{\"c1\":10,\"t2\":\"a\"},\"size\":2,\"array\":[1,2]}," +
+            // shuffled order with unknown members
+            "{\"rec\":{\"t2\":\"b\",\"c1\":20},\"extra\":{\"x\":[1,{}]},\"q1\":2.5,\"time\":\"2020-01-01T00:00:01Z\",\"size\":3,\"array\":[3,4,5],\"other\":\"z\"}," +
+            // missing fields
+            "{\"size\":1,\"time\":\"2020-01-01T00:00:02Z\",\"array\":[6]}" +
+            "]";
+        
+        var records = parseUnordered(dataStruct, json);
+        assertEquals(3, records.size());
+        
+        var rec = records.get(0);
+        assertEquals(7, rec.getAtomCount());
+        assertEquals(1.5, rec.getDoubleValue(1), 0.0);
+        assertEquals(10, rec.getIntValue(2));
+        assertEquals("a", rec.getStringValue(3));
+        assertEquals(2.0, rec.getDoubleValue(6), 0.0);
+        
+        rec = records.get(1);
+        assertEquals(8, rec.getAtomCount());
+        assertEquals(1577836801.0, rec.getDoubleValue(0), 0.0);
+        assertEquals(2.5, rec.getDoubleValue(1), 0.0);
+        assertEquals(20, rec.getIntValue(2));
+        assertEquals("b", rec.getStringValue(3));
+        assertEquals(3, rec.getIntValue(4));
+        assertEquals(5.0, rec.getDoubleValue(7), 0.0);
+        
+        rec = records.get(2);
+        assertEquals(6, rec.getAtomCount());
+        assertEquals(1577836802.0, rec.getDoubleValue(0), 0.0);
+        assertEquals(Double.NaN, rec.getDoubleValue(1), 0.0);
+        assertEquals(0, rec.getIntValue(2));
+        assertNull(rec.getStringValue(3));
+        assertEquals(6.0, rec.getDoubleValue(5), 0.0);
+        
+        // variable size array cannot be read before its size
+        try
+        {
+            parseUnordered(dataStruct, "[{\"array\":[1],\"size\":1}]");
+            fail("Expected ReaderException");
+        }
+        catch (ReaderException e)
+        {
+            // expected
+        }
+    }
+    
+    
+    protected List<DataBlock> parseWithProjection(DataComponent dataStruct, String json, boolean unordered) throws IOException
+    {
+        JsonDataParserGson parser = new JsonDataParserGson();
+        parser.setDataComponents(dataStruct.copy());
+        parser.setInput(new ByteArrayInputStream(json.getBytes()));
+        parser.setRenewDataBlock(true);
+        parser.setHasArrayWrapper();
+        parser.setUnorderedFields(unordered);
+        parser.setProjection(c -> "lat".equals(c.getName()) || "temp".equals(c.getName()) || "c1".equals(c.getName()));
+        
+        var projected = parser.getProjectedComponents();
+        assertEquals(3, projected.getComponentCount());
+        assertEquals(1, projected.getComponent("loc").getComponentCount());
+        
+        var parsedRecords = new ArrayList<DataBlock>();
+        DataBlock dataBlk;
+        while ((dataBlk = parser.parseNextBlock()) != null)
+            parsedRecords.add(dataBlk);
+        return parsedRecords;
+    }
+    
+    
+    @Test
+    public void testParseWithProjection() throws IOException
+    {
+        SWEHelper fac = new SWEHelper();
+        Count sizeField;
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("time")
+            .addField("loc", fac.createVector()
+                .addCoordinate("lat", fac.createQuantity().build())
+                .addCoordinate("lon", fac.createQuantity().build())
+                .build())
+            .addField("temp", fac.createQuantity().build())
+            .addField("name", fac.createText().build())
+            .addField("size", sizeField = fac.createCount()
+                .id("NUM_POINTS")
+                .build())
+            .addField("array", fac.createArray()
+                .withSizeComponent(sizeField)
+                .withElement("elt", fac.createQuantity().build())
+                .build())
+            .addField("c1", fac.createCount().build())
+            .build();
+        
+        var json = "[" +
+            "{\"time\":\"2020-01-01T00:00:00Z\",\"loc\":{\"lat\":1.5,\"lon\":2.5},\"temp\":20.5,\"name\":\"a\",\"size\":2,\"array\":[1,2],\"c1\":10}," +
+            "{\"time\":\"2020-01-01T00:00:01Z\",\"loc\":{\"lat\":3.5,\"lon\":4.5},\"temp\":21.5,\"name\":\"b\",\"size\":3,\"array\":[3,4,5],\"c1\":20}" +
+            "]";
+        
+        // all unselected fields are skipped, including variable size arrays
+        for (boolean unordered: new boolean[] {false, true})
+        {
+            var records = parseWithProjection(dataStruct, json, unordered);
+            assertEquals(2, records.size());
+            
+            for (int r = 0; r < records.size(); r++)
+            {
+                var rec = records.get(r);
+                assertEquals(3, rec.getAtomCount());
+                assertEquals(1.5 + 2*r, rec.getDoubleValue(0), 0.0);
+                assertEquals(20.5 + r, rec.getDoubleValue(1), 0.0);
+                assertEquals(10 + 10*r, rec.getIntValue(2));
+            }
+        }
+        
+        // shuffled members in unordered mode
+        json = "[{\"c1\":30,\"array\":[1],\"loc\":{\"lon\":0.5,\"lat\":5.5},\"size\":1,\"temp\":22.5}]";
+        var rec = parseWithProjection(dataStruct, json, true).get(0);
+        assertEquals(5.5, rec.getDoubleValue(0), 0.0);
+        assertEquals(22.5, rec.getDoubleValue(1), 0.0);
+        assertEquals(30, rec.getIntValue(2));
+    }
 
 }
@@ -17,9 +17,18 @@ package org.vast.swe.fast;
 import static org.junit.Assert.*;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
 import org.junit.Test;
 import org.vast.data.DataBlockString;
+import org.vast.swe.SWEHelper;
 import org.vast.swe.fast.JsonDataWriterGson.StringWriter;
+import net.opengis.swe.v20.Count;
+import net.opengis.swe.v20.DataArray;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataRecord;
+import net.opengis.swe.v20.DataType;
 
 
 public class TestJsonDataWriter
@@ -92,5 +101,88 @@ public class TestJsonDataWriter
         System.out.println();
         assertEquals(expected, new String(output));
     }
+    
+    
+    private String writeRecords(JsonDataWriter writer, DataComponent dataStruct, DataBlock[] records) throws IOException
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        writer.setDataComponents(dataStruct);
+        writer.setDataComponentFilter(c -> c.getParent() != null && !"skipped".equals(c.getName()));
+        writer.setOutput(os);
+        writer.startStream(true);
+        for (var rec: records)
+            writer.write(rec);
+        writer.endStream();
+        writer.flush();
+        return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+    
+    
+    @Test
+    public void testUtf8WriterSameOutput() throws IOException
+    {
+        SWEHelper fac = new SWEHelper();
+        Count sizeField;
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("time")
+            .addField("q1", fac.createQuantity().build())
+            .addField("q2", fac.createQuantity().significantFigures(3).build())
+            .addField("f3", fac.createQuantity().dataType(DataType.FLOAT).build())
+            .addField("skipped", fac.createQuantity().build())
+            .addField("txt", fac.createText().build())
+            .addField("flag", fac.createBoolean().build())
+            .addField("vec", fac.createVector()
+                .addCoordinate("x", fac.createQuantity().build())
+                .addCoordinate("y", fac.createQuantity().build())
+                .build())
+            .addField("size", sizeField = fac.createCount()
+                .id("NUM_POINTS")
+                .build())
+            .addField("array", fac.createArray()
+                .withSizeComponent(sizeField)
+                .withElement("elt", fac.createQuantity().build())
+                .build())
+            .addField("cat", fac.createCategory().build())
+            .build();
+        
+        var random = new Random(0);
+        var texts = new String[] {"simple", "esc \"quoted\" \\ \n\t", "unicode é \u20ac \ud83d\ude00", null};
+        var special = new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0.0, 1e-5, 1.5e12};
+        var records = new DataBlock[200];
+        for (int r = 0; r < records.length; r++)
+        {
+            int arraySize = r % 5;
+            ((DataArray)dataStruct.getComponent("array")).updateSize(arraySize);
+            var rec = dataStruct.createDataBlock();
+            
+            int i = 0;
+            rec.setDoubleValue(i++, r % 10 == 0 ? Double.NaN : 1.7e9 + r * 0.123);
+            rec.setDoubleValue(i++, r < special.length ? special[r] : Math.round(random.nextGaussian() * 1e6) / 1e3);
+            rec.setDoubleValue(i++, r < special.length ? special[r] : random.nextGaussian() * 100);
+            rec.setFloatValue(i++, (float)random.nextGaussian());
+            rec.setDoubleValue(i++, random.nextDouble());
+            rec.setStringValue(i++, texts[r % texts.length]);
+            rec.setBooleanValue(i++, r % 3 == 0);
+            rec.setDoubleValue(i++, random.nextDouble() * 1e8);
+            rec.setDoubleValue(i++, Double.longBitsToDouble(random.nextLong()));
+            rec.setIntValue(i++, arraySize);
+            for (int j = 0; j < arraySize; j++)
+                rec.setDoubleValue(i++, random.nextInt(1000) / 10.0);
+            rec.setStringValue(i++, "cat" + r);
+            
+            records[r] = rec;
+        }
+        
+        var expected = writeRecords(new JsonDataWriter(), dataStruct.copy(), records);
+        var actual = writeRecords(new JsonDataWriterUtf8(), dataStruct.copy(), records);
+        assertFalse(expected.contains("skipped"));
+        assertEquals(expected, actual);
+        
+        // also check with a buffer smaller than the output
+        var writer = new JsonDataWriterUtf8();
+        writer.setBufferSize(64);
+        actual = writeRecords(writer, dataStruct.copy(), records);
+        assertEquals(expected, actual);
+    }
 
 }
@@ -15,6 +15,7 @@ Copyright (C) 2012-2017 Sensia Software LLC. All Rights Reserved.
 package org.vast.swe.fast;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -29,12 +30,26 @@ import net.opengis.swe.v20.DataArray;
 import net.opengis.swe.v20.DataBlock;
 import net.opengis.swe.v20.DataComponent;
 import net.opengis.swe.v20.DataRecord;
+import net.opengis.swe.v20.TextEncoding;
 
 
 public class TestTextDataParser
 {
      
     protected void writeReadAndCompare(DataComponent dataStruct, List<DataBlock> records) throws IOException
+    {
+        writeReadAndCompare(dataStruct, null, records);
+    }
+    
+    
+    protected void writeReadAndCompare(DataComponent dataStruct, TextEncoding encoding, List<DataBlock> records) throws IOException
+    {
+        writeReadAndCompare(dataStruct, encoding, records, false);
+        writeReadAndCompare(dataStruct, encoding, records, true);
+    }
+    
+    
+    protected void writeReadAndCompare(DataComponent dataStruct, TextEncoding encoding, List<DataBlock> records, boolean flatten) throws IOException
     {
         var multipleRecords = records.size() > 1;
         
@@ -42,6 +57,9 @@ public class TestTextDataParser
         ByteArrayOutputStream os = new ByteArrayOutputStream();
         TextDataWriter writer = new TextDataWriter();
         writer.setDataComponents(dataStruct.copy());
+        if (encoding != null)
+            writer.setDataEncoding(encoding);
+        writer.setFlattenProcessorTree(flatten);
         writer.setOutput(os);
         writer.startStream(multipleRecords);
         for (var rec: records)
@@ -56,6 +74,9 @@ public class TestTextDataParser
         ByteArrayInputStream is = new ByteArrayInputStream(bytes);
         TextDataParser parser = new TextDataParser();
         parser.setDataComponents(dataStruct.copy());
+        if (encoding != null)
+            parser.setDataEncoding(encoding);
+        parser.setFlattenProcessorTree(flatten);
         parser.setInput(is);
         parser.setRenewDataBlock(true);
         var parsedRecords = new ArrayList<DataBlock>();
@@ -228,6 +249,40 @@ public class TestTextDataParser
         
         writeReadAndCompare(dataStruct, records);
     }
+    
+    
+    @Test
+    public void testWriteAndReadBackCustomSeparators() throws IOException
+    {
+        // create record structure
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("q1", fac.createQuantity().build())
+            .addField("b2", fac.createBoolean().build())
+            .addField("t3", fac.createText().build())
+            .addField("c4", fac.createCount().build())
+            .build();
+        
+        // test with enough records to span several buffer windows
+        var now = (double)Instant.now().getEpochSecond();
+        var records = new ArrayList<DataBlock>();
+        int numRecords = 2000;
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = dataStruct.createDataBlock();
+            int dataBlkIdx = 0;
+            double val = (r % 10 == 0) ? Double.POSITIVE_INFINITY : r*1.234e-7;
+            rec.setDoubleValue(dataBlkIdx++, now+r/1000.);
+            rec.setDoubleValue(dataBlkIdx++, val);
+            rec.setBooleanValue(dataBlkIdx++, r % 2 == 0);
+            rec.setStringValue(dataBlkIdx++, (r % 100 == 0) ? "x".repeat(20000) : "text " + r);
+            rec.setIntValue(dataBlkIdx++, -r);
+            records.add(rec);
+        }
+        
+        writeReadAndCompare(dataStruct, fac.newTextEncoding("||", "@@\n"), records);
+    }
 
 
     /*
@@ -342,5 +397,127 @@ public class TestTextDataParser
             System.out.println("Exec Time = " + (System.currentTimeMillis()-t0));
         }
     }*/
+    
+    
+    @Test
+    public void testParseAndWriteBatch() throws IOException
+    {
+        // create record structure
+        SWEHelper fac = new SWEHelper();
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("t0")
+            .addField("q1", fac.createQuantity().build())
+            .addField("rec2", fac.createRecord()
+                .addField("c3", fac.createCount().build())
+                .addField("t4", fac.createText().build())
+                .build())
+            .build();
+        var encoding = fac.newTextEncoding(",", "\n");
+        
+        var now = (double)Instant.now().getEpochSecond();
+        var sb = new StringBuilder();
+        int numRecords = 7;
+        for (int r=0; r<numRecords; r++)
+        {
+            var rec = dataStruct.createDataBlock();
+            rec.setDoubleValue(0, now+r);
+            rec.setDoubleValue(1, r*0.5);
+            rec.setIntValue(2, r);
+            rec.setStringValue(3, "text" + r);
+            
+            var os = new ByteArrayOutputStream();
+            TextDataWriter writer = new TextDataWriter();
+            writer.setDataComponents(dataStruct.copy());
+            writer.setDataEncoding(encoding);
+            writer.setOutput(os);
+            writer.write(rec);
+            writer.flush();
+            sb.append(os.toString());
+        }
+        
+        // read back by batches of 3 records and write them back
+        TextDataParser parser = new TextDataParser();
+        parser.setDataComponents(dataStruct.copy());
+        parser.setDataEncoding(encoding);
+        parser.setInput(new ByteArrayInputStream(sb.toString().getBytes()));
+        
+        var os = new ByteArrayOutputStream();
+        TextDataWriter writer = new TextDataWriter();
+        writer.setDataComponents(dataStruct.copy());
+        writer.setDataEncoding(encoding);
+        writer.setOutput(os);
+        
+        int recordSize = dataStruct.createDataBlock().getAtomCount();
+        int count = 0;
+        DataBlock batch;
+        while ((batch = parser.parseNextBatch(3)) != null)
+        {
+            int batchCount = batch.getAtomCount() / recordSize;
+            writer.writeBatch(batch, batchCount);
+            count += batchCount;
+        }
+        writer.flush();
+        
+        assertEquals("Wrong number of records", numRecords, count);
+        assertEquals(sb.toString(), os.toString());
+    }
+    
+    
+    @Test
+    public void testParseWithProjection() throws IOException
+    {
+        SWEHelper fac = new SWEHelper();
+        Count sizeField;
+        DataRecord dataStruct = fac.createRecord()
+            .addSamplingTimeIsoUTC("time")
+            .addField("loc", fac.createVector()
+                .addCoordinate("lat", fac.createQuantity().build())
+                .addCoordinate("lon", fac.createQuantity().build())
+                .build())
+            .addField("temp", fac.createQuantity().build())
+            .addField("name", fac.createText().build())
+            .addField("size", sizeField = fac.createCount()
+                .id("NUM_POINTS")
+                .build())
+            .addField("array", fac.createArray()
+                .withSizeComponent(sizeField)
+                .withElement("elt", fac.createQuantity().build())
+                .build())
+            .addField("c1", fac.createCount().build())
+            .build();
+        
+        var csv =
+            "2020-01-01T00:00:00Z,1.5,2.5,20.5,a,2,1.0,2.0,10\n" +
+            "2020-01-01T00:00:01Z,3.5,4.5,21.5,b,3,3.0,4.0,5.0,20\n";
+        
+        TextDataParser parser = new TextDataParser();
+        parser.setDataComponents(dataStruct.copy());
+        parser.setInput(new ByteArrayInputStream(csv.getBytes()));
+        parser.setRenewDataBlock(true);
+        parser.setProjection(c -> "lat".equals(c.getName()) || "temp".equals(c.getName()) || "c1".equals(c.getName()));
+        
+        // variable size array cannot be skipped so it is kept
+        var projected = parser.getProjectedComponents();
+        assertEquals(5, projected.getComponentCount());
+        assertEquals(1, projected.getComponent("loc").getComponentCount());
+        
+        var rec = parser.parseNextBlock();
+        assertEquals(6, rec.getAtomCount());
+        assertEquals(1.5, rec.getDoubleValue(0), 0.0);
+        assertEquals(20.5, rec.getDoubleValue(1), 0.0);
+        assertEquals(2, rec.getIntValue(2));
+        assertEquals(2.0, rec.getDoubleValue(4), 0.0);
+        assertEquals(10, rec.getIntValue(5));
+        
+        rec = parser.parseNextBlock();
+        assertEquals(7, rec.getAtomCount());
+        assertEquals(3.5, rec.getDoubleValue(0), 0.0);
+        assertEquals(21.5, rec.getDoubleValue(1), 0.0);
+        assertEquals(3, rec.getIntValue(2));
+        assertEquals(5.0, rec.getDoubleValue(5), 0.0);
+        assertEquals(20, rec.getIntValue(6));
+        
+        assertNull(parser.parseNextBlock());
+    }
 
 }
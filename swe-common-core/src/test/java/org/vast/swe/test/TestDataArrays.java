@@ -16,6 +16,7 @@ package org.vast.swe.test;
 
 import static org.junit.Assert.*;
 import java.io.ByteArrayOutputStream;
+import java.util.Random;
 import net.opengis.swe.v20.Count;
 import net.opengis.swe.v20.DataArray;
 import net.opengis.swe.v20.DataBlock;
@@ -338,4 +339,67 @@ public class TestDataArrays
         assertEquals(WRONG_ARRAY_SIZE_MSG, height, outerArray.getComponentCount());
         assertEquals(WRONG_ARRAY_SIZE_MSG, width, innerArray.getComponentCount());
     }
+    
+    
+    @Test
+    public void testRandomAccessNestedVarSizeArrays() throws Exception
+    {
+        Count numObj, numPts;
+        DataArray outerArray, innerArray;
+        
+        DataRecord rec = fac.createRecord()
+            .addField("time", fac.createTime())
+            .addField("numObj", numObj = fac.createCount()
+                .id("NUM_OBJECTS")
+                .build())
+            .addField("outer_array", outerArray = fac.createArray()
+                .withSizeComponent(numObj)
+                .withElement("elt", fac.createRecord()
+                    .addField("numPoints", numPts = fac.createCount()
+                        .id("NUM_POINTS")
+                        .build())
+                    .addField("profile", innerArray = fac.createArray()
+                        .withSizeComponent(numPts)
+                        .withElement("val", fac.createQuantity())
+                        .build()))
+                .build())
+            .build();
+        
+        rec.assignNewDataBlock();
+        DataBlock data = rec.getData();
+        
+        // access data once to build index before resizing
+        data.setDoubleValue(0, 0.0);
+        
+        int outerSize = 50;
+        outerArray.updateSize(outerSize);
+        for (int i = 0; i < outerSize; i++)
+        {
+            outerArray.getComponent(i);
+            innerArray.updateSize((i*7)%13);
+        }
+        
+        // set all values sequentially, then read them back in random order
+        int atomCount = data.getAtomCount();
+        for (int i = 0; i < atomCount; i++)
+            data.setDoubleValue(i, i);
+        
+        var random = new Random(atomCount);
+        for (int k = 0; k < 10*atomCount; k++)
+        {
+            int i = random.nextInt(atomCount);
+            assertEquals(i, data.getDoubleValue(i), 0.0);
+        }
+        
+        // check that index is updated when a child block is replaced
+        DataBlockMixed mixedBlock = new DataBlockMixed(new DataBlockDouble(3), new DataBlockDouble(2), new DataBlockDouble(4));
+        for (int i = 0; i < mixedBlock.getAtomCount(); i++)
+            mixedBlock.setDoubleValue(i, i);
+        assertEquals(7.0, mixedBlock.getDoubleValue(7), 0.0);
+        mixedBlock.setBlock(1, new DataBlockDouble(5));
+        assertEquals(12, mixedBlock.getAtomCount());
+        assertEquals(0.0, mixedBlock.getDoubleValue(7), 0.0);
+        assertEquals(5.0, mixedBlock.getDoubleValue(8), 0.0);
+        assertEquals(8.0, mixedBlock.getDoubleValue(11), 0.0);
+    }
 }
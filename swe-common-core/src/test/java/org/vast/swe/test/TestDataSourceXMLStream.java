@@ -0,0 +1,130 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.test;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataRecord;
+import org.junit.Test;
+import org.vast.cdm.common.DataStreamParser;
+import org.vast.swe.DataSourceXMLStream;
+import org.vast.swe.SWEData;
+import org.vast.swe.SWEHelper;
+import org.vast.xml.XMLImplFinder;
+
+
+public class TestDataSourceXMLStream
+{
+
+    protected XMLStreamReader openValues(Reader xml) throws Exception
+    {
+        XMLStreamReader reader = XMLImplFinder.getStaxInputFactory().createXMLStreamReader(xml);
+        reader.nextTag();
+        reader.nextTag();
+        assertEquals("values", reader.getLocalName());
+        return reader;
+    }
+
+
+    protected String readAll(InputStream is) throws IOException
+    {
+        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+
+    @Test
+    public void testReadTextContent() throws Exception
+    {
+        String xml = "<root><values>a,1.0@@b&amp;c,2<!-- comment --><![CDATA[<x>,é€😀]]>\n  end</values><next/></root>";
+        XMLStreamReader reader = openValues(new StringReader(xml));
+
+        DataSourceXMLStream src = new DataSourceXMLStream(reader);
+        assertEquals("a,1.0@@b&c,2<x>,é€😀\n  end", readAll(src.getDataStream()));
+
+        // reader must be left on values end tag
+        assertEquals(XMLStreamConstants.END_ELEMENT, reader.getEventType());
+        assertEquals("values", reader.getLocalName());
+        assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+        assertEquals("next", reader.getLocalName());
+
+        // stream can only be read once
+        try
+        {
+            src.getDataStream();
+            fail();
+        }
+        catch (IOException e)
+        {
+        }
+    }
+
+
+    @Test(expected = IOException.class)
+    public void testErrorOnNestedElement() throws Exception
+    {
+        String xml = "<root><values>1,2,3<elt>4</elt></values></root>";
+        DataSourceXMLStream src = new DataSourceXMLStream(openValues(new StringReader(xml)));
+        readAll(src.getDataStream());
+    }
+
+
+    @Test
+    public void testParseRecordByRecord() throws Exception
+    {
+        SWEHelper fac = new SWEHelper();
+        DataRecord rec = fac.createRecord()
+            .addField("time", fac.createTime().asSamplingTimeIsoUTC().build())
+            .addField("count", fac.createCount().build())
+            .addField("temp", fac.createQuantity().uomCode("Cel").build())
+            .build();
+
+        // generate payload larger than internal buffers
+        int numRecords = 100000;
+        StringBuilder xml = new StringBuilder("<root><values>");
+        for (int i = 0; i < numRecords; i++)
+            xml.append(String.format("2026-10-18T00:%02d:%02dZ,%d,%d.5\n", (i / 60) % 60, i % 60, i, i % 100));
+        xml.append("</values></root>");
+
+        byte[] xmlBytes = xml.toString().getBytes(StandardCharsets.UTF_8);
+        XMLStreamReader reader = XMLImplFinder.getStaxInputFactory().createXMLStreamReader(new ByteArrayInputStream(xmlBytes));
+        reader.nextTag();
+        reader.nextTag();
+
+        SWEData sweData = new SWEData();
+        sweData.setElementType(rec);
+        sweData.setEncoding(fac.newTextEncoding(",", "\n"));
+        DataStreamParser parser = sweData.getDataParser();
+        parser.setInput(new DataSourceXMLStream(reader).getDataStream());
+
+        int count = 0;
+        DataBlock data;
+        while ((data = parser.parseNextBlock()) != null)
+        {
+            assertEquals(count, data.getIntValue(1));
+            assertEquals(count % 100 + 0.5, data.getDoubleValue(2), 1e-12);
+            count++;
+        }
+
+        assertEquals(numRecords, count);
+    }
+}
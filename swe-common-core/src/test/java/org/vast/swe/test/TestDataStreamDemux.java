@@ -0,0 +1,281 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.test;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataEncoding;
+import net.opengis.swe.v20.DataRecord;
+import org.junit.Test;
+import org.vast.cdm.common.DataStreamParser;
+import org.vast.cdm.common.DataStreamWriter;
+import org.vast.swe.DataStreamDemux;
+import org.vast.swe.DefaultParserHandler;
+import org.vast.swe.SWEData;
+import org.vast.swe.SWEHelper;
+
+
+public class TestDataStreamDemux
+{
+    static final int NUM_CLUSTERS = 5;
+    static final int NUM_RECORDS = 2000;
+
+    SWEHelper fac = new SWEHelper();
+
+
+    protected DataRecord createRecord(int clusterIdx)
+    {
+        var builder = fac.createRecord()
+            .addField("time", fac.createTime().asSamplingTimeIsoUTC().build())
+            .addField("seq", fac.createCount().build());
+
+        // clusters have different structures
+        for (int i = 0; i < clusterIdx; i++)
+            builder.addField("val" + i, fac.createQuantity().build());
+
+        return builder.build();
+    }
+
+
+    protected DataBlock createData(DataComponent rec, int seq)
+    {
+        DataBlock data = rec.createDataBlock();
+        data.setDoubleValue(0, 1.7e9 + seq);
+        data.setIntValue(1, seq);
+        for (int i = 2; i < data.getAtomCount(); i++)
+            data.setDoubleValue(i, seq * 0.5 + i);
+        return data;
+    }
+
+
+    /*
+     * Generates multiplexed stream with records of all clusters interleaved
+     */
+    protected byte[] writeMultiplexedStream(DataRecord[] recs, DataEncoding[] encodings, boolean binaryFraming) throws IOException
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(os);
+
+        for (int i = 0; i < NUM_RECORDS; i++)
+        {
+            int clusterIdx = i % NUM_CLUSTERS;
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+            DataStreamWriter writer = SWEHelper.createDataWriter(encodings[clusterIdx]);
+            writer.setDataComponents(recs[clusterIdx]);
+            writer.setOutput(recordBytes);
+            writer.write(createData(recs[clusterIdx], i));
+            writer.flush();
+
+            String clusterID = "sensor" + clusterIdx;
+            if (binaryFraming)
+            {
+                dos.writeUTF(clusterID);
+                dos.writeInt(recordBytes.size());
+                dos.write(recordBytes.toByteArray());
+            }
+            else
+            {
+                dos.write((clusterID + ",").getBytes(StandardCharsets.UTF_8));
+                dos.write(recordBytes.toByteArray());
+            }
+        }
+
+        // add records for unknown cluster
+        if (binaryFraming)
+        {
+            dos.writeUTF("unknown");
+            dos.writeInt(3);
+            dos.write(new byte[3]);
+        }
+        else
+            dos.write("unknown,1,2,3\n".getBytes(StandardCharsets.UTF_8));
+
+        dos.flush();
+        return os.toByteArray();
+    }
+
+
+    protected void demuxAndCheck(boolean binaryFraming, ExecutorService exec) throws IOException
+    {
+        DataRecord[] recs = new DataRecord[NUM_CLUSTERS];
+        DataEncoding[] encodings = new DataEncoding[NUM_CLUSTERS];
+        for (int i = 0; i < NUM_CLUSTERS; i++)
+        {
+            recs[i] = createRecord(i);
+            encodings[i] = binaryFraming ? SWEHelper.getDefaultBinaryEncoding(recs[i]) : fac.newTextEncoding(",", "\n");
+        }
+
+        byte[] stream = writeMultiplexedStream(recs, encodings, binaryFraming);
+
+        // register one parser per cluster
+        DataStreamDemux demux = binaryFraming ? new DataStreamDemux() : new DataStreamDemux(fac.newTextEncoding(",", "\n"));
+        demux.setExecutor(exec);
+        demux.setMaxPendingRecords(16);
+        SWEData[] results = new SWEData[NUM_CLUSTERS];
+        for (int i = 0; i < NUM_CLUSTERS; i++)
+        {
+            results[i] = new SWEData();
+            results[i].setElementType(recs[i].copy());
+            results[i].setEncoding(encodings[i]);
+            DataStreamParser parser = results[i].getDataParser();
+            parser.setDataHandler(new DefaultParserHandler(results[i]));
+            demux.addDataParser("sensor" + i, parser);
+        }
+
+        demux.parse(new ByteArrayInputStream(stream));
+        assertEquals(1, demux.getSkippedRecordCount());
+
+        // check all records were received in order
+        for (int i = 0; i < NUM_CLUSTERS; i++)
+        {
+            assertEquals(NUM_RECORDS / NUM_CLUSTERS, results[i].getNumElements());
+
+            for (int k = 0; k < results[i].getNumElements(); k++)
+            {
+                int seq = i + k * NUM_CLUSTERS;
+                DataBlock data = results[i].getComponent(k).getData();
+                DataBlock expected = createData(recs[i], seq);
+                assertEquals(expected.getAtomCount(), data.getAtomCount());
+                assertEquals(seq, data.getIntValue(1));
+                for (int j = 0; j < expected.getAtomCount(); j++)
+                    assertEquals(expected.getDoubleValue(j), data.getDoubleValue(j), 1e-6);
+            }
+        }
+    }
+
+
+    @Test
+    public void testDemuxBinary() throws Exception
+    {
+        demuxAndCheck(true, null);
+    }
+
+
+    @Test
+    public void testDemuxText() throws Exception
+    {
+        demuxAndCheck(false, null);
+    }
+
+
+    @Test
+    public void testDemuxInParallel() throws Exception
+    {
+        ExecutorService exec = Executors.newFixedThreadPool(4);
+        try
+        {
+            demuxAndCheck(true, exec);
+            demuxAndCheck(false, exec);
+        }
+        finally
+        {
+            exec.shutdown();
+        }
+    }
+
+
+    @Test
+    public void testSkipRecordLargerThanBuffer() throws Exception
+    {
+        DataRecord rec = createRecord(1);
+        DataEncoding encoding = SWEHelper.getDefaultBinaryEncoding(rec);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(os);
+        dos.writeUTF("unknown");
+        dos.writeInt(20000);
+        dos.write(new byte[20000]);
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataStreamWriter writer = SWEHelper.createDataWriter(encoding);
+        writer.setDataComponents(rec);
+        writer.setOutput(recordBytes);
+        writer.write(createData(rec, 1));
+        writer.flush();
+        dos.writeUTF("sensor1");
+        dos.writeInt(recordBytes.size());
+        dos.write(recordBytes.toByteArray());
+        dos.flush();
+
+        SWEData result = new SWEData();
+        result.setElementType(rec.copy());
+        result.setEncoding(encoding);
+        DataStreamParser parser = result.getDataParser();
+        parser.setDataHandler(new DefaultParserHandler(result));
+        DataStreamDemux demux = new DataStreamDemux();
+        demux.addDataParser("sensor1", parser);
+
+        // non markable stream so the demux has to add its own buffer
+        demux.parse(new FilterInputStream(new ByteArrayInputStream(os.toByteArray())) {
+            @Override
+            public boolean markSupported()
+            {
+                return false;
+            }
+        });
+
+        assertEquals(1, demux.getSkippedRecordCount());
+        assertEquals(1, result.getNumElements());
+        assertEquals(1, result.getComponent(0).getData().getIntValue(1));
+    }
+
+
+    @Test(expected = IOException.class)
+    public void testErrorInParallelDecoding() throws Exception
+    {
+        DataRecord rec = createRecord(1);
+        DataStreamDemux demux = new DataStreamDemux(fac.newTextEncoding(",", "\n"));
+        DataStreamParser parser = SWEHelper.createDataParser(fac.newTextEncoding(",", "\n"));
+        parser.setDataComponents(rec);
+        demux.addDataParser("s1", parser);
+
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try
+        {
+            demux.setExecutor(exec);
+            demux.parse(new ByteArrayInputStream("s1,2026-10-18T00:00:00Z,1,1.0\ns1,notatime,2,2.0\n".getBytes()));
+        }
+        finally
+        {
+            exec.shutdown();
+        }
+    }
+
+
+    @Test(expected = IOException.class, timeout = 10000)
+    public void testRejectedExecution() throws Exception
+    {
+        DataRecord rec = createRecord(1);
+        DataStreamDemux demux = new DataStreamDemux(fac.newTextEncoding(",", "\n"));
+        DataStreamParser parser = SWEHelper.createDataParser(fac.newTextEncoding(",", "\n"));
+        parser.setDataComponents(rec);
+        demux.addDataParser("s1", parser);
+
+        // executor rejects all tasks after shutdown
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        exec.shutdown();
+        demux.setExecutor(exec);
+        demux.parse(new ByteArrayInputStream("s1,2026-10-18T00:00:00Z,1,1.0\ns1,2026-10-18T00:00:01Z,2,2.0\n".getBytes()));
+    }
+}
@@ -0,0 +1,135 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.test;
+
+import static org.junit.Assert.*;
+import java.text.ParseException;
+import java.util.Random;
+import org.junit.Test;
+import org.vast.util.DateTimeFormat;
+import org.vast.util.IsoDateTimeCodec;
+
+
+public class TestIsoDateTimeCodec
+{
+    DateTimeFormat timeFormat = new DateTimeFormat();
+    IsoDateTimeCodec timeCodec = new IsoDateTimeCodec();
+    
+    
+    @Test
+    public void testSameResultsAsDateTimeFormat() throws Exception
+    {
+        Random random = new Random(42);
+        
+        for (int i = 0; i < 100000; i++)
+        {
+            double t;
+            if (i % 3 == 0)
+                t = (random.nextDouble() - 0.5) * 2e11;
+            else if (i % 3 == 1)
+                t = Math.floor((random.nextDouble() - 0.5) * 2e10);
+            else
+                t = 1.7e9 + i * 0.1;
+            
+            String expected = timeFormat.formatIso(t, 0);
+            String iso = timeCodec.format(t);
+            assertEquals(expected, iso);
+            assertEquals(timeFormat.parseIso(iso), timeCodec.parse(iso), 0.0);
+        }
+    }
+    
+    
+    @Test
+    public void testParseVariants() throws Exception
+    {
+        String[] samples = {
+            "2026-10-18Z",
+            "2026-10-18T12:30Z",
+            "2026-10-18T12:30:15+02:00",
+            "2026-10-18T12:30:15.5-05:30",
+            "2026-10-18T01:02:03+01:02:03",
+            "2024-02-30T00:00:00Z",
+            "2026-10-18T24:00:00Z",
+            "+12026-01-01T00:00:00Z",
+            "-0001-12-31T23:59:59.999999999Z"
+        };
+        
+        for (String iso: samples)
+            assertEquals(iso, timeFormat.parseIso(iso), timeCodec.parse(iso), 0.0);
+        
+        char[] buf = " 2026-10-18T12:30:15Z,".toCharArray();
+        assertEquals(timeFormat.parseIso("2026-10-18T12:30:15Z"), timeCodec.parse(buf, 1, buf.length-1), 0.0);
+    }
+    
+    
+    @Test
+    public void testParseErrors() throws Exception
+    {
+        String[] samples = {
+            "2026-10-18",
+            "2026-10-18T12Z",
+            "2026-1-18Z",
+            "12026-01-01Z",
+            "2026-13-01Z",
+            "2026-10-18T12:60Z",
+            "2026-10-18t12:30Z",
+            "2026-10-18T24:00:01Z",
+            "2026-10-18T12:30:15+19:00",
+            "2026-10-18T12:30:15Z "
+        };
+        
+        for (String iso: samples)
+        {
+            try
+            {
+                timeCodec.parse(iso);
+                fail("Parsing should fail: " + iso);
+            }
+            catch (ParseException e)
+            {
+                // expected
+            }
+        }
+    }
+    
+    
+    @Test
+    public void testSpecialValues() throws Exception
+    {
+        assertEquals(Double.POSITIVE_INFINITY, timeCodec.parse("+INF"), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, timeCodec.parse("INF"), 0.0);
+        assertEquals(Double.NEGATIVE_INFINITY, timeCodec.parse("-INF"), 0.0);
+        assertTrue(Double.isNaN(timeCodec.parse("NaN")));
+        
+        assertEquals("+INF", timeCodec.format(Double.POSITIVE_INFINITY));
+        assertEquals("-INF", timeCodec.format(Double.NEGATIVE_INFINITY));
+        assertEquals("NaN", timeCodec.format(Double.NaN));
+    }
+    
+    
+    @Test
+    public void testPrecisionAndOffset() throws Exception
+    {
+        assertEquals("2023-11-14T22:13:20.1Z", new IsoDateTimeCodec(3).format(1.7e9 + 0.1));
+        assertEquals("2023-11-14T22:13:20.123Z", new IsoDateTimeCodec(3).format(1.7e9 + 0.1234));
+        assertEquals("2023-11-14T22:13:21Z", new IsoDateTimeCodec(0).format(1.7e9 + 0.6));
+        assertEquals("2023-11-14T22:13:20Z", new IsoDateTimeCodec(0).format(1.7e9 + 0.4));
+        assertEquals("2023-11-14T23:59:59.99Z", new IsoDateTimeCodec(2).format(1.7e9 + 6399.99));
+        assertEquals("2023-11-15T00:00:00Z", new IsoDateTimeCodec(1).format(1.7e9 + 6399.99));
+        
+        assertEquals(timeFormat.formatIso(1.7e9, 1), new IsoDateTimeCodec(9, 3600).format(1.7e9));
+        assertEquals("2023-11-14T16:43:20-05:30", new IsoDateTimeCodec(9, -19800).format(1.7e9));
+    }
+}
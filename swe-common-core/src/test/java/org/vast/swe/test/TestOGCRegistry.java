@@ -0,0 +1,58 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import org.junit.Test;
+import org.vast.ogc.OGCRegistry;
+
+
+public class TestOGCRegistry
+{
+    @Test
+    public void testCreateReaderWithFallback() throws Exception
+    {
+        OGCRegistry.addReaderClass("TEST1", "op", "1.0", ArrayList.class.getName());
+        
+        Object r1 = OGCRegistry.createReader("test1", "OP", "1.0.0");
+        Object r2 = OGCRegistry.createReader("test1", "OP", "1.0.0");
+        assertTrue(r1 instanceof ArrayList);
+        assertNotSame(r1, r2);
+        
+        // versions are normalized
+        assertTrue(OGCRegistry.createReader("TEST1", "OP", "1") instanceof ArrayList);
+    }
+    
+    
+    @Test
+    public void testCacheInvalidatedWhenClassChanges() throws Exception
+    {
+        OGCRegistry.addWriterClass("TEST2", null, "2.0", ArrayList.class.getName());
+        assertTrue(OGCRegistry.createWriter("TEST2", "any", "2.0") instanceof ArrayList);
+        
+        OGCRegistry.addWriterClass("TEST2", "any", "2.0", LinkedList.class.getName());
+        assertTrue(OGCRegistry.createWriter("TEST2", "any", "2.0") instanceof LinkedList);
+        assertTrue(OGCRegistry.createWriter("TEST2", "other", "2.0") instanceof ArrayList);
+    }
+    
+    
+    @Test(expected = IllegalStateException.class)
+    public void testErrorUnknownType() throws Exception
+    {
+        OGCRegistry.createReader("UNKNOWN_TYPE", "OP", "1.0");
+    }
+}
@@ -14,8 +14,21 @@ Copyright (C) 2021 Sensia Software LLC. All Rights Reserved.
 
 package org.vast.swe.test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Test;
+import org.vast.data.DataBlockDouble;
+import org.vast.data.DataBlockFloat;
+import org.vast.data.DataBlockInt;
+import org.vast.unit.UnitConverter;
 import org.vast.unit.UnitConversion;
 import org.vast.unit.UnitParserUCUM;
 
@@ -81,4 +94,110 @@ public class TestUnitConversion
     {
         testConversion("[pH]", "mol/l", 4, 0.0001);
     }
+    
+    
+    @Test
+    public void testBulkConversion() throws Exception
+    {
+        var ucum = new UnitParserUCUM();
+        var scaleConv = UnitConversion.getConverter(ucum.getUnit("km"), ucum.getUnit("m"));
+        var funcConv = UnitConversion.getConverter(ucum.getUnit("Cel"), ucum.getUnit("K"));
+        
+        // double arrays
+        double[] values = {0.0, 1.0, 2.0, 3.0};
+        scaleConv.convert(values, 1, 2);
+        assertArrayEquals(new double[] {0.0, 1000.0, 2000.0, 3.0}, values, 1e-12);
+        double[] converted = new double[3];
+        funcConv.convert(values, 0, converted, 1, 2);
+        assertArrayEquals(new double[] {0.0, 273.15, 1273.15}, converted, 1e-9);
+        
+        // float arrays
+        float[] floatValues = {1.0f, 2.0f};
+        scaleConv.convert(floatValues, 0, 2);
+        assertArrayEquals(new float[] {1000.0f, 2000.0f}, floatValues, 1e-3f);
+        
+        // datablocks backed by primitive arrays and generic datablocks
+        var srcBlock = new DataBlockDouble(4);
+        var destBlock = new DataBlockFloat(4);
+        for (int i = 0; i < 4; i++)
+            srcBlock.setDoubleValue(i, i);
+        funcConv.convert(srcBlock, 0, destBlock, 0, 4);
+        funcConv.convert(srcBlock, 1, srcBlock, 1, 2);
+        for (int i = 0; i < 4; i++)
+        {
+            assertEquals(i + 273.15, destBlock.getDoubleValue(i), 1e-4);
+            assertEquals(i > 0 && i < 3 ? i + 273.15 : i, srcBlock.getDoubleValue(i), 1e-9);
+        }
+        
+        var intBlock = new DataBlockInt(2);
+        intBlock.setIntValue(1, 3);
+        scaleConv.convert(intBlock, 0, intBlock, 0, 2);
+        assertEquals(3000, intBlock.getIntValue(1));
+    }
+    
+    
+    @Test
+    public void testCachedUnitsAndConverters() throws Exception
+    {
+        var ucum = new UnitParserUCUM();
+        
+        // decoded units are copies that can be modified freely
+        var unit1 = ucum.getUnit("km/h");
+        var unit2 = ucum.getUnit(" km/h ");
+        assertNotSame(unit1, unit2);
+        unit1.setScaleToSI(1.0);
+        assertEquals(1/3.6, ucum.getUnit("km/h").getScaleToSI(), 1e-12);
+        
+        // same converter is returned for equivalent units
+        var conv1 = UnitConversion.getConverter(ucum.getUnit("km/h"), ucum.getUnit("m/s"));
+        var conv2 = UnitConversion.getConverter(ucum.getUnit("km/h"), ucum.getUnit("m/s"));
+        assertSame(conv1, conv2);
+        assertEquals(10.0, conv1.convert(36.0), 1e-12);
+        assertNotSame(conv1, UnitConversion.getConverter(ucum.getUnit("m/s"), ucum.getUnit("km/h")));
+        
+        // converter is not affected by later changes to units used to create it
+        var srcUnit = ucum.getUnit("Cel");
+        var conv3 = UnitConversion.getConverter(srcUnit, ucum.getUnit("K"));
+        srcUnit.setScaleToSI(2.0);
+        assertEquals(273.15, conv3.convert(0.0), 1e-12);
+        assertNotSame(conv3, UnitConversion.getConverter(srcUnit, ucum.getUnit("K")));
+        
+        assertSame(UnitConversion.createConverterToSI("mm"), UnitConversion.createConverterToSI("mm"));
+        assertEquals(1e-3, UnitConversion.createConverterToSI("mm").convert(1.0), 1e-12);
+    }
+    
+    
+    @Test
+    public void testConcurrentLookups() throws Exception
+    {
+        String[] uomCodes = {"m", "cm", "km", "[ft_i]", "[mi_i]", "mm/s", "Cel", "[degF]"};
+        ExecutorService exec = Executors.newFixedThreadPool(8);
+        
+        try
+        {
+            List<Callable<UnitConverter>> tasks = new ArrayList<>();
+            for (int i = 0; i < 64; i++)
+            {
+                String uom = uomCodes[i % uomCodes.length];
+                tasks.add(() -> {
+                    var ucum = new UnitParserUCUM();
+                    var unit = ucum.getUnit(uom);
+                    return UnitConversion.getConverter(unit, unit.getCompatibleSIUnit());
+                });
+            }
+            
+            List<Future<UnitConverter>> results = exec.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++)
+            {
+                var unit = new UnitParserUCUM().getUnit(uomCodes[i % uomCodes.length]);
+                var expectedVal = UnitConversion.createConverterToSI(uomCodes[i % uomCodes.length]).convert(12.5);
+                assertEquals(expectedVal, results.get(i).get().convert(12.5), 1e-12);
+                assertSame(UnitConversion.getConverter(unit, unit.getCompatibleSIUnit()), results.get(i).get());
+            }
+        }
+        finally
+        {
+            exec.shutdown();
+        }
+    }
 }
@@ -0,0 +1,118 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.bench;
+
+import static org.vast.swe.bench.BenchStructures.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vast.cdm.common.DataStreamParser;
+import org.vast.cdm.common.DataStreamWriter;
+import org.vast.swe.SWEHelper;
+import org.vast.swe.fast.DataBlockProcessor;
+import org.vast.swe.fast.JsonDataParserGson;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataEncoding;
+
+
+/**
+ * <p>
+ * Base class for data parser and writer benchmarks.
+ * Throughput is reported in records per second.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class AbstractCodecBenchmark
+{
+    static final int NUM_RECORDS = 1000;
+    
+    @Param({FLAT, NESTED, VAR_ARRAY, CHOICE, FIXED_ARRAY})
+    String structure;
+    
+    boolean flattenTree;
+    DataComponent dataStruct;
+    DataEncoding dataEncoding;
+    List<DataBlock> records;
+    byte[] encodedData;
+    
+    
+    protected void setup(String encoding, boolean useLegacy) throws IOException
+    {
+        dataStruct = createStructure(structure);
+        dataEncoding = createEncoding(encoding, dataStruct);
+        records = createRecords(structure, dataStruct, NUM_RECORDS);
+        encodedData = write(useLegacy).toByteArray();
+    }
+    
+    
+    protected ByteArrayOutputStream write(boolean useLegacy) throws IOException
+    {
+        var os = new ByteArrayOutputStream(encodedData != null ? encodedData.length : 1024);
+        DataStreamWriter writer = SWEHelper.createDataWriter(dataEncoding, useLegacy);
+        writer.setDataComponents(dataStruct);
+        if (flattenTree)
+            ((DataBlockProcessor)writer).setFlattenProcessorTree(true);
+        writer.setOutput(os);
+        writer.startStream(true);
+        for (var rec: records)
+            writer.write(rec);
+        writer.endStream();
+        writer.flush();
+        return os;
+    }
+    
+    
+    protected int parse(boolean useLegacy, Blackhole bh) throws IOException
+    {
+        DataStreamParser parser = SWEHelper.createDataParser(dataEncoding, useLegacy);
+        parser.setDataComponents(dataStruct);
+        if (flattenTree)
+            ((DataBlockProcessor)parser).setFlattenProcessorTree(true);
+        parser.setInput(new ByteArrayInputStream(encodedData));
+        if (parser instanceof JsonDataParserGson)
+            ((JsonDataParserGson)parser).setHasArrayWrapper();
+        
+        int count = 0;
+        DataBlock rec;
+        while ((rec = parser.parseNextBlock()) != null)
+        {
+            bh.consume(rec);
+            count++;
+        }
+        
+        return count;
+    }
+}
@@ -0,0 +1,221 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.vast.data.JSONEncodingImpl;
+import org.vast.data.XMLEncodingImpl;
+import org.vast.swe.SWEHelper;
+import org.vast.swe.helper.GeoPosHelper;
+import net.opengis.swe.v20.Count;
+import net.opengis.swe.v20.DataArray;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataChoice;
+import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataEncoding;
+import net.opengis.swe.v20.DataRecord;
+
+
+/**
+ * <p>
+ * Record structures and datasets shared by all benchmarks
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class BenchStructures
+{
+    public static final String FLAT = "flat";
+    public static final String NESTED = "nested";
+    public static final String VAR_ARRAY = "varArray";
+    public static final String CHOICE = "choice";
+    public static final String FIXED_ARRAY = "fixedArray";
+    
+    public static final String TEXT = "text";
+    public static final String BINARY = "binary";
+    public static final String JSON = "json";
+    public static final String XML = "xml";
+    
+    static final double START_TIME = 1.7e9;
+    static final GeoPosHelper fac = new GeoPosHelper();
+    
+    
+    private BenchStructures()
+    {
+    }
+    
+    
+    public static DataComponent createStructure(String type)
+    {
+        switch (type)
+        {
+            case FLAT:
+                return fac.createRecord()
+                    .name("weather")
+                    .addSamplingTimeIsoUTC("time")
+                    .addField("temp", fac.createQuantity().uomCode("Cel").build())
+                    .addField("press", fac.createQuantity().uomCode("hPa").build())
+                    .addField("windSpeed", fac.createQuantity().uomCode("m/s").build())
+                    .addField("windDir", fac.createQuantity().uomCode("deg").build())
+                    .addField("status", fac.createCategory().build())
+                    .addField("count", fac.createCount().build())
+                    .build();
+    
+            case NESTED:
+                return fac.createRecord()
+                    .name("nav")
+                    .addSamplingTimeIsoUTC("time")
+                    .addField("location", fac.createLocationVectorLLA().build())
+                    .addField("attitude", fac.createEulerOrientationNED("deg").build())
+                    .addField("velocity", fac.createVelocityVectorNED("m/s").build())
+                    .build();
+    
+            case VAR_ARRAY:
+                Count size = fac.createCount().id("NUM_POINTS").build();
+                return fac.createRecord()
+                    .name("profile")
+                    .addSamplingTimeIsoUTC("time")
+                    .addField("numPoints", size)
+                    .addField("points", fac.createArray()
+                        .withSizeComponent(size)
+                        .withElement("point", fac.createRecord()
+                            .addField("depth", fac.createQuantity().uomCode("m").build())
+                            .addField("temp", fac.createQuantity().uomCode("Cel").build())
+                            .build())
+                        .build())
+                    .build();
+    
+            case CHOICE:
+                return fac.createRecord()
+                    .name("message")
+                    .addSamplingTimeIsoUTC("time")
+                    .addField("msg", fac.createChoice()
+                        .addItem("temp", fac.createQuantity().uomCode("Cel").build())
+                        .addItem("status", fac.createRecord()
+                            .addField("code", fac.createCount().build())
+                            .addField("text", fac.createText().build())
+                            .build())
+                        .build())
+                    .build();
+    
+            case FIXED_ARRAY:
+                return fac.createRecord()
+                    .name("spectrum")
+                    .addSamplingTimeIsoUTC("time")
+                    .addField("power", fac.createArray()
+                        .withFixedSize(256)
+                        .withElement("val", fac.createQuantity().uomCode("dB").build())
+                        .build())
+                    .build();
+    
+            default:
+                throw new IllegalArgumentException("Unknown structure: " + type);
+        }
+    }
+    
+    
+    public static DataEncoding createEncoding(String type, DataComponent struct)
+    {
+        switch (type)
+        {
+            case TEXT:
+                return fac.newTextEncoding(",", "\n");
+    
+            case BINARY:
+                return SWEHelper.getDefaultBinaryEncoding(struct);
+    
+            case JSON:
+                return new JSONEncodingImpl();
+    
+            case XML:
+                return new XMLEncodingImpl();
+    
+            default:
+                throw new IllegalArgumentException("Unknown encoding: " + type);
+        }
+    }
+    
+    
+    public static List<DataBlock> createRecords(String type, DataComponent struct, int numRecords)
+    {
+        var random = new Random(numRecords);
+        var records = new ArrayList<DataBlock>(numRecords);
+    
+        for (int r = 0; r < numRecords; r++)
+        {
+            DataBlock rec;
+    
+            if (VAR_ARRAY.equals(type))
+            {
+                int arraySize = 10 + random.nextInt(40);
+                ((DataArray)((DataRecord)struct).getField("points")).updateSize(arraySize);
+                rec = struct.createDataBlock();
+                fill(rec, random);
+                rec.setIntValue(1, arraySize);
+            }
+            else if (CHOICE.equals(type))
+            {
+                int selectedItem = r % 2;
+                rec = struct.createDataBlock();
+                struct.setData(rec);
+                ((DataChoice)((DataRecord)struct).getField("msg")).setSelectedItem(selectedItem);
+                rec = struct.getData();
+                fill(rec, random);
+                rec.setIntValue(1, selectedItem);
+            }
+            else
+            {
+                rec = struct.createDataBlock();
+                fill(rec, random);
+            }
+    
+            // first field is always the sampling time
+            rec.setDoubleValue(0, START_TIME + r * 0.1);
+            records.add(rec);
+        }
+    
+        return records;
+    }
+    
+    
+    static void fill(DataBlock rec, Random random)
+    {
+        for (int i = 0; i < rec.getAtomCount(); i++)
+        {
+            switch (rec.getDataType(i))
+            {
+                case BOOLEAN:
+                    rec.setBooleanValue(i, random.nextBoolean());
+                    break;
+    
+                case FLOAT:
+                case DOUBLE:
+                    rec.setDoubleValue(i, Math.round(random.nextGaussian() * 1e5) / 1e3);
+                    break;
+    
+                case UTF_STRING:
+                case ASCII_STRING:
+                    rec.setStringValue(i, "val" + random.nextInt(100));
+                    break;
+    
+                default:
+                    rec.setIntValue(i, random.nextInt(1000));
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.bench;
+
+import static org.vast.swe.bench.BenchStructures.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vast.swe.SWEJsonBindings;
+import org.vast.swe.SWEStaxBindings;
+import com.ctc.wstx.stax.WstxInputFactory;
+import com.ctc.wstx.stax.WstxOutputFactory;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import net.opengis.swe.v20.DataComponent;
+
+
+/**
+ * <p>
+ * Benchmarks of SWE Common component description serialization using
+ * the XML (StAX) and JSON bindings.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComponentBindingsBenchmark
+{
+    @Param({FLAT, NESTED, VAR_ARRAY, CHOICE})
+    String structure;
+    
+    DataComponent dataStruct;
+    XMLInputFactory xmlInputFactory = new WstxInputFactory();
+    XMLOutputFactory xmlOutputFactory = new WstxOutputFactory();
+    byte[] xmlData;
+    byte[] jsonData;
+    
+    
+    @Setup
+    public void setup() throws Exception
+    {
+        dataStruct = createStructure(structure);
+        xmlData = writeXml().toByteArray();
+        jsonData = writeJson().toByteArray();
+    }
+    
+    
+    @Benchmark
+    public ByteArrayOutputStream writeXml() throws Exception
+    {
+        var os = new ByteArrayOutputStream(xmlData != null ? xmlData.length : 1024);
+        SWEStaxBindings sweBindings = new SWEStaxBindings();
+        XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(os, StandardCharsets.UTF_8.name());
+        sweBindings.setNamespacePrefixes(writer);
+        writer.writeStartDocument();
+        sweBindings.declareNamespacesOnRootElement();
+        sweBindings.writeDataComponent(writer, dataStruct, false);
+        writer.writeEndDocument();
+        writer.close();
+        return os;
+    }
+    
+    
+    @Benchmark
+    public DataComponent readXml() throws Exception
+    {
+        SWEStaxBindings sweBindings = new SWEStaxBindings();
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(xmlData));
+        reader.nextTag();
+        DataComponent comp = sweBindings.readDataComponent(reader);
+        reader.close();
+        return comp;
+    }
+    
+    
+    @Benchmark
+    public ByteArrayOutputStream writeJson() throws Exception
+    {
+        var os = new ByteArrayOutputStream(jsonData != null ? jsonData.length : 1024);
+        SWEJsonBindings sweBindings = new SWEJsonBindings();
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+        sweBindings.writeDataComponent(writer, dataStruct, false);
+        writer.close();
+        return os;
+    }
+    
+    
+    @Benchmark
+    public DataComponent readJson() throws Exception
+    {
+        SWEJsonBindings sweBindings = new SWEJsonBindings();
+        JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(jsonData), StandardCharsets.UTF_8));
+        DataComponent comp = sweBindings.readDataComponent(reader);
+        reader.close();
+        return comp;
+    }
+}
@@ -0,0 +1,168 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vast.data.DataBlockList;
+import org.vast.data.DataBlockMixed;
+import org.vast.data.DataBlockParallel;
+import org.vast.swe.helper.GeoPosHelper;
+import net.opengis.swe.v20.DataBlock;
+import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataRecord;
+
+
+/**
+ * <p>
+ * Benchmarks of indexed get/set access to the composite datablock
+ * implementations.<br/>
+ * Each invocation accesses all atoms of the block once, so throughput is
+ * reported in passes over the whole block per second. The atom count
+ * depends on the parameters (1+3*numElts for mixed, 4*numElts for list
+ * and 3*numElts for parallel blocks), so multiply by it to get atoms
+ * accessed per second.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataBlockAccessBenchmark
+{
+    static final String MIXED = "mixed";
+    static final String LIST = "list";
+    static final String PARALLEL = "parallel";
+    
+    @Param({MIXED, LIST, PARALLEL})
+    String blockType;
+    
+    @Param({"100", "10000"})
+    int numElts;
+    
+    DataBlock dataBlock;
+    int[] randomIndexes;
+    
+    
+    @Setup
+    public void setup()
+    {
+        GeoPosHelper fac = new GeoPosHelper();
+        
+        switch (blockType)
+        {
+            // record with many vector fields
+            case MIXED:
+                var builder = fac.createRecord()
+                    .addSamplingTimeIsoUTC("time");
+                for (int i = 0; i < numElts; i++)
+                    builder.addField("loc" + i, fac.createLocationVectorLLA().build());
+                dataBlock = builder.build().createDataBlock();
+                break;
+            
+            // array of records containing a vector
+            case LIST:
+                DataRecord listElt = fac.createRecord()
+                    .addSamplingTimeIsoUTC("time")
+                    .addField("location", fac.createLocationVectorLLA().build())
+                    .build();
+                dataBlock = fac.createArray()
+                    .withFixedSize(numElts)
+                    .withElement("elt", listElt)
+                    .build().createDataBlock();
+                break;
+            
+            // array of records with scalars of different types
+            case PARALLEL:
+                DataComponent parallelElt = fac.createRecord()
+                    .addSamplingTimeIsoUTC("time")
+                    .addField("temp", fac.createQuantity().build())
+                    .addField("count", fac.createCount().build())
+                    .build();
+                dataBlock = fac.createArray()
+                    .withFixedSize(numElts)
+                    .withElement("elt", parallelElt)
+                    .build().createDataBlock();
+                break;
+                
+            default:
+                throw new IllegalArgumentException("Unknown block type: " + blockType);
+        }
+        
+        if (!(dataBlock instanceof DataBlockMixed || dataBlock instanceof DataBlockList || dataBlock instanceof DataBlockParallel))
+            throw new IllegalStateException("Unexpected datablock type: " + dataBlock.getClass().getSimpleName());
+        
+        var random = new Random(numElts);
+        randomIndexes = new int[dataBlock.getAtomCount()];
+        for (int i = 0; i < randomIndexes.length; i++)
+            randomIndexes[i] = random.nextInt(randomIndexes.length);
+    }
+    
+    
+    @Benchmark
+    public double getSequential()
+    {
+        double sum = 0;
+        int atomCount = dataBlock.getAtomCount();
+        for (int i = 0; i < atomCount; i++)
+            sum += dataBlock.getDoubleValue(i);
+        return sum;
+    }
+    
+    
+    @Benchmark
+    public double getRandom()
+    {
+        double sum = 0;
+        for (int i: randomIndexes)
+            sum += dataBlock.getDoubleValue(i);
+        return sum;
+    }
+    
+    
+    @Benchmark
+    public DataBlock setSequential()
+    {
+        int atomCount = dataBlock.getAtomCount();
+        for (int i = 0; i < atomCount; i++)
+            dataBlock.setDoubleValue(i, i);
+        return dataBlock;
+    }
+    
+    
+    @Benchmark
+    public DataBlock setRandom()
+    {
+        for (int i: randomIndexes)
+            dataBlock.setDoubleValue(i, i);
+        return dataBlock;
+    }
+}
@@ -0,0 +1,70 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.swe.bench;
+
+import static org.vast.swe.bench.BenchStructures.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * <p>
+ * Benchmarks of the fast text and binary parsers and writers with and
+ * without flattening of the processor tree.<br/>
+ * Structures that cannot be flattened (variable size arrays and choices)
+ * are included to check that the fallback to the processor tree has no
+ * overhead.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class FlattenedCodecBenchmark extends AbstractCodecBenchmark
+{
+    @Param({TEXT, BINARY})
+    String encoding;
+    
+    @Param({"false", "true"})
+    boolean flatten;
+    
+    
+    @Setup
+    public void setup() throws IOException
+    {
+        flattenTree = flatten;
+        setup(encoding, false);
+    }
+    
+    
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public ByteArrayOutputStream write() throws IOException
+    {
+        return write(false);
+    }
+    
+    
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public int parse(Blackhole bh) throws IOException
+    {
+        return parse(false, bh);
+    }
+}
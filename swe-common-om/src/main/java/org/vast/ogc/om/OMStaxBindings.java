@@ -0,0 +1,711 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.ogc.om;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map.Entry;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import net.opengis.gml.v32.AbstractFeature;
+import net.opengis.gml.v32.AbstractTimeGeometricPrimitive;
+import net.opengis.gml.v32.impl.CodeWithAuthorityImpl;
+import net.opengis.swe.v20.AbstractSWEIdentifiable;
+import net.opengis.swe.v20.DataArray;
+import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataEncoding;
+import net.opengis.swe.v20.EncodedValues;
+import org.vast.cdm.common.DataStreamWriter;
+import org.vast.ogc.def.DefinitionRef;
+import org.vast.ogc.gml.FeatureRef;
+import org.vast.ogc.gml.GMLStaxBindings;
+import org.vast.ogc.gml.GMLUtils;
+import org.vast.ogc.gml.GmlIdGenerator;
+import org.vast.ogc.gml.IFeature;
+import org.vast.ogc.gml.SequentialIdGenerator;
+import org.vast.ogc.xlink.CachedReference;
+import org.vast.ogc.xlink.IXlinkReference;
+import org.vast.swe.SWEHelper;
+import org.vast.swe.SWEStaxBindings;
+import org.vast.util.TimeExtent;
+import org.vast.xml.DOMHelper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+
+/**
+ * <p>
+ * StAX bindings for O&M 2.0 observations, allowing large collections of
+ * observations (e.g. GetObservation responses) to be written and read one
+ * at a time, without building a DOM tree of the whole document.
+ * </p><p>
+ * The XML produced is the same as with {@link ObservationWriterV20}.
+ * When several observations are written to the same stream, namespaces are
+ * declared only once if {@link #declareNamespacesOnRootElement()} is called
+ * before writing the first element. Encoded values of array results are
+ * streamed directly to the XML writer instead of being buffered as text.
+ * Writers should be created with
+ * {@link org.vast.xml.XMLImplFinder#getAttributeEscapingStaxOutputFactory()}
+ * so that tabs and line breaks used as encoding separators are preserved.
+ * </p><p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @author Alex Robin
+ * @since Oct 18, 2026
+ */
+public class OMStaxBindings extends GMLStaxBindings
+{
+    public final static String NS_PREFIX_OM = "om";
+    public final static String NS_PREFIX_SWE = "swe";
+    public final static String OM_NS_URI = "http://www.opengis.net/om/2.0";
+    public final static QName DEFAULT_QNAME = new QName(OM_NS_URI, "OM_Observation", NS_PREFIX_OM);
+
+    protected SWEStaxBindings sweBindings;
+    protected GmlIdGenerator<IObservation> obsIds = new SequentialIdGenerator<>("OBS_", true);
+    protected Document domDoc;
+
+
+    /*
+     * SWE bindings writing encoded values of arrays in chunks
+     */
+    protected static class StreamingSWEBindings extends SWEStaxBindings
+    {
+        @Override
+        public void writeEncodedValuesPropertyType(XMLStreamWriter writer, AbstractSWEIdentifiable blockComponent, DataEncoding encoding, EncodedValues bean) throws XMLStreamException
+        {
+            if (!(blockComponent instanceof DataArray) || bean.hasHref())
+            {
+                super.writeEncodedValuesPropertyType(writer, blockComponent, encoding, bean);
+                return;
+            }
+
+            writePropertyAttributes(writer, bean);
+
+            // force base64 on a copy if byte encoding is raw
+            DataEncoding xmlEncoding = SWEHelper.ensureXmlCompatible(encoding);
+
+            try (CharactersOutputStream os = new CharactersOutputStream(writer))
+            {
+                DataStreamWriter dataWriter = SWEHelper.createDataWriter(xmlEncoding);
+                dataWriter.setParentArray((DataArray)blockComponent);
+                dataWriter.write(os);
+                dataWriter.flush();
+            }
+            catch (IOException e)
+            {
+                throw new XMLStreamException("Error while writing encoded values", e);
+            }
+        }
+    }
+
+
+    /*
+     * Output stream forwarding UTF-8 bytes as characters to the XML writer
+     */
+    protected static class CharactersOutputStream extends OutputStream
+    {
+        final XMLStreamWriter writer;
+        final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        final ByteBuffer bytes = ByteBuffer.allocate(8192);
+        final CharBuffer chars = CharBuffer.allocate(8192);
+
+        CharactersOutputStream(XMLStreamWriter writer)
+        {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            if (!bytes.hasRemaining())
+                drain(false);
+            bytes.put((byte)b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            while (len > 0)
+            {
+                if (!bytes.hasRemaining())
+                    drain(false);
+
+                int n = Math.min(len, bytes.remaining());
+                bytes.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            // the XML writer is not closed since it's still in use
+            drain(true);
+        }
+
+        void drain(boolean endOfInput) throws IOException
+        {
+            try
+            {
+                bytes.flip();
+                while (decoder.decode(bytes, chars, endOfInput).isOverflow())
+                    writeChars();
+                if (endOfInput)
+                    decoder.flush(chars);
+                writeChars();
+
+                // keep incomplete multi-byte sequences for next call
+                bytes.compact();
+            }
+            catch (XMLStreamException e)
+            {
+                throw new IOException("Error while writing XML characters", e);
+            }
+        }
+
+        void writeChars() throws XMLStreamException
+        {
+            chars.flip();
+            if (chars.hasRemaining())
+                writer.writeCharacters(chars.array(), 0, chars.limit());
+            chars.clear();
+        }
+    }
+
+
+    public OMStaxBindings()
+    {
+        super(true);
+        nsContext.registerNamespace(NS_PREFIX_OM, OM_NS_URI);
+        nsContext.registerNamespace(NS_PREFIX_SWE, SWEStaxBindings.NS_URI);
+        registerFeatureBinding(new SamplingFeatureReader());
+
+        sweBindings = new StreamingSWEBindings();
+        sweBindings.setNamespaceContext(nsContext);
+    }
+
+
+    /**
+     * Writes an observation to the XML stream
+     * @param writer XML stream writer, positioned where the observation
+     * element should be written
+     * @param obs observation to write
+     * @throws XMLStreamException if the observation cannot be written
+     */
+    public void writeObservation(XMLStreamWriter writer, IObservation obs) throws XMLStreamException
+    {
+        QName qname = obs.getQName();
+        String eltName = (qname != null && OM_NS_URI.equals(qname.getNamespaceURI())) ?
+            qname.getLocalPart() : DEFAULT_QNAME.getLocalPart();
+        writer.writeStartElement(OM_NS_URI, eltName);
+        this.writeNamespaces(writer);
+
+        // gml:id
+        writer.writeAttribute(nsContext.getPrefix(NS_URI), NS_URI, "id", obsIds.nextId(obs));
+
+        // description
+        if (obs.getDescription() != null)
+        {
+            writer.writeStartElement(NS_URI, "description");
+            writer.writeCharacters(obs.getDescription());
+            writer.writeEndElement();
+        }
+
+        // identifier
+        if (obs.getUniqueIdentifier() != null)
+        {
+            writer.writeStartElement(NS_URI, "identifier");
+            writer.writeAttribute("codeSpace", "uid");
+            writer.writeCharacters(obs.getUniqueIdentifier());
+            writer.writeEndElement();
+        }
+
+        // name
+        if (obs.getName() != null)
+        {
+            writer.writeStartElement(NS_URI, "name");
+            writer.writeCharacters(obs.getName());
+            writer.writeEndElement();
+        }
+
+        // type
+        if (obs.getType() != null)
+        {
+            writer.writeStartElement(OM_NS_URI, "type");
+            writer.writeAttribute(XLINK_NS_URI, "href", obs.getType());
+            writer.writeEndElement();
+        }
+
+        // related observations
+        if (obs.getRelatedObservations() != null)
+        {
+            for (IXlinkReference<IObservation> obsRef: obs.getRelatedObservations())
+            {
+                writer.writeStartElement(OM_NS_URI, "relatedObservation");
+                writer.writeStartElement(OM_NS_URI, "ObservationContext");
+
+                if (obsRef.getRole() != null)
+                {
+                    writer.writeStartElement(OM_NS_URI, "role");
+                    writer.writeCharacters(obsRef.getRole());
+                    writer.writeEndElement();
+                }
+
+                writer.writeStartElement(OM_NS_URI, "relatedObservation");
+                writer.writeCharacters(obsRef.getHref());
+                writer.writeEndElement();
+
+                writer.writeEndElement();
+                writer.writeEndElement();
+            }
+        }
+
+        // phenomenon and result time (mandatory)
+        writeTimeProperty(writer, "phenomenonTime", obs.getPhenomenonTime());
+        writeTimeProperty(writer, "resultTime", obs.getResultTime() != null ? TimeExtent.instant(obs.getResultTime()) : null);
+
+        // valid time
+        if (obs.getValidTime() != null)
+            writeTimeProperty(writer, "validTime", obs.getValidTime());
+
+        // procedure
+        IProcedure proc = obs.getProcedure();
+        writer.writeStartElement(OM_NS_URI, "procedure");
+        if (proc instanceof ProcedureRef)
+            writeXlinkAttributes(writer, (ProcedureRef)proc);
+        else if (proc instanceof ProcedureXML)
+            writeDomElement(writer, ((ProcedureXML)proc).getDomElement());
+        else if (proc != null)
+            throw new XMLStreamException("Unsupported procedure type: " + proc.getClass().getCanonicalName());
+        else
+            writer.writeAttribute(XSI_NS_URI, "nil", "true");
+        writer.writeEndElement();
+
+        // parameters
+        if (obs.getParameters() != null)
+        {
+            for (Entry<String, Object> param: obs.getParameters().entrySet())
+                writeParameter(writer, param.getKey(), param.getValue());
+        }
+
+        // observedProperty
+        writer.writeStartElement(OM_NS_URI, "observedProperty");
+        if (obs.getObservedProperty() != null)
+            writer.writeAttribute(XLINK_NS_URI, "href", obs.getObservedProperty().getHref());
+        else
+            writer.writeAttribute(XSI_NS_URI, "nil", "true");
+        writer.writeEndElement();
+
+        // foi
+        IFeature foi = obs.getFeatureOfInterest();
+        writer.writeStartElement(OM_NS_URI, "featureOfInterest");
+        if (foi instanceof FeatureRef)
+            writeXlinkAttributes(writer, (FeatureRef<?>)foi);
+        else if (foi instanceof AbstractFeature)
+            writeAbstractFeature(writer, (AbstractFeature)foi);
+        else if (foi != null)
+            writeGenericFeature(writer, foi);
+        else
+            writer.writeAttribute(XSI_NS_URI, "nil", "true");
+        writer.writeEndElement();
+
+        // result quality as raw XML
+        if (obs.getResultQuality() != null)
+        {
+            for (Object quality: obs.getResultQuality())
+            {
+                if (quality instanceof Element)
+                {
+                    writer.writeStartElement(OM_NS_URI, "resultQuality");
+                    writeDomElement(writer, (Element)quality);
+                    writer.writeEndElement();
+                }
+            }
+        }
+
+        // result
+        writer.writeStartElement(OM_NS_URI, "result");
+        DataComponent result = obs.getResult();
+        if (result != null)
+        {
+            writer.writeAttribute(XSI_NS_URI, "type", NS_PREFIX_SWE + ":" + getComponentElementName(result) + "PropertyType");
+            sweBindings.writeDataComponent(writer, result, true);
+        }
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+    }
+
+
+    protected void writeTimeProperty(XMLStreamWriter writer, String propName, TimeExtent time) throws XMLStreamException
+    {
+        writer.writeStartElement(OM_NS_URI, propName);
+        AbstractTimeGeometricPrimitive timePrimitive = GMLUtils.timeExtentToTimePrimitive(time, false, getFactory());
+        this.writeAbstractTimeGeometricPrimitive(writer, timePrimitive);
+        writer.writeEndElement();
+    }
+
+
+    protected void writeParameter(XMLStreamWriter writer, String name, Object value) throws XMLStreamException
+    {
+        writer.writeStartElement(OM_NS_URI, "parameter");
+        writer.writeStartElement(OM_NS_URI, "NamedValue");
+
+        writer.writeStartElement(OM_NS_URI, "name");
+        writer.writeAttribute(XLINK_NS_URI, "href", name);
+        writer.writeEndElement();
+
+        writer.writeStartElement(OM_NS_URI, "value");
+        if (value instanceof DataComponent)
+            sweBindings.writeDataComponent(writer, (DataComponent)value, true);
+        else if (value instanceof String || value instanceof Number || value instanceof Boolean)
+            writer.writeCharacters(value.toString());
+        else if (value instanceof Element)
+            writeDomElement(writer, (Element)value);
+        else
+            throw new XMLStreamException("Unsupported parameter type: " + value.getClass());
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+        writer.writeEndElement();
+    }
+
+
+    protected String getComponentElementName(DataComponent comp)
+    {
+        // find SWE Common interface implemented by this component
+        for (Class<?> c = comp.getClass(); c != null; c = c.getSuperclass())
+        {
+            for (Class<?> itf: c.getInterfaces())
+            {
+                if (DataComponent.class.isAssignableFrom(itf) && itf.getPackage() == DataComponent.class.getPackage())
+                    return itf.getSimpleName();
+            }
+        }
+
+        return "AbstractDataComponent";
+    }
+
+
+    /**
+     * Reads an observation from the XML stream
+     * @param reader XML stream reader positioned on the observation element.
+     * When this method returns, the reader is positioned on the matching end tag.
+     * @return new observation instance
+     * @throws XMLStreamException if the observation cannot be parsed
+     */
+    public IObservation readObservation(XMLStreamReader reader) throws XMLStreamException
+    {
+        ObservationImpl obs = new ObservationImpl();
+        obs.setId(reader.getAttributeValue(NS_URI, "id"));
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+        {
+            String localName = reader.getLocalName();
+
+            if (isNil(reader))
+            {
+                skipElementAndAllChildren(reader, false);
+                continue;
+            }
+
+            switch (localName)
+            {
+                case "description":
+                    obs.setDescription(reader.getElementText());
+                    break;
+
+                case "identifier":
+                    obs.setUniqueIdentifier(reader.getElementText());
+                    break;
+
+                case "name":
+                    String codeSpace = reader.getAttributeValue(null, "codeSpace");
+                    obs.getNameList().add(new CodeWithAuthorityImpl(codeSpace, reader.getElementText()));
+                    break;
+
+                case "type":
+                    obs.setType(reader.getAttributeValue(XLINK_NS_URI, "href"));
+                    skipElementAndAllChildren(reader, false);
+                    break;
+
+                case "relatedObservation":
+                    reader.nextTag();
+                    obs.addRelatedObservation(readObservationContext(reader));
+                    reader.nextTag();
+                    break;
+
+                case "phenomenonTime":
+                    obs.setPhenomenonTime(readTimeProperty(reader));
+                    break;
+
+                case "resultTime":
+                    TimeExtent resultTime = readTimeProperty(reader);
+                    if (resultTime != null)
+                        obs.setResultTime(resultTime.begin());
+                    break;
+
+                case "validTime":
+                    obs.setValidTime(readTimeProperty(reader));
+                    break;
+
+                case "procedure":
+                    if (reader.getAttributeValue(XLINK_NS_URI, "href") != null)
+                    {
+                        ProcedureRef ref = new ProcedureRef();
+                        readXlinkAttributes(collectAttributes(reader), ref);
+                        obs.setProcedure(ref);
+                        skipElementAndAllChildren(reader, false);
+                    }
+                    else if (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+                    {
+                        // read procedure as raw XML
+                        obs.setProcedure(new ProcedureXML(readDomElement(reader)));
+                        reader.nextTag();
+                    }
+                    break;
+
+                case "parameter":
+                    reader.nextTag();
+                    readParameter(reader, obs);
+                    reader.nextTag();
+                    break;
+
+                case "observedProperty":
+                    DefinitionRef ref = new DefinitionRef();
+                    readXlinkAttributes(collectAttributes(reader), ref);
+                    obs.setObservedProperty(ref);
+                    skipElementAndAllChildren(reader, false);
+                    break;
+
+                case "featureOfInterest":
+                    obs.setFeatureOfInterest(readFOI(reader));
+                    break;
+
+                case "resultQuality":
+                    // result quality as raw XML
+                    if (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+                    {
+                        obs.addResultQuality(readDomElement(reader));
+                        reader.nextTag();
+                    }
+                    break;
+
+                case "result":
+                    if (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+                    {
+                        obs.setResult(sweBindings.readDataComponent(reader));
+                        reader.nextTag();
+                    }
+                    break;
+
+                default:
+                    skipElementAndAllChildren(reader, false);
+            }
+        }
+
+        return obs;
+    }
+
+
+    protected IXlinkReference<IObservation> readObservationContext(XMLStreamReader reader) throws XMLStreamException
+    {
+        IXlinkReference<IObservation> obsRef = new CachedReference<>();
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+        {
+            if ("role".equals(reader.getLocalName()))
+                obsRef.setRole(reader.getElementText());
+            else if ("relatedObservation".equals(reader.getLocalName()))
+            {
+                String href = reader.getAttributeValue(XLINK_NS_URI, "href");
+                String text = reader.getElementText();
+                obsRef.setHref(href != null ? href : text.trim());
+            }
+            else
+                skipElementAndAllChildren(reader, false);
+        }
+
+        return obsRef;
+    }
+
+
+    protected TimeExtent readTimeProperty(XMLStreamReader reader) throws XMLStreamException
+    {
+        if (reader.nextTag() != XMLStreamConstants.START_ELEMENT)
+            return null;
+
+        AbstractTimeGeometricPrimitive timePrimitive = this.readAbstractTimeGeometricPrimitive(reader);
+        reader.nextTag();
+        return GMLUtils.timePrimitiveToTimeExtent(timePrimitive);
+    }
+
+
+    protected void readParameter(XMLStreamReader reader, ObservationImpl obs) throws XMLStreamException
+    {
+        String name = null;
+        Object value = null;
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+        {
+            if ("name".equals(reader.getLocalName()))
+            {
+                name = reader.getAttributeValue(XLINK_NS_URI, "href");
+                skipElementAndAllChildren(reader, false);
+            }
+            else if ("value".equals(reader.getLocalName()))
+                value = readParameterValue(reader);
+            else
+                skipElementAndAllChildren(reader, false);
+        }
+
+        obs.addParameter(name, value);
+    }
+
+
+    protected Object readParameterValue(XMLStreamReader reader) throws XMLStreamException
+    {
+        StringBuilder text = new StringBuilder();
+        Object value = null;
+
+        while (reader.next() != XMLStreamConstants.END_ELEMENT)
+        {
+            if (reader.isStartElement())
+            {
+                if (SWEStaxBindings.NS_URI.equals(reader.getNamespaceURI()))
+                    value = sweBindings.readDataComponent(reader);
+                else
+                    value = readDomElement(reader);
+            }
+            else if (reader.isCharacters())
+                text.append(reader.getText());
+        }
+
+        return value != null ? value : text.toString().trim();
+    }
+
+
+    protected IFeature readFOI(XMLStreamReader reader) throws XMLStreamException
+    {
+        if (reader.getAttributeValue(XLINK_NS_URI, "href") != null)
+        {
+            FeatureRef<?> ref = new FeatureRef<>();
+            readXlinkAttributes(collectAttributes(reader), ref);
+            skipElementAndAllChildren(reader, false);
+            return ref;
+        }
+
+        IFeature foi = null;
+        if (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+        {
+            foi = readAbstractFeature(reader);
+            reader.nextTag();
+        }
+
+        return foi;
+    }
+
+
+    protected boolean isNil(XMLStreamReader reader)
+    {
+        return "true".equalsIgnoreCase(reader.getAttributeValue(XSI_NS_URI, "nil"));
+    }
+
+
+    /*
+     * Copies a DOM element and all its children to the XML stream
+     */
+    protected void writeDomElement(XMLStreamWriter writer, Element elt) throws XMLStreamException
+    {
+        String nsUri = elt.getNamespaceURI();
+        String localName = elt.getLocalName() != null ? elt.getLocalName() : elt.getNodeName();
+        String prefix = elt.getPrefix() != null ? elt.getPrefix() : XMLConstants.DEFAULT_NS_PREFIX;
+
+        if (nsUri != null)
+        {
+            boolean declareNs = !nsUri.equals(writer.getNamespaceContext().getNamespaceURI(prefix));
+            writer.writeStartElement(prefix, localName, nsUri);
+            if (declareNs)
+                writer.writeNamespace(prefix, nsUri);
+        }
+        else
+            writer.writeStartElement(localName);
+
+        NamedNodeMap atts = elt.getAttributes();
+        for (int i = 0; i < atts.getLength(); i++)
+        {
+            Node att = atts.item(i);
+            String attNsUri = att.getNamespaceURI();
+
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attNsUri))
+                continue;
+            else if (attNsUri != null)
+            {
+                String attPrefix = att.getPrefix() != null ? att.getPrefix() : nsContext.getPrefix(attNsUri);
+                writer.writeAttribute(attPrefix, attNsUri, att.getLocalName(), att.getNodeValue());
+            }
+            else
+                writer.writeAttribute(att.getLocalName() != null ? att.getLocalName() : att.getNodeName(), att.getNodeValue());
+        }
+
+        for (Node node = elt.getFirstChild(); node != null; node = node.getNextSibling())
+        {
+            if (node.getNodeType() == Node.ELEMENT_NODE)
+                writeDomElement(writer, (Element)node);
+            else if (node.getNodeType() == Node.TEXT_NODE || node.getNodeType() == Node.CDATA_SECTION_NODE)
+                writer.writeCharacters(node.getNodeValue());
+        }
+
+        writer.writeEndElement();
+    }
+
+
+    /*
+     * Reads the current element and all its children as a DOM element.
+     * The reader is left on the matching end tag.
+     */
+    protected Element readDomElement(XMLStreamReader reader) throws XMLStreamException
+    {
+        if (domDoc == null)
+        {
+            try
+            {
+                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                factory.setNamespaceAware(true);
+                domDoc = factory.newDocumentBuilder().newDocument();
+            }
+            catch (ParserConfigurationException e)
+            {
+                throw new XMLStreamException("Cannot create DOM document", e);
+            }
+        }
+
+        return DOMHelper.readFromStreamReader(reader, domDoc);
+    }
+}
@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
@@ -111,6 +112,11 @@ public class SamplingFeatureReader extends GMLStaxBindings implements IFeatureSt
         reader.nextTag();
         AbstractGeometry geom = readAbstractGeometry(reader);
         newFeature.setShape(geom);
+        reader.nextTag();
+        
+        // skip remaining properties so reader is left on feature end tag
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+            skipElementAndAllChildren(reader, false);
         
         return newFeature.getAsSpecializedType();
     }
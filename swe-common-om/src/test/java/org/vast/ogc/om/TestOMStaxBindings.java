@@ -0,0 +1,246 @@
+/***************************** BEGIN LICENSE BLOCK ***************************
+
+The contents of this file are subject to the Mozilla Public License, v. 2.0.
+If a copy of the MPL was not distributed with this file, You can obtain one
+at http://mozilla.org/MPL/2.0/.
+
+Software distributed under the License is distributed on an "AS IS" basis,
+WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+for the specific language governing rights and limitations under the License.
+
+Copyright (C) 2026 Sensia Software LLC. All Rights Reserved.
+
+******************************* END LICENSE BLOCK ***************************/
+
+package org.vast.ogc.om;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.custommonkey.xmlunit.XMLTestCase;
+import org.custommonkey.xmlunit.XMLUnit;
+import org.vast.ogc.def.DefinitionRef;
+import org.vast.swe.SWEHelper;
+import org.vast.util.TimeExtent;
+import org.vast.xml.DOMHelper;
+import org.vast.xml.XMLImplFinder;
+import net.opengis.swe.v20.BinaryEncoding;
+import net.opengis.swe.v20.ByteEncoding;
+import net.opengis.swe.v20.DataArray;
+import net.opengis.swe.v20.DataComponent;
+import net.opengis.swe.v20.DataRecord;
+import net.opengis.swe.v20.TextEncoding;
+
+
+public class TestOMStaxBindings extends XMLTestCase
+{
+    static final String[] EXAMPLES = {
+        "examples_v20/sweScalarObservation4.xml",
+        "examples_v20/sweRecordObservation3.xml",
+        "examples_v20/sweArrayObservation1.xml",
+        "examples_v20/sweArrayObservation2.xml",
+        "examples_v20/weatherObservation.xml"
+    };
+
+    OMUtils omUtils = new OMUtils(OMUtils.V2_0);
+
+
+    @Override
+    public void setUp() throws Exception
+    {
+        XMLUnit.setIgnoreComments(true);
+        XMLUnit.setIgnoreWhitespace(true);
+        XMLUnit.setNormalizeWhitespace(true);
+    }
+
+
+    protected byte[] writeObservations(List<IObservation> obsList) throws Exception
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        XMLStreamWriter writer = XMLImplFinder.getAttributeEscapingStaxOutputFactory().createXMLStreamWriter(os, "UTF-8");
+        OMStaxBindings omBindings = new OMStaxBindings();
+
+        writer.writeStartDocument();
+        omBindings.setNamespacePrefixes(writer);
+        omBindings.declareNamespacesOnRootElement();
+        if (obsList.size() > 1)
+        {
+            writer.writeStartElement(OMStaxBindings.OM_NS_URI, "observations");
+            omBindings.writeNamespaces(writer);
+        }
+
+        for (IObservation obs: obsList)
+            omBindings.writeObservation(writer, obs);
+
+        writer.writeEndDocument();
+        writer.close();
+        return os.toByteArray();
+    }
+
+
+    protected List<IObservation> readObservations(byte[] xml) throws Exception
+    {
+        List<IObservation> obsList = new ArrayList<>();
+        XMLStreamReader reader = XMLImplFinder.getStaxInputFactory().createXMLStreamReader(new ByteArrayInputStream(xml));
+        OMStaxBindings omBindings = new OMStaxBindings();
+
+        reader.nextTag();
+        if (reader.getLocalName().equals("observations"))
+        {
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+                obsList.add(omBindings.readObservation(reader));
+        }
+        else
+            obsList.add(omBindings.readObservation(reader));
+
+        reader.close();
+        return obsList;
+    }
+
+
+    protected DOMHelper writeWithDom(IObservation obs) throws Exception
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        omUtils.writeObservation(os, obs, OMUtils.V2_0);
+        return new DOMHelper(new ByteArrayInputStream(os.toByteArray()), false);
+    }
+
+
+    public void testWriteReadExamples() throws Exception
+    {
+        for (String path: EXAMPLES)
+        {
+            InputStream is = getClass().getResourceAsStream(path);
+            DOMHelper dom = new DOMHelper(is, false);
+            IObservation obs = omUtils.readObservation(dom, dom.getBaseElement());
+            is.close();
+
+            // StAX output must be readable by DOM reader
+            byte[] xml = writeObservations(List.of(obs));
+            IObservation obs2 = omUtils.readObservation(new ByteArrayInputStream(xml));
+            assertXMLEqual(writeWithDom(obs).getDocument(), writeWithDom(obs2).getDocument());
+
+            // and by StAX reader
+            IObservation obs3 = readObservations(xml).get(0);
+            assertXMLEqual(writeWithDom(obs).getDocument(), writeWithDom(obs3).getDocument());
+        }
+    }
+
+
+    public void testStreamManyObservations() throws Exception
+    {
+        int numObs = 10000;
+        SWEHelper fac = new SWEHelper();
+        DataRecord rec = fac.createRecord()
+            .addField("temp", fac.createQuantity().uomCode("Cel").build())
+            .addField("count", fac.createCount().build())
+            .build();
+
+        List<IObservation> obsList = new ArrayList<>(numObs);
+        Instant t0 = Instant.parse("2026-10-18T00:00:00Z");
+        for (int i = 0; i < numObs; i++)
+        {
+            ObservationImpl obs = new ObservationImpl();
+            obs.setPhenomenonTime(TimeExtent.instant(t0.plusSeconds(i)));
+            obs.setProcedure(new ProcedureRef("urn:sensor:" + (i % 10)));
+            obs.setObservedProperty(new DefinitionRef("urn:prop:weather"));
+            DataRecord result = rec.copy();
+            result.assignNewDataBlock();
+            result.getData().setDoubleValue(0, i * 0.1);
+            result.getData().setIntValue(1, i);
+            obs.setResult(result);
+            obsList.add(obs);
+        }
+
+        byte[] xml = writeObservations(obsList);
+
+        // namespaces are declared only once
+        String xmlString = new String(xml, "UTF-8");
+        assertEquals(xmlString.indexOf("xmlns:om="), xmlString.lastIndexOf("xmlns:om="));
+        assertEquals(xmlString.indexOf("xmlns:swe="), xmlString.lastIndexOf("xmlns:swe="));
+
+        List<IObservation> readList = readObservations(xml);
+        assertEquals(numObs, readList.size());
+        for (int i = 0; i < numObs; i++)
+        {
+            IObservation obs = readList.get(i);
+            assertEquals(t0.plusSeconds(i), obs.getPhenomenonTime().begin());
+            assertEquals("urn:sensor:" + (i % 10), ((ProcedureRef)obs.getProcedure()).getHref());
+            assertEquals("urn:prop:weather", obs.getObservedProperty().getHref());
+            DataComponent result = obs.getResult();
+            assertEquals(i * 0.1, result.getComponent("temp").getData().getDoubleValue(), 1e-9);
+            assertEquals(i, result.getComponent("count").getData().getIntValue());
+        }
+    }
+
+
+    public void testWriteBinaryArrayKeepsEncoding() throws Exception
+    {
+        int arraySize = 16;
+        SWEHelper fac = new SWEHelper();
+        DataArray array = fac.createArray()
+            .withFixedSize(arraySize)
+            .withElement("point", fac.createRecord()
+                .addField("x", fac.createQuantity().uomCode("m").build())
+                .addField("y", fac.createQuantity().uomCode("m").build()))
+            .build();
+        BinaryEncoding encoding = SWEHelper.getDefaultBinaryEncoding(array.getElementType());
+        array.setEncoding(encoding);
+        array.assignNewDataBlock();
+        for (int i = 0; i < arraySize * 2; i++)
+            array.getData().setDoubleValue(i, i * 0.5);
+
+        ObservationImpl obs = new ObservationImpl();
+        obs.setPhenomenonTime(TimeExtent.instant(Instant.parse("2026-10-18T00:00:00Z")));
+        obs.setProcedure(new ProcedureRef("urn:sensor:1"));
+        obs.setObservedProperty(new DefinitionRef("urn:prop:distance"));
+        obs.setResult(array);
+
+        // values are written as base64 without changing the array encoding
+        writeObservations(List.of(obs));
+        assertEquals(ByteEncoding.RAW, encoding.getByteEncoding());
+        assertSame(encoding, array.getEncoding());
+    }
+
+
+    public void testWriteLineBreakSeparators() throws Exception
+    {
+        int arraySize = 10;
+        SWEHelper fac = new SWEHelper();
+        DataArray array = fac.createArray()
+            .withFixedSize(arraySize)
+            .withElement("point", fac.createRecord()
+                .addField("x", fac.createQuantity().uomCode("m").build())
+                .addField("y", fac.createQuantity().uomCode("m").build()))
+            .build();
+        array.setEncoding(fac.newTextEncoding("\t", "\n"));
+        array.assignNewDataBlock();
+        for (int i = 0; i < arraySize * 2; i++)
+            array.getData().setDoubleValue(i, i * 0.5);
+
+        ObservationImpl obs = new ObservationImpl();
+        obs.setPhenomenonTime(TimeExtent.instant(Instant.parse("2026-10-18T00:00:00Z")));
+        obs.setProcedure(new ProcedureRef("urn:sensor:1"));
+        obs.setObservedProperty(new DefinitionRef("urn:prop:distance"));
+        obs.setResult(array);
+
+        // separators must be escaped to survive attribute value normalization
+        byte[] xml = writeObservations(List.of(obs));
+        String xmlString = new String(xml, "UTF-8");
+        assertTrue(xmlString.contains("tokenSeparator=\"&#9;\""));
+        assertTrue(xmlString.contains("blockSeparator=\"&#10;\""));
+
+        DataArray array2 = (DataArray)readObservations(xml).get(0).getResult();
+        TextEncoding encoding = (TextEncoding)array2.getEncoding();
+        assertEquals("\t", encoding.getTokenSeparator());
+        assertEquals("\n", encoding.getBlockSeparator());
+        for (int i = 0; i < arraySize * 2; i++)
+            assertEquals(i * 0.5, array2.getData().getDoubleValue(i), 1e-9);
+    }
+}